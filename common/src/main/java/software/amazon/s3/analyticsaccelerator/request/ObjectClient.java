@@ -15,6 +15,7 @@
  */
 package software.amazon.s3.analyticsaccelerator.request;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.util.concurrent.CompletableFuture;
 
@@ -45,4 +46,93 @@ public interface ObjectClient extends Closeable {
    * @return an instance of {@link CompletableFuture} of type {@link ObjectContent}
    */
   CompletableFuture<ObjectContent> getObject(GetRequest getRequest, StreamContext streamContext);
+
+  /**
+   * Make a getObject request for the last bytes of an object, without knowing its length or etag.
+   * The returned content reports the {@link ObjectMetadata} of the object, and its stream holds the
+   * last {@link TailRequest#getLength()} bytes of the object, or the whole object if it is shorter.
+   *
+   * <p>The default implementation issues a headObject request followed by a getObject request,
+   * clients that can issue a single suffix range request should override it.
+   *
+   * @param tailRequest The GET request to be sent
+   * @param streamContext audit headers to be attached in the request header
+   * @return an instance of {@link CompletableFuture} of type {@link ObjectContent}
+   */
+  default CompletableFuture<ObjectContent> getObjectTail(
+      TailRequest tailRequest, StreamContext streamContext) {
+    return headObject(HeadRequest.builder().s3Uri(tailRequest.getS3Uri()).build())
+        .thenCompose(
+            metadata -> {
+              long contentLength = metadata.getContentLength();
+              if (contentLength == 0) {
+                return CompletableFuture.completedFuture(
+                    ObjectContent.builder()
+                        .stream(new ByteArrayInputStream(new byte[0]))
+                        .objectMetadata(metadata)
+                        .build());
+              }
+
+              long start = Math.max(0, contentLength - tailRequest.getLength());
+              GetRequest getRequest =
+                  GetRequest.builder()
+                      .s3Uri(tailRequest.getS3Uri())
+                      .range(new Range(start, contentLength - 1))
+                      .etag(metadata.getEtag())
+                      .referrer(tailRequest.getReferrer())
+                      .build();
+              return getObject(getRequest, streamContext)
+                  .thenApply(
+                      content ->
+                          ObjectContent.builder()
+                              .stream(content.getStream())
+                              .objectMetadata(metadata)
+                              .build());
+            });
+  }
+
+  /**
+   * Make a getObject request for the first bytes of an object, without knowing its length or etag.
+   * The returned content reports the {@link ObjectMetadata} of the object, and its stream holds the
+   * first {@link PrefixRequest#getLength()} bytes of the object, or the whole object if it is
+   * shorter.
+   *
+   * <p>The default implementation issues a headObject request followed by a getObject request,
+   * clients that can issue a single range request should override it.
+   *
+   * @param prefixRequest The GET request to be sent
+   * @param streamContext audit headers to be attached in the request header
+   * @return an instance of {@link CompletableFuture} of type {@link ObjectContent}
+   */
+  default CompletableFuture<ObjectContent> getObjectPrefix(
+      PrefixRequest prefixRequest, StreamContext streamContext) {
+    return headObject(HeadRequest.builder().s3Uri(prefixRequest.getS3Uri()).build())
+        .thenCompose(
+            metadata -> {
+              long contentLength = metadata.getContentLength();
+              if (contentLength == 0) {
+                return CompletableFuture.completedFuture(
+                    ObjectContent.builder()
+                        .stream(new ByteArrayInputStream(new byte[0]))
+                        .objectMetadata(metadata)
+                        .build());
+              }
+
+              long end = Math.min(contentLength, prefixRequest.getLength()) - 1;
+              GetRequest getRequest =
+                  GetRequest.builder()
+                      .s3Uri(prefixRequest.getS3Uri())
+                      .range(new Range(0, end))
+                      .etag(metadata.getEtag())
+                      .referrer(prefixRequest.getReferrer())
+                      .build();
+              return getObject(getRequest, streamContext)
+                  .thenApply(
+                      content ->
+                          ObjectContent.builder()
+                              .stream(content.getStream())
+                              .objectMetadata(metadata)
+                              .build());
+            });
+  }
 }
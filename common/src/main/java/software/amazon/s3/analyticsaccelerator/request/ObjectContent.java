@@ -24,4 +24,13 @@ import lombok.Data;
 @Builder
 public class ObjectContent {
   InputStream stream;
+
+  /**
+   * The metadata of the object, as reported by the response. Null when the client does not surface
+   * it.
+   *
+   * @param objectMetadata the object metadata to set
+   * @return the builder instance
+   */
+  ObjectMetadata objectMetadata;
 }
@@ -51,4 +51,43 @@ public interface StreamContext {
    * @return the modified and built referrer header as a String
    */
   public String modifyAndBuildReferrerHeader(GetRequest getRequestContext);
+
+  /**
+   * Modifies and builds the referrer header string for a request of the last bytes of an object. By
+   * default the header is built by {@link #modifyAndBuildReferrerHeader(GetRequest)} for a request
+   * of the same length. The offsets of the tail and the etag of the object are not known before the
+   * response, so the range of that request starts at 0 and its etag is empty; the referrer of the
+   * request holds the actual suffix range.
+   *
+   * @param tailRequestContext the request context for building the referrer header
+   * @return the modified and built referrer header as a String
+   */
+  default String modifyAndBuildTailReferrerHeader(TailRequest tailRequestContext) {
+    return modifyAndBuildReferrerHeader(
+        GetRequest.builder()
+            .s3Uri(tailRequestContext.getS3Uri())
+            .range(new Range(0, tailRequestContext.getLength() - 1))
+            .referrer(tailRequestContext.getReferrer())
+            .etag("")
+            .build());
+  }
+
+  /**
+   * Modifies and builds the referrer header string for a request of the first bytes of an object.
+   * By default the header is built by {@link #modifyAndBuildReferrerHeader(GetRequest)} for a
+   * request of the same range. The etag of the object is not known before the response and is left
+   * empty.
+   *
+   * @param prefixRequestContext the request context for building the referrer header
+   * @return the modified and built referrer header as a String
+   */
+  default String modifyAndBuildPrefixReferrerHeader(PrefixRequest prefixRequestContext) {
+    return modifyAndBuildReferrerHeader(
+        GetRequest.builder()
+            .s3Uri(prefixRequestContext.getS3Uri())
+            .range(new Range(0, prefixRequestContext.getLength() - 1))
+            .referrer(prefixRequestContext.getReferrer())
+            .etag("")
+            .build());
+  }
 }
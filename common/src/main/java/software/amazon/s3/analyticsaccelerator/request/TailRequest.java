@@ -0,0 +1,62 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.request;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Object representing arguments to a GetObject call for the last bytes of an object, a suffix range
+ * request. It is issued before the length and the etag of the object are known, and the response
+ * reports them.
+ */
+@Value
+public class TailRequest {
+  @NonNull S3URI s3Uri;
+  long length;
+  @NonNull Referrer referrer;
+
+  private static final String TO_HTTP_STRING_FORMAT = "bytes=-%d";
+
+  /**
+   * Creates a new instance of {@link TailRequest}.
+   *
+   * @param s3Uri the object to read
+   * @param length the number of bytes to read from the end of the object; the whole object is read
+   *     if it is shorter
+   * @param referrer the referrer header to attach to the request
+   */
+  @Builder
+  private TailRequest(@NonNull S3URI s3Uri, long length, @NonNull Referrer referrer) {
+    Preconditions.checkArgument(length > 0, "`length` must be positive; was: %s", length);
+
+    this.s3Uri = s3Uri;
+    this.length = length;
+    this.referrer = referrer;
+  }
+
+  /**
+   * Returns the suffix range of the request, as defined by the Http RFC.
+   *
+   * @return the HTTP RFC compatible representation of the suffix range
+   */
+  public String toHttpString() {
+    return String.format(TO_HTTP_STRING_FORMAT, length);
+  }
+}
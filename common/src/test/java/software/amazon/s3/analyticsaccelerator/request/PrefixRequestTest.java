@@ -0,0 +1,41 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+public class PrefixRequestTest {
+  private static final S3URI TEST_URI = S3URI.of("bucket", "key");
+  private static final Referrer TEST_REFERRER = new Referrer("bytes=0-99", ReadMode.SYNC);
+
+  @Test
+  void testToHttpString() {
+    PrefixRequest prefixRequest =
+        PrefixRequest.builder().s3Uri(TEST_URI).length(100).referrer(TEST_REFERRER).build();
+    assertEquals("bytes=0-99", prefixRequest.toHttpString());
+  }
+
+  @Test
+  void testLengthMustBePositive() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PrefixRequest.builder().s3Uri(TEST_URI).length(0).referrer(TEST_REFERRER).build());
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+public class StreamContextTest {
+  private static final S3URI TEST_URI = S3URI.of("bucket", "key");
+
+  @Test
+  void testTailReferrerHeaderIsBuiltForARequestOfTheSameLength() {
+    AtomicReference<GetRequest> seen = new AtomicReference<>();
+    StreamContext streamContext = auditingStreamContext(seen);
+    Referrer referrer = new Referrer("bytes=-100", ReadMode.SYNC);
+
+    String header =
+        streamContext.modifyAndBuildTailReferrerHeader(
+            TailRequest.builder().s3Uri(TEST_URI).length(100).referrer(referrer).build());
+
+    assertEquals("bytes=-100,readMode=SYNC;audited", header);
+    assertEquals(TEST_URI, seen.get().getS3Uri());
+    assertEquals(100, seen.get().getRange().getLength());
+    assertEquals(referrer, seen.get().getReferrer());
+  }
+
+  @Test
+  void testPrefixReferrerHeaderIsBuiltForARequestOfTheSameRange() {
+    AtomicReference<GetRequest> seen = new AtomicReference<>();
+    StreamContext streamContext = auditingStreamContext(seen);
+    Referrer referrer = new Referrer("bytes=0-99", ReadMode.ASYNC);
+
+    String header =
+        streamContext.modifyAndBuildPrefixReferrerHeader(
+            PrefixRequest.builder().s3Uri(TEST_URI).length(100).referrer(referrer).build());
+
+    assertEquals("bytes=0-99,readMode=ASYNC;audited", header);
+    assertEquals(TEST_URI, seen.get().getS3Uri());
+    assertEquals(new Range(0, 99), seen.get().getRange());
+    assertEquals(referrer, seen.get().getReferrer());
+  }
+
+  private static StreamContext auditingStreamContext(AtomicReference<GetRequest> seen) {
+    return getRequest -> {
+      seen.set(getRequest);
+      return getRequest.getReferrer() + ";audited";
+    };
+  }
+}
@@ -51,6 +51,13 @@ sourceSets {
     }
 }
 
+// Benchmarks read the Parquet files of the test resources from the classpath
+sourceSets {
+    named("jmh") {
+        resources.srcDir("src/test/resources")
+    }
+}
+
 val referenceTestImplementation by configurations.getting {
     extendsFrom(configurations.testImplementation.get())
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlockManager;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Simulates a consumer reading an object whose GETs take {@code latencyMs} to return, with the
+ * adaptive read ahead switched on and off. {@code sequentialScan} reads the object front to back,
+ * {@code randomReads} seeks to random positions. Next to the time per scan, the {@code getRequests}
+ * and {@code bytesFetched} counters report the number of GETs issued and the bytes they returned.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class AdaptiveReadAheadBenchmark {
+  private static final int ONE_KB = 1024;
+  private static final int OBJECT_SIZE = 32 * 1024 * ONE_KB;
+  private static final int SEQUENTIAL_READ_SIZE = 64 * ONE_KB;
+  private static final int RANDOM_READ_SIZE = 8 * ONE_KB;
+  private static final int RANDOM_READS = 256;
+  // Work done by the consumer on every read, as in decoding the bytes
+  private static final long CONSUMER_TOKENS = 10_000;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder()
+          .s3URI(S3URI.of("bucket", "key"))
+          .etag(InMemoryObjectClient.ETAG)
+          .build();
+
+  @Param({"false", "true"})
+  public boolean adaptive;
+
+  @Param({"10", "50"})
+  public int latencyMs;
+
+  private byte[] content;
+  private PhysicalIOConfiguration configuration;
+
+  /** Generates the object content */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.content = new byte[OBJECT_SIZE];
+    new Random(42).nextBytes(content);
+    this.configuration =
+        PhysicalIOConfiguration.builder().adaptiveReadAheadEnabled(adaptive).build();
+  }
+
+  /** Requests issued by the last scan */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Requests {
+    public long getRequests;
+    public long bytesFetched;
+  }
+
+  /**
+   * Reads the whole object sequentially
+   *
+   * @param requests counters for the requests issued
+   * @param blackhole sink for the consumer work
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public void sequentialScan(Requests requests, Blackhole blackhole) throws IOException {
+    byte[] buffer = new byte[SEQUENTIAL_READ_SIZE];
+    try (LatencyInjectingObjectClient objectClient =
+            new LatencyInjectingObjectClient(content, latencyMs);
+        Blob blob = newBlob(objectClient)) {
+      for (long pos = 0; pos < OBJECT_SIZE; pos += buffer.length) {
+        blackhole.consume(blob.read(buffer, 0, buffer.length, pos));
+        Blackhole.consumeCPU(CONSUMER_TOKENS);
+      }
+      requests.getRequests = objectClient.getGetRequestCount();
+      requests.bytesFetched = objectClient.getBytesServed();
+    }
+  }
+
+  /**
+   * Reads small chunks at random positions
+   *
+   * @param requests counters for the requests issued
+   * @param blackhole sink for the consumer work
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public void randomReads(Requests requests, Blackhole blackhole) throws IOException {
+    byte[] buffer = new byte[RANDOM_READ_SIZE];
+    Random random = new Random(42);
+    try (LatencyInjectingObjectClient objectClient =
+            new LatencyInjectingObjectClient(content, latencyMs);
+        Blob blob = newBlob(objectClient)) {
+      for (int i = 0; i < RANDOM_READS; i++) {
+        long pos = random.nextInt(OBJECT_SIZE - buffer.length);
+        blackhole.consume(blob.read(buffer, 0, buffer.length, pos));
+        Blackhole.consumeCPU(CONSUMER_TOKENS);
+      }
+      requests.getRequests = objectClient.getGetRequestCount();
+      requests.bytesFetched = objectClient.getBytesServed();
+    }
+  }
+
+  private Blob newBlob(LatencyInjectingObjectClient objectClient) {
+    BlockManager blockManager =
+        new BlockManager(
+            OBJECT_KEY, objectClient, objectClient.metadata(), Telemetry.NOOP, configuration);
+    return new Blob(OBJECT_KEY, objectClient.metadata(), blockManager, Telemetry.NOOP);
+  }
+}
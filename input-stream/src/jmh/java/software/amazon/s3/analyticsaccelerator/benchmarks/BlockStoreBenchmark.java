@@ -0,0 +1,161 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Block;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlockStore;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.IOPlanner;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Micro-benchmarks for {@link BlockStore} lookups and {@link IOPlanner} planning as the number of
+ * blocks held for a single object grows. Blocks are laid out with a gap after each one, so that
+ * planning a read always has to discover missing ranges between loaded blocks.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BlockStoreBenchmark {
+  private static final long BLOCK_SIZE = 8 * 1024;
+  private static final long STRIDE = 2 * BLOCK_SIZE;
+  private static final int LOOKUPS = 4096;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder().s3URI(S3URI.of("bucket", "key")).etag("etag").build();
+
+  @Param({"10", "1000", "100000"})
+  public int blockCount;
+
+  private BlockStore blockStore;
+  private IOPlanner ioPlanner;
+  private long lastObjectByte;
+  private long[] positions;
+  private int next;
+
+  /**
+   * Populates the {@link BlockStore} with {@code blockCount} blocks whose data never arrives, so
+   * that only the indexing cost is measured.
+   *
+   * @throws IOException thrown on IO error
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    long contentLength = blockCount * STRIDE;
+    this.lastObjectByte = contentLength - 1;
+    this.blockStore =
+        new BlockStore(
+            OBJECT_KEY,
+            ObjectMetadata.builder().contentLength(contentLength).etag("etag").build());
+    this.ioPlanner = new IOPlanner(blockStore);
+
+    ObjectClient objectClient = new PendingObjectClient();
+    for (int i = 0; i < blockCount; i++) {
+      long start = i * STRIDE;
+      blockStore.add(
+          new Block(
+              OBJECT_KEY,
+              objectClient,
+              Telemetry.NOOP,
+              start,
+              start + BLOCK_SIZE - 1,
+              0,
+              ReadMode.ASYNC,
+              120_000,
+              1));
+    }
+
+    Random random = new Random(42);
+    this.positions = new long[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      this.positions[i] = (long) (random.nextDouble() * contentLength);
+    }
+  }
+
+  /** Closes the {@link BlockStore} */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    blockStore.close();
+  }
+
+  /**
+   * Looks up the block holding a random position
+   *
+   * @return the block, if any
+   */
+  @Benchmark
+  public Optional<Block> getBlock() {
+    return blockStore.getBlock(nextPosition());
+  }
+
+  /**
+   * Plans a read spanning a few blocks starting at a random position
+   *
+   * @return the missing ranges
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public List<Range> planRead() throws IOException {
+    long pos = nextPosition();
+    return ioPlanner.planRead(pos, pos + 4 * STRIDE, RangeType.BLOCK, lastObjectByte);
+  }
+
+  private long nextPosition() {
+    next = (next + 1) % LOOKUPS;
+    return positions[next];
+  }
+
+  /** An {@link ObjectClient} whose requests never complete, keeping every block in flight. */
+  private static class PendingObjectClient implements ObjectClient {
+    @Override
+    public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+      return new CompletableFuture<>();
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+      return new CompletableFuture<>();
+    }
+
+    @Override
+    public CompletableFuture<ObjectContent> getObject(
+        GetRequest getRequest, StreamContext streamContext) {
+      return new CompletableFuture<>();
+    }
+
+    @Override
+    public void close() {}
+  }
+}
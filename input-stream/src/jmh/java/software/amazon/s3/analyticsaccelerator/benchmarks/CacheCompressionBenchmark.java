@@ -0,0 +1,134 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.CacheEntryCodec;
+import software.amazon.s3.analyticsaccelerator.util.CacheCompression;
+
+/**
+ * Measures what compressing cache entries costs and saves on the footers of real Parquet files.
+ * {@code encode} is the work done before a footer is stored in Valkey, {@code decode} the work done
+ * after it is read back. The bytes stored for each footer, which are also the bytes sent over the
+ * network by every set and get of the entry, are reported as secondary results. Footers are read
+ * from the Parquet files of the test resources of this module, found on the classpath.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CacheCompressionBenchmark {
+  private static final int FOOTER_TRAILER_SIZE = 8;
+
+  @Param({
+    "call_center.parquet",
+    "nested_data.parquet",
+    "nested_data_mrg.parquet",
+    "multi_row_group.parquet"
+  })
+  public String file;
+
+  @Param({"NONE", "DEFLATE"})
+  public CacheCompression compression;
+
+  private CacheEntryCodec codec;
+  private byte[] footer;
+  private byte[] stored;
+
+  /**
+   * Reads the footer of the file and encodes it once
+   *
+   * @throws IOException thrown on IO error
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    this.footer = readFooter(readResource(file));
+    this.codec = new CacheEntryCodec(compression, 0);
+    this.stored = codec.encode(footer);
+  }
+
+  /** Size of the footer, and of the entry stored for it */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EntrySize {
+    public long footerBytes;
+    public long storedBytes;
+  }
+
+  /**
+   * Encodes the footer before it is stored
+   *
+   * @param entrySize counters for the size of the entry
+   * @return the bytes to store
+   */
+  @Benchmark
+  public byte[] encode(EntrySize entrySize) {
+    recordEntrySize(entrySize);
+    return codec.encode(footer);
+  }
+
+  /**
+   * Decodes the footer after it is read back
+   *
+   * @param entrySize counters for the size of the entry
+   * @return the footer
+   */
+  @Benchmark
+  public byte[] decode(EntrySize entrySize) {
+    recordEntrySize(entrySize);
+    return codec.decode(stored);
+  }
+
+  private void recordEntrySize(EntrySize entrySize) {
+    entrySize.footerBytes = footer.length;
+    entrySize.storedBytes = stored.length;
+  }
+
+  private static byte[] readResource(String name) throws IOException {
+    try (InputStream inStream = CacheCompressionBenchmark.class.getResourceAsStream("/" + name)) {
+      if (inStream == null) {
+        throw new FileNotFoundException("Resource not found on the classpath: " + name);
+      }
+      ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int numBytesRead;
+      while ((numBytesRead = inStream.read(buffer, 0, buffer.length)) != -1) {
+        outStream.write(buffer, 0, numBytesRead);
+      }
+      return outStream.toByteArray();
+    }
+  }
+
+  private static byte[] readFooter(byte[] file) {
+    // A Parquet file ends with the length of its footer and the PAR1 magic
+    int footerLength =
+        ByteBuffer.wrap(file, file.length - FOOTER_TRAILER_SIZE, 4)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .getInt();
+    return Arrays.copyOfRange(
+        file, file.length - FOOTER_TRAILER_SIZE - footerLength, file.length - FOOTER_TRAILER_SIZE);
+  }
+}
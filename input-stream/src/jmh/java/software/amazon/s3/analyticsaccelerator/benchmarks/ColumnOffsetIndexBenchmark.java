@@ -0,0 +1,138 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMetadata;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnOffsetIndex;
+
+/**
+ * Finds the column chunk containing a read that does not start at a chunk boundary, in synthetic
+ * Parquet footers of {@code rowGroups} row groups of 100 columns each. {@code sortAndScan} copies,
+ * sorts and scans the offsets of a map of all chunks on every lookup, as the read path used to;
+ * {@code binarySearch} searches the sorted offsets of a {@link ColumnOffsetIndex}. The {@code
+ * build} benchmarks measure the cost of building either structure once the footer is parsed.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ColumnOffsetIndexBenchmark {
+  private static final int COLUMNS = 100;
+  private static final int POSITIONS = 1024;
+  private static final int MAX_CHUNK_SIZE = 1024 * 1024;
+
+  @Param({"10", "100"})
+  public int rowGroups;
+
+  private List<ColumnMetadata> columns;
+  private Map<Long, ColumnMetadata> offsetToColumnMap;
+  private ColumnOffsetIndex offsetIndex;
+  private long[] positions;
+  private int next;
+
+  /** Lays out the column chunks and picks positions within them */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    this.columns = new ArrayList<>(rowGroups * COLUMNS);
+    long offset = 4;
+    for (int rowGroup = 0; rowGroup < rowGroups; rowGroup++) {
+      for (int column = 0; column < COLUMNS; column++) {
+        long size = 1 + random.nextInt(MAX_CHUNK_SIZE);
+        columns.add(new ColumnMetadata(rowGroup, "column_" + column, offset, 0, offset, size, 0));
+        offset += size;
+      }
+    }
+
+    this.offsetToColumnMap = buildMap();
+    this.offsetIndex = ColumnOffsetIndex.of(columns);
+    this.positions = new long[POSITIONS];
+    for (int i = 0; i < POSITIONS; i++) {
+      ColumnMetadata column = columns.get(random.nextInt(columns.size()));
+      positions[i] = column.getStartPos() + 1 + random.nextInt((int) column.getCompressedSize());
+    }
+  }
+
+  /**
+   * Builds a map of offsets to column chunks
+   *
+   * @return the map
+   */
+  @Benchmark
+  public Map<Long, ColumnMetadata> buildMap() {
+    Map<Long, ColumnMetadata> map = new HashMap<>();
+    for (ColumnMetadata column : columns) {
+      map.put(column.getStartPos(), column);
+    }
+    return map;
+  }
+
+  /**
+   * Builds an index of column chunks
+   *
+   * @return the index
+   */
+  @Benchmark
+  public ColumnOffsetIndex buildIndex() {
+    return ColumnOffsetIndex.of(columns);
+  }
+
+  /**
+   * Finds the column chunk containing the next position by scanning the sorted map offsets
+   *
+   * @return the column chunk found
+   */
+  @Benchmark
+  public ColumnMetadata sortAndScan() {
+    long position = nextPosition();
+    List<Long> columnPositions = new ArrayList<>(offsetToColumnMap.keySet());
+    Collections.sort(columnPositions);
+
+    long lastColumnStartPos = columnPositions.get(columnPositions.size() - 1);
+    columnPositions.add(
+        lastColumnStartPos + offsetToColumnMap.get(lastColumnStartPos).getCompressedSize());
+    for (int i = 0; i < columnPositions.size() - 1; i++) {
+      if (position > columnPositions.get(i) && position < columnPositions.get(i + 1)) {
+        return offsetToColumnMap.get(columnPositions.get(i));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the column chunk containing the next position with a binary search of the index
+   *
+   * @return the column chunk found
+   */
+  @Benchmark
+  public ColumnMetadata binarySearch() {
+    return offsetIndex.getContaining(nextPosition());
+  }
+
+  private long nextPosition() {
+    return positions[next++ & (POSITIONS - 1)];
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlockManager;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Measures reads of a single, fully loaded object shared by many streams, as happens when many
+ * tasks read the same hot file. Every read hits a block that is already present, so throughput
+ * should scale with the number of threads rather than serialise on the {@link BlockManager}.
+ * Compare {@code readHitSingleThread} to {@code readHit16Threads}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ConcurrentBlobReadBenchmark {
+  private static final int OBJECT_SIZE = 32 * 1024 * 1024;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder()
+          .s3URI(S3URI.of("bucket", "key"))
+          .etag(InMemoryObjectClient.ETAG)
+          .build();
+
+  @Param({"4096", "65536"})
+  public int readSize;
+
+  private Blob blob;
+
+  /**
+   * Loads the whole object into the blob shared by all threads
+   *
+   * @throws IOException thrown on IO error
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    byte[] content = new byte[OBJECT_SIZE];
+    new Random(42).nextBytes(content);
+    InMemoryObjectClient objectClient = new InMemoryObjectClient(content);
+    ObjectMetadata metadata = objectClient.metadata();
+
+    BlockManager blockManager =
+        new BlockManager(
+            OBJECT_KEY, objectClient, metadata, Telemetry.NOOP, PhysicalIOConfiguration.DEFAULT);
+    blockManager.makeRangeAvailable(0, OBJECT_SIZE, RangeType.BLOCK, ReadMode.SYNC);
+    this.blob = new Blob(OBJECT_KEY, metadata, blockManager, Telemetry.NOOP);
+
+    // Wait for every block to arrive
+    byte[] buffer = new byte[OBJECT_SIZE];
+    blob.read(buffer, 0, buffer.length, 0);
+  }
+
+  /** Closes the blob */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    blob.close();
+  }
+
+  /** Per thread read position generator and destination buffer */
+  @State(Scope.Thread)
+  public static class Reader {
+    private final Random random = new Random();
+    private byte[] buffer;
+
+    /**
+     * Allocates the destination buffer
+     *
+     * @param benchmark the benchmark state
+     */
+    @Setup(Level.Trial)
+    public void setUp(ConcurrentBlobReadBenchmark benchmark) {
+      this.buffer = new byte[benchmark.readSize];
+    }
+
+    long nextPosition() {
+      return random.nextInt(OBJECT_SIZE - buffer.length);
+    }
+  }
+
+  /**
+   * Reads from a random position on a single thread
+   *
+   * @param reader per thread state
+   * @return the number of bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  @Threads(1)
+  public int readHitSingleThread(Reader reader) throws IOException {
+    return blob.read(reader.buffer, 0, reader.buffer.length, reader.nextPosition());
+  }
+
+  /**
+   * Reads from random positions on 16 threads sharing the same blob
+   *
+   * @param reader per thread state
+   * @return the number of bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  @Threads(16)
+  public int readHit16Threads(Reader reader) throws IOException {
+    return blob.read(reader.buffer, 0, reader.buffer.length, reader.nextPosition());
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.DiskCacheImpl;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.Referrer;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Compares the latency of a hit in the disk cache against a GET of the same bytes from S3. The
+ * cache is reopened after being filled, so that hits are served from segments recovered from disk.
+ * The segments fit in the page cache, as the hot footers and column chunks of a node would. GETs
+ * are served from memory by a client taking {@code S3_LATENCY_MS} to the first byte and
+ * transferring at {@code MB_PER_SECOND_PER_REQUEST}, as a single S3 connection would.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DiskCacheBenchmark {
+  private static final int ONE_MB = 1024 * 1024;
+  private static final int ENTRY_COUNT = 256;
+  private static final int SEGMENT_SIZE = 64 * ONE_MB;
+  private static final int S3_LATENCY_MS = 20;
+  private static final int MB_PER_SECOND_PER_REQUEST = 100;
+  private static final S3URI S3_URI = S3URI.of("bucket", "key");
+
+  @Param({"65536", "1048576"})
+  public int valueSize;
+
+  private Path directory;
+  private DiskCacheImpl cache;
+  private LatencyInjectingObjectClient objectClient;
+
+  /**
+   * Fills the disk cache with the entries of the object and reopens it
+   *
+   * @throws IOException thrown on IO error
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    byte[] content = new byte[ENTRY_COUNT * valueSize];
+    new Random(42).nextBytes(content);
+
+    long capacity = 2L * content.length;
+    this.directory = Files.createTempDirectory("disk-cache-benchmark");
+    DiskCacheImpl filling = new DiskCacheImpl(directory, capacity, SEGMENT_SIZE);
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      Range range = rangeOf(i);
+      filling.set(
+          cacheKey(range),
+          Arrays.copyOfRange(content, (int) range.getStart(), (int) range.getEnd() + 1));
+    }
+    filling.close();
+
+    this.cache = new DiskCacheImpl(directory, capacity, SEGMENT_SIZE);
+    this.objectClient =
+        new LatencyInjectingObjectClient(
+            content, S3_LATENCY_MS, (long) MB_PER_SECOND_PER_REQUEST * ONE_MB);
+  }
+
+  /**
+   * Deletes the disk cache and stops the client
+   *
+   * @throws IOException thrown on IO error
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    cache.clearCache();
+    cache.close();
+    objectClient.close();
+    Files.deleteIfExists(directory);
+  }
+
+  /** Cycles through the entries, so that every thread reads all of them in turn */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    int nextEntry() {
+      int entry = next;
+      next = (next + 1) % ENTRY_COUNT;
+      return entry;
+    }
+  }
+
+  /**
+   * Reads an entry from the disk cache
+   *
+   * @param cursor the entry to read next
+   * @return the bytes read
+   */
+  @Benchmark
+  public byte[] diskCacheHit(Cursor cursor) {
+    return cache.get(cacheKey(rangeOf(cursor.nextEntry())));
+  }
+
+  /**
+   * Reads an entry from the stand-in S3 client
+   *
+   * @param cursor the entry to read next
+   * @param blackhole sink for the bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public void s3Get(Cursor cursor, Blackhole blackhole) throws IOException {
+    Range range = rangeOf(cursor.nextEntry());
+    ObjectContent objectContent =
+        objectClient
+            .getObject(
+                GetRequest.builder()
+                    .s3Uri(S3_URI)
+                    .range(range)
+                    .etag(InMemoryObjectClient.ETAG)
+                    .referrer(new Referrer(range.toHttpString(), ReadMode.SYNC))
+                    .build())
+            .join();
+
+    byte[] buffer = new byte[valueSize];
+    try (InputStream inputStream = objectContent.getStream()) {
+      int offset = 0;
+      int bytesRead;
+      while (offset < buffer.length
+          && (bytesRead = inputStream.read(buffer, offset, buffer.length - offset)) > 0) {
+        offset += bytesRead;
+      }
+    }
+    blackhole.consume(buffer);
+  }
+
+  private Range rangeOf(int entry) {
+    long start = (long) entry * valueSize;
+    return new Range(start, start + valueSize - 1);
+  }
+
+  private static String cacheKey(Range range) {
+    return S3_URI + "#" + InMemoryObjectClient.ETAG + "#" + range;
+  }
+}
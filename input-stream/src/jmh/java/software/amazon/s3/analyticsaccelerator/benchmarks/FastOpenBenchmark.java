@@ -0,0 +1,141 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.OpenMode;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlobStore;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.MetadataStore;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.PhysicalIOImpl;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Simulates opening an object whose HEAD and GET requests take {@code latencyMs} to return. {@code
+ * openToFirstColumn} reads the footer and the first column chunk of a Parquet object, as a reader
+ * planning a scan does. {@code openToFirstBytes} reads the start of an object, as a sequential
+ * reader does. Without fast open, the metadata is fetched with a HEAD request before the data is
+ * requested; with it, a single range request returns both. Next to the time to the first data, the
+ * {@code headRequests} and {@code getRequests} counters report the requests issued.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class FastOpenBenchmark {
+  private static final int ONE_KB = 1024;
+  private static final int OBJECT_SIZE = 64 * 1024 * ONE_KB;
+  private static final int FOOTER_SIZE = 32 * ONE_KB;
+  private static final int COLUMN_CHUNK_SIZE = 1024 * ONE_KB;
+  private static final int FIRST_BYTES_SIZE = 3 * 1024 * ONE_KB;
+  private static final int SEQUENTIAL_READ_SIZE = 64 * ONE_KB;
+  // Parquet objects start with a 4 byte magic number, the first column chunk follows it
+  private static final int FIRST_COLUMN_OFFSET = 4;
+  private static final S3URI S3_URI = S3URI.of("bucket", "key.parquet");
+
+  @Param({"false", "true"})
+  public boolean fastOpen;
+
+  @Param({"10", "50"})
+  public int latencyMs;
+
+  private byte[] content;
+
+  /** Generates the object content */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.content = new byte[OBJECT_SIZE];
+    new Random(42).nextBytes(content);
+  }
+
+  /** Requests issued by the last open */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Requests {
+    public long headRequests;
+    public long getRequests;
+  }
+
+  /**
+   * Opens the object, reads its footer, then its first column chunk
+   *
+   * @param requests counters for the requests issued
+   * @param blackhole sink for the bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public void openToFirstColumn(Requests requests, Blackhole blackhole) throws IOException {
+    long openTailLength = fastOpen ? FOOTER_SIZE : 0;
+    try (LatencyInjectingObjectClient objectClient =
+            new LatencyInjectingObjectClient(content, latencyMs, 0, true);
+        MetadataStore metadataStore =
+            new MetadataStore(objectClient, Telemetry.NOOP, PhysicalIOConfiguration.DEFAULT);
+        BlobStore blobStore =
+            new BlobStore(objectClient, Telemetry.NOOP, PhysicalIOConfiguration.DEFAULT);
+        PhysicalIOImpl physicalIO =
+            new PhysicalIOImpl(
+                S3_URI, metadataStore, blobStore, Telemetry.NOOP, null, openTailLength)) {
+      byte[] footer = new byte[FOOTER_SIZE];
+      blackhole.consume(physicalIO.readTail(footer, 0, footer.length));
+
+      byte[] columnChunk = new byte[COLUMN_CHUNK_SIZE];
+      blackhole.consume(physicalIO.read(columnChunk, 0, columnChunk.length, FIRST_COLUMN_OFFSET));
+
+      requests.headRequests = objectClient.getHeadRequestCount();
+      requests.getRequests = objectClient.getGetRequestCount();
+    }
+  }
+
+  /**
+   * Opens the object, then reads its first bytes
+   *
+   * @param requests counters for the requests issued
+   * @param blackhole sink for the bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public void openToFirstBytes(Requests requests, Blackhole blackhole) throws IOException {
+    OpenMode openMode = fastOpen ? OpenMode.FIRST_BYTES : OpenMode.HEAD;
+    try (LatencyInjectingObjectClient objectClient =
+            new LatencyInjectingObjectClient(content, latencyMs, 0, true);
+        MetadataStore metadataStore =
+            new MetadataStore(objectClient, Telemetry.NOOP, PhysicalIOConfiguration.DEFAULT);
+        BlobStore blobStore =
+            new BlobStore(objectClient, Telemetry.NOOP, PhysicalIOConfiguration.DEFAULT);
+        PhysicalIOImpl physicalIO =
+            new PhysicalIOImpl(
+                S3_URI,
+                metadataStore,
+                blobStore,
+                Telemetry.NOOP,
+                null,
+                openMode,
+                FIRST_BYTES_SIZE)) {
+      byte[] buffer = new byte[SEQUENTIAL_READ_SIZE];
+      blackhole.consume(physicalIO.read(buffer, 0, buffer.length, 0));
+
+      requests.headRequests = objectClient.getHeadRequestCount();
+      requests.getRequests = objectClient.getGetRequestCount();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+
+/** An {@link ObjectClient} serving a single object from memory, counting the requests it gets. */
+class InMemoryObjectClient implements ObjectClient {
+  static final String ETAG = "etag";
+
+  private final byte[] content;
+  private final AtomicLong getRequestCount = new AtomicLong();
+  private final AtomicLong bytesServed = new AtomicLong();
+
+  InMemoryObjectClient(byte[] content) {
+    this.content = content;
+  }
+
+  @Override
+  public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+    return CompletableFuture.completedFuture(metadata());
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+    return getObject(getRequest, null);
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(
+      GetRequest getRequest, StreamContext streamContext) {
+    getRequestCount.incrementAndGet();
+    Range range = getRequest.getRange();
+    int start = (int) range.getStart();
+    int length = (int) Math.min(range.getLength(), content.length - start);
+    bytesServed.addAndGet(length);
+    return CompletableFuture.completedFuture(
+        ObjectContent.builder().stream(new ByteArrayInputStream(content, start, length)).build());
+  }
+
+  @Override
+  public void close() {}
+
+  ObjectMetadata metadata() {
+    return ObjectMetadata.builder().contentLength(content.length).etag(ETAG).build();
+  }
+
+  long getGetRequestCount() {
+    return getRequestCount.get();
+  }
+
+  long getBytesServed() {
+    return bytesServed.get();
+  }
+}
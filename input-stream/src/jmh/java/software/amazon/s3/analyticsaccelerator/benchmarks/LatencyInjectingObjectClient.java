@@ -0,0 +1,148 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import software.amazon.s3.analyticsaccelerator.request.GetRequest;
+import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
+import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.PrefixRequest;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.request.TailRequest;
+
+/**
+ * An {@link ObjectClient} serving a single object from memory, delaying every GET by a fixed
+ * latency to simulate the time to first byte of S3, plus the time to transfer the bytes when a per
+ * request bandwidth is set. HEAD requests are only delayed when asked to.
+ */
+class LatencyInjectingObjectClient implements ObjectClient {
+  private final byte[] content;
+  private final long latencyMs;
+  private final long bytesPerSecond;
+  private final boolean delayHeadRequests;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final AtomicLong headRequestCount = new AtomicLong();
+  private final AtomicLong getRequestCount = new AtomicLong();
+  private final AtomicLong bytesServed = new AtomicLong();
+
+  LatencyInjectingObjectClient(byte[] content, long latencyMs) {
+    this(content, latencyMs, 0);
+  }
+
+  LatencyInjectingObjectClient(byte[] content, long latencyMs, long bytesPerSecond) {
+    this(content, latencyMs, bytesPerSecond, false);
+  }
+
+  LatencyInjectingObjectClient(
+      byte[] content, long latencyMs, long bytesPerSecond, boolean delayHeadRequests) {
+    this.content = content;
+    this.latencyMs = latencyMs;
+    this.bytesPerSecond = bytesPerSecond;
+    this.delayHeadRequests = delayHeadRequests;
+  }
+
+  @Override
+  public CompletableFuture<ObjectMetadata> headObject(HeadRequest headRequest) {
+    headRequestCount.incrementAndGet();
+    if (!delayHeadRequests) {
+      return CompletableFuture.completedFuture(metadata());
+    }
+
+    CompletableFuture<ObjectMetadata> response = new CompletableFuture<>();
+    scheduler.schedule(() -> response.complete(metadata()), latencyMs, TimeUnit.MILLISECONDS);
+    return response;
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(GetRequest getRequest) {
+    return getObject(getRequest, null);
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObject(
+      GetRequest getRequest, StreamContext streamContext) {
+    Range range = getRequest.getRange();
+    int start = (int) range.getStart();
+    return get(start, (int) Math.min(range.getLength(), content.length - start), null);
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObjectTail(
+      TailRequest tailRequest, StreamContext streamContext) {
+    int length = (int) Math.min(tailRequest.getLength(), content.length);
+    return get(content.length - length, length, metadata());
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObjectPrefix(
+      PrefixRequest prefixRequest, StreamContext streamContext) {
+    return get(0, (int) Math.min(prefixRequest.getLength(), content.length), metadata());
+  }
+
+  private CompletableFuture<ObjectContent> get(int start, int length, ObjectMetadata metadata) {
+    getRequestCount.incrementAndGet();
+    bytesServed.addAndGet(length);
+
+    long delayMs = latencyMs;
+    if (bytesPerSecond > 0) {
+      delayMs += length * 1000L / bytesPerSecond;
+    }
+
+    CompletableFuture<ObjectContent> response = new CompletableFuture<>();
+    scheduler.schedule(
+        () ->
+            response.complete(
+                ObjectContent.builder()
+                    .stream(new ByteArrayInputStream(content, start, length))
+                    .objectMetadata(metadata)
+                    .build()),
+        delayMs,
+        TimeUnit.MILLISECONDS);
+    return response;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  ObjectMetadata metadata() {
+    return ObjectMetadata.builder()
+        .contentLength(content.length)
+        .etag(InMemoryObjectClient.ETAG)
+        .build();
+  }
+
+  long getHeadRequestCount() {
+    return headRequestCount.get();
+  }
+
+  long getGetRequestCount() {
+    return getRequestCount.get();
+  }
+
+  long getBytesServed() {
+    return bytesServed.get();
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.CompressionCodec;
+import org.apache.parquet.format.Encoding;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.KeyValue;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.Statistics;
+import org.apache.parquet.format.Type;
+import org.apache.parquet.format.Util;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetFooterDecoder;
+
+/**
+ * Decodes synthetic Parquet footers of {@code rowGroups} row groups of {@code columns} columns,
+ * where every column chunk carries statistics, encodings and key/value metadata as written by
+ * common writers. {@code thrift} copies the file metadata out of the tail buffer and deserializes
+ * all of it, as the footer parser used to; {@code selective} decodes only the fields used by the
+ * prefetcher straight from the buffer. Run with {@code -prof gc} to compare the garbage created.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParquetFooterDecoderBenchmark {
+  private static final long CHUNK_SIZE = 1024 * 1024;
+
+  @Param({"10", "100"})
+  public int rowGroups;
+
+  @Param({"100", "500"})
+  public int columns;
+
+  private ByteBuffer fileMetadata;
+
+  /**
+   * Serializes the synthetic file metadata
+   *
+   * @throws IOException thrown on serialization error
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    Util.writeFileMetaData(syntheticFileMetaData(), outputStream);
+    this.fileMetadata = ByteBuffer.wrap(outputStream.toByteArray());
+  }
+
+  /**
+   * Copies and deserializes the whole file metadata with thrift
+   *
+   * @return the file metadata
+   * @throws IOException thrown on deserialization error
+   */
+  @Benchmark
+  public FileMetaData thrift() throws IOException {
+    ByteBuffer buffer = fileMetadata.duplicate();
+    byte[] footer = new byte[buffer.remaining()];
+    buffer.get(footer);
+    return Util.readFileMetaData(new ByteArrayInputStream(footer));
+  }
+
+  /**
+   * Decodes the fields used by the prefetcher from the buffer
+   *
+   * @return the file metadata
+   * @throws IOException thrown on decoding error
+   */
+  @Benchmark
+  public FileMetaData selective() throws IOException {
+    return ParquetFooterDecoder.decode(fileMetadata);
+  }
+
+  private FileMetaData syntheticFileMetaData() {
+    List<SchemaElement> schema = new ArrayList<>();
+    schema.add(new SchemaElement("schema").setNum_children(columns));
+    for (int column = 0; column < columns; column++) {
+      schema.add(new SchemaElement("column_" + column).setType(Type.BYTE_ARRAY));
+    }
+
+    List<RowGroup> rowGroupList = new ArrayList<>();
+    long offset = 4;
+    for (int rowGroup = 0; rowGroup < rowGroups; rowGroup++) {
+      List<ColumnChunk> columnChunks = new ArrayList<>();
+      for (int column = 0; column < columns; column++) {
+        ColumnMetaData metaData =
+            new ColumnMetaData(
+                Type.BYTE_ARRAY,
+                Arrays.asList(Encoding.PLAIN, Encoding.RLE, Encoding.RLE_DICTIONARY),
+                Collections.singletonList("column_" + column),
+                CompressionCodec.ZSTD,
+                100_000,
+                2 * CHUNK_SIZE,
+                CHUNK_SIZE,
+                offset + 4096);
+        metaData.setDictionary_page_offset(offset);
+        metaData.setStatistics(
+            new Statistics()
+                .setMin_value(("min_value_of_column_" + column).getBytes(StandardCharsets.UTF_8))
+                .setMax_value(("max_value_of_column_" + column).getBytes(StandardCharsets.UTF_8))
+                .setNull_count(0)
+                .setDistinct_count(100));
+        KeyValue columnId = new KeyValue("writer.column.id").setValue(String.valueOf(column));
+        metaData.setKey_value_metadata(Collections.singletonList(columnId));
+
+        ColumnChunk columnChunk = new ColumnChunk(offset);
+        columnChunk.setMeta_data(metaData);
+        columnChunks.add(columnChunk);
+        offset += CHUNK_SIZE;
+      }
+      rowGroupList.add(new RowGroup(columnChunks, CHUNK_SIZE * columns, 100_000));
+    }
+
+    FileMetaData fileMetaData = new FileMetaData(1, schema, 100_000L * rowGroups, rowGroupList);
+    fileMetaData.setCreated_by("parquet-mr version 1.13.1");
+    return fileMetaData;
+  }
+}
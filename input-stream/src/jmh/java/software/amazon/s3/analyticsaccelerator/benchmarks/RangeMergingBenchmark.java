@@ -0,0 +1,124 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlockManager;
+import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Replays the column prefetch of a Parquet row group where only every other column is projected, so
+ * that the projected column chunks are separated by the chunks of the columns that are skipped. The
+ * {@code getRequests} and {@code bytesOverRead} counters report the number of GETs issued and the
+ * number of bytes fetched that were not requested, per prefetch. Compare {@code mergeMaxGapKB=0},
+ * which only merges adjacent ranges, to the default of 128KB.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RangeMergingBenchmark {
+  private static final int ONE_KB = 1024;
+  private static final int PROJECTED_COLUMNS = 32;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder()
+          .s3URI(S3URI.of("bucket", "key"))
+          .etag(InMemoryObjectClient.ETAG)
+          .build();
+
+  @Param({"0", "128"})
+  public int mergeMaxGapKB;
+
+  @Param({"16", "256"})
+  public int chunkSizeKB;
+
+  @Param({"4", "32", "256"})
+  public int skippedChunkSizeKB;
+
+  private byte[] content;
+  private List<Range> projectedChunks;
+  private long projectedBytes;
+  private PhysicalIOConfiguration configuration;
+  private byte[] buffer;
+
+  /** Lays out the column chunks and the ranges of the projected ones */
+  @Setup(Level.Trial)
+  public void setUp() {
+    int stride = (chunkSizeKB + skippedChunkSizeKB) * ONE_KB;
+    this.content = new byte[PROJECTED_COLUMNS * stride];
+    new Random(42).nextBytes(content);
+
+    this.projectedChunks = new ArrayList<>(PROJECTED_COLUMNS);
+    for (int column = 0; column < PROJECTED_COLUMNS; column++) {
+      long start = (long) column * stride;
+      projectedChunks.add(new Range(start, start + chunkSizeKB * ONE_KB - 1));
+    }
+    this.projectedBytes = (long) PROJECTED_COLUMNS * chunkSizeKB * ONE_KB;
+    this.configuration =
+        PhysicalIOConfiguration.builder()
+            .rangeMergeMaxGapBytes((long) mergeMaxGapKB * ONE_KB)
+            .build();
+    this.buffer = new byte[chunkSizeKB * ONE_KB];
+  }
+
+  /** Requests issued by the last prefetch */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Requests {
+    public long getRequests;
+    public long bytesOverRead;
+  }
+
+  /**
+   * Prefetches the projected column chunks of a freshly opened object and waits for them to arrive
+   *
+   * @param requests counters for the requests issued
+   * @return the number of bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public long prefetchProjectedColumns(Requests requests) throws IOException {
+    InMemoryObjectClient objectClient = new InMemoryObjectClient(content);
+    BlockManager blockManager =
+        new BlockManager(
+            OBJECT_KEY, objectClient, objectClient.metadata(), Telemetry.NOOP, configuration);
+    try (Blob blob = new Blob(OBJECT_KEY, objectClient.metadata(), blockManager, Telemetry.NOOP)) {
+      blob.execute(new IOPlan(projectedChunks));
+
+      long bytesRead = 0;
+      for (Range chunk : projectedChunks) {
+        bytesRead += blob.read(buffer, 0, buffer.length, chunk.getStart());
+      }
+
+      requests.getRequests = objectClient.getGetRequestCount();
+      requests.bytesOverRead = objectClient.getBytesServed() - projectedBytes;
+      return bytesRead;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.BlockManager;
+import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+/**
+ * Replays a sequential scan of a large object, as done by {@code SequentialLogicalIOImpl}: the
+ * whole object is prefetched in 8MB parts and read front to back. Every GET takes {@code latencyMs}
+ * plus the time to transfer its bytes at {@code MB_PER_SECOND_PER_REQUEST}, as a single S3
+ * connection would. The {@code bytesRead} counter is reported per second, divide it by 10^9 to get
+ * GB/s. {@code parallelism=0} fetches all parts at once, the previous behaviour.
+ */
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SequentialPipelineBenchmark {
+  private static final int ONE_MB = 1024 * 1024;
+  private static final int OBJECT_SIZE = 128 * ONE_MB;
+  private static final int READ_SIZE = ONE_MB;
+  private static final int MB_PER_SECOND_PER_REQUEST = 100;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder()
+          .s3URI(S3URI.of("bucket", "key"))
+          .etag(InMemoryObjectClient.ETAG)
+          .build();
+
+  @Param({"0", "1", "4", "8"})
+  public int parallelism;
+
+  @Param({"20"})
+  public int latencyMs;
+
+  private byte[] content;
+  private PhysicalIOConfiguration configuration;
+
+  /** Generates the object content */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.content = new byte[OBJECT_SIZE];
+    new Random(42).nextBytes(content);
+    this.configuration =
+        PhysicalIOConfiguration.builder().sequentialPipelineParallelism(parallelism).build();
+  }
+
+  /** Bytes read, reported per second */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Bytes {
+    public long bytesRead;
+  }
+
+  /**
+   * Prefetches the whole object and reads it front to back
+   *
+   * @param bytes counter for the bytes read
+   * @param blackhole sink for the bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public void sequentialScan(Bytes bytes, Blackhole blackhole) throws IOException {
+    byte[] buffer = new byte[READ_SIZE];
+    try (LatencyInjectingObjectClient objectClient =
+            new LatencyInjectingObjectClient(
+                content, latencyMs, (long) MB_PER_SECOND_PER_REQUEST * ONE_MB);
+        Blob blob = newBlob(objectClient)) {
+      blob.execute(new IOPlan(new Range(0, OBJECT_SIZE - 1)));
+      for (long pos = 0; pos < OBJECT_SIZE; pos += buffer.length) {
+        int bytesRead = blob.read(buffer, 0, buffer.length, pos);
+        blackhole.consume(buffer);
+        bytes.bytesRead += bytesRead;
+      }
+    }
+  }
+
+  private Blob newBlob(LatencyInjectingObjectClient objectClient) {
+    BlockManager blockManager =
+        new BlockManager(
+            OBJECT_KEY, objectClient, objectClient.metadata(), Telemetry.NOOP, configuration);
+    return new Blob(OBJECT_KEY, objectClient.metadata(), blockManager, Telemetry.NOOP);
+  }
+}
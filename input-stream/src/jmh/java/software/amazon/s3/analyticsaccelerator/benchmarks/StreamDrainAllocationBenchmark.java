@@ -0,0 +1,110 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+import software.amazon.s3.analyticsaccelerator.util.StreamUtils;
+
+/**
+ * Compares the allocation cost of draining a block-sized stream into memory. {@code growingBuffer}
+ * replays the previous approach (8KB scratch buffer into a growing {@link ByteArrayOutputStream},
+ * then a final copy), {@code exactlySizedBuffer} uses {@link StreamUtils#readFully}. Run with the
+ * GC profiler to see bytes allocated per operation, e.g. {@code java -jar <jmh jar>
+ * StreamDrainAllocationBenchmark -prof gc}, and divide {@code gc.alloc.rate.norm} by {@code
+ * blockSizeMB} to get bytes allocated per MB fetched.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StreamDrainAllocationBenchmark {
+  private static final int ONE_MB = 1024 * 1024;
+  private static final int SCRATCH_BUFFER_SIZE = 8 * 1024;
+  // Network streams hand out data in chunks, never the whole block in one read call
+  private static final int NETWORK_CHUNK_SIZE = 64 * 1024;
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder().s3URI(S3URI.of("bucket", "key")).etag("etag").build();
+
+  @Param({"1", "8"})
+  public int blockSizeMB;
+
+  private byte[] content;
+  private Range range;
+
+  /** Generates the block content */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.content = new byte[blockSizeMB * ONE_MB];
+    new Random(42).nextBytes(content);
+    this.range = new Range(0, content.length - 1);
+  }
+
+  /**
+   * Drains the stream the way blocks used to be drained
+   *
+   * @return the bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public byte[] growingBuffer() throws IOException {
+    InputStream inStream = newStream();
+    ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[SCRATCH_BUFFER_SIZE];
+    int numBytesRead;
+    while ((numBytesRead = inStream.read(buffer, 0, buffer.length)) != -1) {
+      outStream.write(buffer, 0, numBytesRead);
+    }
+    return outStream.toByteArray();
+  }
+
+  /**
+   * Drains the stream straight into an array sized to the range
+   *
+   * @return the bytes read
+   * @throws IOException thrown on IO error
+   */
+  @Benchmark
+  public byte[] exactlySizedBuffer() throws IOException {
+    return StreamUtils.readFully(newStream(), OBJECT_KEY, range);
+  }
+
+  private InputStream newStream() {
+    return new ChunkedInputStream(content);
+  }
+
+  /** Serves at most {@link #NETWORK_CHUNK_SIZE} bytes per read call. */
+  private static class ChunkedInputStream extends ByteArrayInputStream {
+    ChunkedInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      return super.read(b, off, Math.min(len, NETWORK_CHUNK_SIZE));
+    }
+  }
+}
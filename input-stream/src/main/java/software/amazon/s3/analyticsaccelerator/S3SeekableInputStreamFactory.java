@@ -16,8 +16,6 @@
 package software.amazon.s3.analyticsaccelerator;
 
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
@@ -25,20 +23,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIO;
+import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.DefaultLogicalIOImpl;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetColumnPrefetchStore;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetLogicalIOImpl;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.SequentialLogicalIOImpl;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.FooterPrefetchSize;
+import software.amazon.s3.analyticsaccelerator.io.physical.BlockAllocator;
 import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.CacheAdmissionFilter;
+import software.amazon.s3.analyticsaccelerator.io.physical.OpenMode;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.BlobStore;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.MemoryManager;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.MetadataStore;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.CacheAdmissionFilterImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.CircuitBreakerCacheImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.DiskCacheImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.HeapBlockAllocator;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.MemoryCacheImpl;
 import software.amazon.s3.analyticsaccelerator.io.physical.impl.PhysicalIOImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.PooledDirectBlockAllocator;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.TieredCacheImpl;
 import software.amazon.s3.analyticsaccelerator.io.physical.impl.ValkeyCacheImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.WriteBehindCacheImpl;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.util.ObjectFormatSelector;
 import software.amazon.s3.analyticsaccelerator.util.OpenStreamInformation;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
+import software.amazon.s3.analyticsaccelerator.util.StreamDrainExecutor;
 
 /**
  * Initialises resources to prepare for reading from S3. Resources initialised in this class are
@@ -56,7 +70,9 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
   private final ParquetColumnPrefetchStore parquetColumnPrefetchStore;
   private final MetadataStore objectMetadataStore;
   private final Cache cache;
-  private final ExecutorService executorService;
+  private final StreamDrainExecutor drainExecutor;
+  private final BlockAllocator blockAllocator;
+  private final MemoryManager memoryManager;
   private final BlobStore objectBlobStore;
   private final Telemetry telemetry;
   private final ObjectFormatSelector objectFormatSelector;
@@ -83,27 +99,90 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
     this.objectFormatSelector = new ObjectFormatSelector(configuration.getLogicalIOConfiguration());
 
     if (configuration.getPhysicalIOConfiguration().isEnableTailMetadataCaching()) {
-      this.cache =
-          new ValkeyCacheImpl(configuration.getPhysicalIOConfiguration().getCacheEndpoint());
+      this.cache = createCache(configuration.getPhysicalIOConfiguration(), telemetry);
 
       LOG.info("Cache successfully instantiated");
-
-      this.executorService =
-          Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 10);
-
     } else {
       LOG.info("Cache disabled");
 
       this.cache = null;
-      this.executorService = null;
     }
+    this.drainExecutor =
+        new StreamDrainExecutor(telemetry, configuration.getPhysicalIOConfiguration());
+    this.blockAllocator =
+        createBlockAllocator(configuration.getPhysicalIOConfiguration(), telemetry);
+    this.memoryManager = new MemoryManager(telemetry, configuration.getPhysicalIOConfiguration());
+    // Cache lookups do not block, so blocks are initialised on the calling thread without a pool
     this.objectBlobStore =
         new BlobStore(
             objectClient,
             telemetry,
             configuration.getPhysicalIOConfiguration(),
             cache,
-            executorService);
+            createAdmissionFilter(cache, configuration.getPhysicalIOConfiguration(), telemetry),
+            drainExecutor,
+            blockAllocator,
+            memoryManager);
+  }
+
+  private static Cache createCache(PhysicalIOConfiguration configuration, Telemetry telemetry) {
+    switch (configuration.getCacheType()) {
+      case DISK:
+        LOG.info("Using disk cache in {}", configuration.getDiskCacheDirectory());
+        return wrapSharedCache(new DiskCacheImpl(configuration), configuration, telemetry);
+
+      case MEMORY:
+        LOG.info("Using in-memory cache");
+        return new MemoryCacheImpl(telemetry, configuration);
+
+      default:
+        return wrapSharedCache(new ValkeyCacheImpl(configuration), configuration, telemetry);
+    }
+  }
+
+  private static Cache wrapSharedCache(
+      Cache cache, PhysicalIOConfiguration configuration, Telemetry telemetry) {
+    // The cache is bypassed while it fails or answers slower than S3
+    Cache guardedCache =
+        configuration.isEnableCacheCircuitBreaker()
+            ? new CircuitBreakerCacheImpl(telemetry, cache, configuration)
+            : cache;
+    // Updates of the Valkey or disk cache are written in the background, off the read path
+    Cache writeBehindCache = new WriteBehindCacheImpl(telemetry, guardedCache, configuration);
+    if (!configuration.isEnableNearCache()) {
+      return writeBehindCache;
+    }
+
+    LOG.info("Using near cache of {} bytes", configuration.getNearCacheCapacityBytes());
+    return new TieredCacheImpl(
+        telemetry,
+        new MemoryCacheImpl(telemetry, configuration.getNearCacheCapacityBytes()),
+        writeBehindCache);
+  }
+
+  private static CacheAdmissionFilter createAdmissionFilter(
+      Cache cache, PhysicalIOConfiguration configuration, Telemetry telemetry) {
+    if (cache == null || !configuration.isEnableCacheAdmission()) {
+      return null;
+    }
+    // A single filter learns from the lookups of all streams
+    return new CacheAdmissionFilterImpl(telemetry, configuration);
+  }
+
+  private static BlockAllocator createBlockAllocator(
+      PhysicalIOConfiguration configuration, Telemetry telemetry) {
+    switch (configuration.getBlockAllocatorType()) {
+      case DIRECT_POOLED:
+        LOG.info("Using pooled direct memory for block data");
+        return new PooledDirectBlockAllocator(
+            telemetry,
+            configuration.getMinSlabSizeBytes(),
+            configuration.getMaxSlabSizeBytes(),
+            configuration.getSlabPoolCapacityBytes());
+
+      default:
+        return HeapBlockAllocator.DEFAULT;
+    }
   }
 
   /**
@@ -160,7 +239,8 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
                 objectMetadataStore,
                 objectBlobStore,
                 telemetry,
-                openStreamInformation.getStreamContext()),
+                openStreamInformation.getStreamContext(),
+                getOpenTailLength(s3URI)),
             telemetry,
             configuration.getLogicalIOConfiguration(),
             parquetColumnPrefetchStore);
@@ -173,7 +253,9 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
                 objectMetadataStore,
                 objectBlobStore,
                 telemetry,
-                openStreamInformation.getStreamContext()),
+                openStreamInformation.getStreamContext(),
+                getSequentialOpenMode(),
+                configuration.getLogicalIOConfiguration().getSmallObjectSizeThreshold()),
             telemetry,
             configuration.getLogicalIOConfiguration());
 
@@ -190,6 +272,41 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
     }
   }
 
+  /**
+   * When fast open is enabled, Parquet objects are opened with a suffix range GET of the footer
+   * instead of a HEAD request followed by a footer GET. The GET is sized to the footers seen under
+   * the same prefix when adaptive footer prefetching is enabled.
+   */
+  private long getOpenTailLength(S3URI s3URI) {
+    LogicalIOConfiguration logicalIOConfiguration = configuration.getLogicalIOConfiguration();
+    if (!logicalIOConfiguration.isParquetFastOpenEnabled()
+        || !logicalIOConfiguration.isPrefetchFooterEnabled()) {
+      return 0;
+    }
+
+    long fileMetadataSize = logicalIOConfiguration.getPrefetchFileMetadataSize();
+    if (logicalIOConfiguration.isAdaptiveFooterPrefetchEnabled()) {
+      return parquetColumnPrefetchStore
+          .getFooterPrefetchSize(s3URI, new FooterPrefetchSize(fileMetadataSize, 0))
+          .getFileMetadataPrefetchSize();
+    }
+    return fileMetadataSize;
+  }
+
+  /**
+   * When fast open is enabled, sequentially read objects are opened with a GET of their first bytes
+   * instead of a HEAD request, as the reads start at the beginning of the object anyway. Objects
+   * below the small object threshold are read whole by that GET.
+   */
+  private OpenMode getSequentialOpenMode() {
+    LogicalIOConfiguration logicalIOConfiguration = configuration.getLogicalIOConfiguration();
+    if (logicalIOConfiguration.isSequentialFastOpenEnabled()
+        && logicalIOConfiguration.getSmallObjectSizeThreshold() > 0) {
+      return OpenMode.FIRST_BYTES;
+    }
+    return OpenMode.HEAD;
+  }
+
   void storeObjectMetadata(S3URI s3URI, ObjectMetadata metadata) {
     if (metadata != null) {
       objectMetadataStore.storeObjectMetadata(s3URI, metadata);
@@ -207,6 +324,8 @@ public class S3SeekableInputStreamFactory implements AutoCloseable {
 
     this.objectMetadataStore.close();
     this.objectBlobStore.close();
+    this.drainExecutor.close();
+    this.blockAllocator.close();
     this.telemetry.close();
   }
 
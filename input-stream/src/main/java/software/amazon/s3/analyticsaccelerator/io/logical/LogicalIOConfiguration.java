@@ -32,6 +32,9 @@ import software.amazon.s3.analyticsaccelerator.util.PrefetchMode;
 public class LogicalIOConfiguration {
   private static final boolean DEFAULT_PREFETCH_FOOTER_ENABLED = true;
   private static final boolean DEFAULT_PREFETCH_PAGE_INDEX_ENABLED = true;
+  private static final boolean DEFAULT_PARQUET_FAST_OPEN_ENABLED = false;
+  private static final boolean DEFAULT_SEQUENTIAL_FAST_OPEN_ENABLED = false;
+  private static final boolean DEFAULT_ADAPTIVE_FOOTER_PREFETCH_ENABLED = true;
   private static final long DEFAULT_PREFETCH_FILE_METADATA_SIZE = 32 * ONE_KB;
   private static final long DEFAULT_PREFETCH_LARGE_FILE_METADATA_SIZE = ONE_MB;
   private static final long DEFAULT_PREFETCH_FILE_PAGE_INDEX_SIZE = ONE_MB;
@@ -57,6 +60,20 @@ public class LogicalIOConfiguration {
 
   private static final String PAGE_INDEX_PREFETCH_ENABLED_KEY = "prefetch.page.index.enabled";
 
+  @Builder.Default private boolean parquetFastOpenEnabled = DEFAULT_PARQUET_FAST_OPEN_ENABLED;
+
+  private static final String PARQUET_FAST_OPEN_ENABLED_KEY = "parquet.fast.open.enabled";
+
+  @Builder.Default private boolean sequentialFastOpenEnabled = DEFAULT_SEQUENTIAL_FAST_OPEN_ENABLED;
+
+  private static final String SEQUENTIAL_FAST_OPEN_ENABLED_KEY = "sequential.fast.open.enabled";
+
+  @Builder.Default
+  private boolean adaptiveFooterPrefetchEnabled = DEFAULT_ADAPTIVE_FOOTER_PREFETCH_ENABLED;
+
+  private static final String ADAPTIVE_FOOTER_PREFETCH_ENABLED_KEY =
+      "prefetch.footer.adaptive.enabled";
+
   @Builder.Default private long prefetchFileMetadataSize = DEFAULT_PREFETCH_FILE_METADATA_SIZE;
 
   private static final String PREFETCH_FILE_METADATA_SIZE_KEY = "prefetch.file.metadata.size";
@@ -137,6 +154,15 @@ public class LogicalIOConfiguration {
         .prefetchPageIndexEnabled(
             configuration.getBoolean(
                 PAGE_INDEX_PREFETCH_ENABLED_KEY, DEFAULT_PREFETCH_PAGE_INDEX_ENABLED))
+        .parquetFastOpenEnabled(
+            configuration.getBoolean(
+                PARQUET_FAST_OPEN_ENABLED_KEY, DEFAULT_PARQUET_FAST_OPEN_ENABLED))
+        .sequentialFastOpenEnabled(
+            configuration.getBoolean(
+                SEQUENTIAL_FAST_OPEN_ENABLED_KEY, DEFAULT_SEQUENTIAL_FAST_OPEN_ENABLED))
+        .adaptiveFooterPrefetchEnabled(
+            configuration.getBoolean(
+                ADAPTIVE_FOOTER_PREFETCH_ENABLED_KEY, DEFAULT_ADAPTIVE_FOOTER_PREFETCH_ENABLED))
         .prefetchFileMetadataSize(
             configuration.getLong(
                 PREFETCH_FILE_METADATA_SIZE_KEY, DEFAULT_PREFETCH_FILE_METADATA_SIZE))
@@ -186,6 +212,9 @@ public class LogicalIOConfiguration {
     builder.append("LogicalIO configuration:\n");
     builder.append("\tprefetchFooterEnabled: " + prefetchFooterEnabled + "\n");
     builder.append("\tprefetchPageIndexEnabled: " + prefetchPageIndexEnabled + "\n");
+    builder.append("\tparquetFastOpenEnabled: " + parquetFastOpenEnabled + "\n");
+    builder.append("\tsequentialFastOpenEnabled: " + sequentialFastOpenEnabled + "\n");
+    builder.append("\tadaptiveFooterPrefetchEnabled: " + adaptiveFooterPrefetchEnabled + "\n");
     builder.append("\tprefetchFileMetadataSize: " + prefetchFileMetadataSize + "\n");
     builder.append("\tprefetchLargeFileMetadataSize: " + prefetchLargeFileMetadataSize + "\n");
     builder.append("\tprefetchFilePageIndexSize: " + prefetchFilePageIndexSize + "\n");
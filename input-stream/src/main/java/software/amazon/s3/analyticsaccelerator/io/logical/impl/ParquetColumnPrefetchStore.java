@@ -27,6 +27,7 @@ import java.util.Set;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMappers;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMetadata;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.FooterPrefetchSize;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetMetadataParsingTask;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ParquetPredictivePrefetchingTask;
 import software.amazon.s3.analyticsaccelerator.util.PrefetchMode;
@@ -120,6 +121,17 @@ public class ParquetColumnPrefetchStore {
    */
   private final Map<S3URI, List<Integer>> dictionaryRowGroupsPrefetched;
 
+  /**
+   * These are mappings of key prefixes to the recent footer and page index lengths seen for Parquet
+   * files under them. Files of the same table are usually written under the same prefix and have
+   * footers of similar sizes, so the lengths seen for one file are a better guess of the bytes to
+   * prefetch from the tail of the next one than the fixed sizes in {@link LogicalIOConfiguration}.
+   * The prefix is used rather than the schema hash as it is known before the footer is read.
+   */
+  private final Map<String, Long> footerSizesPerPrefix;
+
+  private final Map<String, Long> pageIndexSizesPerPrefix;
+
   private final LogicalIOConfiguration configuration;
 
   /**
@@ -188,6 +200,17 @@ public class ParquetColumnPrefetchStore {
     this.columnRowGroupsPrefetched = columnRowGroupsPrefetched;
     this.recentlyReadDictionariesPerSchema = recentlyReadDictionariesPerSchema;
     this.dictionaryRowGroupsPrefetched = dictionaryRowGroupsPrefetched;
+    this.footerSizesPerPrefix = newFooterSizeMap(configuration);
+    this.pageIndexSizesPerPrefix = newFooterSizeMap(configuration);
+  }
+
+  private static Map<String, Long> newFooterSizeMap(LogicalIOConfiguration configuration) {
+    return new LinkedHashMap<String, Long>() {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+        return this.size() > configuration.getParquetMetadataStoreSize();
+      }
+    };
   }
 
   /**
@@ -381,4 +404,66 @@ public class ParquetColumnPrefetchStore {
     rowGroupsPrefetchedForKey.add(rowGroupIndex);
     rowGroupsPrefetched.put(s3URI, rowGroupsPrefetchedForKey);
   }
+
+  /**
+   * Records the length of the footer of a Parquet file, that is the file metadata followed by its
+   * length and the magic string. Later tail prefetches for files under the same prefix use the
+   * recent lengths recorded, capped at {@link
+   * LogicalIOConfiguration#getPrefetchLargeFileMetadataSize()}.
+   *
+   * @param s3URI the Parquet file
+   * @param footerSize the length of its footer in bytes
+   */
+  public synchronized void recordFooterSize(S3URI s3URI, long footerSize) {
+    recordSize(
+        s3URI, footerSize, configuration.getPrefetchLargeFileMetadataSize(), footerSizesPerPrefix);
+  }
+
+  /**
+   * Records the length of the page index of a Parquet file, that is the column and offset indexes
+   * written in front of its footer. Lengths are capped at {@link
+   * LogicalIOConfiguration#getPrefetchLargeFilePageIndexSize()}.
+   *
+   * @param s3URI the Parquet file
+   * @param pageIndexSize the length of its page index in bytes
+   */
+  public synchronized void recordPageIndexSize(S3URI s3URI, long pageIndexSize) {
+    recordSize(
+        s3URI,
+        pageIndexSize,
+        configuration.getPrefetchLargeFilePageIndexSize(),
+        pageIndexSizesPerPrefix);
+  }
+
+  /**
+   * Gets the sizes to prefetch from the tail of a Parquet file. Sizes recorded for files under the
+   * same prefix replace the given defaults.
+   *
+   * @param s3URI the Parquet file
+   * @param defaultSize the sizes to use when none were recorded
+   * @return the sizes to prefetch
+   */
+  public synchronized FooterPrefetchSize getFooterPrefetchSize(
+      S3URI s3URI, FooterPrefetchSize defaultSize) {
+    String prefix = keyPrefix(s3URI);
+    return new FooterPrefetchSize(
+        footerSizesPerPrefix.getOrDefault(prefix, defaultSize.getFileMetadataPrefetchSize()),
+        pageIndexSizesPerPrefix.getOrDefault(prefix, defaultSize.getPageIndexPrefetchSize()));
+  }
+
+  // A length smaller than the learned one pulls it half way down, so that a single outlier only
+  // inflates the prefetches of the next few files. The cap keeps a bogus length from turning tail
+  // prefetches into reads of whole files.
+  private static void recordSize(
+      S3URI s3URI, long size, long maxSize, Map<String, Long> sizesPerPrefix) {
+    sizesPerPrefix.merge(
+        keyPrefix(s3URI),
+        Math.min(size, maxSize),
+        (learned, recorded) -> recorded >= learned ? recorded : (learned + recorded) / 2);
+  }
+
+  private static String keyPrefix(S3URI s3URI) {
+    String key = s3URI.getKey();
+    return s3URI.getBucket() + "/" + key.substring(0, key.lastIndexOf('/') + 1);
+  }
 }
@@ -84,8 +84,10 @@ public class ParquetPrefetcher {
         parquetColumnPrefetchStore,
         telemetry,
         new ParquetMetadataParsingTask(s3Uri, parquetColumnPrefetchStore),
-        new ParquetPrefetchTailTask(s3Uri, telemetry, logicalIOConfiguration, physicalIO),
-        new ParquetReadTailTask(s3Uri, telemetry, logicalIOConfiguration, physicalIO),
+        new ParquetPrefetchTailTask(
+            s3Uri, telemetry, logicalIOConfiguration, physicalIO, parquetColumnPrefetchStore),
+        new ParquetReadTailTask(
+            s3Uri, telemetry, logicalIOConfiguration, physicalIO, parquetColumnPrefetchStore),
         new ParquetPrefetchRemainingColumnTask(
             s3Uri, telemetry, physicalIO, parquetColumnPrefetchStore),
         new ParquetPredictivePrefetchingTask(
@@ -164,7 +166,7 @@ public class ParquetPrefetcher {
           CompletableFuture.supplyAsync(parquetReadTailTask::readFileTail)
               .thenApply(parquetMetadataParsingTask::storeColumnMappers)
               .exceptionally(
-                  (e) -> new ColumnMappers(Collections.emptyMap(), Collections.emptyMap()));
+                  (e) -> new ColumnMappers(ColumnOffsetIndex.EMPTY, Collections.emptyMap()));
 
       return prefetchPredictedColumns(columnMappersCompletableFuture);
     }
@@ -17,11 +17,37 @@ package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
 
 import java.util.List;
 import java.util.Map;
+import lombok.NonNull;
 import lombok.Value;
 
 /** Mappings of parquet column file offset index to column name and vice versa. */
 @Value
 public class ColumnMappers {
-  Map<Long, ColumnMetadata> offsetIndexToColumnMap;
+  ColumnOffsetIndex offsetIndex;
   Map<String, List<ColumnMetadata>> columnNameToColumnMap;
+
+  /**
+   * Creates a new instance of {@link ColumnMappers}.
+   *
+   * @param offsetIndex index of the column chunks by their start offset
+   * @param columnNameToColumnMap mapping of column names to their chunks in every row group
+   */
+  public ColumnMappers(
+      @NonNull ColumnOffsetIndex offsetIndex,
+      @NonNull Map<String, List<ColumnMetadata>> columnNameToColumnMap) {
+    this.offsetIndex = offsetIndex;
+    this.columnNameToColumnMap = columnNameToColumnMap;
+  }
+
+  /**
+   * Creates a new instance of {@link ColumnMappers} from a map of offsets to column chunks.
+   *
+   * @param offsetIndexToColumnMap mapping of offsets to the column chunks starting there
+   * @param columnNameToColumnMap mapping of column names to their chunks in every row group
+   */
+  public ColumnMappers(
+      @NonNull Map<Long, ColumnMetadata> offsetIndexToColumnMap,
+      @NonNull Map<String, List<ColumnMetadata>> columnNameToColumnMap) {
+    this(ColumnOffsetIndex.of(offsetIndexToColumnMap), columnNameToColumnMap);
+  }
 }
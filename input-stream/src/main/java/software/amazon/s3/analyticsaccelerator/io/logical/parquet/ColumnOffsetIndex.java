@@ -0,0 +1,165 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+/**
+ * Index of the column chunks of a Parquet file by their start offset. The offsets are held in a
+ * sorted primitive array, so that the chunk starting at, or containing, a position is found with a
+ * binary search, and the index takes a fraction of the memory of a map of boxed offsets.
+ */
+@EqualsAndHashCode
+public final class ColumnOffsetIndex {
+  private final long[] offsets;
+  private final ColumnMetadata[] columns;
+
+  /** An index without any column chunks */
+  public static final ColumnOffsetIndex EMPTY =
+      new ColumnOffsetIndex(new long[0], new ColumnMetadata[0]);
+
+  private ColumnOffsetIndex(long[] offsets, ColumnMetadata[] columns) {
+    this.offsets = offsets;
+    this.columns = columns;
+  }
+
+  /**
+   * Creates an index of the given column chunks by their start position. If several chunks start at
+   * the same position, the last one wins.
+   *
+   * @param columns the column chunks to index
+   * @return the index
+   */
+  public static ColumnOffsetIndex of(@NonNull Collection<ColumnMetadata> columns) {
+    ColumnMetadata[] sortedColumns = columns.toArray(new ColumnMetadata[0]);
+    // The sort is stable, so chunks sharing a start position stay in their original order
+    Arrays.sort(sortedColumns, Comparator.comparingLong(ColumnMetadata::getStartPos));
+
+    long[] offsets = new long[sortedColumns.length];
+    int size = 0;
+    for (ColumnMetadata column : sortedColumns) {
+      if (size > 0 && offsets[size - 1] == column.getStartPos()) {
+        size--;
+      }
+      offsets[size] = column.getStartPos();
+      sortedColumns[size] = column;
+      size++;
+    }
+
+    return new ColumnOffsetIndex(Arrays.copyOf(offsets, size), Arrays.copyOf(sortedColumns, size));
+  }
+
+  /**
+   * Creates an index from a map of offsets to column chunks.
+   *
+   * @param offsetToColumnMap mapping of offsets to the column chunks starting there
+   * @return the index
+   */
+  public static ColumnOffsetIndex of(@NonNull Map<Long, ColumnMetadata> offsetToColumnMap) {
+    List<Map.Entry<Long, ColumnMetadata>> entries = new ArrayList<>(offsetToColumnMap.entrySet());
+    entries.sort(Map.Entry.comparingByKey());
+
+    long[] offsets = new long[entries.size()];
+    ColumnMetadata[] columns = new ColumnMetadata[entries.size()];
+    for (int i = 0; i < entries.size(); i++) {
+      offsets[i] = entries.get(i).getKey();
+      columns[i] = entries.get(i).getValue();
+    }
+
+    return new ColumnOffsetIndex(offsets, columns);
+  }
+
+  /**
+   * Gets the column chunk starting at the given offset.
+   *
+   * @param offset the offset in the file
+   * @return the column chunk starting at the offset, or null if there is none
+   */
+  public ColumnMetadata get(long offset) {
+    int index = Arrays.binarySearch(offsets, offset);
+    return index >= 0 ? columns[index] : null;
+  }
+
+  /**
+   * Checks whether a column chunk starts at the given offset.
+   *
+   * @param offset the offset in the file
+   * @return true if a column chunk starts at the offset
+   */
+  public boolean containsOffset(long offset) {
+    return Arrays.binarySearch(offsets, offset) >= 0;
+  }
+
+  /**
+   * Gets the column chunk a position lies within, excluding its start. A chunk is taken to extend
+   * up to the start of the next one, and the last chunk up to the end of its compressed data.
+   *
+   * @param position the position in the file
+   * @return the column chunk containing the position, or null if there is none
+   */
+  public ColumnMetadata getContaining(long position) {
+    int index = Arrays.binarySearch(offsets, position);
+    if (index >= 0) {
+      return null;
+    }
+
+    int preceding = -index - 2;
+    if (preceding < 0) {
+      return null;
+    }
+
+    long end =
+        preceding == offsets.length - 1
+            ? offsets[preceding] + columns[preceding].getCompressedSize()
+            : offsets[preceding + 1];
+    return position < end ? columns[preceding] : null;
+  }
+
+  /**
+   * Gets the indexed column chunks, ordered by their start offset.
+   *
+   * @return the column chunks
+   */
+  public List<ColumnMetadata> getColumns() {
+    return Collections.unmodifiableList(Arrays.asList(columns));
+  }
+
+  /**
+   * Gets the number of indexed column chunks.
+   *
+   * @return the number of column chunks
+   */
+  public int size() {
+    return offsets.length;
+  }
+
+  /**
+   * Checks whether the index has no column chunks.
+   *
+   * @return true if the index is empty
+   */
+  public boolean isEmpty() {
+    return offsets.length == 0;
+  }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.NonNull;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.RowGroup;
+
+/**
+ * Decodes the parts of a Parquet footer used by the prefetcher, directly from the thrift compact
+ * protocol bytes held in a {@link ByteBuffer}. Only the row groups, and for each column chunk its
+ * offsets, sizes, path and page index locations are decoded; everything else, such as the schema,
+ * statistics, encodings and key/value metadata, is skipped over without being materialised.
+ *
+ * <p>The returned {@link FileMetaData} only has these fields set, and so does not pass thrift
+ * validation of required fields.
+ */
+public final class ParquetFooterDecoder {
+  private static final int TYPE_STOP = 0;
+  private static final int TYPE_BOOLEAN_TRUE = 1;
+  private static final int TYPE_BOOLEAN_FALSE = 2;
+  private static final int TYPE_BYTE = 3;
+  private static final int TYPE_I16 = 4;
+  private static final int TYPE_I32 = 5;
+  private static final int TYPE_I64 = 6;
+  private static final int TYPE_DOUBLE = 7;
+  private static final int TYPE_BINARY = 8;
+  private static final int TYPE_LIST = 9;
+  private static final int TYPE_SET = 10;
+  private static final int TYPE_MAP = 11;
+  private static final int TYPE_STRUCT = 12;
+
+  private static final int FIELD_STOP = Integer.MIN_VALUE;
+  private static final int MAX_DEPTH = 64;
+
+  private static final int FILE_METADATA_ROW_GROUPS = 4;
+  private static final int ROW_GROUP_COLUMNS = 1;
+  private static final int COLUMN_CHUNK_FILE_OFFSET = 2;
+  private static final int COLUMN_CHUNK_META_DATA = 3;
+  private static final int COLUMN_CHUNK_OFFSET_INDEX_OFFSET = 4;
+  private static final int COLUMN_CHUNK_OFFSET_INDEX_LENGTH = 5;
+  private static final int COLUMN_CHUNK_COLUMN_INDEX_OFFSET = 6;
+  private static final int COLUMN_CHUNK_COLUMN_INDEX_LENGTH = 7;
+  private static final int COLUMN_META_DATA_PATH_IN_SCHEMA = 3;
+  private static final int COLUMN_META_DATA_TOTAL_COMPRESSED_SIZE = 7;
+  private static final int COLUMN_META_DATA_DATA_PAGE_OFFSET = 9;
+  private static final int COLUMN_META_DATA_DICTIONARY_PAGE_OFFSET = 11;
+
+  private final ByteBuffer buffer;
+  // Type of the last field header or list element read
+  private int fieldType;
+
+  private ParquetFooterDecoder(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * Decodes the file metadata held between the position and the limit of the buffer. The position
+   * of the buffer is left unchanged.
+   *
+   * @param fileMetadata the serialized file metadata, without its length and magic string
+   * @return the file metadata, with only the fields used by the prefetcher set
+   * @throws IOException if the file metadata is truncated or malformed
+   */
+  public static FileMetaData decode(@NonNull ByteBuffer fileMetadata) throws IOException {
+    try {
+      return new ParquetFooterDecoder(fileMetadata.duplicate()).readFileMetaData();
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Parquet file metadata is truncated", e);
+    }
+  }
+
+  private FileMetaData readFileMetaData() throws IOException {
+    FileMetaData fileMetaData = new FileMetaData();
+    int fieldId = 0;
+    while ((fieldId = readFieldHeader(fieldId)) != FIELD_STOP) {
+      if (fieldId == FILE_METADATA_ROW_GROUPS && fieldType == TYPE_LIST) {
+        int size = readListHeader(TYPE_STRUCT);
+        List<RowGroup> rowGroups = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          rowGroups.add(readRowGroup());
+        }
+        fileMetaData.setRow_groups(rowGroups);
+      } else {
+        skipValue(fieldType, 0);
+      }
+    }
+
+    if (!fileMetaData.isSetRow_groups()) {
+      throw new IOException("Parquet file metadata has no row groups");
+    }
+    return fileMetaData;
+  }
+
+  private RowGroup readRowGroup() throws IOException {
+    RowGroup rowGroup = new RowGroup();
+    int fieldId = 0;
+    while ((fieldId = readFieldHeader(fieldId)) != FIELD_STOP) {
+      if (fieldId == ROW_GROUP_COLUMNS && fieldType == TYPE_LIST) {
+        int size = readListHeader(TYPE_STRUCT);
+        List<ColumnChunk> columns = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          columns.add(readColumnChunk());
+        }
+        rowGroup.setColumns(columns);
+      } else {
+        skipValue(fieldType, 1);
+      }
+    }
+    return rowGroup;
+  }
+
+  private ColumnChunk readColumnChunk() throws IOException {
+    ColumnChunk columnChunk = new ColumnChunk();
+    int fieldId = 0;
+    while ((fieldId = readFieldHeader(fieldId)) != FIELD_STOP) {
+      if (fieldId == COLUMN_CHUNK_FILE_OFFSET && fieldType == TYPE_I64) {
+        columnChunk.setFile_offset(readI64());
+      } else if (fieldId == COLUMN_CHUNK_META_DATA && fieldType == TYPE_STRUCT) {
+        columnChunk.setMeta_data(readColumnMetaData());
+      } else if (fieldId == COLUMN_CHUNK_OFFSET_INDEX_OFFSET && fieldType == TYPE_I64) {
+        columnChunk.setOffset_index_offset(readI64());
+      } else if (fieldId == COLUMN_CHUNK_OFFSET_INDEX_LENGTH && fieldType == TYPE_I32) {
+        columnChunk.setOffset_index_length(readI32());
+      } else if (fieldId == COLUMN_CHUNK_COLUMN_INDEX_OFFSET && fieldType == TYPE_I64) {
+        columnChunk.setColumn_index_offset(readI64());
+      } else if (fieldId == COLUMN_CHUNK_COLUMN_INDEX_LENGTH && fieldType == TYPE_I32) {
+        columnChunk.setColumn_index_length(readI32());
+      } else {
+        skipValue(fieldType, 2);
+      }
+    }
+    return columnChunk;
+  }
+
+  private ColumnMetaData readColumnMetaData() throws IOException {
+    ColumnMetaData columnMetaData = new ColumnMetaData();
+    int fieldId = 0;
+    while ((fieldId = readFieldHeader(fieldId)) != FIELD_STOP) {
+      if (fieldId == COLUMN_META_DATA_PATH_IN_SCHEMA && fieldType == TYPE_LIST) {
+        int size = readListHeader(TYPE_BINARY);
+        List<String> path = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          path.add(readString());
+        }
+        columnMetaData.setPath_in_schema(path);
+      } else if (fieldId == COLUMN_META_DATA_TOTAL_COMPRESSED_SIZE && fieldType == TYPE_I64) {
+        columnMetaData.setTotal_compressed_size(readI64());
+      } else if (fieldId == COLUMN_META_DATA_DATA_PAGE_OFFSET && fieldType == TYPE_I64) {
+        columnMetaData.setData_page_offset(readI64());
+      } else if (fieldId == COLUMN_META_DATA_DICTIONARY_PAGE_OFFSET && fieldType == TYPE_I64) {
+        columnMetaData.setDictionary_page_offset(readI64());
+      } else {
+        skipValue(fieldType, 3);
+      }
+    }
+    return columnMetaData;
+  }
+
+  /**
+   * Reads a field header, setting {@link #fieldType} to the type of the field.
+   *
+   * @param lastFieldId the id of the previous field of the struct, or 0 for the first one
+   * @return the id of the field, or {@link #FIELD_STOP} at the end of the struct
+   */
+  private int readFieldHeader(int lastFieldId) throws IOException {
+    byte header = buffer.get();
+    fieldType = header & 0x0F;
+    if (fieldType == TYPE_STOP) {
+      return FIELD_STOP;
+    }
+
+    // The id is either stored as a delta from the previous one in the upper nibble, or follows
+    int delta = (header & 0xF0) >>> 4;
+    return delta != 0 ? lastFieldId + delta : (short) readI32();
+  }
+
+  /**
+   * Reads a list or set header, setting {@link #fieldType} to the type of the elements.
+   *
+   * @param expectedElementType the type of the elements expected, or -1 to accept any
+   * @return the number of elements
+   */
+  private int readListHeader(int expectedElementType) throws IOException {
+    byte header = buffer.get();
+    int size = (header >> 4) & 0x0F;
+    if (size == 0x0F) {
+      size = readVarint32();
+    }
+    fieldType = header & 0x0F;
+
+    if (expectedElementType != -1 && fieldType != expectedElementType) {
+      throw new IOException(
+          "Unexpected element type in Parquet file metadata: "
+              + fieldType
+              + ", expected "
+              + expectedElementType);
+    }
+    // Every element takes at least a byte, which bounds the size of a well formed list
+    if (size < 0 || size > buffer.remaining()) {
+      throw new IOException("Invalid list size in Parquet file metadata: " + size);
+    }
+    return size;
+  }
+
+  private void skipValue(int type, int depth) throws IOException {
+    if (depth > MAX_DEPTH) {
+      throw new IOException("Parquet file metadata is nested too deeply");
+    }
+
+    switch (type) {
+      case TYPE_BOOLEAN_TRUE:
+      case TYPE_BOOLEAN_FALSE:
+        // The value of boolean fields is held in the field header
+        break;
+      case TYPE_BYTE:
+        buffer.get();
+        break;
+      case TYPE_I16:
+      case TYPE_I32:
+      case TYPE_I64:
+        readVarint64();
+        break;
+      case TYPE_DOUBLE:
+        skipBytes(Double.BYTES);
+        break;
+      case TYPE_BINARY:
+        skipBytes(readVarint32());
+        break;
+      case TYPE_LIST:
+      case TYPE_SET:
+        int size = readListHeader(-1);
+        int elementType = fieldType;
+        for (int i = 0; i < size; i++) {
+          skipElement(elementType, depth + 1);
+        }
+        break;
+      case TYPE_MAP:
+        int entries = readVarint32();
+        if (entries < 0 || entries > buffer.remaining()) {
+          throw new IOException("Invalid map size in Parquet file metadata: " + entries);
+        }
+        if (entries > 0) {
+          byte types = buffer.get();
+          for (int i = 0; i < entries; i++) {
+            skipElement((types >> 4) & 0x0F, depth + 1);
+            skipElement(types & 0x0F, depth + 1);
+          }
+        }
+        break;
+      case TYPE_STRUCT:
+        int fieldId = 0;
+        while ((fieldId = readFieldHeader(fieldId)) != FIELD_STOP) {
+          skipValue(fieldType, depth + 1);
+        }
+        break;
+      default:
+        throw new IOException("Unknown type in Parquet file metadata: " + type);
+    }
+  }
+
+  private void skipElement(int type, int depth) throws IOException {
+    // Unlike boolean fields, boolean elements of containers take a byte each
+    if (type == TYPE_BOOLEAN_TRUE || type == TYPE_BOOLEAN_FALSE) {
+      buffer.get();
+    } else {
+      skipValue(type, depth);
+    }
+  }
+
+  private void skipBytes(int length) throws IOException {
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("Invalid length in Parquet file metadata: " + length);
+    }
+    buffer.position(buffer.position() + length);
+  }
+
+  private String readString() throws IOException {
+    int length = readVarint32();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("Invalid string length in Parquet file metadata: " + length);
+    }
+
+    if (!buffer.hasArray()) {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int start = buffer.arrayOffset() + buffer.position();
+    buffer.position(buffer.position() + length);
+    return new String(buffer.array(), start, length, StandardCharsets.UTF_8);
+  }
+
+  private int readI32() throws IOException {
+    int value = readVarint32();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private long readI64() throws IOException {
+    long value = readVarint64();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private int readVarint32() throws IOException {
+    return (int) readVarint64();
+  }
+
+  private long readVarint64() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint in Parquet file metadata");
+  }
+}
@@ -81,6 +81,7 @@ public class ParquetMetadataParsingTask {
               fileTail.getFileTail(), fileTail.getFileTailLength(), this.s3URI);
       ColumnMappers columnMappers = buildColumnMaps(fileMetaData);
       parquetColumnPrefetchStore.putColumnMappers(this.s3URI, columnMappers);
+      parquetColumnPrefetchStore.recordPageIndexSize(this.s3URI, getPageIndexSize(fileMetaData));
       return columnMappers;
     } catch (Exception e) {
       LOG.debug(
@@ -92,7 +93,7 @@ public class ParquetMetadataParsingTask {
   }
 
   private ColumnMappers buildColumnMaps(FileMetaData fileMetaData) {
-    HashMap<Long, ColumnMetadata> offsetIndexToColumnMap = new HashMap<>();
+    List<ColumnMetadata> columns = new ArrayList<>();
     HashMap<String, List<ColumnMetadata>> columnNameToColumnMap = new HashMap<>();
     String concatenatedColumnNames = concatColumnNames(fileMetaData);
 
@@ -114,8 +115,7 @@ public class ParquetMetadataParsingTask {
                   columnChunk.getMeta_data().getDictionary_page_offset(),
                   columnChunk.getMeta_data().getTotal_compressed_size(),
                   concatenatedColumnNames.hashCode());
-          offsetIndexToColumnMap.put(
-              columnChunk.getMeta_data().getDictionary_page_offset(), columnMetadata);
+          columns.add(columnMetadata);
           List<ColumnMetadata> columnMetadataList =
               columnNameToColumnMap.computeIfAbsent(columnName, metadataList -> new ArrayList<>());
           columnMetadataList.add(columnMetadata);
@@ -129,7 +129,7 @@ public class ParquetMetadataParsingTask {
                   columnChunk.getFile_offset(),
                   columnChunk.getMeta_data().getTotal_compressed_size(),
                   concatenatedColumnNames.hashCode());
-          offsetIndexToColumnMap.put(columnChunk.getFile_offset(), columnMetadata);
+          columns.add(columnMetadata);
           List<ColumnMetadata> columnMetadataList =
               columnNameToColumnMap.computeIfAbsent(columnName, metadataList -> new ArrayList<>());
           columnMetadataList.add(columnMetadata);
@@ -139,7 +139,39 @@ public class ParquetMetadataParsingTask {
       rowGroupIndex++;
     }
 
-    return new ColumnMappers(offsetIndexToColumnMap, columnNameToColumnMap);
+    return new ColumnMappers(ColumnOffsetIndex.of(columns), columnNameToColumnMap);
+  }
+
+  /**
+   * Gets the length of the page index, that is the span covering the column and offset indexes of
+   * all column chunks. Writers lay these out together in front of the footer.
+   *
+   * @param fileMetaData the parsed file metadata
+   * @return the length of the page index, or 0 if the file has none
+   */
+  private long getPageIndexSize(FileMetaData fileMetaData) {
+    long pageIndexStart = Long.MAX_VALUE;
+    long pageIndexEnd = 0;
+    for (RowGroup rowGroup : fileMetaData.getRow_groups()) {
+      for (ColumnChunk columnChunk : rowGroup.getColumns()) {
+        if (columnChunk.isSetColumn_index_offset()) {
+          pageIndexStart = Math.min(pageIndexStart, columnChunk.getColumn_index_offset());
+          pageIndexEnd =
+              Math.max(
+                  pageIndexEnd,
+                  columnChunk.getColumn_index_offset() + columnChunk.getColumn_index_length());
+        }
+        if (columnChunk.isSetOffset_index_offset()) {
+          pageIndexStart = Math.min(pageIndexStart, columnChunk.getOffset_index_offset());
+          pageIndexEnd =
+              Math.max(
+                  pageIndexEnd,
+                  columnChunk.getOffset_index_offset() + columnChunk.getOffset_index_length());
+        }
+      }
+    }
+
+    return pageIndexEnd > pageIndexStart ? pageIndexEnd - pageIndexStart : 0;
   }
 
   private String concatColumnNames(FileMetaData fileMetaData) {
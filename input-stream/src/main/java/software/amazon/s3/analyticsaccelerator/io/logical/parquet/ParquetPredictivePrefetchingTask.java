@@ -20,7 +20,6 @@ import static software.amazon.s3.analyticsaccelerator.util.Constants.DEFAULT_MIN
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import lombok.NonNull;
 import org.slf4j.Logger;
@@ -118,9 +117,8 @@ public class ParquetPredictivePrefetchingTask {
       ColumnMappers columnMappers = parquetColumnPrefetchStore.getColumnMappers(s3Uri);
       List<ColumnMetadata> addedColumns = new ArrayList<>();
 
-      if (columnMappers.getOffsetIndexToColumnMap().containsKey(position)) {
-        ColumnMetadata columnMetadata = columnMappers.getOffsetIndexToColumnMap().get(position);
-
+      ColumnMetadata columnMetadata = columnMappers.getOffsetIndex().get(position);
+      if (columnMetadata != null) {
         // If the column has a dictionary and the length of the read is <= the size of the
         // dictionary, then assume current read is for a dictionary only.
         if (isDictionaryRead(columnMetadata, len)) {
@@ -213,7 +211,7 @@ public class ParquetPredictivePrefetchingTask {
             List<Range> columnRanges = new ArrayList<>();
 
             for (String recentColumn :
-                getRecentColumns(columnMappers.getOffsetIndexToColumnMap(), isDictionary)) {
+                getRecentColumns(columnMappers.getOffsetIndex(), isDictionary)) {
               if (columnMappers.getColumnNameToColumnMap().containsKey(recentColumn)) {
                 List<ColumnMetadata> columnMetadataList =
                     columnMappers.getColumnNameToColumnMap().get(recentColumn);
@@ -285,7 +283,7 @@ public class ParquetPredictivePrefetchingTask {
    *
    * <p>Since the reads do not align to column boundaries, that is, they do not start at the file
    * offset of the column, to track columns for prefetching additional logic is required. Here, we
-   * loop through the column file offsets and find the column that this read belongs to. For
+   * binary search the sorted column file offsets to find the column that this read belongs to. For
    * example, for the read(8MB, 5MB) means we are reading column ss_b, since the position 8MB lies
    * within the boundary of ss_b as 8MB > file offset of ss_b > and 8MB < fil_offset of ss_c.
    *
@@ -295,29 +293,15 @@ public class ParquetPredictivePrefetchingTask {
    */
   private List<ColumnMetadata> addCurrentColumnAtPosition(
       long position, ColumnMappers columnMappers) {
-    ArrayList<Long> columnPositions =
-        new ArrayList<>(columnMappers.getOffsetIndexToColumnMap().keySet());
-    Collections.sort(columnPositions);
-
-    // For the last index, also add its end position so we can track reads that lie within
-    // that column boundary
-    long lastColumnStartPos = columnPositions.get(columnPositions.size() - 1);
-    ColumnMetadata lastColumnMetadata =
-        columnMappers.getOffsetIndexToColumnMap().get(lastColumnStartPos);
-    columnPositions.add(lastColumnStartPos + lastColumnMetadata.getCompressedSize());
-
-    for (int i = 0; i < columnPositions.size() - 1; i++) {
-      if (position > columnPositions.get(i) && position < columnPositions.get(i + 1)) {
-        ColumnMetadata currentColumnMetadata =
-            columnMappers.getOffsetIndexToColumnMap().get(columnPositions.get(i));
-        parquetColumnPrefetchStore.addRecentColumn(currentColumnMetadata);
-        List<ColumnMetadata> addedColumns = new ArrayList<>();
-        addedColumns.add(currentColumnMetadata);
-        return addedColumns;
-      }
+    ColumnMetadata currentColumnMetadata = columnMappers.getOffsetIndex().getContaining(position);
+    if (currentColumnMetadata == null) {
+      return Collections.emptyList();
     }
 
-    return Collections.emptyList();
+    parquetColumnPrefetchStore.addRecentColumn(currentColumnMetadata);
+    List<ColumnMetadata> addedColumns = new ArrayList<>();
+    addedColumns.add(currentColumnMetadata);
+    return addedColumns;
   }
 
   /**
@@ -344,8 +328,7 @@ public class ParquetPredictivePrefetchingTask {
       long currentPos = position + columnMetadata.getCompressedSize();
 
       while (remainingLen > 0) {
-        ColumnMetadata currentColumnMetadata =
-            columnMappers.getOffsetIndexToColumnMap().get(currentPos);
+        ColumnMetadata currentColumnMetadata = columnMappers.getOffsetIndex().get(currentPos);
 
         if (currentColumnMetadata == null || columnMetadata.getCompressedSize() == 0) {
           break;
@@ -361,13 +344,9 @@ public class ParquetPredictivePrefetchingTask {
     return addedColumns;
   }
 
-  private Set<String> getRecentColumns(
-      Map<Long, ColumnMetadata> offsetIndexToColumnMap, boolean isDictionary) {
-    if (!offsetIndexToColumnMap.isEmpty()) {
-      Map.Entry<Long, ColumnMetadata> firstColumnData =
-          offsetIndexToColumnMap.entrySet().iterator().next();
-
-      int schemaHash = firstColumnData.getValue().getSchemaHash();
+  private Set<String> getRecentColumns(ColumnOffsetIndex offsetIndex, boolean isDictionary) {
+    if (!offsetIndex.isEmpty()) {
+      int schemaHash = offsetIndex.getColumns().get(0).getSchemaHash();
 
       if (isDictionary) {
         return parquetColumnPrefetchStore.getUniqueRecentDictionaryForSchema(schemaHash);
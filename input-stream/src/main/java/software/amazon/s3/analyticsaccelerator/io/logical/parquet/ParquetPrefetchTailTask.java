@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetColumnPrefetchStore;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
 import software.amazon.s3.analyticsaccelerator.request.Range;
@@ -35,6 +36,7 @@ public class ParquetPrefetchTailTask {
   private final Telemetry telemetry;
   private final LogicalIOConfiguration logicalIOConfiguration;
   private final PhysicalIO physicalIO;
+  private final ParquetColumnPrefetchStore parquetColumnPrefetchStore;
   private static final String OPERATION_PARQUET_PREFETCH_TAIL = "parquet.task.prefetch.tail";
   private static final Logger LOG = LoggerFactory.getLogger(ParquetPrefetchTailTask.class);
 
@@ -51,10 +53,35 @@ public class ParquetPrefetchTailTask {
       @NonNull Telemetry telemetry,
       @NonNull LogicalIOConfiguration logicalIOConfiguration,
       @NonNull PhysicalIO physicalIO) {
+    this(
+        s3URI,
+        telemetry,
+        logicalIOConfiguration,
+        physicalIO,
+        new ParquetColumnPrefetchStore(logicalIOConfiguration));
+  }
+
+  /**
+   * Creates a new instance of {@link ParquetPrefetchTailTask} that sizes the prefetch with the
+   * footer and page index lengths learned by the given store.
+   *
+   * @param s3URI the S3URI of the object to prefetch
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param logicalIOConfiguration LogicalIO configuration
+   * @param physicalIO PhysicalIO instance
+   * @param parquetColumnPrefetchStore object containing Parquet usage information
+   */
+  public ParquetPrefetchTailTask(
+      @NonNull S3URI s3URI,
+      @NonNull Telemetry telemetry,
+      @NonNull LogicalIOConfiguration logicalIOConfiguration,
+      @NonNull PhysicalIO physicalIO,
+      @NonNull ParquetColumnPrefetchStore parquetColumnPrefetchStore) {
     this.s3URI = s3URI;
     this.telemetry = telemetry;
     this.logicalIOConfiguration = logicalIOConfiguration;
     this.physicalIO = physicalIO;
+    this.parquetColumnPrefetchStore = parquetColumnPrefetchStore;
   }
 
   /**
@@ -72,8 +99,12 @@ public class ParquetPrefetchTailTask {
         () -> {
           try {
             long contentLength = physicalIO.metadata().getContentLength();
+            FooterPrefetchSize footerPrefetchSize =
+                ParquetUtils.getFooterPrefetchSize(
+                    logicalIOConfiguration, parquetColumnPrefetchStore, s3URI, contentLength);
             List<Range> ranges =
-                ParquetUtils.getFileTailPrefetchRanges(logicalIOConfiguration, 0, contentLength);
+                ParquetUtils.getFileTailPrefetchRanges(
+                    logicalIOConfiguration, 0, contentLength, footerPrefetchSize);
 
             IOPlan ioPlan = new IOPlan(ranges);
             // Create a non-empty IOPlan only if we have a valid range to work with
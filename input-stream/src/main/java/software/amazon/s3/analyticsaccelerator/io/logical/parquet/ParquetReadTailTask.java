@@ -15,15 +15,24 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
 
+import static software.amazon.s3.analyticsaccelerator.util.Constants.PARQUET_FOOTER_LENGTH_SIZE;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.PARQUET_MAGIC_STR;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.PARQUET_MAGIC_STR_LENGTH;
+
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.concurrent.CompletionException;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetColumnPrefetchStore;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
@@ -35,7 +44,10 @@ public class ParquetReadTailTask {
   private final Telemetry telemetry;
   private final LogicalIOConfiguration logicalIOConfiguration;
   private final PhysicalIO physicalIO;
+  private final ParquetColumnPrefetchStore parquetColumnPrefetchStore;
   private static final String OPERATION_PARQUET_READ_TAIL = "parquet.task.read.tail";
+  private static final String METRIC_FOOTER_MISSIZED = "parquet.footer.missized";
+  private static final String METRIC_FOOTER_OVERREAD_BYTES = "parquet.footer.overread.bytes";
   private static final Logger LOG = LoggerFactory.getLogger(ParquetReadTailTask.class);
 
   /**
@@ -51,14 +63,40 @@ public class ParquetReadTailTask {
       @NonNull Telemetry telemetry,
       @NonNull LogicalIOConfiguration logicalIOConfiguration,
       @NonNull PhysicalIO physicalIO) {
+    this(
+        s3URI,
+        telemetry,
+        logicalIOConfiguration,
+        physicalIO,
+        new ParquetColumnPrefetchStore(logicalIOConfiguration));
+  }
+
+  /**
+   * Creates a new instance of {@link ParquetReadTailTask} that sizes the tail read with, and
+   * records the footer length in, the given store.
+   *
+   * @param s3URI the S3URI of the object to read
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param logicalIOConfiguration LogicalIO configuration
+   * @param physicalIO PhysicalIO instance
+   * @param parquetColumnPrefetchStore object containing Parquet usage information
+   */
+  public ParquetReadTailTask(
+      @NonNull S3URI s3URI,
+      @NonNull Telemetry telemetry,
+      @NonNull LogicalIOConfiguration logicalIOConfiguration,
+      @NonNull PhysicalIO physicalIO,
+      @NonNull ParquetColumnPrefetchStore parquetColumnPrefetchStore) {
     this.s3URI = s3URI;
     this.telemetry = telemetry;
     this.logicalIOConfiguration = logicalIOConfiguration;
     this.physicalIO = physicalIO;
+    this.parquetColumnPrefetchStore = parquetColumnPrefetchStore;
   }
 
   /**
-   * Reads parquet file tail
+   * Reads parquet file tail. If the footer turns out to be longer than the bytes read, it is read
+   * again with its exact length.
    *
    * @return tail of parquet file
    */
@@ -71,15 +109,33 @@ public class ParquetReadTailTask {
                 .build(),
         () -> {
           long contentLength = physicalIO.metadata().getContentLength();
+          FooterPrefetchSize footerPrefetchSize =
+              ParquetUtils.getFooterPrefetchSize(
+                  logicalIOConfiguration, parquetColumnPrefetchStore, s3URI, contentLength);
           Optional<Range> tailRangeOptional =
-              ParquetUtils.getFileTailRange(logicalIOConfiguration, 0, contentLength);
+              ParquetUtils.getFileTailRange(0, contentLength, footerPrefetchSize);
           if (tailRangeOptional.isPresent()) {
             Range tailRange = tailRangeOptional.get();
             int tailLength = (int) tailRange.getLength();
             try {
-              byte[] fileTail = new byte[tailLength];
-              physicalIO.readTail(fileTail, 0, tailLength);
-              return new FileTail(ByteBuffer.wrap(fileTail), (int) tailRange.getLength());
+              byte[] fileTail = readTail(tailLength);
+              long footerLength = getFooterLength(fileTail);
+              if (footerLength <= 0 || footerLength > Math.min(contentLength, Integer.MAX_VALUE)) {
+                // Not a footer we can make sense of, leave it to the parser to report
+                return new FileTail(ByteBuffer.wrap(fileTail), tailLength);
+              }
+
+              parquetColumnPrefetchStore.recordFooterSize(s3URI, footerLength);
+              if (footerLength > tailLength) {
+                telemetry.measure(Metric.builder().name(METRIC_FOOTER_MISSIZED).build(), 1);
+                tailLength = (int) footerLength;
+                fileTail = readTail(tailLength);
+              } else {
+                telemetry.measure(
+                    Metric.builder().name(METRIC_FOOTER_OVERREAD_BYTES).build(),
+                    tailLength - footerLength);
+              }
+              return new FileTail(ByteBuffer.wrap(fileTail), tailLength);
             } catch (Exception e) {
               LOG.debug(
                   "Unable to read file tail for {}, parquet prefetch optimisations will be disabled for this key.",
@@ -93,4 +149,36 @@ public class ParquetReadTailTask {
           }
         });
   }
+
+  private byte[] readTail(int tailLength) throws IOException {
+    byte[] fileTail = new byte[tailLength];
+    physicalIO.readTail(fileTail, 0, tailLength);
+    return fileTail;
+  }
+
+  /**
+   * Gets the length of the footer from the end of the file tail, that is the file metadata followed
+   * by its length and the magic string.
+   *
+   * @param fileTail the bytes read from the end of the file
+   * @return the length of the footer, or -1 if the tail does not end with a footer
+   */
+  private static long getFooterLength(byte[] fileTail) {
+    int trailerLength = PARQUET_FOOTER_LENGTH_SIZE + PARQUET_MAGIC_STR_LENGTH;
+    if (fileTail.length < trailerLength) {
+      return -1;
+    }
+
+    ByteBuffer trailer =
+        ByteBuffer.wrap(fileTail, fileTail.length - trailerLength, trailerLength)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    long fileMetadataLength = trailer.getInt() & 0xFFFFFFFFL;
+    byte[] magic = new byte[PARQUET_MAGIC_STR_LENGTH];
+    trailer.get(magic);
+    if (!PARQUET_MAGIC_STR.equals(new String(magic, StandardCharsets.US_ASCII))) {
+      return -1;
+    }
+
+    return fileMetadataLength + trailerLength;
+  }
 }
@@ -19,9 +19,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetColumnPrefetchStore;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.util.PrefetchMode;
 import software.amazon.s3.analyticsaccelerator.util.RangeType;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
 /** Utils class for the Parquet logical layer. */
 public final class ParquetUtils {
@@ -38,10 +40,20 @@ public final class ParquetUtils {
    */
   public static Optional<Range> getFileTailRange(
       LogicalIOConfiguration logicalIOConfiguration, long startRange, long contentLength) {
+    return getFileTailRange(
+        startRange, contentLength, getFooterPrefetchSize(logicalIOConfiguration, contentLength));
+  }
 
-    FooterPrefetchSize footerPrefetchSize =
-        getFooterPrefetchSize(logicalIOConfiguration, contentLength);
-
+  /**
+   * Gets range of file tail to be read, using the given sizes to prefetch.
+   *
+   * @param startRange start of file
+   * @param contentLength length of file
+   * @param footerPrefetchSize sizes to prefetch from the tail of the file
+   * @return range to be read
+   */
+  public static Optional<Range> getFileTailRange(
+      long startRange, long contentLength, FooterPrefetchSize footerPrefetchSize) {
     if (contentLength > footerPrefetchSize.getSize()) {
       startRange = contentLength - footerPrefetchSize.getFileMetadataPrefetchSize();
     }
@@ -67,11 +79,30 @@ public final class ParquetUtils {
    */
   public static List<Range> getFileTailPrefetchRanges(
       LogicalIOConfiguration logicalIOConfiguration, long startRange, long contentLength) {
+    return getFileTailPrefetchRanges(
+        logicalIOConfiguration,
+        startRange,
+        contentLength,
+        getFooterPrefetchSize(logicalIOConfiguration, contentLength));
+  }
 
-    List<Range> ranges = new ArrayList<>();
+  /**
+   * Gets the ranges to prefetch from the tail, using the given sizes to prefetch. No page index
+   * range is returned if its size is zero.
+   *
+   * @param logicalIOConfiguration logical io configuration
+   * @param startRange start of file
+   * @param contentLength length of file
+   * @param footerPrefetchSize sizes to prefetch from the tail of the file
+   * @return List of prefetch requests to make
+   */
+  public static List<Range> getFileTailPrefetchRanges(
+      LogicalIOConfiguration logicalIOConfiguration,
+      long startRange,
+      long contentLength,
+      FooterPrefetchSize footerPrefetchSize) {
 
-    FooterPrefetchSize footerPrefetchSize =
-        getFooterPrefetchSize(logicalIOConfiguration, contentLength);
+    List<Range> ranges = new ArrayList<>();
 
     if (contentLength > footerPrefetchSize.getSize()) {
 
@@ -84,7 +115,8 @@ public final class ParquetUtils {
             contentLength - footerPrefetchSize.getFileMetadataPrefetchSize();
         ranges.add(new Range(fileMetadataStartIndex, contentLength - 1, RangeType.FOOTER_METADATA));
 
-        if (logicalIOConfiguration.isPrefetchPageIndexEnabled()) {
+        if (logicalIOConfiguration.isPrefetchPageIndexEnabled()
+            && footerPrefetchSize.getPageIndexPrefetchSize() > 0) {
           ranges.add(
               new Range(
                   fileMetadataStartIndex - footerPrefetchSize.getPageIndexPrefetchSize(),
@@ -103,6 +135,30 @@ public final class ParquetUtils {
     return ranges;
   }
 
+  /**
+   * Gets the sizes to prefetch from the tail of a Parquet file. When adaptive footer prefetching is
+   * enabled, sizes learned from earlier files under the same prefix replace the configured ones.
+   *
+   * @param logicalIOConfiguration logical io configuration
+   * @param parquetColumnPrefetchStore the store holding the learned sizes
+   * @param s3URI the Parquet file
+   * @param contentLength length of file
+   * @return sizes to prefetch from the tail of the file
+   */
+  public static FooterPrefetchSize getFooterPrefetchSize(
+      LogicalIOConfiguration logicalIOConfiguration,
+      ParquetColumnPrefetchStore parquetColumnPrefetchStore,
+      S3URI s3URI,
+      long contentLength) {
+    FooterPrefetchSize configuredSize =
+        getFooterPrefetchSize(logicalIOConfiguration, contentLength);
+    if (!logicalIOConfiguration.isAdaptiveFooterPrefetchEnabled()) {
+      return configuredSize;
+    }
+
+    return parquetColumnPrefetchStore.getFooterPrefetchSize(s3URI, configuredSize);
+  }
+
   private static FooterPrefetchSize getFooterPrefetchSize(
       LogicalIOConfiguration logicalIOConfiguration, long contentLength) {
     if (contentLength > logicalIOConfiguration.getLargeFileSize()) {
@@ -0,0 +1,48 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+/**
+ * Provides the memory that {@link software.amazon.s3.analyticsaccelerator.io.physical.data.Block}s
+ * hold their data in. Implementations may hand out heap or direct buffers, and may recycle buffers
+ * that are released.
+ */
+public interface BlockAllocator extends Closeable {
+
+  /**
+   * Allocates a buffer able to hold the given number of bytes. The returned buffer has its position
+   * set to 0 and its limit set to {@code size}; its capacity may be larger.
+   *
+   * @param size the number of bytes the buffer must hold
+   * @return a buffer of at least {@code size} bytes
+   */
+  ByteBuffer allocate(int size);
+
+  /**
+   * Returns a buffer to the allocator. The caller must not touch the buffer afterwards. Buffers
+   * that were not handed out by this allocator are ignored.
+   *
+   * @param buffer the buffer to release
+   */
+  void release(ByteBuffer buffer);
+
+  /** Frees up all memory retained by the allocator */
+  @Override
+  void close();
+}
@@ -15,27 +15,94 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.physical;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
 /**
  * A Cache interface defining how the ElastiCache cache should behave, to be used in a shared cache
- * that may be accessed by any node for the duration of a workload
+ * that may be accessed by any node for the duration of a workload. Lookups and updates are
+ * asynchronous, so that a slow cache never blocks the caller.
  */
 public interface Cache {
 
   /**
-   * Fetches the value from ElastiCache given a key
+   * Fetches the value from ElastiCache given a key. The returned future completes exceptionally
+   * with a {@link TimeoutException} if no answer arrives within the time budget.
    *
    * @param key the key to fetch from ElastiCache
-   * @return the value associated with the key in ElastiCache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the value associated with the key in ElastiCache, or null if the key
+   *     is not cached
    */
-  byte[] get(String key);
+  CompletableFuture<byte[]> get(String key, long timeoutMs);
 
   /**
-   * Sets the value in ElastiCache for a key, given that key and value
+   * Sets the value in ElastiCache for a key, given that key and value. The returned future
+   * completes exceptionally with a {@link TimeoutException} if the update is not acknowledged
+   * within the time budget.
    *
    * @param key the key for which to set the value in ElastiCache
    * @param value the value to set in ElastiCache for the given key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a future completed once the value is set
+   */
+  CompletableFuture<Void> set(String key, byte[] value, long timeoutMs);
+
+  /**
+   * Fetches the values of several keys. Caches reached over the network should answer in a single
+   * round trip; by default, the keys are looked up one by one.
+   *
+   * @param keys the keys to fetch
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the cached values by key; keys that are not cached are absent
+   */
+  default CompletableFuture<Map<String, byte[]>> getAll(List<String> keys, long timeoutMs) {
+    Map<String, CompletableFuture<byte[]>> lookups = new LinkedHashMap<>();
+    for (String key : keys) {
+      lookups.put(key, get(key, timeoutMs));
+    }
+
+    return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            ignored -> {
+              Map<String, byte[]> values = new HashMap<>();
+              lookups.forEach(
+                  (key, lookup) -> {
+                    byte[] value = lookup.join();
+                    if (value != null) {
+                      values.put(key, value);
+                    }
+                  });
+              return values;
+            });
+  }
+
+  /**
+   * Sets the values of several keys. Caches reached over the network should write them in a single
+   * round trip; by default, the keys are set one by one.
+   *
+   * @param entries the values to set, by key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a future completed once all values are set
+   */
+  default CompletableFuture<Void> setAll(Map<String, byte[]> entries, long timeoutMs) {
+    List<CompletableFuture<Void>> updates = new ArrayList<>(entries.size());
+    entries.forEach((key, value) -> updates.add(set(key, value, timeoutMs)));
+    return CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0]));
+  }
+
+  /**
+   * Reports how long a value missing from the cache took to fetch from S3, so that the cache can
+   * weigh its own latency against the reads it saves. Ignored by default.
+   *
+   * @param latencyNanos time taken by the S3 request, in nanoseconds
    */
-  void set(String key, byte[] value);
+  default void reportOriginLatency(long latencyNanos) {}
 
   /** Closes the connection to the ElastiCache server */
   void close();
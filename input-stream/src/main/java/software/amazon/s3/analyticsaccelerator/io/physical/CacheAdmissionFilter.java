@@ -0,0 +1,43 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical;
+
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
+
+/**
+ * Decides which entries are worth writing to a {@link Cache}, so that data read once does not evict
+ * data that is read repeatedly. A single instance is meant to be shared by all streams created by a
+ * factory, so that it learns from all lookups.
+ */
+public interface CacheAdmissionFilter {
+
+  /**
+   * Records a lookup of a key in the cache.
+   *
+   * @param key the key looked up
+   */
+  void recordRequest(String key);
+
+  /**
+   * Decides whether an entry is written to the cache.
+   *
+   * @param key the key of the entry
+   * @param rangeType the type of the range the entry holds
+   * @param sizeBytes the size of the entry, in bytes
+   * @return true if the entry should be written
+   */
+  boolean admit(String key, RangeType rangeType, int sizeBytes);
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical;
+
+/** Enum representing how {@link PhysicalIO} learns the length and etag of an object it opens. */
+public enum OpenMode {
+
+  /** The metadata is fetched with a HEAD request */
+  HEAD,
+
+  /** The metadata is read from the response of a GET for the first bytes of the object */
+  FIRST_BYTES,
+
+  /** The metadata is read from the response of a suffix range GET for the last bytes */
+  LAST_BYTES
+}
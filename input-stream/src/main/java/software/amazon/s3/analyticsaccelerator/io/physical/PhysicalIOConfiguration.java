@@ -15,15 +15,26 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.physical;
 
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_GB;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_KB;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import software.amazon.s3.analyticsaccelerator.common.ConnectorConfiguration;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.io.physical.prefetcher.SequentialReadProgression;
+import software.amazon.s3.analyticsaccelerator.util.BlockAllocatorType;
+import software.amazon.s3.analyticsaccelerator.util.CacheCompression;
+import software.amazon.s3.analyticsaccelerator.util.CacheType;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
 
 /** Configuration for {@link PhysicalIO} */
 @Getter
@@ -44,6 +55,45 @@ public class PhysicalIOConfiguration {
   private static final boolean DEFAULT_ENABLE_TAIL_METADATA_CACHING = false;
   private static final String DEFAULT_CACHE_ENDPOINT = "";
   private static final boolean DEFAULT_ENABLE_CACHE_FLUSH = false;
+  private static final int DEFAULT_DRAIN_THREAD_POOL_SIZE = 64;
+  private static final String DEFAULT_DRAIN_THREAD_NAME_PREFIX = "s3-aal-stream-drain";
+  private static final boolean DEFAULT_DRAIN_THREAD_DAEMON = true;
+  private static final BlockAllocatorType DEFAULT_BLOCK_ALLOCATOR_TYPE = BlockAllocatorType.HEAP;
+  private static final int DEFAULT_MIN_SLAB_SIZE_BYTES = 64 * ONE_KB;
+  private static final int DEFAULT_MAX_SLAB_SIZE_BYTES = 8 * ONE_MB;
+  private static final long DEFAULT_SLAB_POOL_CAPACITY_BYTES = 256 * ONE_MB;
+  private static final long DEFAULT_MEMORY_CAPACITY_BYTES = 2 * ONE_GB;
+  private static final long DEFAULT_RANGE_MERGE_MAX_GAP_BYTES = 128 * ONE_KB;
+  private static final long DEFAULT_RANGE_MERGE_MAX_SIZE_BYTES = 8 * ONE_MB;
+  private static final boolean DEFAULT_ADAPTIVE_READ_AHEAD_ENABLED = false;
+  private static final long DEFAULT_ADAPTIVE_READ_AHEAD_MIN_BYTES = 16 * ONE_KB;
+  private static final long DEFAULT_ADAPTIVE_READ_AHEAD_MAX_BYTES = 64 * ONE_MB;
+  private static final double DEFAULT_ADAPTIVE_READ_AHEAD_MAX_WASTE_RATIO = 0.5;
+  private static final int DEFAULT_SEQUENTIAL_PIPELINE_PARALLELISM = 0;
+  private static final int DEFAULT_SEQUENTIAL_PIPELINE_MAX_AHEAD_PARTS = 8;
+  private static final CacheType DEFAULT_CACHE_TYPE = CacheType.VALKEY;
+  private static final String DEFAULT_DISK_CACHE_DIRECTORY = "";
+  private static final long DEFAULT_DISK_CACHE_CAPACITY_BYTES = 10L * ONE_GB;
+  private static final long DEFAULT_DISK_CACHE_SEGMENT_SIZE_BYTES = 64 * ONE_MB;
+  private static final long DEFAULT_MEMORY_CACHE_CAPACITY_BYTES = 256 * ONE_MB;
+  private static final long DEFAULT_CACHE_TIMEOUT_MS = 20;
+  private static final boolean DEFAULT_ENABLE_NEAR_CACHE = false;
+  private static final long DEFAULT_NEAR_CACHE_CAPACITY_BYTES = 32 * ONE_MB;
+  private static final int DEFAULT_WRITE_BEHIND_QUEUE_CAPACITY = 1024;
+  private static final int DEFAULT_WRITE_BEHIND_BATCH_SIZE = 32;
+  private static final CacheCompression DEFAULT_CACHE_COMPRESSION = CacheCompression.NONE;
+  private static final int DEFAULT_CACHE_COMPRESSION_MIN_BYTES = 4 * ONE_KB;
+  private static final boolean DEFAULT_ENABLE_CACHE_CIRCUIT_BREAKER = true;
+  private static final double DEFAULT_CACHE_CIRCUIT_BREAKER_ERROR_RATE = 0.5;
+  private static final long DEFAULT_CACHE_CIRCUIT_BREAKER_OPEN_MS = 5000;
+  private static final int DEFAULT_CACHE_CHUNK_SIZE_BYTES = 64 * ONE_KB;
+  private static final Set<RangeType> DEFAULT_CACHED_RANGE_TYPES =
+      Collections.unmodifiableSet(
+          EnumSet.of(RangeType.FOOTER_METADATA, RangeType.FOOTER_PAGE_INDEX));
+  private static final boolean DEFAULT_ENABLE_CACHE_ADMISSION = true;
+  private static final int DEFAULT_CACHE_ADMISSION_MAX_ENTRY_BYTES = 8 * ONE_MB;
+  private static final Set<RangeType> DEFAULT_SECOND_HIT_RANGE_TYPES =
+      Collections.unmodifiableSet(EnumSet.of(RangeType.BLOCK));
 
   /** Capacity, in blobs. {@link PhysicalIOConfiguration#DEFAULT_CAPACITY_BLOB_STORE} by default. */
   @Builder.Default private int blobStoreCapacity = DEFAULT_CAPACITY_BLOB_STORE;
@@ -123,6 +173,302 @@ public class PhysicalIOConfiguration {
 
   private static final String ENABLE_CACHE_FLUSH_KEY = "cache.flush";
 
+  /**
+   * Maximum number of GET response streams drained concurrently. {@link
+   * PhysicalIOConfiguration#DEFAULT_DRAIN_THREAD_POOL_SIZE} by default.
+   */
+  @Builder.Default private int drainThreadPoolSize = DEFAULT_DRAIN_THREAD_POOL_SIZE;
+
+  private static final String DRAIN_THREAD_POOL_SIZE_KEY = "drain.threadpool.size";
+
+  /** Name prefix of the threads draining GET response streams */
+  @Builder.Default private String drainThreadNamePrefix = DEFAULT_DRAIN_THREAD_NAME_PREFIX;
+
+  private static final String DRAIN_THREAD_NAME_PREFIX_KEY = "drain.threadpool.name.prefix";
+
+  /** Whether the threads draining GET response streams are daemon threads */
+  @Builder.Default private boolean drainThreadDaemon = DEFAULT_DRAIN_THREAD_DAEMON;
+
+  private static final String DRAIN_THREAD_DAEMON_KEY = "drain.threadpool.daemon";
+
+  /**
+   * Kind of memory block data is held in. {@link
+   * PhysicalIOConfiguration#DEFAULT_BLOCK_ALLOCATOR_TYPE} by default.
+   */
+  @Builder.Default private BlockAllocatorType blockAllocatorType = DEFAULT_BLOCK_ALLOCATOR_TYPE;
+
+  private static final String BLOCK_ALLOCATOR_TYPE_KEY = "allocator.type";
+
+  /**
+   * Smallest slab handed out by the pooled direct allocator, in bytes. {@link
+   * PhysicalIOConfiguration#DEFAULT_MIN_SLAB_SIZE_BYTES} by default.
+   */
+  @Builder.Default private int minSlabSizeBytes = DEFAULT_MIN_SLAB_SIZE_BYTES;
+
+  private static final String MIN_SLAB_SIZE_BYTES_KEY = "allocator.slab.min.bytes";
+
+  /**
+   * Largest slab handed out by the pooled direct allocator, in bytes. Larger blocks are held on the
+   * heap. {@link PhysicalIOConfiguration#DEFAULT_MAX_SLAB_SIZE_BYTES} by default.
+   */
+  @Builder.Default private int maxSlabSizeBytes = DEFAULT_MAX_SLAB_SIZE_BYTES;
+
+  private static final String MAX_SLAB_SIZE_BYTES_KEY = "allocator.slab.max.bytes";
+
+  /**
+   * Maximum bytes retained by idle slabs in the pooled direct allocator. {@link
+   * PhysicalIOConfiguration#DEFAULT_SLAB_POOL_CAPACITY_BYTES} by default.
+   */
+  @Builder.Default private long slabPoolCapacityBytes = DEFAULT_SLAB_POOL_CAPACITY_BYTES;
+
+  private static final String SLAB_POOL_CAPACITY_BYTES_KEY = "allocator.pool.capacity.bytes";
+
+  /**
+   * Maximum number of bytes held by blocks across all objects. Least recently read blocks are
+   * evicted once it is exceeded. {@link PhysicalIOConfiguration#DEFAULT_MEMORY_CAPACITY_BYTES} by
+   * default.
+   */
+  @Builder.Default private long memoryCapacityBytes = DEFAULT_MEMORY_CAPACITY_BYTES;
+
+  private static final String MEMORY_CAPACITY_BYTES_KEY = "memory.capacity.bytes";
+
+  /**
+   * Largest gap between two ranges that is fetched along with them, so that they are served by a
+   * single request. Only gaps holding no block are fetched, 0 only merges adjacent ranges. {@link
+   * PhysicalIOConfiguration#DEFAULT_RANGE_MERGE_MAX_GAP_BYTES} by default.
+   */
+  @Builder.Default private long rangeMergeMaxGapBytes = DEFAULT_RANGE_MERGE_MAX_GAP_BYTES;
+
+  private static final String RANGE_MERGE_MAX_GAP_BYTES_KEY = "range.merge.max.gap.bytes";
+
+  /**
+   * Largest range produced by merging ranges. {@link
+   * PhysicalIOConfiguration#DEFAULT_RANGE_MERGE_MAX_SIZE_BYTES} by default.
+   */
+  @Builder.Default private long rangeMergeMaxSizeBytes = DEFAULT_RANGE_MERGE_MAX_SIZE_BYTES;
+
+  private static final String RANGE_MERGE_MAX_SIZE_BYTES_KEY = "range.merge.max.size.bytes";
+
+  /**
+   * Whether the read ahead window of a stream adapts to the observed request latency, consumer read
+   * rate and prefetch waste, instead of following the fixed sequential progression. {@link
+   * PhysicalIOConfiguration#DEFAULT_ADAPTIVE_READ_AHEAD_ENABLED} by default.
+   */
+  @Builder.Default private boolean adaptiveReadAheadEnabled = DEFAULT_ADAPTIVE_READ_AHEAD_ENABLED;
+
+  private static final String ADAPTIVE_READ_AHEAD_ENABLED_KEY = "readahead.adaptive.enabled";
+
+  /**
+   * Smallest read ahead window of the adaptive read ahead. {@link
+   * PhysicalIOConfiguration#DEFAULT_ADAPTIVE_READ_AHEAD_MIN_BYTES} by default.
+   */
+  @Builder.Default private long adaptiveReadAheadMinBytes = DEFAULT_ADAPTIVE_READ_AHEAD_MIN_BYTES;
+
+  private static final String ADAPTIVE_READ_AHEAD_MIN_BYTES_KEY = "readahead.adaptive.min.bytes";
+
+  /**
+   * Largest read ahead window of the adaptive read ahead. {@link
+   * PhysicalIOConfiguration#DEFAULT_ADAPTIVE_READ_AHEAD_MAX_BYTES} by default.
+   */
+  @Builder.Default private long adaptiveReadAheadMaxBytes = DEFAULT_ADAPTIVE_READ_AHEAD_MAX_BYTES;
+
+  private static final String ADAPTIVE_READ_AHEAD_MAX_BYTES_KEY = "readahead.adaptive.max.bytes";
+
+  /**
+   * Share of read ahead bytes that may go unused before the adaptive read ahead window shrinks.
+   * {@link PhysicalIOConfiguration#DEFAULT_ADAPTIVE_READ_AHEAD_MAX_WASTE_RATIO} by default.
+   */
+  @Builder.Default
+  private double adaptiveReadAheadMaxWasteRatio = DEFAULT_ADAPTIVE_READ_AHEAD_MAX_WASTE_RATIO;
+
+  private static final String ADAPTIVE_READ_AHEAD_MAX_WASTE_RATIO_KEY =
+      "readahead.adaptive.max.waste.ratio";
+
+  /**
+   * Largest number of parts of a split range that are fetched concurrently, the other parts are
+   * fetched in order as the ones in flight complete. 0 fetches all parts at once. {@link
+   * PhysicalIOConfiguration#DEFAULT_SEQUENTIAL_PIPELINE_PARALLELISM} by default.
+   */
+  @Builder.Default
+  private int sequentialPipelineParallelism = DEFAULT_SEQUENTIAL_PIPELINE_PARALLELISM;
+
+  private static final String SEQUENTIAL_PIPELINE_PARALLELISM_KEY =
+      "sequential.pipeline.parallelism";
+
+  /**
+   * Largest number of parts of a split range that are fetched ahead of the position the stream has
+   * read up to. Fetching pauses until the reader catches up. {@link
+   * PhysicalIOConfiguration#DEFAULT_SEQUENTIAL_PIPELINE_MAX_AHEAD_PARTS} by default.
+   */
+  @Builder.Default
+  private int sequentialPipelineMaxAheadParts = DEFAULT_SEQUENTIAL_PIPELINE_MAX_AHEAD_PARTS;
+
+  private static final String SEQUENTIAL_PIPELINE_MAX_AHEAD_PARTS_KEY =
+      "sequential.pipeline.max.ahead.parts";
+
+  /**
+   * Kind of cache tail metadata is cached in when caching is enabled. {@link
+   * PhysicalIOConfiguration#DEFAULT_CACHE_TYPE} by default.
+   */
+  @Builder.Default private CacheType cacheType = DEFAULT_CACHE_TYPE;
+
+  private static final String CACHE_TYPE_KEY = "cache.type";
+
+  /** Directory the disk cache keeps its segment files in */
+  @Builder.Default private String diskCacheDirectory = DEFAULT_DISK_CACHE_DIRECTORY;
+
+  private static final String DISK_CACHE_DIRECTORY_KEY = "cache.disk.directory";
+
+  /**
+   * Maximum number of bytes the disk cache keeps on disk. {@link
+   * PhysicalIOConfiguration#DEFAULT_DISK_CACHE_CAPACITY_BYTES} by default.
+   */
+  @Builder.Default private long diskCacheCapacityBytes = DEFAULT_DISK_CACHE_CAPACITY_BYTES;
+
+  private static final String DISK_CACHE_CAPACITY_BYTES_KEY = "cache.disk.capacity.bytes";
+
+  /**
+   * Size at which the disk cache starts a new segment file. {@link
+   * PhysicalIOConfiguration#DEFAULT_DISK_CACHE_SEGMENT_SIZE_BYTES} by default.
+   */
+  @Builder.Default private long diskCacheSegmentSizeBytes = DEFAULT_DISK_CACHE_SEGMENT_SIZE_BYTES;
+
+  private static final String DISK_CACHE_SEGMENT_SIZE_BYTES_KEY = "cache.disk.segment.size.bytes";
+
+  /**
+   * Maximum number of bytes held by the in-memory cache. {@link
+   * PhysicalIOConfiguration#DEFAULT_MEMORY_CACHE_CAPACITY_BYTES} by default.
+   */
+  @Builder.Default private long memoryCacheCapacityBytes = DEFAULT_MEMORY_CACHE_CAPACITY_BYTES;
+
+  private static final String MEMORY_CACHE_CAPACITY_BYTES_KEY = "cache.memory.capacity.bytes";
+
+  /**
+   * Time budget of a tail metadata cache lookup or update, in milliseconds. Blocks fall back to S3
+   * once a lookup exceeds it. {@link PhysicalIOConfiguration#DEFAULT_CACHE_TIMEOUT_MS} by default.
+   */
+  @Builder.Default private long cacheTimeoutMs = DEFAULT_CACHE_TIMEOUT_MS;
+
+  private static final String CACHE_TIMEOUT_MS_KEY = "cache.timeout.ms";
+
+  /**
+   * Keep recently used tail metadata in an in-process near cache in front of the Valkey or disk
+   * cache. {@link PhysicalIOConfiguration#DEFAULT_ENABLE_NEAR_CACHE} by default.
+   */
+  @Builder.Default private boolean enableNearCache = DEFAULT_ENABLE_NEAR_CACHE;
+
+  private static final String ENABLE_NEAR_CACHE_KEY = "cache.near.enabled";
+
+  /**
+   * Maximum number of bytes held by the near cache. {@link
+   * PhysicalIOConfiguration#DEFAULT_NEAR_CACHE_CAPACITY_BYTES} by default.
+   */
+  @Builder.Default private long nearCacheCapacityBytes = DEFAULT_NEAR_CACHE_CAPACITY_BYTES;
+
+  private static final String NEAR_CACHE_CAPACITY_BYTES_KEY = "cache.near.capacity.bytes";
+
+  /**
+   * Maximum number of cache updates waiting to be written to the Valkey or disk cache. Updates
+   * beyond it are dropped. {@link PhysicalIOConfiguration#DEFAULT_WRITE_BEHIND_QUEUE_CAPACITY} by
+   * default.
+   */
+  @Builder.Default private int writeBehindQueueCapacity = DEFAULT_WRITE_BEHIND_QUEUE_CAPACITY;
+
+  private static final String WRITE_BEHIND_QUEUE_CAPACITY_KEY = "cache.write.behind.queue.capacity";
+
+  /**
+   * Maximum number of queued cache updates written in one batch. {@link
+   * PhysicalIOConfiguration#DEFAULT_WRITE_BEHIND_BATCH_SIZE} by default.
+   */
+  @Builder.Default private int writeBehindBatchSize = DEFAULT_WRITE_BEHIND_BATCH_SIZE;
+
+  private static final String WRITE_BEHIND_BATCH_SIZE_KEY = "cache.write.behind.batch.size";
+
+  /**
+   * How values are compressed before they are stored in the Valkey cache. {@link
+   * PhysicalIOConfiguration#DEFAULT_CACHE_COMPRESSION} by default.
+   */
+  @Builder.Default private CacheCompression cacheCompression = DEFAULT_CACHE_COMPRESSION;
+
+  private static final String CACHE_COMPRESSION_KEY = "cache.compression";
+
+  /**
+   * Values smaller than this are stored uncompressed. {@link
+   * PhysicalIOConfiguration#DEFAULT_CACHE_COMPRESSION_MIN_BYTES} by default.
+   */
+  @Builder.Default private int cacheCompressionMinBytes = DEFAULT_CACHE_COMPRESSION_MIN_BYTES;
+
+  private static final String CACHE_COMPRESSION_MIN_BYTES_KEY = "cache.compression.min.bytes";
+
+  /**
+   * Bypass the Valkey or disk cache while it fails or answers slower than S3. {@link
+   * PhysicalIOConfiguration#DEFAULT_ENABLE_CACHE_CIRCUIT_BREAKER} by default.
+   */
+  @Builder.Default private boolean enableCacheCircuitBreaker = DEFAULT_ENABLE_CACHE_CIRCUIT_BREAKER;
+
+  private static final String ENABLE_CACHE_CIRCUIT_BREAKER_KEY = "cache.circuit.breaker.enabled";
+
+  /**
+   * Share of cache calls failing or timing out at which the cache is bypassed. {@link
+   * PhysicalIOConfiguration#DEFAULT_CACHE_CIRCUIT_BREAKER_ERROR_RATE} by default.
+   */
+  @Builder.Default
+  private double cacheCircuitBreakerErrorRate = DEFAULT_CACHE_CIRCUIT_BREAKER_ERROR_RATE;
+
+  private static final String CACHE_CIRCUIT_BREAKER_ERROR_RATE_KEY =
+      "cache.circuit.breaker.error.rate";
+
+  /**
+   * Time the cache is bypassed for before it is probed again, in milliseconds. {@link
+   * PhysicalIOConfiguration#DEFAULT_CACHE_CIRCUIT_BREAKER_OPEN_MS} by default.
+   */
+  @Builder.Default private long cacheCircuitBreakerOpenMs = DEFAULT_CACHE_CIRCUIT_BREAKER_OPEN_MS;
+
+  private static final String CACHE_CIRCUIT_BREAKER_OPEN_MS_KEY = "cache.circuit.breaker.open.ms";
+
+  /**
+   * Size of the aligned chunks data is cached in, in bytes. {@link
+   * PhysicalIOConfiguration#DEFAULT_CACHE_CHUNK_SIZE_BYTES} by default.
+   */
+  @Builder.Default private int cacheChunkSizeBytes = DEFAULT_CACHE_CHUNK_SIZE_BYTES;
+
+  private static final String CACHE_CHUNK_SIZE_BYTES_KEY = "cache.chunk.size";
+
+  /**
+   * Types of ranges whose data is cached, such as tail metadata or data blocks. {@link
+   * PhysicalIOConfiguration#DEFAULT_CACHED_RANGE_TYPES} by default.
+   */
+  @Builder.Default private Set<RangeType> cachedRangeTypes = DEFAULT_CACHED_RANGE_TYPES;
+
+  private static final String CACHED_RANGE_TYPES_KEY = "cache.range.types";
+
+  /**
+   * Only write ranges likely to be reused to the cache. {@link
+   * PhysicalIOConfiguration#DEFAULT_ENABLE_CACHE_ADMISSION} by default.
+   */
+  @Builder.Default private boolean enableCacheAdmission = DEFAULT_ENABLE_CACHE_ADMISSION;
+
+  private static final String ENABLE_CACHE_ADMISSION_KEY = "cache.admission.enabled";
+
+  /**
+   * Cache entries larger than this are never written to the cache, in bytes. {@link
+   * PhysicalIOConfiguration#DEFAULT_CACHE_ADMISSION_MAX_ENTRY_BYTES} by default.
+   */
+  @Builder.Default
+  private int cacheAdmissionMaxEntryBytes = DEFAULT_CACHE_ADMISSION_MAX_ENTRY_BYTES;
+
+  private static final String CACHE_ADMISSION_MAX_ENTRY_BYTES_KEY =
+      "cache.admission.max.entry.size";
+
+  /**
+   * Types of ranges only written to the cache once they were requested a second time, so that data
+   * read by a single scan does not evict data read by every query. {@link
+   * PhysicalIOConfiguration#DEFAULT_SECOND_HIT_RANGE_TYPES} by default.
+   */
+  @Builder.Default private Set<RangeType> secondHitRangeTypes = DEFAULT_SECOND_HIT_RANGE_TYPES;
+
+  private static final String SECOND_HIT_RANGE_TYPES_KEY = "cache.admission.second.hit.types";
+
   /** Default set of settings for {@link PhysicalIO} */
   public static final PhysicalIOConfiguration DEFAULT = PhysicalIOConfiguration.builder().build();
 
@@ -156,6 +502,103 @@ public class PhysicalIOConfiguration {
         .cacheEndpoint(configuration.getString(CACHE_ENDPOINT_KEY, DEFAULT_CACHE_ENDPOINT))
         .enableCacheFlush(
             configuration.getBoolean(ENABLE_CACHE_FLUSH_KEY, DEFAULT_ENABLE_CACHE_FLUSH))
+        .drainThreadPoolSize(
+            configuration.getInt(DRAIN_THREAD_POOL_SIZE_KEY, DEFAULT_DRAIN_THREAD_POOL_SIZE))
+        .drainThreadNamePrefix(
+            configuration.getString(
+                DRAIN_THREAD_NAME_PREFIX_KEY, DEFAULT_DRAIN_THREAD_NAME_PREFIX))
+        .drainThreadDaemon(
+            configuration.getBoolean(DRAIN_THREAD_DAEMON_KEY, DEFAULT_DRAIN_THREAD_DAEMON))
+        .blockAllocatorType(
+            BlockAllocatorType.fromString(
+                configuration.getString(
+                    BLOCK_ALLOCATOR_TYPE_KEY, DEFAULT_BLOCK_ALLOCATOR_TYPE.toString())))
+        .minSlabSizeBytes(
+            configuration.getInt(MIN_SLAB_SIZE_BYTES_KEY, DEFAULT_MIN_SLAB_SIZE_BYTES))
+        .maxSlabSizeBytes(
+            configuration.getInt(MAX_SLAB_SIZE_BYTES_KEY, DEFAULT_MAX_SLAB_SIZE_BYTES))
+        .slabPoolCapacityBytes(
+            configuration.getLong(SLAB_POOL_CAPACITY_BYTES_KEY, DEFAULT_SLAB_POOL_CAPACITY_BYTES))
+        .memoryCapacityBytes(
+            configuration.getLong(MEMORY_CAPACITY_BYTES_KEY, DEFAULT_MEMORY_CAPACITY_BYTES))
+        .rangeMergeMaxGapBytes(
+            configuration.getLong(RANGE_MERGE_MAX_GAP_BYTES_KEY, DEFAULT_RANGE_MERGE_MAX_GAP_BYTES))
+        .rangeMergeMaxSizeBytes(
+            configuration.getLong(
+                RANGE_MERGE_MAX_SIZE_BYTES_KEY, DEFAULT_RANGE_MERGE_MAX_SIZE_BYTES))
+        .adaptiveReadAheadEnabled(
+            configuration.getBoolean(
+                ADAPTIVE_READ_AHEAD_ENABLED_KEY, DEFAULT_ADAPTIVE_READ_AHEAD_ENABLED))
+        .adaptiveReadAheadMinBytes(
+            configuration.getLong(
+                ADAPTIVE_READ_AHEAD_MIN_BYTES_KEY, DEFAULT_ADAPTIVE_READ_AHEAD_MIN_BYTES))
+        .adaptiveReadAheadMaxBytes(
+            configuration.getLong(
+                ADAPTIVE_READ_AHEAD_MAX_BYTES_KEY, DEFAULT_ADAPTIVE_READ_AHEAD_MAX_BYTES))
+        .adaptiveReadAheadMaxWasteRatio(
+            configuration.getDouble(
+                ADAPTIVE_READ_AHEAD_MAX_WASTE_RATIO_KEY,
+                DEFAULT_ADAPTIVE_READ_AHEAD_MAX_WASTE_RATIO))
+        .sequentialPipelineParallelism(
+            configuration.getInt(
+                SEQUENTIAL_PIPELINE_PARALLELISM_KEY, DEFAULT_SEQUENTIAL_PIPELINE_PARALLELISM))
+        .sequentialPipelineMaxAheadParts(
+            configuration.getInt(
+                SEQUENTIAL_PIPELINE_MAX_AHEAD_PARTS_KEY,
+                DEFAULT_SEQUENTIAL_PIPELINE_MAX_AHEAD_PARTS))
+        .cacheType(
+            CacheType.fromString(
+                configuration.getString(CACHE_TYPE_KEY, DEFAULT_CACHE_TYPE.toString())))
+        .diskCacheDirectory(
+            configuration.getString(DISK_CACHE_DIRECTORY_KEY, DEFAULT_DISK_CACHE_DIRECTORY))
+        .diskCacheCapacityBytes(
+            configuration.getLong(DISK_CACHE_CAPACITY_BYTES_KEY, DEFAULT_DISK_CACHE_CAPACITY_BYTES))
+        .diskCacheSegmentSizeBytes(
+            configuration.getLong(
+                DISK_CACHE_SEGMENT_SIZE_BYTES_KEY, DEFAULT_DISK_CACHE_SEGMENT_SIZE_BYTES))
+        .memoryCacheCapacityBytes(
+            configuration.getLong(
+                MEMORY_CACHE_CAPACITY_BYTES_KEY, DEFAULT_MEMORY_CACHE_CAPACITY_BYTES))
+        .cacheTimeoutMs(configuration.getLong(CACHE_TIMEOUT_MS_KEY, DEFAULT_CACHE_TIMEOUT_MS))
+        .enableNearCache(configuration.getBoolean(ENABLE_NEAR_CACHE_KEY, DEFAULT_ENABLE_NEAR_CACHE))
+        .nearCacheCapacityBytes(
+            configuration.getLong(NEAR_CACHE_CAPACITY_BYTES_KEY, DEFAULT_NEAR_CACHE_CAPACITY_BYTES))
+        .writeBehindQueueCapacity(
+            configuration.getInt(
+                WRITE_BEHIND_QUEUE_CAPACITY_KEY, DEFAULT_WRITE_BEHIND_QUEUE_CAPACITY))
+        .writeBehindBatchSize(
+            configuration.getInt(WRITE_BEHIND_BATCH_SIZE_KEY, DEFAULT_WRITE_BEHIND_BATCH_SIZE))
+        .cacheCompression(
+            CacheCompression.fromString(
+                configuration.getString(
+                    CACHE_COMPRESSION_KEY, DEFAULT_CACHE_COMPRESSION.toString())))
+        .cacheCompressionMinBytes(
+            configuration.getInt(
+                CACHE_COMPRESSION_MIN_BYTES_KEY, DEFAULT_CACHE_COMPRESSION_MIN_BYTES))
+        .enableCacheCircuitBreaker(
+            configuration.getBoolean(
+                ENABLE_CACHE_CIRCUIT_BREAKER_KEY, DEFAULT_ENABLE_CACHE_CIRCUIT_BREAKER))
+        .cacheCircuitBreakerErrorRate(
+            configuration.getDouble(
+                CACHE_CIRCUIT_BREAKER_ERROR_RATE_KEY, DEFAULT_CACHE_CIRCUIT_BREAKER_ERROR_RATE))
+        .cacheCircuitBreakerOpenMs(
+            configuration.getLong(
+                CACHE_CIRCUIT_BREAKER_OPEN_MS_KEY, DEFAULT_CACHE_CIRCUIT_BREAKER_OPEN_MS))
+        .cacheChunkSizeBytes(
+            configuration.getInt(CACHE_CHUNK_SIZE_BYTES_KEY, DEFAULT_CACHE_CHUNK_SIZE_BYTES))
+        .cachedRangeTypes(
+            parseRangeTypes(
+                configuration.getString(
+                    CACHED_RANGE_TYPES_KEY, joinRangeTypes(DEFAULT_CACHED_RANGE_TYPES))))
+        .enableCacheAdmission(
+            configuration.getBoolean(ENABLE_CACHE_ADMISSION_KEY, DEFAULT_ENABLE_CACHE_ADMISSION))
+        .cacheAdmissionMaxEntryBytes(
+            configuration.getInt(
+                CACHE_ADMISSION_MAX_ENTRY_BYTES_KEY, DEFAULT_CACHE_ADMISSION_MAX_ENTRY_BYTES))
+        .secondHitRangeTypes(
+            parseRangeTypes(
+                configuration.getString(
+                    SECOND_HIT_RANGE_TYPES_KEY, joinRangeTypes(DEFAULT_SECOND_HIT_RANGE_TYPES))))
         .build();
   }
 
@@ -176,6 +619,51 @@ public class PhysicalIOConfiguration {
    * @param blockReadRetryCount Number of retries for block read failure
    * @param enableTailMetadataCaching Boolean flag to enable or disable tail metadata caching
    * @param cacheEndpoint The endpoint of the ElastiCache cache in use
+   * @param enableCacheFlush Boolean flag to enable or disable flushing the cache on close
+   * @param drainThreadPoolSize Maximum number of GET response streams drained concurrently
+   * @param drainThreadNamePrefix Name prefix of the threads draining GET response streams
+   * @param drainThreadDaemon Whether the threads draining GET response streams are daemon threads
+   * @param blockAllocatorType Kind of memory block data is held in
+   * @param minSlabSizeBytes Smallest slab handed out by the pooled direct allocator, in bytes
+   * @param maxSlabSizeBytes Largest slab handed out by the pooled direct allocator, in bytes
+   * @param slabPoolCapacityBytes Maximum bytes retained by idle slabs in the pooled direct
+   *     allocator
+   * @param memoryCapacityBytes Maximum number of bytes held by blocks across all objects
+   * @param rangeMergeMaxGapBytes Largest gap between two ranges that is fetched to merge them
+   * @param rangeMergeMaxSizeBytes Largest range produced by merging ranges
+   * @param adaptiveReadAheadEnabled Whether the read ahead window adapts to the observed workload
+   * @param adaptiveReadAheadMinBytes Smallest read ahead window of the adaptive read ahead
+   * @param adaptiveReadAheadMaxBytes Largest read ahead window of the adaptive read ahead
+   * @param adaptiveReadAheadMaxWasteRatio Share of read ahead bytes that may go unused before the
+   *     window shrinks
+   * @param sequentialPipelineParallelism Largest number of parts of a split range fetched
+   *     concurrently
+   * @param sequentialPipelineMaxAheadParts Largest number of parts of a split range fetched ahead
+   *     of the reader
+   * @param cacheType Kind of cache to cache tail metadata in
+   * @param diskCacheDirectory Directory of the disk cache
+   * @param diskCacheCapacityBytes Maximum number of bytes kept by the disk cache
+   * @param diskCacheSegmentSizeBytes Size of the segment files of the disk cache
+   * @param memoryCacheCapacityBytes Maximum number of bytes held by the in-memory cache
+   * @param cacheTimeoutMs Time budget of a cache lookup or update, in milliseconds
+   * @param enableNearCache Boolean flag to enable or disable the in-process near cache
+   * @param nearCacheCapacityBytes Maximum number of bytes held by the near cache
+   * @param writeBehindQueueCapacity Maximum number of cache updates waiting to be written
+   * @param writeBehindBatchSize Maximum number of queued cache updates written in one batch
+   * @param cacheCompression How values are compressed before they are stored in the Valkey cache
+   * @param cacheCompressionMinBytes Values smaller than this are stored uncompressed
+   * @param enableCacheCircuitBreaker Boolean flag to bypass the cache while it fails or is slower
+   *     than S3
+   * @param cacheCircuitBreakerErrorRate Share of failed cache calls at which the cache is bypassed
+   * @param cacheCircuitBreakerOpenMs Time the cache is bypassed for before it is probed again, in
+   *     milliseconds
+   * @param cacheChunkSizeBytes Size of the aligned chunks data is cached in, in bytes
+   * @param cachedRangeTypes Types of ranges whose data is cached
+   * @param enableCacheAdmission Boolean flag to only write ranges likely to be reused to the cache
+   * @param cacheAdmissionMaxEntryBytes Cache entries larger than this are never written to the
+   *     cache, in bytes
+   * @param secondHitRangeTypes Types of ranges only written to the cache once they were requested a
+   *     second time
    */
   @Builder
   private PhysicalIOConfiguration(
@@ -191,7 +679,43 @@ public class PhysicalIOConfiguration {
       int blockReadRetryCount,
       boolean enableTailMetadataCaching,
       String cacheEndpoint,
-      boolean enableCacheFlush) {
+      boolean enableCacheFlush,
+      int drainThreadPoolSize,
+      String drainThreadNamePrefix,
+      boolean drainThreadDaemon,
+      BlockAllocatorType blockAllocatorType,
+      int minSlabSizeBytes,
+      int maxSlabSizeBytes,
+      long slabPoolCapacityBytes,
+      long memoryCapacityBytes,
+      long rangeMergeMaxGapBytes,
+      long rangeMergeMaxSizeBytes,
+      boolean adaptiveReadAheadEnabled,
+      long adaptiveReadAheadMinBytes,
+      long adaptiveReadAheadMaxBytes,
+      double adaptiveReadAheadMaxWasteRatio,
+      int sequentialPipelineParallelism,
+      int sequentialPipelineMaxAheadParts,
+      CacheType cacheType,
+      String diskCacheDirectory,
+      long diskCacheCapacityBytes,
+      long diskCacheSegmentSizeBytes,
+      long memoryCacheCapacityBytes,
+      long cacheTimeoutMs,
+      boolean enableNearCache,
+      long nearCacheCapacityBytes,
+      int writeBehindQueueCapacity,
+      int writeBehindBatchSize,
+      CacheCompression cacheCompression,
+      int cacheCompressionMinBytes,
+      boolean enableCacheCircuitBreaker,
+      double cacheCircuitBreakerErrorRate,
+      long cacheCircuitBreakerOpenMs,
+      int cacheChunkSizeBytes,
+      Set<RangeType> cachedRangeTypes,
+      boolean enableCacheAdmission,
+      int cacheAdmissionMaxEntryBytes,
+      Set<RangeType> secondHitRangeTypes) {
     Preconditions.checkArgument(blobStoreCapacity > 0, "`blobStoreCapacity` must be positive");
     Preconditions.checkArgument(
         metadataStoreCapacity > 0, "`metadataStoreCapacity` must be positive");
@@ -205,13 +729,79 @@ public class PhysicalIOConfiguration {
         sequentialPrefetchSpeed > 0, "`sequentialPrefetchSpeed` must be positive");
     Preconditions.checkArgument(blockReadTimeout > 0, "`blockReadTimeout` must be positive");
     Preconditions.checkArgument(blockReadRetryCount > 0, "`blockReadRetryCount` must be positive");
+    Preconditions.checkArgument(drainThreadPoolSize > 0, "`drainThreadPoolSize` must be positive");
+    Preconditions.checkArgument(
+        drainThreadNamePrefix != null && !drainThreadNamePrefix.isEmpty(),
+        "`drainThreadNamePrefix` must not be empty");
 
+    Preconditions.checkNotNull(cacheType, "`cacheType` must not be null");
     if (enableTailMetadataCaching) {
-      Preconditions.checkArgument(
-          cacheEndpoint != null && !cacheEndpoint.isEmpty(),
-          "`cacheEndpoint` must be set when tail metadata caching is enabled");
+      if (cacheType == CacheType.DISK) {
+        Preconditions.checkArgument(
+            diskCacheDirectory != null && !diskCacheDirectory.isEmpty(),
+            "`diskCacheDirectory` must be set when the disk cache is in use");
+      } else if (cacheType == CacheType.VALKEY) {
+        Preconditions.checkArgument(
+            cacheEndpoint != null && !cacheEndpoint.isEmpty(),
+            "`cacheEndpoint` must be set when tail metadata caching is enabled");
+      }
     }
 
+    Preconditions.checkNotNull(blockAllocatorType, "`blockAllocatorType` must not be null");
+    Preconditions.checkArgument(
+        isPowerOfTwo(minSlabSizeBytes), "`minSlabSizeBytes` must be a power of two");
+    Preconditions.checkArgument(
+        isPowerOfTwo(maxSlabSizeBytes), "`maxSlabSizeBytes` must be a power of two");
+    Preconditions.checkArgument(
+        minSlabSizeBytes <= maxSlabSizeBytes,
+        "`minSlabSizeBytes` must not be greater than `maxSlabSizeBytes`");
+    Preconditions.checkArgument(
+        slabPoolCapacityBytes >= 0, "`slabPoolCapacityBytes` must not be negative");
+    Preconditions.checkArgument(memoryCapacityBytes > 0, "`memoryCapacityBytes` must be positive");
+    Preconditions.checkArgument(
+        rangeMergeMaxGapBytes >= 0, "`rangeMergeMaxGapBytes` must not be negative");
+    Preconditions.checkArgument(
+        rangeMergeMaxSizeBytes > 0, "`rangeMergeMaxSizeBytes` must be positive");
+    Preconditions.checkArgument(
+        adaptiveReadAheadMinBytes > 0, "`adaptiveReadAheadMinBytes` must be positive");
+    Preconditions.checkArgument(
+        adaptiveReadAheadMaxBytes >= adaptiveReadAheadMinBytes,
+        "`adaptiveReadAheadMaxBytes` must not be less than `adaptiveReadAheadMinBytes`");
+    Preconditions.checkArgument(
+        adaptiveReadAheadMaxWasteRatio >= 0 && adaptiveReadAheadMaxWasteRatio <= 1,
+        "`adaptiveReadAheadMaxWasteRatio` must be between 0 and 1");
+    Preconditions.checkArgument(
+        sequentialPipelineParallelism >= 0, "`sequentialPipelineParallelism` must not be negative");
+    Preconditions.checkArgument(
+        sequentialPipelineMaxAheadParts > 0, "`sequentialPipelineMaxAheadParts` must be positive");
+    Preconditions.checkArgument(
+        diskCacheCapacityBytes > 0, "`diskCacheCapacityBytes` must be positive");
+    Preconditions.checkArgument(
+        diskCacheSegmentSizeBytes > 0 && diskCacheSegmentSizeBytes <= Integer.MAX_VALUE,
+        "`diskCacheSegmentSizeBytes` must be positive and fit in an int");
+    Preconditions.checkArgument(
+        memoryCacheCapacityBytes > 0, "`memoryCacheCapacityBytes` must be positive");
+    Preconditions.checkArgument(cacheTimeoutMs > 0, "`cacheTimeoutMs` must be positive");
+    Preconditions.checkArgument(
+        nearCacheCapacityBytes > 0, "`nearCacheCapacityBytes` must be positive");
+    Preconditions.checkArgument(
+        writeBehindQueueCapacity > 0, "`writeBehindQueueCapacity` must be positive");
+    Preconditions.checkArgument(
+        writeBehindBatchSize > 0, "`writeBehindBatchSize` must be positive");
+    Preconditions.checkNotNull(cacheCompression, "`cacheCompression` must not be null");
+    Preconditions.checkArgument(
+        cacheCompressionMinBytes >= 0, "`cacheCompressionMinBytes` must not be negative");
+    Preconditions.checkArgument(
+        cacheCircuitBreakerErrorRate > 0 && cacheCircuitBreakerErrorRate <= 1,
+        "`cacheCircuitBreakerErrorRate` must be in (0, 1]");
+    Preconditions.checkArgument(
+        cacheCircuitBreakerOpenMs > 0, "`cacheCircuitBreakerOpenMs` must be positive");
+    Preconditions.checkArgument(cacheChunkSizeBytes > 0, "`cacheChunkSizeBytes` must be positive");
+    Preconditions.checkNotNull(cachedRangeTypes, "`cachedRangeTypes` must not be null");
+    Preconditions.checkArgument(
+        cacheAdmissionMaxEntryBytes > 0, "`cacheAdmissionMaxEntryBytes` must be positive");
+    Preconditions.checkNotNull(secondHitRangeTypes, "`secondHitRangeTypes` must not be null");
+
     this.blobStoreCapacity = blobStoreCapacity;
     this.metadataStoreCapacity = metadataStoreCapacity;
     this.blockSizeBytes = blockSizeBytes;
@@ -225,6 +815,82 @@ public class PhysicalIOConfiguration {
     this.enableTailMetadataCaching = enableTailMetadataCaching;
     this.cacheEndpoint = cacheEndpoint;
     this.enableCacheFlush = enableCacheFlush;
+    this.drainThreadPoolSize = drainThreadPoolSize;
+    this.drainThreadNamePrefix = drainThreadNamePrefix;
+    this.drainThreadDaemon = drainThreadDaemon;
+    this.blockAllocatorType = blockAllocatorType;
+    this.minSlabSizeBytes = minSlabSizeBytes;
+    this.maxSlabSizeBytes = maxSlabSizeBytes;
+    this.slabPoolCapacityBytes = slabPoolCapacityBytes;
+    this.memoryCapacityBytes = memoryCapacityBytes;
+    this.rangeMergeMaxGapBytes = rangeMergeMaxGapBytes;
+    this.rangeMergeMaxSizeBytes = rangeMergeMaxSizeBytes;
+    this.adaptiveReadAheadEnabled = adaptiveReadAheadEnabled;
+    this.adaptiveReadAheadMinBytes = adaptiveReadAheadMinBytes;
+    this.adaptiveReadAheadMaxBytes = adaptiveReadAheadMaxBytes;
+    this.adaptiveReadAheadMaxWasteRatio = adaptiveReadAheadMaxWasteRatio;
+    this.sequentialPipelineParallelism = sequentialPipelineParallelism;
+    this.sequentialPipelineMaxAheadParts = sequentialPipelineMaxAheadParts;
+    this.cacheType = cacheType;
+    this.diskCacheDirectory = diskCacheDirectory;
+    this.diskCacheCapacityBytes = diskCacheCapacityBytes;
+    this.diskCacheSegmentSizeBytes = diskCacheSegmentSizeBytes;
+    this.memoryCacheCapacityBytes = memoryCacheCapacityBytes;
+    this.cacheTimeoutMs = cacheTimeoutMs;
+    this.enableNearCache = enableNearCache;
+    this.nearCacheCapacityBytes = nearCacheCapacityBytes;
+    this.writeBehindQueueCapacity = writeBehindQueueCapacity;
+    this.writeBehindBatchSize = writeBehindBatchSize;
+    this.cacheCompression = cacheCompression;
+    this.cacheCompressionMinBytes = cacheCompressionMinBytes;
+    this.enableCacheCircuitBreaker = enableCacheCircuitBreaker;
+    this.cacheCircuitBreakerErrorRate = cacheCircuitBreakerErrorRate;
+    this.cacheCircuitBreakerOpenMs = cacheCircuitBreakerOpenMs;
+    this.cacheChunkSizeBytes = cacheChunkSizeBytes;
+    this.cachedRangeTypes =
+        cachedRangeTypes.isEmpty()
+            ? Collections.emptySet()
+            : Collections.unmodifiableSet(EnumSet.copyOf(cachedRangeTypes));
+    this.enableCacheAdmission = enableCacheAdmission;
+    this.cacheAdmissionMaxEntryBytes = cacheAdmissionMaxEntryBytes;
+    this.secondHitRangeTypes =
+        secondHitRangeTypes.isEmpty()
+            ? Collections.emptySet()
+            : Collections.unmodifiableSet(EnumSet.copyOf(secondHitRangeTypes));
+  }
+
+  /**
+   * Parses a comma separated list of {@link RangeType} names, ignoring case.
+   *
+   * @param names the names of the range types
+   * @return the range types
+   */
+  static Set<RangeType> parseRangeTypes(String names) {
+    Set<RangeType> rangeTypes = EnumSet.noneOf(RangeType.class);
+    for (String name : names.split(",")) {
+      String trimmed = name.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      try {
+        rangeTypes.add(RangeType.valueOf(trimmed.toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown range type `%s`, expected one of %s",
+                trimmed, Arrays.toString(RangeType.values())),
+            e);
+      }
+    }
+    return rangeTypes;
+  }
+
+  private static String joinRangeTypes(Set<RangeType> rangeTypes) {
+    return rangeTypes.stream().map(RangeType::name).collect(Collectors.joining(","));
+  }
+
+  private static boolean isPowerOfTwo(int value) {
+    return value > 0 && (value & (value - 1)) == 0;
   }
 
   @Override
@@ -244,9 +910,59 @@ public class PhysicalIOConfiguration {
     builder.append("\tblockReadRetryCount: " + blockReadRetryCount + "\n");
     builder.append("\tenableTailMetadataCaching: " + enableTailMetadataCaching + "\n");
     if (enableTailMetadataCaching) {
-      builder.append("\tcacheEndpoint: " + cacheEndpoint + "\n");
+      builder.append("\tcacheType: " + cacheType + "\n");
+      builder.append("\tcacheTimeoutMs: " + cacheTimeoutMs + "\n");
+      builder.append("\tcachedRangeTypes: " + cachedRangeTypes + "\n");
+      builder.append("\tcacheChunkSizeBytes: " + cacheChunkSizeBytes + "\n");
+      builder.append("\tenableCacheAdmission: " + enableCacheAdmission + "\n");
+      if (enableCacheAdmission) {
+        builder.append("\tcacheAdmissionMaxEntryBytes: " + cacheAdmissionMaxEntryBytes + "\n");
+        builder.append("\tsecondHitRangeTypes: " + secondHitRangeTypes + "\n");
+      }
+      if (cacheType == CacheType.DISK) {
+        builder.append("\tdiskCacheDirectory: " + diskCacheDirectory + "\n");
+        builder.append("\tdiskCacheCapacityBytes: " + diskCacheCapacityBytes + "\n");
+        builder.append("\tdiskCacheSegmentSizeBytes: " + diskCacheSegmentSizeBytes + "\n");
+      } else if (cacheType == CacheType.MEMORY) {
+        builder.append("\tmemoryCacheCapacityBytes: " + memoryCacheCapacityBytes + "\n");
+      } else {
+        builder.append("\tcacheEndpoint: " + cacheEndpoint + "\n");
+        builder.append("\tcacheCompression: " + cacheCompression + "\n");
+        if (cacheCompression != CacheCompression.NONE) {
+          builder.append("\tcacheCompressionMinBytes: " + cacheCompressionMinBytes + "\n");
+        }
+      }
+      if (cacheType != CacheType.MEMORY) {
+        builder.append("\twriteBehindQueueCapacity: " + writeBehindQueueCapacity + "\n");
+        builder.append("\twriteBehindBatchSize: " + writeBehindBatchSize + "\n");
+        builder.append("\tenableCacheCircuitBreaker: " + enableCacheCircuitBreaker + "\n");
+        if (enableCacheCircuitBreaker) {
+          builder.append("\tcacheCircuitBreakerErrorRate: " + cacheCircuitBreakerErrorRate + "\n");
+          builder.append("\tcacheCircuitBreakerOpenMs: " + cacheCircuitBreakerOpenMs + "\n");
+        }
+        builder.append("\tenableNearCache: " + enableNearCache + "\n");
+        if (enableNearCache) {
+          builder.append("\tnearCacheCapacityBytes: " + nearCacheCapacityBytes + "\n");
+        }
+      }
     }
     builder.append("\tenableCacheFlush: " + enableCacheFlush + "\n");
+    builder.append("\tdrainThreadPoolSize: " + drainThreadPoolSize + "\n");
+    builder.append("\tdrainThreadNamePrefix: " + drainThreadNamePrefix + "\n");
+    builder.append("\tdrainThreadDaemon: " + drainThreadDaemon + "\n");
+    builder.append("\tblockAllocatorType: " + blockAllocatorType + "\n");
+    builder.append("\tminSlabSizeBytes: " + minSlabSizeBytes + "\n");
+    builder.append("\tmaxSlabSizeBytes: " + maxSlabSizeBytes + "\n");
+    builder.append("\tslabPoolCapacityBytes: " + slabPoolCapacityBytes + "\n");
+    builder.append("\tmemoryCapacityBytes: " + memoryCapacityBytes + "\n");
+    builder.append("\trangeMergeMaxGapBytes: " + rangeMergeMaxGapBytes + "\n");
+    builder.append("\trangeMergeMaxSizeBytes: " + rangeMergeMaxSizeBytes + "\n");
+    builder.append("\tadaptiveReadAheadEnabled: " + adaptiveReadAheadEnabled + "\n");
+    builder.append("\tadaptiveReadAheadMinBytes: " + adaptiveReadAheadMinBytes + "\n");
+    builder.append("\tadaptiveReadAheadMaxBytes: " + adaptiveReadAheadMaxBytes + "\n");
+    builder.append("\tadaptiveReadAheadMaxWasteRatio: " + adaptiveReadAheadMaxWasteRatio + "\n");
+    builder.append("\tsequentialPipelineParallelism: " + sequentialPipelineParallelism + "\n");
+    builder.append("\tsequentialPipelineMaxAheadParts: " + sequentialPipelineMaxAheadParts + "\n");
 
     return builder.toString();
   }
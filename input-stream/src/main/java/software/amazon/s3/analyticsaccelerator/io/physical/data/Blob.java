@@ -17,6 +17,7 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Optional;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +27,7 @@ import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanState;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.request.ReadMode;
@@ -37,6 +39,7 @@ import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 public class Blob implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(Blob.class);
   private static final String OPERATION_EXECUTE = "blob.execute";
+  private static final int MAX_EVICTED_BLOCK_RETRIES = 3;
 
   private final ObjectKey objectKey;
   private final BlockManager blockManager;
@@ -73,7 +76,7 @@ public class Blob implements Closeable {
   public int read(long pos) throws IOException {
     Preconditions.checkArgument(pos >= 0, "`pos` must be non-negative");
     blockManager.makePositionAvailable(pos, ReadMode.SYNC);
-    return blockManager.getBlock(pos).get().read(pos);
+    return readFromBlock(pos, 1, block -> block.read(pos));
   }
 
   /**
@@ -100,17 +103,13 @@ public class Blob implements Closeable {
 
     while (numBytesRead < len && nextPosition < contentLength()) {
       final long nextPositionFinal = nextPosition;
-      Block nextBlock =
-          blockManager
-              .getBlock(nextPosition)
-              .orElseThrow(
-                  () ->
-                      new IllegalStateException(
-                          String.format(
-                              "This block (for position %s) should have been available.",
-                              nextPositionFinal)));
-
-      int bytesRead = nextBlock.read(buf, off + numBytesRead, len - numBytesRead, nextPosition);
+      final int nextOffset = off + numBytesRead;
+      final int remaining = len - numBytesRead;
+      int bytesRead =
+          readFromBlock(
+              nextPosition,
+              remaining,
+              block -> block.read(buf, nextOffset, remaining, nextPositionFinal));
 
       if (bytesRead == -1) {
         return numBytesRead;
@@ -140,10 +139,7 @@ public class Blob implements Closeable {
                 .build(),
         () -> {
           try {
-            for (Range range : plan.getPrefetchRanges()) {
-              this.blockManager.makeRangeAvailable(
-                  range.getStart(), range.getLength(), range.getRangeType(), ReadMode.ASYNC);
-            }
+            this.blockManager.makeRangesAvailable(plan.getPrefetchRanges(), ReadMode.ASYNC);
 
             return IOPlanExecution.builder().state(IOPlanState.SUBMITTED).build();
           } catch (Exception e) {
@@ -153,12 +149,73 @@ public class Blob implements Closeable {
         });
   }
 
+  /**
+   * Adds the response of a GET issued before the object was opened, so that its range does not need
+   * to be fetched again.
+   *
+   * @param range the range requested
+   * @param content the response of the GET
+   * @throws IOException if an I/O error occurs
+   */
+  public void addPrefetchedRange(@NonNull Range range, @NonNull ObjectContent content)
+      throws IOException {
+    this.blockManager.addPrefetchedBlock(range, content);
+  }
+
+  /**
+   * Reads from the block holding the position. The memory budget may evict a block between it being
+   * made available and being read, in which case the range is fetched again.
+   *
+   * @param pos the position to read from
+   * @param len the number of bytes still to be read, used when the range has to be fetched again
+   * @param reader the read to perform on the block
+   * @return the result of the read
+   * @throws IOException if an I/O error occurs
+   */
+  private int readFromBlock(long pos, long len, BlockReader reader) throws IOException {
+    for (int attempt = 1; ; attempt++) {
+      Optional<Block> block = blockManager.getBlock(pos);
+      if (block.isPresent()) {
+        try {
+          return reader.read(block.get());
+        } catch (IOException e) {
+          if (!block.get().isClosed() || attempt >= MAX_EVICTED_BLOCK_RETRIES) {
+            throw e;
+          }
+        }
+      } else if (attempt >= MAX_EVICTED_BLOCK_RETRIES) {
+        throw new IllegalStateException(
+            String.format("This block (for position %s) should have been available.", pos));
+      }
+
+      LOG.debug("Block for position {} was evicted before being read, fetching it again", pos);
+      blockManager.makeRangeAvailable(pos, len, RangeType.BLOCK, ReadMode.SYNC);
+    }
+  }
+
   private long contentLength() {
     return metadata.getContentLength();
   }
 
+  /**
+   * Whether the Blob has been closed, such as when it was evicted from the BlobStore. Reads from a
+   * closed Blob fail once they need data that is not loaded, the object has to be read through the
+   * Blob that replaced it.
+   *
+   * @return true if the Blob is closed
+   */
+  public boolean isClosed() {
+    return this.blockManager.isClosed();
+  }
+
   @Override
   public void close() {
     this.blockManager.close();
   }
+
+  /** A read performed on a single block. */
+  @FunctionalInterface
+  private interface BlockReader {
+    int read(Block block) throws IOException;
+  }
 }
@@ -20,15 +20,17 @@ import java.io.Closeable;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import lombok.NonNull;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.BlockAllocator;
 import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.CacheAdmissionFilter;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.request.StreamContext;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.StreamDrainExecutor;
 
 /** A BlobStore is a container for Blobs and functions as a data cache. */
 @SuppressFBWarnings(
@@ -41,7 +43,10 @@ public class BlobStore implements Closeable {
   private final Telemetry telemetry;
   private final PhysicalIOConfiguration configuration;
   private final Cache cache;
-  private final ExecutorService executorService;
+  private final CachePolicy cachePolicy;
+  private final StreamDrainExecutor drainExecutor;
+  private final BlockAllocator allocator;
+  private final MemoryManager memoryManager;
 
   /**
    * Construct an instance of BlobStore.
@@ -54,7 +59,7 @@ public class BlobStore implements Closeable {
       @NonNull ObjectClient objectClient,
       @NonNull Telemetry telemetry,
       @NonNull PhysicalIOConfiguration configuration) {
-    this(objectClient, telemetry, configuration, null, null);
+    this(objectClient, telemetry, configuration, null, null, null, null, null);
   }
 
   /**
@@ -64,13 +69,21 @@ public class BlobStore implements Closeable {
    * @param telemetry an instance of {@link Telemetry} to use
    * @param configuration the PhysicalIO configuration
    * @param cache an instance of {@link Cache} to use
+   * @param admissionFilter the {@link CacheAdmissionFilter} deciding which chunks are written to
+   *     the cache; all chunks are written when null
+   * @param drainExecutor the {@link StreamDrainExecutor} to drain GET responses on
+   * @param allocator the {@link BlockAllocator} to hold block data in
+   * @param memoryManager the {@link MemoryManager} enforcing the memory budget of the blocks
    */
   public BlobStore(
       @NonNull ObjectClient objectClient,
       @NonNull Telemetry telemetry,
       @NonNull PhysicalIOConfiguration configuration,
       Cache cache,
-      ExecutorService executorService) {
+      CacheAdmissionFilter admissionFilter,
+      StreamDrainExecutor drainExecutor,
+      BlockAllocator allocator,
+      MemoryManager memoryManager) {
     this.objectClient = objectClient;
     this.telemetry = telemetry;
     this.blobMap =
@@ -78,12 +91,21 @@ public class BlobStore implements Closeable {
             new LinkedHashMap<ObjectKey, Blob>() {
               @Override
               protected boolean removeEldestEntry(final Map.Entry<ObjectKey, Blob> eldest) {
-                return this.size() > configuration.getBlobStoreCapacity();
+                if (this.size() > configuration.getBlobStoreCapacity()) {
+                  // Hand the block memory back, reads in progress finish before it is released
+                  eldest.getValue().close();
+                  return true;
+                }
+                return false;
               }
             });
     this.configuration = configuration;
     this.cache = cache;
-    this.executorService = executorService;
+    // The admission filter learns from the lookups of all blobs, so the policy is shared by them
+    this.cachePolicy = new CachePolicy(configuration, admissionFilter);
+    this.drainExecutor = drainExecutor;
+    this.allocator = allocator;
+    this.memoryManager = memoryManager;
   }
 
   /**
@@ -108,7 +130,10 @@ public class BlobStore implements Closeable {
                     telemetry,
                     configuration,
                     cache,
-                    executorService,
+                    cachePolicy,
+                    drainExecutor,
+                    allocator,
+                    memoryManager,
                     streamContext),
                 telemetry));
   }
@@ -120,7 +145,14 @@ public class BlobStore implements Closeable {
    * @return a boolean stating if the object existed or not
    */
   public boolean evictKey(ObjectKey objectKey) {
-    return this.blobMap.remove(objectKey) != null;
+    Blob blob = this.blobMap.remove(objectKey);
+    if (blob == null) {
+      return false;
+    }
+
+    // Hand the block memory back to the allocator
+    blob.close();
+    return true;
   }
 
   /**
@@ -17,7 +17,18 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.Getter;
 import lombok.NonNull;
 import org.slf4j.Logger;
@@ -26,6 +37,7 @@ import software.amazon.s3.analyticsaccelerator.S3SdkObjectClient;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.BlockAllocator;
 import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
 import software.amazon.s3.analyticsaccelerator.request.GetRequest;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
@@ -37,29 +49,39 @@ import software.amazon.s3.analyticsaccelerator.request.StreamContext;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.RangeType;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
-import software.amazon.s3.analyticsaccelerator.util.StreamUtils;
+import software.amazon.s3.analyticsaccelerator.util.StreamDrainExecutor;
 
 /**
  * A Block holding part of an object's data and owning its own async process for fetching part of
- * the object.
+ * the object. Blocks of the range types cached by the {@link CachePolicy} are assembled from the
+ * aligned chunks found in the cache, only the missing chunks are fetched from S3.
  */
 public class Block implements Closeable {
-  private CompletableFuture<ObjectContent> source;
-  private CompletableFuture<byte[]> data;
+  private final Queue<CompletableFuture<ObjectContent>> sources = new ConcurrentLinkedQueue<>();
+  private volatile CompletableFuture<ByteBuffer> data;
   private final ObjectKey objectKey;
   private final Range range;
   private final Telemetry telemetry;
   private final ObjectClient objectClient;
   private final StreamContext streamContext;
   private final ReadMode readMode;
-  private final Referrer referrer;
   private final long readTimeout;
   private final int readRetryCount;
   private final long contentLength;
   private final boolean enableTailMetadataCaching;
-
-  private static Cache cache;
-  private static ExecutorService executorService;
+  private final Cache cache;
+  private final long cacheTimeoutMs;
+  private final CachePolicy cachePolicy;
+  private final StreamDrainExecutor drainExecutor;
+  // Heap memory, reclaimed by the GC, is used when null
+  private final BlockAllocator allocator;
+  // Response of a GET issued before the block was created, drained by the first fetch
+  private final AtomicReference<ObjectContent> prefetchedContent;
+  private final AtomicInteger activeReaders = new AtomicInteger();
+  private final AtomicBoolean released = new AtomicBoolean();
+  // Data of attempts given up on, readers that were waiting on it may still copy from it
+  private final Queue<CompletableFuture<ByteBuffer>> supersededData = new ConcurrentLinkedQueue<>();
+  private volatile boolean closed;
 
   @Getter private final long start;
   @Getter private final long end;
@@ -111,6 +133,8 @@ public class Block implements Closeable {
         0,
         false,
         null,
+        0,
+        null,
         null,
         null);
   }
@@ -131,6 +155,79 @@ public class Block implements Closeable {
    * @param contentLength Length of the parquet file
    * @param enableTailMetadataCaching Boolean flag to enable or disable tail metadata caching
    * @param cache an instance of {@link Cache} to use
+   * @param cacheTimeoutMs time budget in milliseconds of each cache lookup and update; a lookup
+   *     that exceeds it falls back to S3
+   * @param drainExecutor the {@link StreamDrainExecutor} to drain the GET response on; the shared
+   *     default is used when null
+   * @param allocator the {@link BlockAllocator} to hold the block data in; heap memory is used when
+   *     null
+   * @param streamContext contains audit headers to be attached in the request header
+   */
+  public Block(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull Telemetry telemetry,
+      long start,
+      long end,
+      RangeType rangeType,
+      long generation,
+      @NonNull ReadMode readMode,
+      long readTimeout,
+      int readRetryCount,
+      long contentLength,
+      boolean enableTailMetadataCaching,
+      Cache cache,
+      long cacheTimeoutMs,
+      StreamDrainExecutor drainExecutor,
+      BlockAllocator allocator,
+      StreamContext streamContext)
+      throws IOException {
+
+    this(
+        objectKey,
+        objectClient,
+        telemetry,
+        start,
+        end,
+        rangeType,
+        generation,
+        readMode,
+        readTimeout,
+        readRetryCount,
+        contentLength,
+        enableTailMetadataCaching,
+        cache,
+        cacheTimeoutMs,
+        CachePolicy.DEFAULT,
+        drainExecutor,
+        allocator,
+        streamContext);
+  }
+
+  /**
+   * Constructs a Block data.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient the object client to use to interact with the object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param start start of the block
+   * @param end end of the block
+   * @param rangeType the type associated with the provided range
+   * @param generation generation of the block in a sequential read pattern (should be 0 by default)
+   * @param readMode read mode describing whether this is a sync or async fetch
+   * @param readTimeout Timeout duration (in milliseconds) for reading a block object from S3
+   * @param readRetryCount Number of retries for block read failure
+   * @param contentLength Length of the parquet file
+   * @param enableTailMetadataCaching Boolean flag to enable or disable caching
+   * @param cache an instance of {@link Cache} to use
+   * @param cacheTimeoutMs time budget in milliseconds of each cache lookup and update; a lookup
+   *     that exceeds it falls back to S3
+   * @param cachePolicy the {@link CachePolicy} deciding which ranges are cached and how; the
+   *     default policy is used when null
+   * @param drainExecutor the {@link StreamDrainExecutor} to drain the GET response on; the shared
+   *     default is used when null
+   * @param allocator the {@link BlockAllocator} to hold the block data in; heap memory is used when
+   *     null
    * @param streamContext contains audit headers to be attached in the request header
    */
   public Block(
@@ -147,9 +244,83 @@ public class Block implements Closeable {
       long contentLength,
       boolean enableTailMetadataCaching,
       Cache cache,
-      ExecutorService executorService,
+      long cacheTimeoutMs,
+      CachePolicy cachePolicy,
+      StreamDrainExecutor drainExecutor,
+      BlockAllocator allocator,
       StreamContext streamContext)
       throws IOException {
+    this(
+        objectKey,
+        objectClient,
+        telemetry,
+        start,
+        end,
+        rangeType,
+        generation,
+        readMode,
+        readTimeout,
+        readRetryCount,
+        contentLength,
+        enableTailMetadataCaching,
+        cache,
+        cacheTimeoutMs,
+        cachePolicy,
+        drainExecutor,
+        allocator,
+        streamContext,
+        null);
+  }
+
+  /**
+   * Constructs a Block data.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient the object client to use to interact with the object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param start start of the block
+   * @param end end of the block
+   * @param rangeType the type associated with the provided range
+   * @param generation generation of the block in a sequential read pattern (should be 0 by default)
+   * @param readMode read mode describing whether this is a sync or async fetch
+   * @param readTimeout Timeout duration (in milliseconds) for reading a block object from S3
+   * @param readRetryCount Number of retries for block read failure
+   * @param contentLength Length of the parquet file
+   * @param enableTailMetadataCaching Boolean flag to enable or disable caching
+   * @param cache an instance of {@link Cache} to use
+   * @param cacheTimeoutMs time budget in milliseconds of each cache lookup and update; a lookup
+   *     that exceeds it falls back to S3
+   * @param cachePolicy the {@link CachePolicy} deciding which ranges are cached and how; the
+   *     default policy is used when null
+   * @param drainExecutor the {@link StreamDrainExecutor} to drain the GET response on; the shared
+   *     default is used when null
+   * @param allocator the {@link BlockAllocator} to hold the block data in; heap memory is used when
+   *     null
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param prefetchedContent the response of a GET of the block range issued before the block was
+   *     created, drained instead of issuing a new GET; a new GET is issued when null
+   */
+  Block(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull Telemetry telemetry,
+      long start,
+      long end,
+      RangeType rangeType,
+      long generation,
+      @NonNull ReadMode readMode,
+      long readTimeout,
+      int readRetryCount,
+      long contentLength,
+      boolean enableTailMetadataCaching,
+      Cache cache,
+      long cacheTimeoutMs,
+      CachePolicy cachePolicy,
+      StreamDrainExecutor drainExecutor,
+      BlockAllocator allocator,
+      StreamContext streamContext,
+      ObjectContent prefetchedContent)
+      throws IOException {
 
     Preconditions.checkArgument(
         0 <= generation, "`generation` must be non-negative; was: %s", generation);
@@ -171,154 +342,291 @@ public class Block implements Closeable {
     this.objectClient = objectClient;
     this.streamContext = streamContext;
     this.readMode = readMode;
-    this.referrer = new Referrer(range.toHttpString(), readMode);
     this.readTimeout = readTimeout;
     this.readRetryCount = readRetryCount;
     this.contentLength = contentLength;
     this.enableTailMetadataCaching = enableTailMetadataCaching;
-
-    if (enableTailMetadataCaching && Block.cache == null && cache != null) {
-      Block.cache = cache;
-    }
-
-    if (enableTailMetadataCaching && Block.executorService == null && executorService != null) {
-      Block.executorService = executorService;
-    }
+    this.cache = enableTailMetadataCaching ? cache : null;
+    this.cacheTimeoutMs = cacheTimeoutMs;
+    this.cachePolicy = cachePolicy == null ? CachePolicy.DEFAULT : cachePolicy;
+    this.drainExecutor =
+        drainExecutor == null ? StreamDrainExecutor.getDefault() : drainExecutor;
+    this.allocator = allocator;
+    this.prefetchedContent = new AtomicReference<>(prefetchedContent);
 
     this.initialisationTask = new CompletableFuture<>();
 
-    if (executorService != null) {
-      executorService.submit(
-          () -> {
-            try {
-              generateSourceAndData();
-              initialisationTask.complete(null);
-            } catch (IOException e) {
-              initialisationTask.completeExceptionally(e);
-              throw new RuntimeException(e);
-            }
-          });
-    } else {
-      try {
-        generateSourceAndData();
-        this.initialisationTask.complete(null);
+    try {
+      generateSourceAndData();
+      this.initialisationTask.complete(null);
 
-      } catch (IOException e) {
-        initialisationTask.completeExceptionally(e);
-        throw e;
-      }
+    } catch (IOException e) {
+      initialisationTask.completeExceptionally(e);
+      throw e;
     }
   }
 
   /** Method to help construct source and data */
   private void generateSourceAndData() throws IOException {
-    int retries = 0;
-    while (retries < readRetryCount) {
-      try {
-        LOG.info("Range type is: {}", range.getRangeType());
-        if (enableTailMetadataCaching && isTailMetadata(range) && cache != null) {
-          String cacheKey = generateCacheKey();
+    // A previous attempt may still complete after being given up on, its buffer is released once
+    // no reader is left
+    if (this.data != null) {
+      supersededData.add(this.data);
+    }
+    this.sources.clear();
 
-          long cacheGetStartTime = System.nanoTime();
+    LOG.info("Range type is: {}", range.getRangeType());
+    ObjectContent prefetched = this.prefetchedContent.getAndSet(null);
+    if (prefetched != null) {
+      this.data = drainPrefetched(prefetched);
+      return;
+    }
+    if (isCached()) {
+      // The lookup never blocks, S3 is only asked for the chunks that missed or ran out of time
+      List<Range> chunks = cachePolicy.chunksOf(range, contentLength);
+      this.data = lookUpCache(chunks).thenCompose(cachedChunks -> assemble(chunks, cachedChunks));
+      return;
+    }
+
+    this.data = fetchFromS3(this.range);
+  }
+
+  /**
+   * Looks up the chunks covering the block in the cache, with a single request. Lookups that fail
+   * or exceed the time budget count as misses, and so do chunks of an unexpected length.
+   *
+   * @param chunks the chunks covering the block
+   * @return a future holding the cached chunks by cache key
+   */
+  private CompletableFuture<Map<String, byte[]>> lookUpCache(List<Range> chunks) {
+    List<String> cacheKeys = new ArrayList<>(chunks.size());
+    for (Range chunk : chunks) {
+      String cacheKey = CachePolicy.keyOf(objectKey, chunk);
+      cachePolicy.recordLookup(cacheKey);
+      cacheKeys.add(cacheKey);
+    }
+    long cacheGetStartTime = System.nanoTime();
 
-          byte[] cachedData = Block.cache.get(cacheKey);
+    CompletableFuture<Map<String, byte[]>> lookup;
+    try {
+      lookup = lookUpKeys(cacheKeys);
+    } catch (RuntimeException e) {
+      lookup = new CompletableFuture<>();
+      lookup.completeExceptionally(e);
+    }
 
+    return lookup.handle(
+        (cachedValues, error) -> {
           long cacheGetDuration = System.nanoTime() - cacheGetStartTime;
           double cacheGetMsDuration = cacheGetDuration / 1_000_000.0;
 
-          if (cachedData != null) {
+          if (error != null) {
             LOG.info(
-                "Cache hit for tail metadata: {}. Request took: {}ms, start = {}, end = {}. RangeType: {}",
-                cacheKey,
+                "Cache lookup failed for {} chunks of: {}. Request took: {}ms, start = {}, end = {}. RangeType: {}. Error: {}",
+                chunks.size(),
+                objectKey.getS3URI(),
                 String.format("%.2f", cacheGetMsDuration),
                 range.getStart(),
                 range.getEnd(),
-                range.getRangeType());
-
-            data = CompletableFuture.completedFuture(cachedData);
-            return;
+                range.getRangeType(),
+                error.toString());
+            return Collections.emptyMap();
+          }
 
-          } else {
-            LOG.info(
-                "Cache miss for tail metadata: {}. Request took: {}ms, start = {}, end = {}. RangeType: {}",
-                cacheKey,
-                String.format("%.2f", cacheGetMsDuration),
-                range.getStart(),
-                range.getEnd(),
-                range.getRangeType());
+          Map<String, byte[]> cachedChunks = new HashMap<>();
+          for (int i = 0; i < chunks.size(); i++) {
+            byte[] value = cachedValues.get(cacheKeys.get(i));
+            if (value != null && value.length == chunks.get(i).getLength()) {
+              cachedChunks.put(cacheKeys.get(i), value);
+            } else if (value != null) {
+              LOG.debug(
+                  "Ignoring cached chunk {} of {} bytes, expected {}",
+                  cacheKeys.get(i),
+                  value.length,
+                  chunks.get(i).getLength());
+            }
           }
+
+          LOG.info(
+              "Cache hit for {} of {} chunks of: {}. Request took: {}ms, start = {}, end = {}. RangeType: {}",
+              cachedChunks.size(),
+              chunks.size(),
+              objectKey.getS3URI(),
+              String.format("%.2f", cacheGetMsDuration),
+              range.getStart(),
+              range.getEnd(),
+              range.getRangeType());
+          return cachedChunks;
+        });
+  }
+
+  private CompletableFuture<Map<String, byte[]>> lookUpKeys(List<String> cacheKeys) {
+    if (cacheKeys.size() > 1) {
+      return this.cache.getAll(cacheKeys, cacheTimeoutMs);
+    }
+
+    String cacheKey = cacheKeys.get(0);
+    return this.cache
+        .get(cacheKey, cacheTimeoutMs)
+        .thenApply(
+            value ->
+                value == null
+                    ? Collections.<String, byte[]>emptyMap()
+                    : Collections.singletonMap(cacheKey, value));
+  }
+
+  /**
+   * Assembles the block from the cached chunks, fetching the runs of missing chunks from S3. The
+   * chunks fetched are written back to the cache without waiting for it.
+   *
+   * @param chunks the chunks covering the block
+   * @param cachedChunks the chunks found in the cache, by cache key
+   * @return a future holding the bytes of the block
+   */
+  private CompletableFuture<ByteBuffer> assemble(
+      List<Range> chunks, Map<String, byte[]> cachedChunks) {
+    List<Range> missingRanges = new ArrayList<>();
+    for (Range chunk : chunks) {
+      if (cachedChunks.containsKey(CachePolicy.keyOf(objectKey, chunk))) {
+        continue;
+      }
+      int last = missingRanges.size() - 1;
+      if (last >= 0 && missingRanges.get(last).getEnd() + 1 == chunk.getStart()) {
+        Range run = missingRanges.get(last);
+        missingRanges.set(last, new Range(run.getStart(), chunk.getEnd(), run.getRangeType()));
+      } else {
+        missingRanges.add(chunk);
+      }
+    }
+
+    if (missingRanges.isEmpty() && chunks.size() == 1 && coversBlock(chunks.get(0))) {
+      return CompletableFuture.completedFuture(
+          ByteBuffer.wrap(cachedChunks.values().iterator().next()));
+    }
+
+    List<CompletableFuture<ByteBuffer>> fetches = new ArrayList<>(missingRanges.size());
+    try {
+      if (!missingRanges.isEmpty() && closed) {
+        throw new IOException("Block was closed while looking up the cache");
+      }
+      // Nothing is cached and the chunks line up with the block, its buffer is filled directly
+      if (missingRanges.size() == 1 && coversBlock(missingRanges.get(0))) {
+        return fetchFromS3(this.range)
+            .thenApply(
+                fetchedData -> {
+                  storeInCache(chunks, fetchedData, start);
+                  return fetchedData;
+                });
+      }
+
+      for (Range missingRange : missingRanges) {
+        fetches.add(fetchFromS3(missingRange));
+      }
+      return CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0]))
+          .whenComplete(
+              (ignored, error) -> {
+                if (error != null) {
+                  fetches.forEach(this::discardData);
+                }
+              })
+          .thenApply(ignored -> combine(chunks, cachedChunks, missingRanges, fetches));
+    } catch (IOException e) {
+      fetches.forEach(this::discardData);
+      CompletableFuture<ByteBuffer> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  private ByteBuffer combine(
+      List<Range> chunks,
+      Map<String, byte[]> cachedChunks,
+      List<Range> missingRanges,
+      List<CompletableFuture<ByteBuffer>> fetches) {
+    ByteBuffer buffer = allocate((int) range.getLength());
+    try {
+      for (Range chunk : chunks) {
+        byte[] cachedChunk = cachedChunks.get(CachePolicy.keyOf(objectKey, chunk));
+        if (cachedChunk != null) {
+          copyBlockBytes(ByteBuffer.wrap(cachedChunk), chunk.getStart(), buffer);
         }
+      }
+      for (int i = 0; i < missingRanges.size(); i++) {
+        ByteBuffer fetchedData = fetches.get(i).join();
+        copyBlockBytes(fetchedData, missingRanges.get(i).getStart(), buffer);
+        storeInCache(chunks, fetchedData, missingRanges.get(i).getStart());
+      }
+      return buffer;
+    } catch (RuntimeException e) {
+      release(buffer);
+      throw e;
+    } finally {
+      fetches.forEach(this::discardData);
+    }
+  }
 
+  // Copies the bytes of the block held by a buffer of object bytes starting at a given position
+  private void copyBlockBytes(ByteBuffer source, long sourceStart, ByteBuffer target) {
+    long from = Math.max(start, sourceStart);
+    long to = Math.min(end, sourceStart + source.limit() - 1);
+    if (from > to) {
+      return;
+    }
+
+    ByteBuffer view = source.duplicate();
+    view.position((int) (from - sourceStart));
+    view.limit((int) (to - sourceStart + 1));
+    ByteBuffer destination = target.duplicate();
+    destination.position((int) (from - start));
+    destination.put(view);
+  }
+
+  private boolean coversBlock(Range chunk) {
+    return chunk.getStart() == start && chunk.getEnd() == end;
+  }
+
+  /**
+   * Issues the GET for a range of the object and drains the response, retrying if the request
+   * cannot be issued. For cached blocks, the time the request took is reported to the cache.
+   *
+   * @param requestRange the range to fetch, the block itself or a run of chunks missing from the
+   *     cache
+   * @return a future holding the bytes of the range
+   * @throws IOException if the request could not be issued after all retries
+   */
+  private CompletableFuture<ByteBuffer> fetchFromS3(Range requestRange) throws IOException {
+    int retries = 0;
+    while (true) {
+      try {
         GetRequest getRequest =
             GetRequest.builder()
                 .s3Uri(this.objectKey.getS3URI())
-                .range(this.range)
+                .range(requestRange)
                 .etag(this.objectKey.getEtag())
-                .referrer(referrer)
+                .referrer(new Referrer(requestRange.toHttpString(), readMode))
                 .build();
 
-        this.source =
+        long requestStartTime = System.nanoTime();
+        CompletableFuture<ObjectContent> source =
             this.telemetry.measureCritical(
                 () ->
                     Operation.builder()
                         .name(OPERATION_BLOCK_GET_ASYNC)
                         .attribute(StreamAttributes.uri(this.objectKey.getS3URI()))
                         .attribute(StreamAttributes.etag(this.objectKey.getEtag()))
-                        .attribute(StreamAttributes.range(this.range))
+                        .attribute(StreamAttributes.range(requestRange))
                         .attribute(StreamAttributes.generation(generation))
                         .build(),
                 objectClient.getObject(getRequest, streamContext));
-
-        // Handle IOExceptions when converting stream to byte array
-        this.data =
-            this.source.thenApply(
-                objectContent -> {
-                  try {
-                    long s3GetStartTime = System.nanoTime();
-
-                    byte[] fetchedData =
-                        StreamUtils.toByteArray(
-                            objectContent, this.objectKey, this.range, this.readTimeout);
-
-                    long s3GetDuration = System.nanoTime() - s3GetStartTime;
-                    double s3GetMsDuration = s3GetDuration / 1_000_000.0;
-
-                    LOG.info(
-                        "S3 GET request for: {}. Request took: {}ms, start = {}, end = {}. Is cache enabled = {}. RangeType: {}",
-                        this.objectKey.getS3URI(),
-                        String.format("%.2f", s3GetMsDuration),
-                        range.getStart(),
-                        range.getEnd(),
-                        enableTailMetadataCaching,
-                        range.getRangeType());
-
-                    if (enableTailMetadataCaching && isTailMetadata(range) && Block.cache != null) {
-                      String cacheKey = generateCacheKey();
-
-                      long cacheSetStartTime = System.nanoTime();
-
-                      Block.cache.set(cacheKey, fetchedData);
-
-                      long cacheSetDuration = System.nanoTime() - cacheSetStartTime;
-                      double cacheSetMsDuration = cacheSetDuration / 1_000_000.0;
-
-                      LOG.info(
-                          "Cached tail metadata: {}. Cache set took: {}ms, start = {}, end = {}. RangeType: {}",
-                          cacheKey,
-                          String.format("%.2f", cacheSetMsDuration),
-                          range.getStart(),
-                          range.getEnd(),
-                          range.getRangeType());
-                    }
-
-                    return fetchedData;
-                  } catch (IOException | TimeoutException e) {
-                    throw new RuntimeException(
-                        "Error while converting InputStream to byte array", e);
+        this.sources.add(source);
+        return drain(requestRange, source)
+            .thenApply(
+                fetchedData -> {
+                  if (isCached()) {
+                    this.cache.reportOriginLatency(System.nanoTime() - requestStartTime);
                   }
+                  return fetchedData;
                 });
-
-        return; // Successfully generated source and data, exit loop
       } catch (RuntimeException e) {
         retries++;
         LOG.debug(
@@ -335,6 +643,137 @@ public class Block implements Closeable {
     }
   }
 
+  /**
+   * Drains the response of a GET issued before the block was created. Blocks of cached range types
+   * write the chunks it holds back to the cache without waiting for it.
+   *
+   * @param content the response of the GET of the block range
+   * @return a future holding the bytes of the block
+   */
+  private CompletableFuture<ByteBuffer> drainPrefetched(ObjectContent content) {
+    CompletableFuture<ObjectContent> source = CompletableFuture.completedFuture(content);
+    this.sources.add(source);
+    CompletableFuture<ByteBuffer> drained = drain(this.range, source);
+    if (!isCached()) {
+      return drained;
+    }
+
+    List<Range> chunks = cachePolicy.chunksOf(range, contentLength);
+    return drained.thenApply(
+        fetchedData -> {
+          storeInCache(chunks, fetchedData, start);
+          return fetchedData;
+        });
+  }
+
+  /**
+   * Drains the response of a GET on the shared pool. IOExceptions and timeouts surface through the
+   * returned future.
+   *
+   * @param requestRange the range requested
+   * @param source the response of the GET
+   * @return a future holding the bytes of the range
+   */
+  private CompletableFuture<ByteBuffer> drain(
+      Range requestRange, CompletableFuture<ObjectContent> source) {
+    return source
+        .thenCompose(
+            objectContent -> {
+              long s3GetStartTime = System.nanoTime();
+              CompletableFuture<ByteBuffer> fetchedBuffer =
+                  allocator == null
+                      ? drainExecutor
+                          .drain(objectContent, this.objectKey, requestRange, this.readTimeout)
+                          .thenApply(ByteBuffer::wrap)
+                      : drainExecutor.drain(
+                          objectContent, this.objectKey, requestRange, this.readTimeout, allocator);
+              return fetchedBuffer.thenApply(
+                  fetchedData -> {
+                    long s3GetDuration = System.nanoTime() - s3GetStartTime;
+                    double s3GetMsDuration = s3GetDuration / 1_000_000.0;
+
+                    LOG.info(
+                        "S3 GET request for: {}. Request took: {}ms, start = {}, end = {}. Is cache enabled = {}. RangeType: {}",
+                        this.objectKey.getS3URI(),
+                        String.format("%.2f", s3GetMsDuration),
+                        requestRange.getStart(),
+                        requestRange.getEnd(),
+                        enableTailMetadataCaching,
+                        requestRange.getRangeType());
+                    return fetchedData;
+                  });
+            });
+  }
+
+  /**
+   * Writes the chunks held by a buffer of fetched object bytes that the cache policy admits to the
+   * cache, with a single request, without waiting for it.
+   *
+   * @param chunks the chunks covering the block
+   * @param fetchedData the bytes fetched from S3
+   * @param fetchedStart the position in the object of the first byte fetched
+   */
+  private void storeInCache(List<Range> chunks, ByteBuffer fetchedData, long fetchedStart) {
+    long fetchedEnd = fetchedStart + fetchedData.limit() - 1;
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    for (Range chunk : chunks) {
+      String cacheKey = CachePolicy.keyOf(objectKey, chunk);
+      if (chunk.getStart() >= fetchedStart
+          && chunk.getEnd() <= fetchedEnd
+          && cachePolicy.admits(cacheKey, chunk)) {
+        entries.put(
+            cacheKey,
+            toByteArray(fetchedData, (int) (chunk.getStart() - fetchedStart), chunk.getLength()));
+      }
+    }
+    if (entries.isEmpty()) {
+      return;
+    }
+    long cacheSetStartTime = System.nanoTime();
+
+    CompletableFuture<Void> update;
+    try {
+      update =
+          entries.size() > 1
+              ? this.cache.setAll(entries, cacheTimeoutMs)
+              : this.cache.set(
+                  entries.keySet().iterator().next(),
+                  entries.values().iterator().next(),
+                  cacheTimeoutMs);
+    } catch (RuntimeException e) {
+      update = new CompletableFuture<>();
+      update.completeExceptionally(e);
+    }
+
+    update.whenComplete(
+        (ignored, error) -> {
+          long cacheSetDuration = System.nanoTime() - cacheSetStartTime;
+          double cacheSetMsDuration = cacheSetDuration / 1_000_000.0;
+
+          if (error != null) {
+            LOG.info(
+                "Failed to cache {} chunks of: {}. Cache set took: {}ms, start = {}, end = {}. RangeType: {}. Error: {}",
+                entries.size(),
+                objectKey.getS3URI(),
+                String.format("%.2f", cacheSetMsDuration),
+                fetchedStart,
+                fetchedEnd,
+                range.getRangeType(),
+                error.toString());
+            return;
+          }
+
+          LOG.info(
+              "Cached {} chunks of: {}. Cache set took: {}ms, start = {}, end = {}. RangeType: {}",
+              entries.size(),
+              objectKey.getS3URI(),
+              String.format("%.2f", cacheSetMsDuration),
+              fetchedStart,
+              fetchedEnd,
+              range.getRangeType());
+        });
+  }
+
   /**
    * Reads a byte from the underlying object
    *
@@ -345,8 +784,12 @@ public class Block implements Closeable {
   public int read(long pos) throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
 
-    byte[] content = this.getDataWithRetries();
-    return Byte.toUnsignedInt(content[posToOffset(pos)]);
+    ByteBuffer content = this.acquireData();
+    try {
+      return Byte.toUnsignedInt(content.get(posToOffset(pos)));
+    } finally {
+      this.releaseReader();
+    }
   }
 
   /**
@@ -365,16 +808,21 @@ public class Block implements Closeable {
     Preconditions.checkArgument(0 <= len, "`len` must not be negative");
     Preconditions.checkArgument(off < buf.length, "`off` must be less than size of buffer");
 
-    byte[] content = this.getDataWithRetries();
-    int contentOffset = posToOffset(pos);
-    int available = content.length - contentOffset;
-    int bytesToCopy = Math.min(len, available);
+    ByteBuffer content = this.acquireData();
+    try {
+      int contentOffset = posToOffset(pos);
+      int available = content.limit() - contentOffset;
+      int bytesToCopy = Math.min(len, available);
 
-    for (int i = 0; i < bytesToCopy; ++i) {
-      buf[off + i] = content[contentOffset + i];
-    }
+      // Work on a view, so that concurrent readers do not share the buffer position
+      ByteBuffer view = content.duplicate();
+      view.position(contentOffset);
+      view.get(buf, off, bytesToCopy);
 
-    return bytesToCopy;
+      return bytesToCopy;
+    } finally {
+      this.releaseReader();
+    }
   }
 
   /**
@@ -389,6 +837,57 @@ public class Block implements Closeable {
     return start <= pos && pos <= end;
   }
 
+  /**
+   * Returns the number of bytes held by the block.
+   *
+   * @return the length of the block
+   */
+  public long getLength() {
+    return range.getLength();
+  }
+
+  /**
+   * Returns a future that completes once the first fetch of the block data has finished, whether it
+   * succeeded or not.
+   *
+   * @return a future completing when the block is loaded
+   */
+  CompletableFuture<Void> whenLoaded() {
+    return initialisationTask
+        .thenCompose(ignored -> this.data)
+        .handle((buffer, error) -> (Void) null);
+  }
+
+  /**
+   * Whether the block has been closed. Reads from a closed block fail, the data has to be fetched
+   * again through a new block.
+   *
+   * @return true if the block is closed
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Whether the block can be evicted without disturbing anyone: its data has arrived, or failed to,
+   * and no read is in progress.
+   *
+   * @return true if the block can be evicted
+   */
+  boolean isEvictable() {
+    return !closed && activeReaders.get() == 0 && isLoaded();
+  }
+
+  /**
+   * Whether the fetch of the block data has finished, successfully or not.
+   *
+   * @return true if the block is no longer in flight
+   */
+  boolean isLoaded() {
+    CompletableFuture<ByteBuffer> currentData = this.data;
+    return initialisationTask.isDone() && currentData != null && currentData.isDone();
+  }
+
   /**
    * Determines the offset in the Block corresponding to a position in an object.
    *
@@ -399,6 +898,85 @@ public class Block implements Closeable {
     return (int) (pos - start);
   }
 
+  /**
+   * Registers a reader of the block data. Every successful call must be paired with a call to
+   * {@link #releaseReader()}, so that the data is not handed back to the allocator while in use.
+   *
+   * @return the block data
+   * @throws IOException if the block is closed or the data cannot be fetched
+   */
+  private ByteBuffer acquireData() throws IOException {
+    activeReaders.incrementAndGet();
+    try {
+      if (closed) {
+        throw new IOException("Block is closed");
+      }
+      return this.getDataWithRetries();
+    } catch (IOException | RuntimeException e) {
+      releaseReader();
+      throw e;
+    }
+  }
+
+  private void releaseReader() {
+    if (activeReaders.decrementAndGet() == 0) {
+      discardSupersededData();
+      if (closed) {
+        freeData();
+      }
+    }
+  }
+
+  private void freeData() {
+    discardSupersededData();
+    if (released.compareAndSet(false, true)) {
+      discardData(this.data);
+    }
+  }
+
+  private void discardSupersededData() {
+    CompletableFuture<ByteBuffer> superseded;
+    while ((superseded = supersededData.poll()) != null) {
+      discardData(superseded);
+    }
+  }
+
+  private void discardData(CompletableFuture<ByteBuffer> data) {
+    if (data != null) {
+      data.whenComplete(
+          (buffer, error) -> {
+            if (buffer != null) {
+              release(buffer);
+            }
+          });
+    }
+  }
+
+  private ByteBuffer allocate(int size) {
+    return allocator == null ? ByteBuffer.allocate(size) : allocator.allocate(size);
+  }
+
+  private void release(ByteBuffer buffer) {
+    if (allocator != null) {
+      allocator.release(buffer);
+    }
+  }
+
+  private static byte[] toByteArray(ByteBuffer buffer, int offset, long length) {
+    if (offset == 0
+        && buffer.hasArray()
+        && buffer.arrayOffset() == 0
+        && buffer.array().length == length
+        && buffer.limit() == length) {
+      return buffer.array();
+    }
+    byte[] bytes = new byte[(int) length];
+    ByteBuffer view = buffer.duplicate();
+    view.position(offset);
+    view.get(bytes);
+    return bytes;
+  }
+
   /**
    * Returns the bytes fetched by the issued {@link GetRequest}. If it receives an IOException from
    * {@link S3SdkObjectClient}, retries for MAX_RETRIES count.
@@ -406,7 +984,7 @@ public class Block implements Closeable {
    * @return the bytes fetched by the issued {@link GetRequest}.
    * @throws IOException if an I/O error occurs after maximum retry counts
    */
-  private byte[] getDataWithRetries() throws IOException {
+  private ByteBuffer getDataWithRetries() throws IOException {
 
     try {
       initialisationTask.get(this.readTimeout, TimeUnit.MILLISECONDS);
@@ -441,7 +1019,7 @@ public class Block implements Closeable {
    * @return the bytes fetched by the issued {@link GetRequest}.
    * @throws IOException if an I/O error occurs
    */
-  private byte[] getData() throws IOException {
+  private ByteBuffer getData() throws IOException {
     return this.telemetry.measureJoinCritical(
         () ->
             Operation.builder()
@@ -455,33 +1033,28 @@ public class Block implements Closeable {
         this.readTimeout);
   }
 
-  /** Closes the {@link Block} and frees up all resources it holds */
-  @Override
-  public void close() {
-    // Only the source needs to be canceled, the continuation will cancel on its own
-    this.source.cancel(false);
-  }
-
   /**
-   * Checks if the current block is a tail block.
-   *
-   * @return true if the current block is a tail block, false otherwise
+   * Closes the {@link Block} and frees up all resources it holds. The block data is handed back to
+   * the allocator once the last in-progress read finishes.
    */
-  private boolean isTailMetadata(Range range) {
-    return range.getRangeType() == RangeType.FOOTER_METADATA
-        || range.getRangeType() == RangeType.FOOTER_PAGE_INDEX;
+  @Override
+  public void close() {
+    this.closed = true;
+    // Only the sources need to be canceled, the continuations will cancel on their own
+    for (CompletableFuture<ObjectContent> source : this.sources) {
+      source.cancel(false);
+    }
+    if (activeReaders.get() == 0) {
+      freeData();
+    }
   }
 
   /**
-   * Creates a cache key for the current block.
+   * Checks if the current block goes through the cache.
    *
-   * @return cache key for the current block in the format "{s3Uri}#{etag}#{range}"
+   * @return true if caching is enabled and the cache policy caches the range type of the block
    */
-  private String generateCacheKey() {
-    return objectKey.getS3URI() + "#" + objectKey.getEtag() + "#" + range;
-  }
-
-  static void resetCacheForTesting() {
-    cache = null;
+  private boolean isCached() {
+    return this.cache != null && cachePolicy.isCached(range.getRangeType());
   }
 }
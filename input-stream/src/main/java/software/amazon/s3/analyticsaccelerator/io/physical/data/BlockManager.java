@@ -17,19 +17,25 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.NonNull;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.BlockAllocator;
 import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.prefetcher.AdaptiveReadAheadController;
 import software.amazon.s3.analyticsaccelerator.io.physical.prefetcher.SequentialPatternDetector;
 import software.amazon.s3.analyticsaccelerator.io.physical.prefetcher.SequentialReadProgression;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.request.ReadMode;
@@ -37,8 +43,18 @@ import software.amazon.s3.analyticsaccelerator.request.StreamContext;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.RangeType;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
+import software.amazon.s3.analyticsaccelerator.util.StreamDrainExecutor;
 
-/** Implements a Block Manager responsible for planning and scheduling reads on a key. */
+/**
+ * Implements a Block Manager responsible for planning and scheduling reads on a key. Reads served
+ * by blocks that are already present do not take any lock, only planning and creating the blocks
+ * for missing ranges is serialised. Blocks whose data is still in flight are tracked in a registry,
+ * so that reads overlapping them attach to the pending fetch rather than issuing a new GET. When
+ * adaptive read ahead is enabled, the read ahead of sync misses is sized by an {@link
+ * AdaptiveReadAheadController} instead of the sequential read progression. Ranges that are split
+ * into several parts are fetched through a {@link SequentialFetchPipeline}, which bounds the parts
+ * in flight and ahead of the reader.
+ */
 public class BlockManager implements Closeable {
   private final ObjectKey objectKey;
   private final ObjectMetadata metadata;
@@ -51,10 +67,25 @@ public class BlockManager implements Closeable {
   private final PhysicalIOConfiguration configuration;
   private final RangeOptimiser rangeOptimiser;
   private final Cache cache;
-  private final ExecutorService executorService;
+  private final CachePolicy cachePolicy;
+  private final StreamDrainExecutor drainExecutor;
+  private final BlockAllocator allocator;
+  private final MemoryManager memoryManager;
+  private final AdaptiveReadAheadController readAheadController;
+  private final SequentialFetchPipeline fetchPipeline;
   private StreamContext streamContext;
+  private final AtomicLong coalescedRequestCount = new AtomicLong();
+  private final AtomicLong cacheRoundTripsSaved = new AtomicLong();
+  // Collects the cache accesses of the blocks created by makeRangesAvailable, only set while the
+  // lock is held
+  private volatile CacheBatch cacheBatch;
+  // Set while the lock is held, no block is added once the store has been closed
+  private volatile boolean closed;
 
   private static final String OPERATION_MAKE_RANGE_AVAILABLE = "block.manager.make.range.available";
+  private static final String METRIC_COALESCED_REQUESTS = "block.manager.coalesced.requests";
+  private static final String METRIC_CACHE_ROUND_TRIPS_SAVED =
+      "block.manager.cache.round.trips.saved";
 
   /**
    * Constructs a new BlockManager.
@@ -71,7 +102,7 @@ public class BlockManager implements Closeable {
       @NonNull ObjectMetadata metadata,
       @NonNull Telemetry telemetry,
       @NonNull PhysicalIOConfiguration configuration) {
-    this(objectKey, objectClient, metadata, telemetry, configuration, null, null, null);
+    this(objectKey, objectClient, metadata, telemetry, configuration, null, null, null, null, null);
   }
 
   /**
@@ -82,8 +113,52 @@ public class BlockManager implements Closeable {
    * @param telemetry an instance of {@link Telemetry} to use
    * @param metadata the metadata for the object
    * @param configuration the physicalIO configuration
+   * @param cache an instance of {@link Cache} to use
+   * @param drainExecutor the {@link StreamDrainExecutor} to drain GET responses on
+   * @param allocator the {@link BlockAllocator} to hold block data in
+   * @param memoryManager the {@link MemoryManager} enforcing the memory budget of the blocks
    * @param streamContext contains audit headers to be attached in the request header
+   */
+  public BlockManager(
+      @NonNull ObjectKey objectKey,
+      @NonNull ObjectClient objectClient,
+      @NonNull ObjectMetadata metadata,
+      @NonNull Telemetry telemetry,
+      @NonNull PhysicalIOConfiguration configuration,
+      Cache cache,
+      StreamDrainExecutor drainExecutor,
+      BlockAllocator allocator,
+      MemoryManager memoryManager,
+      StreamContext streamContext) {
+    this(
+        objectKey,
+        objectClient,
+        metadata,
+        telemetry,
+        configuration,
+        cache,
+        null,
+        drainExecutor,
+        allocator,
+        memoryManager,
+        streamContext);
+  }
+
+  /**
+   * Constructs a new BlockManager.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param objectClient object client capable of interacting with the underlying object store
+   * @param telemetry an instance of {@link Telemetry} to use
+   * @param metadata the metadata for the object
+   * @param configuration the physicalIO configuration
    * @param cache an instance of {@link Cache} to use
+   * @param cachePolicy the {@link CachePolicy} deciding which ranges are cached and how; a policy
+   *     built from the configuration is used when null
+   * @param drainExecutor the {@link StreamDrainExecutor} to drain GET responses on
+   * @param allocator the {@link BlockAllocator} to hold block data in
+   * @param memoryManager the {@link MemoryManager} enforcing the memory budget of the blocks
+   * @param streamContext contains audit headers to be attached in the request header
    */
   public BlockManager(
       @NonNull ObjectKey objectKey,
@@ -92,7 +167,10 @@ public class BlockManager implements Closeable {
       @NonNull Telemetry telemetry,
       @NonNull PhysicalIOConfiguration configuration,
       Cache cache,
-      ExecutorService executorService,
+      CachePolicy cachePolicy,
+      StreamDrainExecutor drainExecutor,
+      BlockAllocator allocator,
+      MemoryManager memoryManager,
       StreamContext streamContext) {
     this.objectKey = objectKey;
     this.objectClient = objectClient;
@@ -100,12 +178,26 @@ public class BlockManager implements Closeable {
     this.telemetry = telemetry;
     this.configuration = configuration;
     this.cache = cache;
-    this.executorService = executorService;
-    this.blockStore = new BlockStore(objectKey, metadata);
+    this.cachePolicy = cachePolicy == null ? new CachePolicy(configuration) : cachePolicy;
+    this.drainExecutor = drainExecutor;
+    this.allocator = allocator;
+    this.memoryManager = memoryManager;
+    this.blockStore = new BlockStore(objectKey, metadata, memoryManager);
     this.patternDetector = new SequentialPatternDetector(blockStore);
     this.sequentialReadProgression = new SequentialReadProgression(configuration);
     this.ioPlanner = new IOPlanner(blockStore);
     this.rangeOptimiser = new RangeOptimiser(configuration);
+    this.readAheadController =
+        configuration.isAdaptiveReadAheadEnabled()
+            ? new AdaptiveReadAheadController(configuration)
+            : null;
+    this.fetchPipeline =
+        configuration.getSequentialPipelineParallelism() > 0
+            ? new SequentialFetchPipeline(
+                configuration.getSequentialPipelineParallelism(),
+                configuration.getSequentialPipelineMaxAheadParts(),
+                this::advancePipeline)
+            : null;
     this.streamContext = streamContext;
   }
 
@@ -115,8 +207,12 @@ public class BlockManager implements Closeable {
    * @param pos the position of a byte
    * @return the Block holding the byte or empty if the byte is not in the BlockStore
    */
-  public synchronized Optional<Block> getBlock(long pos) {
-    return this.blockStore.getBlock(pos);
+  public Optional<Block> getBlock(long pos) {
+    Optional<Block> block = this.blockStore.getBlock(pos);
+    if (memoryManager != null) {
+      block.ifPresent(memoryManager::touch);
+    }
+    return block;
   }
 
   /**
@@ -126,11 +222,12 @@ public class BlockManager implements Closeable {
    * @param readMode whether this ask corresponds to a sync or async read
    * @throws IOException if an I/O error occurs
    */
-  public synchronized void makePositionAvailable(long pos, ReadMode readMode) throws IOException {
+  public void makePositionAvailable(long pos, ReadMode readMode) throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
 
     // Position is already available --> return corresponding block
     if (getBlock(pos).isPresent()) {
+      recordRead(pos, 1, readMode);
       return;
     }
 
@@ -162,18 +259,163 @@ public class BlockManager implements Closeable {
    * @param readMode whether this ask corresponds to a sync or async read
    * @throws IOException if an I/O error occurs
    */
-  public synchronized void makeRangeAvailable(
-      long pos, long len, RangeType rangeType, ReadMode readMode) throws IOException {
+  public void makeRangeAvailable(long pos, long len, RangeType rangeType, ReadMode readMode)
+      throws IOException {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
     Preconditions.checkArgument(0 <= len, "`len` must not be negative");
 
+    recordRead(pos, len, readMode);
+
+    // Fast path, the blocks are already there
     if (isRangeAvailable(pos, len)) {
       return;
     }
 
+    synchronized (this) {
+      // Another reader may have planned the range while we were waiting for the lock
+      if (isRangeAvailable(pos, len)) {
+        return;
+      }
+      planAndFetch(pos, len, rangeType, readMode);
+    }
+  }
+
+  /**
+   * Makes a set of ranges available, such as the prefetch ranges of an IOPlan. Ranges that are
+   * close to each other are merged first, so that they are fetched with fewer requests. When
+   * several cached ranges, such as tail metadata, are requested together, their blocks look them up
+   * in the cache with a single request, and write back the ones fetched from S3 with a single
+   * request.
+   *
+   * @param ranges the ranges to make available
+   * @param readMode whether this ask corresponds to a sync or async read
+   * @throws IOException if an I/O error occurs
+   */
+  public void makeRangesAvailable(@NonNull List<Range> ranges, ReadMode readMode)
+      throws IOException {
+    List<Range> mergedRanges = rangeOptimiser.mergeRanges(ranges, this::isGapMissing);
+    if (!shouldBatchCacheAccess(mergedRanges)) {
+      for (Range range : mergedRanges) {
+        makeRangeAvailable(range.getStart(), range.getLength(), range.getRangeType(), readMode);
+      }
+      return;
+    }
+
+    CacheBatch batch = new CacheBatch(cache);
+    try {
+      // Creating blocks does not wait on the cache, so the lock is only held while they are planned
+      synchronized (this) {
+        this.cacheBatch = batch;
+        try {
+          for (Range range : mergedRanges) {
+            makeRangeAvailable(range.getStart(), range.getLength(), range.getRangeType(), readMode);
+          }
+        } finally {
+          this.cacheBatch = null;
+        }
+      }
+    } finally {
+      // Blocks created before a range failed wait on the batch, so it is flushed in any case
+      recordCacheRoundTripsSaved(batch.flushLookups());
+      batch.whenBlocksLoaded().thenRun(() -> recordCacheRoundTripsSaved(batch.flushUpdates()));
+    }
+  }
+
+  /**
+   * Returns the number of cache requests saved by looking up and writing back cached ranges in
+   * batches.
+   *
+   * @return the number of cache round trips saved
+   */
+  public long getCacheRoundTripsSaved() {
+    return cacheRoundTripsSaved.get();
+  }
+
+  private void recordCacheRoundTripsSaved(int saved) {
+    if (saved > 0) {
+      telemetry.measure(
+          Metric.builder().name(METRIC_CACHE_ROUND_TRIPS_SAVED).build(),
+          cacheRoundTripsSaved.addAndGet(saved));
+    }
+  }
+
+  private boolean shouldBatchCacheAccess(List<Range> ranges) {
+    long cachedRanges = ranges.stream().filter(range -> isCached(range.getRangeType())).count();
+    return cachedRanges > 1;
+  }
+
+  private boolean isCached(RangeType rangeType) {
+    return cache != null
+        && configuration.isEnableTailMetadataCaching()
+        && cachePolicy.isCached(rangeType);
+  }
+
+  /**
+   * Returns the number of requests that were served, at least partly, by fetches already in flight
+   * instead of new GETs.
+   *
+   * @return the number of coalesced requests
+   */
+  public long getCoalescedRequestCount() {
+    return coalescedRequestCount.get();
+  }
+
+  /**
+   * Counts the in-flight blocks, created by earlier requests, that overlap the range planned for a
+   * request. Blocks are added to the BlockStore before their GET completes, so the planner leaves
+   * their bytes out and the request waits on their pending data instead of issuing new GETs.
+   * Requests served entirely by blocks already there are hits, and are not counted.
+   *
+   * @param planStart the first byte planned for the request
+   * @param planEnd the last byte planned for the request
+   * @return the number of in-flight blocks the request attached to
+   */
+  private long countCoalesced(long planStart, long planEnd) {
+    long attached = blockStore.countInFlightBlocks(planStart, planEnd);
+    if (attached > 0) {
+      telemetry.measure(
+          Metric.builder().name(METRIC_COALESCED_REQUESTS).build(),
+          coalescedRequestCount.incrementAndGet());
+    }
+    return attached;
+  }
+
+  private void trackFetch(Block block) {
+    if (readAheadController == null) {
+      return;
+    }
+    long issuedNanos = System.nanoTime();
+    block
+        .whenLoaded()
+        .thenRun(() -> readAheadController.onFetchCompleted(System.nanoTime() - issuedNanos));
+  }
+
+  private void recordRead(long pos, long len, ReadMode readMode) {
+    if (readMode == ReadMode.ASYNC) {
+      return;
+    }
+    if (readAheadController != null) {
+      readAheadController.onRead(pos, len);
+    }
+    if (fetchPipeline != null) {
+      fetchPipeline.onRead(pos, len);
+    }
+  }
+
+  private void advancePipeline() {
+    synchronized (this) {
+      fetchPipeline.advance();
+    }
+  }
+
+  private void planAndFetch(long pos, long len, RangeType rangeType, ReadMode readMode)
+      throws IOException {
     // In case of a sequential reading pattern, calculate the generation and adjust the requested
     // effectiveEnd of the requested range
-    long effectiveEnd = pos + Math.max(len, configuration.getReadAheadBytes()) - 1;
+    boolean adaptive = readAheadController != null && readMode != ReadMode.ASYNC;
+    long readAheadBytes =
+        adaptive ? readAheadController.onMiss(pos, len) : configuration.getReadAheadBytes();
+    long effectiveEnd = pos + Math.max(len, readAheadBytes) - 1;
 
     // Check sequential prefetching. If read mode is ASYNC, that is the request is from the parquet
     // prefetch path, then do not extend the request.
@@ -182,16 +424,31 @@ public class BlockManager implements Closeable {
     final long generation;
     if (readMode != ReadMode.ASYNC && patternDetector.isSequentialRead(pos)) {
       generation = patternDetector.getGeneration(pos);
-      effectiveEnd =
-          Math.max(
-              effectiveEnd,
-              truncatePos(pos + sequentialReadProgression.getSizeForGeneration(generation)));
+      // The adaptive window already grows for sequential reads
+      if (!adaptive) {
+        effectiveEnd =
+            Math.max(
+                effectiveEnd,
+                truncatePos(pos + sequentialReadProgression.getSizeForGeneration(generation)));
+      }
     } else {
       generation = 0;
     }
+    if (adaptive) {
+      readAheadController.onReadAhead(pos + len, truncatePos(effectiveEnd));
+    }
 
     // Fix "effectiveEnd", so we can pass it into the lambda
     final long effectiveEndFinal = effectiveEnd;
+    // Cached ranges are fetched in whole chunks, so that all their bytes can be written back
+    final boolean alignToChunks = isCached(rangeType) && pos <= getLastObjectByte();
+    final long planStart = alignToChunks ? cachePolicy.chunkStart(pos) : pos;
+    final long planEnd =
+        alignToChunks
+            ? cachePolicy.chunkEnd(truncatePos(effectiveEnd), metadata.getContentLength())
+            : effectiveEnd;
+    // Parts of the request may already be in flight, the planner only returns the missing bytes
+    final long coalescedRequests = countCoalesced(planStart, planEnd);
     this.telemetry.measureStandard(
         () ->
             Operation.builder()
@@ -201,35 +458,128 @@ public class BlockManager implements Closeable {
                 .attribute(StreamAttributes.range(pos, pos + len - 1))
                 .attribute(StreamAttributes.effectiveRange(pos, effectiveEndFinal))
                 .attribute(StreamAttributes.generation(generation))
+                .attribute(StreamAttributes.coalescedRequests(coalescedRequests))
                 .build(),
         () -> {
           // Determine the missing ranges and fetch them
           List<Range> missingRanges =
-              ioPlanner.planRead(pos, effectiveEndFinal, rangeType, getLastObjectByte());
+              ioPlanner.planRead(planStart, planEnd, rangeType, getLastObjectByte());
           List<Range> splits = rangeOptimiser.splitRanges(missingRanges);
+          if (fetchPipeline == null || splits.size() <= 1) {
+            for (Range r : splits) {
+              createBlock(r, generation, readMode);
+            }
+            return;
+          }
+
+          // Parts holding requested bytes are fetched right away, the parts ahead of the request
+          // go through the pipeline
+          long requestEnd = readMode == ReadMode.ASYNC ? pos - 1 : pos + len - 1;
+          List<Range> partsAhead = new ArrayList<>();
           for (Range r : splits) {
-            Block block =
-                new Block(
-                    objectKey,
-                    objectClient,
-                    telemetry,
-                    r.getStart(),
-                    r.getEnd(),
-                    r.getRangeType(),
-                    generation,
-                    readMode,
-                    this.configuration.getBlockReadTimeout(),
-                    this.configuration.getBlockReadRetryCount(),
-                    metadata.getContentLength(),
-                    this.configuration.isEnableTailMetadataCaching(),
-                    cache,
-                    executorService,
-                    streamContext);
-            blockStore.add(block);
+            if (r.getStart() <= requestEnd) {
+              createBlock(r, generation, readMode);
+            } else {
+              partsAhead.add(r);
+            }
+          }
+          if (!partsAhead.isEmpty()) {
+            fetchPipeline.submit(partsAhead, part -> fetchPart(part, generation, readMode));
           }
         });
   }
 
+  /**
+   * Adds a block for a range whose GET was issued before the object was opened, such as the tail
+   * requested together with the metadata of the object. The response is drained into the block
+   * instead of issuing a new GET, and closed unread if some of the range is already available.
+   *
+   * @param range the range requested
+   * @param content the response of the GET
+   * @throws IOException if an I/O error occurs
+   */
+  public synchronized void addPrefetchedBlock(@NonNull Range range, @NonNull ObjectContent content)
+      throws IOException {
+    List<Range> missingRanges =
+        ioPlanner.planRead(
+            range.getStart(), range.getEnd(), range.getRangeType(), getLastObjectByte());
+    if (!closed
+        && missingRanges.size() == 1
+        && missingRanges.get(0).getStart() == range.getStart()
+        && missingRanges.get(0).getEnd() == range.getEnd()) {
+      createBlock(range, 0, ReadMode.SYNC, content);
+    } else {
+      content.getStream().close();
+    }
+  }
+
+  private Block createBlock(Range range, long generation, ReadMode readMode) throws IOException {
+    return createBlock(range, generation, readMode, null);
+  }
+
+  private Block createBlock(
+      Range range, long generation, ReadMode readMode, ObjectContent prefetchedContent)
+      throws IOException {
+    // A block added to a closed store would never be closed, nor its memory released
+    if (closed) {
+      throw new IOException("BlockManager is closed");
+    }
+    CacheBatch batch = Thread.holdsLock(this) ? this.cacheBatch : null;
+    Block block =
+        new Block(
+            objectKey,
+            objectClient,
+            telemetry,
+            range.getStart(),
+            range.getEnd(),
+            range.getRangeType(),
+            generation,
+            readMode,
+            this.configuration.getBlockReadTimeout(),
+            this.configuration.getBlockReadRetryCount(),
+            metadata.getContentLength(),
+            this.configuration.isEnableTailMetadataCaching(),
+            batch != null ? batch : cache,
+            this.configuration.getCacheTimeoutMs(),
+            cachePolicy,
+            drainExecutor,
+            allocator,
+            streamContext,
+            prefetchedContent);
+    blockStore.add(block);
+    trackFetch(block);
+    if (batch != null) {
+      batch.addBlock(block);
+    }
+    return block;
+  }
+
+  // Fetches the bytes of a pipelined part that are still missing, the reader may have fetched some
+  // of them in the meantime
+  private CompletableFuture<Void> fetchPart(Range part, long generation, ReadMode readMode) {
+    try {
+      List<Range> missingRanges =
+          ioPlanner.planRead(
+              part.getStart(), part.getEnd(), part.getRangeType(), getLastObjectByte());
+      List<CompletableFuture<Void>> loads = new ArrayList<>(missingRanges.size());
+      for (Range r : missingRanges) {
+        loads.add(createBlock(r, generation, readMode).whenLoaded());
+      }
+      return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+    } catch (IOException e) {
+      CompletableFuture<Void> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  // The bytes between two ranges are only fetched to merge the ranges if none of them is resident,
+  // blocks that are loaded or in flight are never fetched again
+  private boolean isGapMissing(long gapStart, long gapEnd) {
+    OptionalLong nextLoadedByte = blockStore.findNextLoadedByte(gapStart);
+    return !nextLoadedByte.isPresent() || nextLoadedByte.getAsLong() > gapEnd;
+  }
+
   private long getLastObjectByte() {
     return this.metadata.getContentLength() - 1;
   }
@@ -240,9 +590,25 @@ public class BlockManager implements Closeable {
     return Math.min(pos, getLastObjectByte());
   }
 
+  /**
+   * Whether the BlockManager has been closed. A closed BlockManager no longer fetches data, its
+   * object has to be read through a new one.
+   *
+   * @return true if the BlockManager is closed
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+
   /** Closes the {@link BlockManager} and frees up all resources it holds */
   @Override
   public void close() {
+    synchronized (this) {
+      closed = true;
+      if (fetchPipeline != null) {
+        fetchPipeline.clear();
+      }
+    }
     blockStore.close();
   }
 }
@@ -17,24 +17,32 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentSkipListMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 
-/** A BlockStore, which is a collection of Blocks. */
+/**
+ * A BlockStore, which is a collection of Blocks. Blocks are indexed by their start position so that
+ * point lookups and "next block" queries are logarithmic in the number of blocks held. The index is
+ * a concurrent map, so lookups never take a lock and may run alongside adds and removals. When a
+ * {@link MemoryManager} is set, the blocks are accounted for in its memory budget and may be
+ * removed by it.
+ */
 public class BlockStore implements Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(BlockStore.class);
 
   private final ObjectKey s3URI;
   private final ObjectMetadata metadata;
-  private final List<Block> blocks;
+  private final NavigableMap<Long, Block> blocks;
+  private final MemoryManager memoryManager;
 
   /**
    * Constructs a new instance of a BlockStore.
@@ -43,12 +51,24 @@ public class BlockStore implements Closeable {
    * @param metadata the metadata for the object
    */
   public BlockStore(ObjectKey objectKey, ObjectMetadata metadata) {
+    this(objectKey, metadata, null);
+  }
+
+  /**
+   * Constructs a new instance of a BlockStore whose blocks count towards a memory budget.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param metadata the metadata for the object
+   * @param memoryManager the {@link MemoryManager} enforcing the memory budget, or null for none
+   */
+  public BlockStore(ObjectKey objectKey, ObjectMetadata metadata, MemoryManager memoryManager) {
     Preconditions.checkNotNull(objectKey, "`objectKey` must not be null");
     Preconditions.checkNotNull(metadata, "`metadata` must not be null");
 
     this.s3URI = objectKey;
     this.metadata = metadata;
-    this.blocks = new LinkedList<>();
+    this.blocks = new ConcurrentSkipListMap<>();
+    this.memoryManager = memoryManager;
   }
 
   /**
@@ -61,7 +81,37 @@ public class BlockStore implements Closeable {
   public Optional<Block> getBlock(long pos) {
     Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
 
-    return blocks.stream().filter(b -> b.contains(pos)).findFirst();
+    Map.Entry<Long, Block> candidate = blocks.floorEntry(pos);
+    if (candidate != null && candidate.getValue().contains(pos)) {
+      return Optional.of(candidate.getValue());
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the number of blocks overlapping a range whose data is still being fetched. Reads of
+   * the range wait on these blocks instead of fetching their bytes again.
+   *
+   * @param start the first byte of the range
+   * @param end the last byte of the range
+   * @return the number of blocks still in flight
+   */
+  public long countInFlightBlocks(long start, long end) {
+    Preconditions.checkArgument(0 <= start, "`start` must not be negative");
+
+    Map.Entry<Long, Block> floor = blocks.floorEntry(start);
+    long from = floor != null && floor.getValue().getEnd() >= start ? floor.getKey() : start;
+    if (end < from) {
+      return 0;
+    }
+    long inFlight = 0;
+    for (Block block : blocks.subMap(from, true, end, true).values()) {
+      if (!block.isLoaded()) {
+        inFlight++;
+      }
+    }
+    return inFlight;
   }
 
   /**
@@ -79,7 +129,8 @@ public class BlockStore implements Closeable {
       return OptionalLong.of(pos);
     }
 
-    return blocks.stream().mapToLong(Block::getStart).filter(startPos -> pos < startPos).min();
+    Long nextStart = blocks.higherKey(pos);
+    return nextStart == null ? OptionalLong.empty() : OptionalLong.of(nextStart);
   }
 
   /**
@@ -106,14 +157,50 @@ public class BlockStore implements Closeable {
   }
 
   /**
-   * Add a Block to the BlockStore.
+   * Add a Block to the BlockStore. A different block held at the same start is replaced and closed,
+   * its data is released once its active readers are done.
    *
    * @param block the block to add to the BlockStore
    */
   public void add(Block block) {
     Preconditions.checkNotNull(block, "`block` must not be null");
 
-    this.blocks.add(block);
+    Block replaced = this.blocks.put(block.getStart(), block);
+    if (replaced != null && replaced != block) {
+      if (memoryManager != null) {
+        memoryManager.unregister(replaced);
+      }
+      safeClose(replaced);
+    }
+    if (memoryManager != null) {
+      memoryManager.register(block, this);
+    }
+  }
+
+  /**
+   * Removes a Block from the BlockStore, if it is still held.
+   *
+   * @param block the block to remove
+   * @return true if the block was removed
+   */
+  public boolean remove(Block block) {
+    Preconditions.checkNotNull(block, "`block` must not be null");
+
+    return this.blocks.remove(block.getStart(), block);
+  }
+
+  /**
+   * Removes a Block from the BlockStore and closes it, releasing its share of the memory budget.
+   *
+   * @param block the block to evict
+   */
+  public void evict(Block block) {
+    Preconditions.checkNotNull(block, "`block` must not be null");
+
+    if (remove(block) && memoryManager != null) {
+      memoryManager.unregister(block);
+    }
+    safeClose(block);
   }
 
   private long getLastObjectByte() {
@@ -130,6 +217,8 @@ public class BlockStore implements Closeable {
 
   @Override
   public void close() {
-    blocks.forEach(this::safeClose);
+    for (Block block : blocks.values()) {
+      evict(block);
+    }
   }
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+
+/**
+ * Groups the cache accesses of blocks created together, such as the footer and page index ranges of
+ * a Parquet file, so that they reach the cache in one round trip instead of one per block. Lookups
+ * are held back until {@link #flushLookups()} and updates until {@link #flushUpdates()}; once
+ * flushed, accesses go straight to the cache.
+ */
+final class CacheBatch implements Cache {
+  private final Cache cache;
+  private final Map<String, CompletableFuture<byte[]>> pendingLookups = new LinkedHashMap<>();
+  private final Map<String, byte[]> pendingUpdates = new LinkedHashMap<>();
+  private final CompletableFuture<Void> pendingUpdatesResult = new CompletableFuture<>();
+  private final List<CompletableFuture<Void>> blockLoads = new ArrayList<>();
+  private long lookupTimeoutMs;
+  private long updateTimeoutMs;
+  private boolean lookupsFlushed;
+  private boolean updatesFlushed;
+
+  /**
+   * Creates a new batch in front of a cache.
+   *
+   * @param cache the cache to send the batched lookups and updates to
+   */
+  CacheBatch(@NonNull Cache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Adds a block created as part of the batch. Updates are flushed once all blocks are loaded.
+   *
+   * @param block the block
+   */
+  synchronized void addBlock(@NonNull Block block) {
+    blockLoads.add(block.whenLoaded());
+  }
+
+  /**
+   * Returns a future that completes once all blocks of the batch are loaded, successfully or not.
+   * By then, the blocks that missed the cache have handed over their data.
+   *
+   * @return a future completing when the blocks of the batch are loaded
+   */
+  synchronized CompletableFuture<Void> whenBlocksLoaded() {
+    return CompletableFuture.allOf(blockLoads.toArray(new CompletableFuture<?>[0]));
+  }
+
+  /**
+   * Holds back a lookup until the batch is flushed.
+   *
+   * @param key the key to fetch from the cache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the value associated with the key, or null if it is not cached
+   */
+  @Override
+  public CompletableFuture<byte[]> get(@NonNull String key, long timeoutMs) {
+    synchronized (this) {
+      if (!lookupsFlushed) {
+        lookupTimeoutMs = Math.max(lookupTimeoutMs, timeoutMs);
+        return pendingLookups.computeIfAbsent(key, ignored -> new CompletableFuture<>());
+      }
+    }
+    return cache.get(key, timeoutMs);
+  }
+
+  /**
+   * Holds back an update until the batch is flushed.
+   *
+   * @param key the key for which to set the value in the cache
+   * @param value the value to set in the cache for the given key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a future completed once the batch the value is part of is set
+   */
+  @Override
+  public CompletableFuture<Void> set(@NonNull String key, @NonNull byte[] value, long timeoutMs) {
+    synchronized (this) {
+      if (!updatesFlushed) {
+        updateTimeoutMs = Math.max(updateTimeoutMs, timeoutMs);
+        pendingUpdates.put(key, value);
+        return pendingUpdatesResult;
+      }
+    }
+    return cache.set(key, value, timeoutMs);
+  }
+
+  /**
+   * Sends the lookups held back with a single request.
+   *
+   * @return the number of round trips saved, one less than the number of lookups sent
+   */
+  int flushLookups() {
+    Map<String, CompletableFuture<byte[]>> lookups;
+    long timeoutMs;
+    synchronized (this) {
+      lookupsFlushed = true;
+      lookups = new LinkedHashMap<>(pendingLookups);
+      timeoutMs = lookupTimeoutMs;
+      pendingLookups.clear();
+    }
+    if (lookups.isEmpty()) {
+      return 0;
+    }
+
+    CompletableFuture<Map<String, byte[]>> values;
+    try {
+      values = cache.getAll(new ArrayList<>(lookups.keySet()), timeoutMs);
+    } catch (RuntimeException e) {
+      values = new CompletableFuture<>();
+      values.completeExceptionally(e);
+    }
+    values.whenComplete(
+        (found, error) ->
+            lookups.forEach(
+                (key, lookup) -> {
+                  if (error != null) {
+                    lookup.completeExceptionally(error);
+                  } else {
+                    lookup.complete(found.get(key));
+                  }
+                }));
+    return lookups.size() - 1;
+  }
+
+  /**
+   * Sends the updates held back with a single request.
+   *
+   * @return the number of round trips saved, one less than the number of updates sent
+   */
+  int flushUpdates() {
+    Map<String, byte[]> updates;
+    long timeoutMs;
+    synchronized (this) {
+      updatesFlushed = true;
+      updates = new LinkedHashMap<>(pendingUpdates);
+      timeoutMs = updateTimeoutMs;
+      pendingUpdates.clear();
+    }
+    if (updates.isEmpty()) {
+      pendingUpdatesResult.complete(null);
+      return 0;
+    }
+
+    CompletableFuture<Void> result;
+    try {
+      result = cache.setAll(updates, timeoutMs);
+    } catch (RuntimeException e) {
+      result = new CompletableFuture<>();
+      result.completeExceptionally(e);
+    }
+    result.whenComplete(
+        (ignored, error) -> {
+          if (error != null) {
+            pendingUpdatesResult.completeExceptionally(error);
+          } else {
+            pendingUpdatesResult.complete(null);
+          }
+        });
+    return updates.size() - 1;
+  }
+
+  /**
+   * Forwards the latency of a read served by S3 to the cache.
+   *
+   * @param latencyNanos time taken by the S3 request, in nanoseconds
+   */
+  @Override
+  public void reportOriginLatency(long latencyNanos) {
+    cache.reportOriginLatency(latencyNanos);
+  }
+
+  /** The batch does not own the cache, closing it is left to the owner of the cache. */
+  @Override
+  public void close() {}
+
+  /** The batch does not own the cache, clearing it is left to the owner of the cache. */
+  @Override
+  public void clearCache() {}
+}
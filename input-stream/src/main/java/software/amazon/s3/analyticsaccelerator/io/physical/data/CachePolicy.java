@@ -0,0 +1,196 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Getter;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.io.physical.CacheAdmissionFilter;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
+
+/**
+ * Decides which ranges are cached and how they are laid out in the cache. Data is cached in chunks
+ * aligned to multiples of the chunk size in the object, so that a range can be assembled from the
+ * chunks cached by earlier reads of other ranges, whatever their start and length. Chunks fetched
+ * from S3 are only written to the cache if the admission filter of the policy admits them.
+ */
+public final class CachePolicy {
+  @Getter private final int chunkSizeBytes;
+  private final Set<RangeType> rangeTypes;
+  private final CacheAdmissionFilter admissionFilter;
+
+  /** Policy of the default configuration, caching tail metadata */
+  public static final CachePolicy DEFAULT = new CachePolicy(PhysicalIOConfiguration.DEFAULT);
+
+  /**
+   * Creates a new instance of {@link CachePolicy}.
+   *
+   * @param chunkSizeBytes size of the aligned chunks data is cached in, in bytes
+   * @param rangeTypes types of ranges whose data is cached
+   */
+  public CachePolicy(int chunkSizeBytes, @NonNull Set<RangeType> rangeTypes) {
+    this(chunkSizeBytes, rangeTypes, null);
+  }
+
+  /**
+   * Creates a new instance of {@link CachePolicy} filtering the chunks written to the cache.
+   *
+   * @param chunkSizeBytes size of the aligned chunks data is cached in, in bytes
+   * @param rangeTypes types of ranges whose data is cached
+   * @param admissionFilter the {@link CacheAdmissionFilter} deciding which chunks are written to
+   *     the cache; all chunks are written when null
+   */
+  public CachePolicy(
+      int chunkSizeBytes,
+      @NonNull Set<RangeType> rangeTypes,
+      CacheAdmissionFilter admissionFilter) {
+    Preconditions.checkArgument(
+        chunkSizeBytes > 0, "`chunkSizeBytes` must be positive; was: %s", chunkSizeBytes);
+
+    this.chunkSizeBytes = chunkSizeBytes;
+    this.rangeTypes =
+        rangeTypes.isEmpty()
+            ? Collections.emptySet()
+            : Collections.unmodifiableSet(EnumSet.copyOf(rangeTypes));
+    this.admissionFilter = admissionFilter;
+  }
+
+  /**
+   * Creates a new instance of {@link CachePolicy} from the configuration.
+   *
+   * @param configuration the PhysicalIO configuration
+   */
+  public CachePolicy(@NonNull PhysicalIOConfiguration configuration) {
+    this(configuration, null);
+  }
+
+  /**
+   * Creates a new instance of {@link CachePolicy} from the configuration, filtering the chunks
+   * written to the cache.
+   *
+   * @param configuration the PhysicalIO configuration
+   * @param admissionFilter the {@link CacheAdmissionFilter} deciding which chunks are written to
+   *     the cache; all chunks are written when null
+   */
+  public CachePolicy(
+      @NonNull PhysicalIOConfiguration configuration, CacheAdmissionFilter admissionFilter) {
+    this(
+        configuration.getCacheChunkSizeBytes(),
+        configuration.getCachedRangeTypes(),
+        admissionFilter);
+  }
+
+  /**
+   * Whether ranges of a given type are cached.
+   *
+   * @param rangeType the type of the range
+   * @return true if ranges of this type are looked up in and written to the cache
+   */
+  public boolean isCached(@NonNull RangeType rangeType) {
+    return rangeTypes.contains(rangeType);
+  }
+
+  /**
+   * Records a lookup of a chunk in the cache, so that the admission filter learns which chunks are
+   * requested repeatedly.
+   *
+   * @param cacheKey the cache key of the chunk
+   */
+  public void recordLookup(@NonNull String cacheKey) {
+    if (admissionFilter != null) {
+      admissionFilter.recordRequest(cacheKey);
+    }
+  }
+
+  /**
+   * Whether a chunk fetched from S3 is written to the cache.
+   *
+   * @param cacheKey the cache key of the chunk
+   * @param chunk the chunk
+   * @return true if the chunk should be written to the cache
+   */
+  public boolean admits(@NonNull String cacheKey, @NonNull Range chunk) {
+    return admissionFilter == null
+        || admissionFilter.admit(cacheKey, chunk.getRangeType(), (int) chunk.getLength());
+  }
+
+  /**
+   * Returns the aligned chunks covering a range, in order. The first and last chunks may extend
+   * beyond the range, the last chunk of the object ends with the object. When the length of the
+   * object is not known, the range is cached as a single chunk.
+   *
+   * @param range the range to cover
+   * @param contentLength the length of the object, or 0 if it is not known
+   * @return the chunks covering the range
+   */
+  public List<Range> chunksOf(@NonNull Range range, long contentLength) {
+    if (contentLength <= range.getEnd()) {
+      return Collections.singletonList(range);
+    }
+
+    List<Range> chunks = new ArrayList<>();
+    for (long start = chunkStart(range.getStart());
+        start <= range.getEnd();
+        start += chunkSizeBytes) {
+      chunks.add(new Range(start, chunkEnd(start, contentLength), range.getRangeType()));
+    }
+    return chunks;
+  }
+
+  /**
+   * Returns the start of the chunk holding a position.
+   *
+   * @param pos the position in the object
+   * @return the position of the first byte of the chunk
+   */
+  public long chunkStart(long pos) {
+    Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
+
+    return pos - pos % chunkSizeBytes;
+  }
+
+  /**
+   * Returns the end of the chunk holding a position, the last chunk of the object ends with the
+   * object.
+   *
+   * @param pos the position in the object
+   * @param contentLength the length of the object
+   * @return the position of the last byte of the chunk
+   */
+  public long chunkEnd(long pos, long contentLength) {
+    return Math.min(chunkStart(pos) + chunkSizeBytes - 1, contentLength - 1);
+  }
+
+  /**
+   * Creates the cache key of a chunk. Chunks are keyed by the bytes they hold, so chunks cached
+   * with a different chunk size are never mistaken for one another.
+   *
+   * @param objectKey the etag and S3 URI of the object
+   * @param chunk the chunk
+   * @return the cache key of the chunk in the format "{s3Uri}#{etag}#{start}-{end}"
+   */
+  public static String keyOf(@NonNull ObjectKey objectKey, @NonNull Range chunk) {
+    return objectKey.getS3URI() + "#" + objectKey.getEtag() + "#" + chunk;
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+/**
+ * Keeps the bytes held by {@link Block}s across all objects within a budget. Blocks are tracked in
+ * least recently read order. Once the budget is exceeded, the least recently read blocks are
+ * removed from their {@link BlockStore} and closed. Blocks that are being read, or whose data is
+ * still in flight, are never evicted, so the budget can be overshot until they become idle.
+ *
+ * <p>Reads are recorded without taking a lock and replayed into the LRU order on the next
+ * registration. Under heavy load some reads are dropped, which only makes the order approximate.
+ */
+public class MemoryManager {
+  private final Telemetry telemetry;
+  private final long capacityBytes;
+  // Access ordered, the eldest entry is the least recently read block
+  private final LinkedHashMap<Block, BlockStore> blocks = new LinkedHashMap<>(16, 0.75f, true);
+  private long residentBytes;
+  private long evictionCount;
+  private volatile Block lastReadBlock;
+  private final Queue<Block> pendingReads = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingReadCount = new AtomicInteger();
+
+  private static final int MAX_PENDING_READS = 1024;
+
+  private static final String METRIC_RESIDENT_BYTES = "memory.resident.bytes";
+  private static final String METRIC_EVICTIONS = "memory.evictions";
+
+  /**
+   * Creates a new instance of {@link MemoryManager}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report memory usage to
+   * @param capacityBytes the maximum number of bytes held by blocks
+   */
+  public MemoryManager(@NonNull Telemetry telemetry, long capacityBytes) {
+    Preconditions.checkArgument(
+        capacityBytes > 0, "`capacityBytes` must be positive; was: %s", capacityBytes);
+
+    this.telemetry = telemetry;
+    this.capacityBytes = capacityBytes;
+  }
+
+  /**
+   * Creates a new instance of {@link MemoryManager} with the budget set in the configuration.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report memory usage to
+   * @param configuration the PhysicalIO configuration
+   */
+  public MemoryManager(
+      @NonNull Telemetry telemetry, @NonNull PhysicalIOConfiguration configuration) {
+    this(telemetry, configuration.getMemoryCapacityBytes());
+  }
+
+  /**
+   * Starts accounting for a block, and evicts least recently read blocks if this takes the resident
+   * bytes over the budget.
+   *
+   * @param block the block added to a {@link BlockStore}
+   * @param owner the {@link BlockStore} holding the block
+   */
+  void register(@NonNull Block block, @NonNull BlockStore owner) {
+    List<Map.Entry<Block, BlockStore>> victims;
+    synchronized (this) {
+      if (blocks.put(block, owner) == null) {
+        residentBytes += block.getLength();
+      }
+      replayPendingReads();
+      victims = selectVictims();
+    }
+
+    evict(victims);
+    recordUsage();
+  }
+
+  /**
+   * Marks a block as the most recently read one.
+   *
+   * @param block the block being read
+   */
+  void touch(@NonNull Block block) {
+    // Consecutive reads mostly hit the same block, only reorder when the block changes
+    if (lastReadBlock == block) {
+      return;
+    }
+    lastReadBlock = block;
+
+    if (pendingReadCount.incrementAndGet() <= MAX_PENDING_READS) {
+      pendingReads.offer(block);
+    } else {
+      pendingReadCount.decrementAndGet();
+    }
+  }
+
+  /**
+   * Stops accounting for a block that is no longer held by its {@link BlockStore}.
+   *
+   * @param block the block removed from its {@link BlockStore}
+   */
+  void unregister(@NonNull Block block) {
+    synchronized (this) {
+      if (blocks.remove(block) != null) {
+        residentBytes -= block.getLength();
+      }
+    }
+    recordUsage();
+  }
+
+  /**
+   * Returns the number of bytes held by the blocks accounted for, including blocks in flight.
+   *
+   * @return the resident bytes
+   */
+  public synchronized long getResidentBytes() {
+    return residentBytes;
+  }
+
+  /**
+   * Returns the number of blocks evicted to stay within the budget.
+   *
+   * @return the eviction count
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  private void replayPendingReads() {
+    Block block;
+    while ((block = pendingReads.poll()) != null) {
+      pendingReadCount.decrementAndGet();
+      // Moves the block to the most recently read end, unless it has been unregistered meanwhile
+      blocks.get(block);
+    }
+  }
+
+  private List<Map.Entry<Block, BlockStore>> selectVictims() {
+    List<Map.Entry<Block, BlockStore>> victims = new ArrayList<>();
+    Iterator<Map.Entry<Block, BlockStore>> iterator = blocks.entrySet().iterator();
+    while (residentBytes > capacityBytes && iterator.hasNext()) {
+      Map.Entry<Block, BlockStore> entry = iterator.next();
+      if (entry.getKey().isEvictable()) {
+        iterator.remove();
+        residentBytes -= entry.getKey().getLength();
+        evictionCount++;
+        victims.add(entry);
+      }
+    }
+    return victims;
+  }
+
+  private void evict(List<Map.Entry<Block, BlockStore>> victims) {
+    for (Map.Entry<Block, BlockStore> victim : victims) {
+      victim.getValue().remove(victim.getKey());
+      victim.getKey().close();
+    }
+  }
+
+  private void recordUsage() {
+    long currentResidentBytes;
+    long currentEvictionCount;
+    synchronized (this) {
+      currentResidentBytes = residentBytes;
+      currentEvictionCount = evictionCount;
+    }
+    telemetry.measure(Metric.builder().name(METRIC_RESIDENT_BYTES).build(), currentResidentBytes);
+    telemetry.measure(Metric.builder().name(METRIC_EVICTIONS).build(), currentEvictionCount);
+  }
+}
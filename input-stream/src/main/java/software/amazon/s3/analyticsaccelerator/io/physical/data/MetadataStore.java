@@ -18,10 +18,12 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +32,13 @@ import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.PrefixRequest;
+import software.amazon.s3.analyticsaccelerator.request.ReadMode;
+import software.amazon.s3.analyticsaccelerator.request.Referrer;
+import software.amazon.s3.analyticsaccelerator.request.StreamContext;
+import software.amazon.s3.analyticsaccelerator.request.TailRequest;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 
@@ -48,6 +56,10 @@ public class MetadataStore implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(MetadataStore.class);
   private static final String OPERATION_METADATA_HEAD_ASYNC = "metadata.store.head.async";
   private static final String OPERATION_METADATA_HEAD_JOIN = "metadata.store.head.join";
+  private static final String OPERATION_METADATA_TAIL_ASYNC = "metadata.store.tail.async";
+  private static final String OPERATION_METADATA_TAIL_JOIN = "metadata.store.tail.join";
+  private static final String OPERATION_METADATA_PREFIX_ASYNC = "metadata.store.prefix.async";
+  private static final String OPERATION_METADATA_PREFIX_JOIN = "metadata.store.prefix.join";
 
   /**
    * Constructs a new MetadataStore.
@@ -123,6 +135,110 @@ public class MetadataStore implements Closeable {
                 objectClient.headObject(HeadRequest.builder().s3Uri(s3URI).build())));
   }
 
+  /**
+   * Gets the metadata for an object together with its last bytes, with a single suffix range
+   * request instead of a HEAD request followed by a GET request. The metadata reported by the
+   * response is cached. Opens of the same object issued in the meantime wait for the response
+   * instead of issuing a HEAD request, and fall back to one if the request fails.
+   *
+   * @param s3URI the object to fetch the metadata and the last bytes of
+   * @param tailLength the number of bytes to fetch from the end of the object
+   * @param streamContext contains audit headers to be attached in the request header
+   * @return the content holding the last bytes of the object and its metadata, or null if the
+   *     metadata is already known or the request failed
+   */
+  public ObjectContent getWithTail(S3URI s3URI, long tailLength, StreamContext streamContext) {
+    return getWithContent(
+        s3URI,
+        OPERATION_METADATA_TAIL_ASYNC,
+        OPERATION_METADATA_TAIL_JOIN,
+        () ->
+            objectClient.getObjectTail(
+                TailRequest.builder()
+                    .s3Uri(s3URI)
+                    .length(tailLength)
+                    .referrer(new Referrer("bytes=-" + tailLength, ReadMode.SYNC))
+                    .build(),
+                streamContext));
+  }
+
+  /**
+   * Gets the metadata for an object together with its first bytes, with a single range request
+   * instead of a HEAD request followed by a GET request. Behaves like {@link #getWithTail(S3URI,
+   * long, StreamContext)} otherwise.
+   *
+   * @param s3URI the object to fetch the metadata and the first bytes of
+   * @param prefixLength the number of bytes to fetch from the start of the object
+   * @param streamContext contains audit headers to be attached in the request header
+   * @return the content holding the first bytes of the object and its metadata, or null if the
+   *     metadata is already known or the request failed
+   */
+  public ObjectContent getWithPrefix(S3URI s3URI, long prefixLength, StreamContext streamContext) {
+    return getWithContent(
+        s3URI,
+        OPERATION_METADATA_PREFIX_ASYNC,
+        OPERATION_METADATA_PREFIX_JOIN,
+        () ->
+            objectClient.getObjectPrefix(
+                PrefixRequest.builder()
+                    .s3Uri(s3URI)
+                    .length(prefixLength)
+                    .referrer(new Referrer("bytes=0-" + (prefixLength - 1), ReadMode.SYNC))
+                    .build(),
+                streamContext));
+  }
+
+  private ObjectContent getWithContent(
+      S3URI s3URI,
+      String asyncOperationName,
+      String joinOperationName,
+      Supplier<CompletableFuture<ObjectContent>> request) {
+    CompletableFuture<ObjectContent> response;
+    synchronized (this) {
+      if (this.cache.containsKey(s3URI)) {
+        return null;
+      }
+
+      response =
+          telemetry.measureCritical(
+              () ->
+                  Operation.builder()
+                      .name(asyncOperationName)
+                      .attribute(StreamAttributes.uri(s3URI))
+                      .build(),
+              request.get());
+      this.cache.put(
+          s3URI,
+          response
+              .handle(
+                  (content, error) ->
+                      error == null && content.getObjectMetadata() != null
+                          ? CompletableFuture.completedFuture(content.getObjectMetadata())
+                          : objectClient.headObject(HeadRequest.builder().s3Uri(s3URI).build()))
+              .thenCompose(metadata -> metadata));
+    }
+
+    try {
+      ObjectContent content =
+          telemetry.measureJoinCritical(
+              () ->
+                  Operation.builder()
+                      .name(joinOperationName)
+                      .attribute(StreamAttributes.uri(s3URI))
+                      .build(),
+              response,
+              this.configuration.getBlockReadTimeout());
+      if (content.getObjectMetadata() != null) {
+        return content;
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Unable to read the metadata of {} from a GET, falling back to HEAD", s3URI, e);
+    }
+    // A response that arrives late, or without metadata, is not read
+    response.thenAccept(content -> closeQuietly(content.getStream()));
+    return null;
+  }
+
   /**
    * Allows storing of objectMetadata to cache. Useful when content length is already known, so can
    * skip the HEAD request.
@@ -136,6 +252,14 @@ public class MetadataStore implements Closeable {
     }
   }
 
+  private static void closeQuietly(InputStream inputStream) {
+    try {
+      inputStream.close();
+    } catch (IOException e) {
+      LOG.debug("Failed to close InputStream", e);
+    }
+  }
+
   /**
    * Utility method that cancels a {@link CompletableFuture} ignoring any exceptions.
    *
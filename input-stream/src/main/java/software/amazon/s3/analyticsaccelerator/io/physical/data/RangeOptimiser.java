@@ -15,6 +15,8 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import lombok.Value;
@@ -28,7 +30,8 @@ import software.amazon.s3.analyticsaccelerator.util.RangeType;
  * of an object is needed with high confidence, then we should not fetch this in a single request.
  *
  * <p>This class is capable of implementing heuristics on how to fetch ranges of different sizes
- * optimally.
+ * optimally. It also merges ranges that are close to each other, trading a little over-read for
+ * fewer requests, as a GET costs much more in latency than reading a few extra kilobytes.
  */
 @Value
 public class RangeOptimiser {
@@ -54,6 +57,71 @@ public class RangeOptimiser {
     return splits;
   }
 
+  /**
+   * Given a list of ranges, merge the ones separated by at most {@link
+   * PhysicalIOConfiguration#getRangeMergeMaxGapBytes()} bytes, as long as the merged range is not
+   * longer than {@link PhysicalIOConfiguration#getRangeMergeMaxSizeBytes()}. Overlapping and
+   * adjacent ranges are always merged, subject to the same size limit. Only ranges of the same
+   * {@link RangeType} are merged.
+   *
+   * @param ranges a list of ranges, in any order
+   * @return the merged ranges, sorted by their start
+   */
+  public List<Range> mergeRanges(List<Range> ranges) {
+    return mergeRanges(ranges, (gapStart, gapEnd) -> true);
+  }
+
+  /**
+   * Given a list of ranges, merge the ones that are close to each other, see {@link
+   * #mergeRanges(List)}. Ranges separated by a gap are only merged if the gap is accepted by the
+   * predicate.
+   *
+   * @param ranges a list of ranges, in any order
+   * @param gapPredicate decides whether the bytes between two ranges may be fetched with them
+   * @return the merged ranges, sorted by their start
+   */
+  public List<Range> mergeRanges(List<Range> ranges, GapPredicate gapPredicate) {
+    List<Range> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparingLong(Range::getStart));
+
+    List<Range> merged = new ArrayList<>(sorted.size());
+    Range current = null;
+    for (Range range : sorted) {
+      if (current != null && canMerge(current, range, gapPredicate)) {
+        current =
+            new Range(
+                current.getStart(),
+                Math.max(current.getEnd(), range.getEnd()),
+                current.getRangeType());
+      } else {
+        if (current != null) {
+          merged.add(current);
+        }
+        current = range;
+      }
+    }
+    if (current != null) {
+      merged.add(current);
+    }
+
+    return merged;
+  }
+
+  private boolean canMerge(Range current, Range next, GapPredicate gapPredicate) {
+    if (current.getRangeType() != next.getRangeType()) {
+      return false;
+    }
+
+    long gap = next.getStart() - current.getEnd() - 1;
+    long mergedLength = Math.max(current.getEnd(), next.getEnd()) - current.getStart() + 1;
+    if (gap > configuration.getRangeMergeMaxGapBytes()
+        || mergedLength > configuration.getRangeMergeMaxSizeBytes()) {
+      return false;
+    }
+
+    return gap <= 0 || gapPredicate.canMerge(current.getEnd() + 1, next.getStart() - 1);
+  }
+
   private List<Range> splitRange(long start, long end, RangeType rangeType) {
     long nextRangeStart = start;
     List<Range> generatedRanges = new LinkedList<>();
@@ -66,4 +134,17 @@ public class RangeOptimiser {
 
     return generatedRanges;
   }
+
+  /** Decides whether the bytes between two ranges may be fetched along with them. */
+  @FunctionalInterface
+  public interface GapPredicate {
+    /**
+     * Returns whether the gap may be fetched.
+     *
+     * @param gapStart first byte of the gap
+     * @param gapEnd last byte of the gap
+     * @return true if the two ranges around the gap may be merged
+     */
+    boolean canMerge(long gapStart, long gapEnd);
+  }
 }
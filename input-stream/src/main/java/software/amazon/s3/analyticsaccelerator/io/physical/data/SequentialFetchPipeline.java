@@ -0,0 +1,222 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+
+/**
+ * Fetches the parts of large sequential ranges in order, with a bounded number of parts in flight
+ * and a bounded number of parts fetched ahead of the position read up to in each range. Parts are
+ * issued as the ones in flight complete and as the reader moves past the parts already fetched, so
+ * a reader that falls behind pauses the fetching of its range instead of filling memory. Progress
+ * is tracked separately for every submitted range, so that streams reading different parts of the
+ * object do not drop the parts of each other.
+ *
+ * <p>This class is not thread safe, except for {@link #onRead(long, long)}. The other methods must
+ * be called under the lock of the owning {@link BlockManager}, which is also held when parts are
+ * fetched.
+ */
+class SequentialFetchPipeline {
+  private final int parallelism;
+  private final int maxAheadParts;
+  private final Runnable onProgress;
+  private final List<Run> runs = new CopyOnWriteArrayList<>();
+  private final AtomicInteger inFlightParts = new AtomicInteger();
+  private boolean advancing;
+
+  /**
+   * Creates a new instance of {@link SequentialFetchPipeline}.
+   *
+   * @param parallelism largest number of parts in flight
+   * @param maxAheadParts largest number of parts of a range fetched ahead of the reader
+   * @param onProgress called when the pipeline may issue more parts, expected to call {@link
+   *     #advance()} under the lock of the owner
+   */
+  SequentialFetchPipeline(int parallelism, int maxAheadParts, @NonNull Runnable onProgress) {
+    Preconditions.checkArgument(parallelism > 0, "`parallelism` must be positive");
+    Preconditions.checkArgument(maxAheadParts > 0, "`maxAheadParts` must be positive");
+
+    this.parallelism = parallelism;
+    this.maxAheadParts = maxAheadParts;
+    this.onProgress = onProgress;
+  }
+
+  /**
+   * Adds the parts of a range to fetch after the parts already waiting, and issues as many as the
+   * limits allow.
+   *
+   * @param parts the parts to fetch, in the order to fetch them in
+   * @param fetcher fetches a part
+   */
+  void submit(@NonNull List<Range> parts, @NonNull PartFetcher fetcher) {
+    if (parts.isEmpty()) {
+      return;
+    }
+    runs.add(new Run(parts, fetcher));
+    advance();
+  }
+
+  /**
+   * Records a read, so that parts the reader has moved past stop counting towards the parts fetched
+   * ahead in the range it falls in. Does not take any lock.
+   *
+   * @param pos start of the read
+   * @param len length of the read
+   */
+  void onRead(long pos, long len) {
+    if (len <= 0) {
+      return;
+    }
+    boolean progress = false;
+    for (Run run : runs) {
+      progress |= run.onRead(pos, pos + len - 1);
+    }
+    if (progress) {
+      onProgress.run();
+    }
+  }
+
+  /** Issues parts until a limit is reached or no part is left. */
+  void advance() {
+    // Parts that complete immediately call back into the pipeline while it is issuing
+    if (advancing) {
+      return;
+    }
+    advancing = true;
+    try {
+      // Ranges are served in the order they were submitted
+      for (Run run : runs) {
+        run.dropPassedParts();
+        while (inFlightParts.get() < parallelism && run.canIssue()) {
+          Range part = run.issue();
+          inFlightParts.incrementAndGet();
+          run.fetcher.fetch(part).whenComplete((result, error) -> onPartLoaded());
+        }
+        run.updateNextProgressPosition();
+      }
+      runs.removeIf(run -> run.pendingParts.isEmpty());
+    } finally {
+      advancing = false;
+    }
+  }
+
+  /**
+   * Returns the number of parts waiting to be fetched.
+   *
+   * @return the number of pending parts
+   */
+  int getPendingPartCount() {
+    int pendingParts = 0;
+    for (Run run : runs) {
+      pendingParts += run.pendingParts.size();
+    }
+    return pendingParts;
+  }
+
+  /**
+   * Returns the number of parts being fetched.
+   *
+   * @return the number of parts in flight
+   */
+  int getInFlightPartCount() {
+    return inFlightParts.get();
+  }
+
+  /** Drops the parts waiting to be fetched. */
+  void clear() {
+    runs.clear();
+  }
+
+  private void onPartLoaded() {
+    inFlightParts.decrementAndGet();
+    onProgress.run();
+  }
+
+  /** Fetches a part of a range. */
+  @FunctionalInterface
+  interface PartFetcher {
+    /**
+     * Starts fetching a part.
+     *
+     * @param part the part to fetch
+     * @return a future completing once the part has loaded, successfully or not
+     */
+    CompletableFuture<Void> fetch(Range part);
+  }
+
+  /** The parts of a submitted range, along with the position read up to in the range. */
+  private final class Run {
+    private final long start;
+    private final long end;
+    private final PartFetcher fetcher;
+    private final Deque<Range> pendingParts;
+    private final Deque<Range> issuedParts = new ArrayDeque<>();
+    private final AtomicLong readPosition = new AtomicLong(-1);
+    private volatile long nextProgressPosition = Long.MAX_VALUE;
+
+    private Run(List<Range> parts, PartFetcher fetcher) {
+      this.start = parts.get(0).getStart();
+      this.end = parts.get(parts.size() - 1).getEnd();
+      this.fetcher = fetcher;
+      this.pendingParts = new ArrayDeque<>(parts);
+    }
+
+    // Returns whether the read lets the range issue more parts
+    private boolean onRead(long readStart, long readEnd) {
+      if (readEnd < start || readStart > end) {
+        return false;
+      }
+      return readPosition.accumulateAndGet(readEnd, Math::max) >= nextProgressPosition;
+    }
+
+    private void dropPassedParts() {
+      long position = readPosition.get();
+      while (!issuedParts.isEmpty() && issuedParts.peekFirst().getEnd() <= position) {
+        issuedParts.pollFirst();
+      }
+      // The reader has moved past these, nobody is going to read them
+      while (!pendingParts.isEmpty() && pendingParts.peekFirst().getEnd() <= position) {
+        pendingParts.pollFirst();
+      }
+    }
+
+    private boolean canIssue() {
+      return !pendingParts.isEmpty() && issuedParts.size() < maxAheadParts;
+    }
+
+    private Range issue() {
+      Range part = pendingParts.pollFirst();
+      issuedParts.addLast(part);
+      return part;
+    }
+
+    private void updateNextProgressPosition() {
+      nextProgressPosition =
+          pendingParts.isEmpty() || issuedParts.isEmpty()
+              ? Long.MAX_VALUE
+              : issuedParts.peekFirst().getEnd();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.CacheAdmissionFilter;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
+
+/**
+ * A {@link CacheAdmissionFilter} that keeps data read once by a large scan out of a shared cache,
+ * so that it does not evict the data read by every query. Entries larger than the maximum entry
+ * size are never written. Entries of the second hit range types are only written once their key was
+ * requested a second time, as estimated by a frequency sketch of the cache lookups; a range read by
+ * a single scan misses once and is never written. Entries of other range types, such as tail
+ * metadata, are written on their first miss.
+ */
+public final class CacheAdmissionFilterImpl implements CacheAdmissionFilter {
+  private final Telemetry telemetry;
+  private final Set<RangeType> secondHitRangeTypes;
+  private final int maxEntryBytes;
+  // Guarded by itself
+  private final FrequencySketch sketch;
+  private final AtomicLong admittedCount = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  // Number of distinct keys the sketch is sized for, 64K keys of 64KB chunks cover 4GB of data
+  private static final int EXPECTED_KEYS = 64 * 1024;
+  private static final int SECOND_HIT = 2;
+
+  private static final String METRIC_ADMITTED = "cache.admission.admitted";
+  private static final String METRIC_REJECTED = "cache.admission.rejected";
+
+  /**
+   * Creates a new instance of {@link CacheAdmissionFilterImpl}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report admitted and rejected entries to
+   * @param configuration the PhysicalIO configuration
+   */
+  public CacheAdmissionFilterImpl(
+      @NonNull Telemetry telemetry, @NonNull PhysicalIOConfiguration configuration) {
+    this(
+        telemetry,
+        configuration.getSecondHitRangeTypes(),
+        configuration.getCacheAdmissionMaxEntryBytes(),
+        EXPECTED_KEYS);
+  }
+
+  /**
+   * Creates a new instance of {@link CacheAdmissionFilterImpl}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report admitted and rejected entries to
+   * @param secondHitRangeTypes types of ranges only written once they were requested a second time
+   * @param maxEntryBytes entries larger than this are never written, in bytes
+   * @param expectedKeys number of distinct keys the frequency sketch is sized for
+   */
+  public CacheAdmissionFilterImpl(
+      @NonNull Telemetry telemetry,
+      @NonNull Set<RangeType> secondHitRangeTypes,
+      int maxEntryBytes,
+      int expectedKeys) {
+    Preconditions.checkArgument(
+        maxEntryBytes > 0, "`maxEntryBytes` must be positive; was: %s", maxEntryBytes);
+    Preconditions.checkArgument(
+        expectedKeys > 0, "`expectedKeys` must be positive; was: %s", expectedKeys);
+
+    this.telemetry = telemetry;
+    this.secondHitRangeTypes =
+        secondHitRangeTypes.isEmpty()
+            ? Collections.emptySet()
+            : Collections.unmodifiableSet(EnumSet.copyOf(secondHitRangeTypes));
+    this.maxEntryBytes = maxEntryBytes;
+    this.sketch = new FrequencySketch(expectedKeys);
+  }
+
+  /**
+   * Records a lookup of a key in the cache.
+   *
+   * @param key the key looked up
+   */
+  @Override
+  public void recordRequest(@NonNull String key) {
+    synchronized (sketch) {
+      sketch.increment(key.hashCode());
+    }
+  }
+
+  /**
+   * Decides whether an entry is written to the cache.
+   *
+   * @param key the key of the entry
+   * @param rangeType the type of the range the entry holds
+   * @param sizeBytes the size of the entry, in bytes
+   * @return true if the entry should be written
+   */
+  @Override
+  public boolean admit(@NonNull String key, @NonNull RangeType rangeType, int sizeBytes) {
+    boolean admitted = sizeBytes <= maxEntryBytes;
+    if (admitted && secondHitRangeTypes.contains(rangeType)) {
+      synchronized (sketch) {
+        admitted = sketch.frequency(key.hashCode()) >= SECOND_HIT;
+      }
+    }
+
+    if (admitted) {
+      telemetry.measure(
+          Metric.builder().name(METRIC_ADMITTED).build(), admittedCount.incrementAndGet());
+    } else {
+      telemetry.measure(
+          Metric.builder().name(METRIC_REJECTED).build(), rejectedCount.incrementAndGet());
+    }
+    return admitted;
+  }
+
+  /**
+   * Returns the number of entries admitted to the cache.
+   *
+   * @return the number of admitted entries
+   */
+  public long getAdmittedCount() {
+    return admittedCount.get();
+  }
+
+  /**
+   * Returns the number of entries kept out of the cache.
+   *
+   * @return the number of rejected entries
+   */
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.Getter;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.util.CacheCompression;
+
+/**
+ * Encodes the values stored in a shared cache. Every value is stored behind a small header: a magic
+ * number, the codec the payload is encoded with and the original length of the value. Values
+ * smaller than the threshold, that do not compress, or written while compression is disabled are
+ * stored with the {@link CacheCompression#NONE} codec so that the header is always there to
+ * describe them.
+ *
+ * <p>Decoding understands every codec regardless of the configured compression, so that clients
+ * configured differently can share a cache. Values stored without a header, such as the ones
+ * written by earlier versions, are returned as they are. The {@link #NONE} codec neither writes nor
+ * reads headers, and is only meant for caches that no other client shares.
+ */
+public final class CacheEntryCodec {
+  @Getter private final CacheCompression compression;
+  @Getter private final int minCompressBytes;
+  private final boolean framed;
+
+  static final int HEADER_SIZE = 9;
+  private static final int MAGIC = 0x41414c43;
+
+  /** Codec storing and returning values as they are, without a header. */
+  public static final CacheEntryCodec NONE = new CacheEntryCodec(CacheCompression.NONE, 0, false);
+
+  /**
+   * Creates a new instance of {@link CacheEntryCodec}.
+   *
+   * @param compression how values are compressed
+   * @param minCompressBytes values smaller than this are not compressed
+   */
+  public CacheEntryCodec(@NonNull CacheCompression compression, int minCompressBytes) {
+    this(compression, minCompressBytes, true);
+  }
+
+  private CacheEntryCodec(
+      @NonNull CacheCompression compression, int minCompressBytes, boolean framed) {
+    Preconditions.checkArgument(
+        minCompressBytes >= 0,
+        "`minCompressBytes` must not be negative; was: %s",
+        minCompressBytes);
+
+    this.compression = compression;
+    this.minCompressBytes = minCompressBytes;
+    this.framed = framed;
+  }
+
+  /**
+   * Creates a new instance of {@link CacheEntryCodec} according to the configuration.
+   *
+   * @param configuration the PhysicalIO configuration
+   */
+  public CacheEntryCodec(@NonNull PhysicalIOConfiguration configuration) {
+    this(configuration.getCacheCompression(), configuration.getCacheCompressionMinBytes());
+  }
+
+  /**
+   * Encodes a value to be stored.
+   *
+   * @param value the value
+   * @return the bytes to store
+   */
+  public byte[] encode(@NonNull byte[] value) {
+    if (!framed) {
+      return value;
+    }
+    if (compression != CacheCompression.NONE && value.length >= minCompressBytes) {
+      byte[] deflated = deflate(value);
+      if (deflated != null) {
+        return deflated;
+      }
+    }
+
+    byte[] stored = new byte[HEADER_SIZE + value.length];
+    writeHeader(stored, CacheCompression.NONE, value.length);
+    System.arraycopy(value, 0, stored, HEADER_SIZE, value.length);
+    return stored;
+  }
+
+  /**
+   * Decodes a stored value.
+   *
+   * @param stored the bytes stored, may be null
+   * @return the value, or null if nothing was stored
+   * @throws IllegalStateException if the stored bytes are corrupt
+   */
+  public byte[] decode(byte[] stored) {
+    if (!framed
+        || stored == null
+        || stored.length < HEADER_SIZE
+        || ByteBuffer.wrap(stored).getInt(0) != MAGIC) {
+      return stored;
+    }
+
+    CacheCompression codec = CacheCompression.fromId(stored[4]);
+    int originalLength = ByteBuffer.wrap(stored).getInt(5);
+    Preconditions.checkState(codec != null, "Unknown codec of cache entry: %s", stored[4]);
+    Preconditions.checkState(
+        originalLength >= 0, "Invalid length of cache entry: %s", originalLength);
+
+    if (codec == CacheCompression.NONE) {
+      Preconditions.checkState(
+          stored.length - HEADER_SIZE == originalLength,
+          "Length of cache entry %s does not match its header: %s",
+          stored.length - HEADER_SIZE,
+          originalLength);
+      return Arrays.copyOfRange(stored, HEADER_SIZE, stored.length);
+    }
+    return inflate(stored, originalLength);
+  }
+
+  /** Compresses the value behind a header, returns null if it does not get any smaller. */
+  private static byte[] deflate(byte[] value) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(value);
+      deflater.finish();
+      byte[] buffer = new byte[HEADER_SIZE + value.length];
+      int length = HEADER_SIZE;
+      while (!deflater.finished() && length < buffer.length) {
+        length += deflater.deflate(buffer, length, buffer.length - length);
+      }
+      if (!deflater.finished()) {
+        return null;
+      }
+
+      writeHeader(buffer, CacheCompression.DEFLATE, value.length);
+      return Arrays.copyOf(buffer, length);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] stored, int originalLength) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(stored, HEADER_SIZE, stored.length - HEADER_SIZE);
+      byte[] value = new byte[originalLength];
+      int length = 0;
+      while (!inflater.finished()) {
+        int inflated = inflater.inflate(value, length, value.length - length);
+        if (inflated == 0
+            && (inflater.needsInput() || inflater.needsDictionary() || length == value.length)) {
+          break;
+        }
+        length += inflated;
+      }
+
+      Preconditions.checkState(
+          inflater.finished() && length == originalLength,
+          "Compressed cache entry is truncated or longer than its header says: %s",
+          originalLength);
+      return value;
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Compressed cache entry is corrupt", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static void writeHeader(byte[] buffer, CacheCompression codec, int originalLength) {
+    ByteBuffer.wrap(buffer).putInt(0, MAGIC).put(4, codec.getId()).putInt(5, originalLength);
+  }
+}
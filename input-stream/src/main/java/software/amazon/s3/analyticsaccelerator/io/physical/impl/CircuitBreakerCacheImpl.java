@@ -0,0 +1,343 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+/**
+ * A {@link Cache} that stops using another cache while it does more harm than good. It keeps moving
+ * averages of the latency of lookups, of the share of calls that fail or time out, and of the
+ * latency of the S3 reads reported through {@link #reportOriginLatency(long)}. The circuit opens
+ * when the error rate crosses its threshold, or when lookups become slower than reading from S3.
+ *
+ * <p>While the circuit is open, lookups miss and updates are dropped without reaching the cache.
+ * Once the open period has passed, a single lookup is let through as a probe: the circuit closes if
+ * it succeeds faster than S3 would answer, and opens again otherwise.
+ */
+public class CircuitBreakerCacheImpl implements Cache {
+  private final Telemetry telemetry;
+  private final Cache cache;
+  private final double errorRateThreshold;
+  private final long openDurationNanos;
+  private final LongSupplier nanoClock;
+  private final AtomicLong bypassedCalls = new AtomicLong();
+
+  // All of the following are guarded by this
+  private State state = State.CLOSED;
+  private long openedAtNanos;
+  private boolean probeInFlight;
+  private long cacheSamples;
+  private double cacheLatencyMs;
+  private double errorRate;
+  private long originSamples;
+  private double originLatencyMs;
+
+  // Weight given to a new sample in the moving averages
+  private static final double SMOOTHING = 0.1;
+  // Samples needed before the moving averages are trusted
+  private static final int MIN_SAMPLES = 20;
+
+  private static final String CIRCUIT_OPEN_MESSAGE = "Cache circuit is open";
+  private static final String METRIC_STATE = "cache.circuit.state";
+  private static final String METRIC_BYPASSED = "cache.circuit.bypassed";
+  private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakerCacheImpl.class);
+
+  /** State of the circuit */
+  public enum State {
+    /** Calls reach the cache */
+    CLOSED,
+    /** Calls bypass the cache */
+    OPEN,
+    /** A single lookup probes the cache, other calls bypass it */
+    HALF_OPEN
+  }
+
+  /**
+   * Creates a new instance of {@link CircuitBreakerCacheImpl}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report state transitions to
+   * @param cache the cache to guard
+   * @param configuration the PhysicalIO configuration
+   */
+  public CircuitBreakerCacheImpl(
+      @NonNull Telemetry telemetry,
+      @NonNull Cache cache,
+      @NonNull PhysicalIOConfiguration configuration) {
+    this(
+        telemetry,
+        cache,
+        configuration.getCacheCircuitBreakerErrorRate(),
+        configuration.getCacheCircuitBreakerOpenMs(),
+        System::nanoTime);
+  }
+
+  /**
+   * Creates a new instance of {@link CircuitBreakerCacheImpl} reading time from the given clock.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report state transitions to
+   * @param cache the cache to guard
+   * @param errorRateThreshold share of failed calls at which the circuit opens
+   * @param openDurationMs time the circuit stays open before it is probed, in milliseconds
+   * @param nanoClock the source of the current time, in nanoseconds
+   */
+  CircuitBreakerCacheImpl(
+      @NonNull Telemetry telemetry,
+      @NonNull Cache cache,
+      double errorRateThreshold,
+      long openDurationMs,
+      @NonNull LongSupplier nanoClock) {
+    Preconditions.checkArgument(
+        errorRateThreshold > 0 && errorRateThreshold <= 1,
+        "`errorRateThreshold` must be in (0, 1]; was: %s",
+        errorRateThreshold);
+    Preconditions.checkArgument(
+        openDurationMs > 0, "`openDurationMs` must be positive; was: %s", openDurationMs);
+
+    this.telemetry = telemetry;
+    this.cache = cache;
+    this.errorRateThreshold = errorRateThreshold;
+    this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Fetches the value from the cache, or reports a miss straight away if the circuit is open.
+   *
+   * @param key the key to fetch from the cache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the value associated with the key, or null if it is not cached
+   */
+  @Override
+  public CompletableFuture<byte[]> get(@NonNull String key, long timeoutMs) {
+    Call call = admit(true);
+    if (call == Call.BYPASSED) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    long startTime = nanoClock.getAsLong();
+    return cache
+        .get(key, timeoutMs)
+        .whenComplete((value, error) -> record(call, true, startTime, error == null));
+  }
+
+  /**
+   * Sets the value in the cache, unless the circuit is open.
+   *
+   * @param key the key for which to set the value in the cache
+   * @param value the value to set in the cache for the given key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a future completed once the value is set, or failed if the circuit is open
+   */
+  @Override
+  public CompletableFuture<Void> set(@NonNull String key, @NonNull byte[] value, long timeoutMs) {
+    Call call = admit(false);
+    if (call == Call.BYPASSED) {
+      return circuitOpen();
+    }
+
+    long startTime = nanoClock.getAsLong();
+    return cache
+        .set(key, value, timeoutMs)
+        .whenComplete((ignored, error) -> record(call, false, startTime, error == null));
+  }
+
+  /**
+   * Fetches the values of several keys from the cache, or reports misses straight away if the
+   * circuit is open.
+   *
+   * @param keys the keys to fetch
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the cached values by key; keys that are not cached are absent
+   */
+  @Override
+  public CompletableFuture<Map<String, byte[]>> getAll(@NonNull List<String> keys, long timeoutMs) {
+    Call call = admit(true);
+    if (call == Call.BYPASSED) {
+      return CompletableFuture.completedFuture(Collections.emptyMap());
+    }
+
+    long startTime = nanoClock.getAsLong();
+    return cache
+        .getAll(keys, timeoutMs)
+        .whenComplete((values, error) -> record(call, true, startTime, error == null));
+  }
+
+  /**
+   * Sets the values of several keys in the cache, unless the circuit is open.
+   *
+   * @param entries the values to set, by key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a future completed once all values are set, or failed if the circuit is open
+   */
+  @Override
+  public CompletableFuture<Void> setAll(@NonNull Map<String, byte[]> entries, long timeoutMs) {
+    Call call = admit(false);
+    if (call == Call.BYPASSED) {
+      return circuitOpen();
+    }
+
+    long startTime = nanoClock.getAsLong();
+    return cache
+        .setAll(entries, timeoutMs)
+        .whenComplete((ignored, error) -> record(call, false, startTime, error == null));
+  }
+
+  /**
+   * Records the latency of a read served by S3, the latency lookups are held against.
+   *
+   * @param latencyNanos time taken by the S3 request, in nanoseconds
+   */
+  @Override
+  public void reportOriginLatency(long latencyNanos) {
+    synchronized (this) {
+      originLatencyMs = average(originLatencyMs, latencyNanos / 1_000_000.0, originSamples++);
+    }
+    cache.reportOriginLatency(latencyNanos);
+  }
+
+  /**
+   * Returns the current state of the circuit.
+   *
+   * @return the state of the circuit
+   */
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * Returns the number of calls that bypassed the cache because the circuit was open.
+   *
+   * @return the number of bypassed calls
+   */
+  public long getBypassedCount() {
+    return bypassedCalls.get();
+  }
+
+  /** Closes the guarded cache */
+  @Override
+  public void close() {
+    cache.close();
+  }
+
+  /** Clears the guarded cache */
+  @Override
+  public void clearCache() {
+    cache.clearCache();
+  }
+
+  private synchronized Call admit(boolean lookup) {
+    if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openDurationNanos) {
+      transition(State.HALF_OPEN);
+    }
+    if (state == State.CLOSED) {
+      return Call.REGULAR;
+    }
+    // Only lookups probe the cache, their latency is what decides whether to close the circuit
+    if (state == State.HALF_OPEN && lookup && !probeInFlight) {
+      probeInFlight = true;
+      return Call.PROBE;
+    }
+
+    bypassedCalls.incrementAndGet();
+    telemetry.measure(Metric.builder().name(METRIC_BYPASSED).build(), bypassedCalls.get());
+    return Call.BYPASSED;
+  }
+
+  private synchronized void record(Call call, boolean lookup, long startTime, boolean success) {
+    double latencyMs = (nanoClock.getAsLong() - startTime) / 1_000_000.0;
+    if (call == Call.PROBE) {
+      probeInFlight = false;
+      if (success && !slowerThanOrigin(latencyMs)) {
+        cacheSamples = 0;
+        cacheLatencyMs = 0;
+        errorRate = 0;
+        transition(State.CLOSED);
+      } else {
+        transition(State.OPEN);
+      }
+      return;
+    }
+    // Calls admitted before the circuit opened say nothing about the cache as it is now
+    if (state != State.CLOSED) {
+      return;
+    }
+
+    if (lookup) {
+      cacheLatencyMs = average(cacheLatencyMs, latencyMs, cacheSamples);
+    }
+    errorRate = average(errorRate, success ? 0 : 1, cacheSamples);
+    cacheSamples++;
+    if (cacheSamples >= MIN_SAMPLES
+        && (errorRate >= errorRateThreshold || slowerThanOrigin(cacheLatencyMs))) {
+      transition(State.OPEN);
+    }
+  }
+
+  private boolean slowerThanOrigin(double latencyMs) {
+    return originSamples >= MIN_SAMPLES && latencyMs > originLatencyMs;
+  }
+
+  private void transition(State newState) {
+    LOG.info(
+        "Cache circuit {} -> {}: cache latency = {}ms, S3 latency = {}ms, error rate = {}",
+        state,
+        newState,
+        String.format("%.2f", cacheLatencyMs),
+        String.format("%.2f", originLatencyMs),
+        String.format("%.2f", errorRate));
+
+    if (newState == State.OPEN) {
+      openedAtNanos = nanoClock.getAsLong();
+    }
+    state = newState;
+    telemetry.measure(Metric.builder().name(METRIC_STATE).build(), newState.ordinal());
+  }
+
+  private static double average(double average, double sample, long samples) {
+    // Plain mean until the moving average has enough samples to be meaningful
+    return samples < MIN_SAMPLES
+        ? average + (sample - average) / (samples + 1)
+        : average + SMOOTHING * (sample - average);
+  }
+
+  private static CompletableFuture<Void> circuitOpen() {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    result.completeExceptionally(new RejectedExecutionException(CIRCUIT_OPEN_MESSAGE));
+    return result;
+  }
+
+  /** How a call is let through */
+  private enum Call {
+    REGULAR,
+    PROBE,
+    BYPASSED
+  }
+}
@@ -0,0 +1,608 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+/**
+ * A {@link Cache} keeping its entries in files on a local disk, so that it needs no cache cluster
+ * and outlives the process.
+ *
+ * <p>Entries are appended to segment files, a new segment is started once the current one reaches
+ * the segment size. An in-memory index maps every key to its latest record, and values are read
+ * through memory-mapped windows of fixed size over the segments. The index is rebuilt by scanning
+ * the segments when the cache is opened, records torn by a crash are cut off. The directory is
+ * locked while the cache is open, so that a single instance writes to it.
+ *
+ * <p>Once the live entries exceed the capacity, the least recently used ones are dropped. A segment
+ * is deleted once none of its records are live. As superseded and dropped records only free disk
+ * space along with their segment, the sealed segment holding the fewest live bytes is reclaimed
+ * whenever the segment files alone exceed the capacity.
+ */
+public class DiskCacheImpl implements Cache {
+  private final Path directory;
+  private final long capacityBytes;
+  private final long segmentSizeBytes;
+  private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+  private FileChannel lockChannel;
+  private Segment activeSegment;
+  private long nextSegmentId;
+  private long liveBytes;
+  private long diskBytes;
+  private boolean closed;
+
+  private static final String SEGMENT_FILE_PREFIX = "segment-";
+  private static final String SEGMENT_FILE_SUFFIX = ".data";
+  private static final String LOCK_FILE_NAME = "cache.lock";
+  private static final int MAPPED_WINDOW_SIZE = 1024 * 1024;
+  private static final int RECORD_MAGIC = 0x41414c43;
+  // magic, key length, value length and checksum of the key and value
+  private static final int RECORD_HEADER_SIZE = 4 * Integer.BYTES;
+  private static final Logger LOG = LoggerFactory.getLogger(DiskCacheImpl.class);
+
+  /**
+   * Opens the disk cache in the directory set in the configuration, creating it if needed.
+   *
+   * @param configuration the PhysicalIO configuration
+   */
+  public DiskCacheImpl(@NonNull PhysicalIOConfiguration configuration) {
+    this(
+        Paths.get(configuration.getDiskCacheDirectory()),
+        configuration.getDiskCacheCapacityBytes(),
+        configuration.getDiskCacheSegmentSizeBytes());
+  }
+
+  /**
+   * Opens the disk cache in the given directory, creating it if needed. Entries left by a previous
+   * instance are served again.
+   *
+   * @param directory directory holding the segment files
+   * @param capacityBytes maximum number of bytes kept on disk
+   * @param segmentSizeBytes size at which a new segment file is started
+   * @throws UncheckedIOException if the directory cannot be opened, or another instance has it open
+   */
+  public DiskCacheImpl(@NonNull Path directory, long capacityBytes, long segmentSizeBytes) {
+    Preconditions.checkArgument(
+        capacityBytes > 0, "`capacityBytes` must be positive; was: %s", capacityBytes);
+    Preconditions.checkArgument(
+        segmentSizeBytes > 0 && segmentSizeBytes <= Integer.MAX_VALUE,
+        "`segmentSizeBytes` must be positive and fit in an int; was: %s",
+        segmentSizeBytes);
+
+    this.directory = directory;
+    this.capacityBytes = capacityBytes;
+    this.segmentSizeBytes = segmentSizeBytes;
+    try {
+      Files.createDirectories(directory);
+      lock();
+      recover();
+    } catch (IOException e) {
+      closeSegments();
+      unlock();
+      throw new UncheckedIOException("Failed to open the disk cache in " + directory, e);
+    }
+  }
+
+  /**
+   * Fetches the value from the disk cache given a key
+   *
+   * @param key the key to fetch from the disk cache
+   * @return the value associated with the key, or null if it is not cached
+   */
+  public byte[] get(@NonNull String key) {
+    List<ByteBuffer> views;
+    int length;
+    synchronized (this) {
+      Entry entry = index.get(key);
+      if (closed || entry == null) {
+        return null;
+      }
+      try {
+        views = entry.segment.views(entry.valueOffset, entry.valueLength);
+        length = entry.valueLength;
+      } catch (IOException e) {
+        LOG.debug("Failed to map disk cache segment {}", entry.segment.path, e);
+        return null;
+      }
+    }
+
+    // Records are never rewritten, so the views can be copied without holding the lock
+    ByteBuffer data = ByteBuffer.allocate(length);
+    views.forEach(data::put);
+    return data.array();
+  }
+
+  /**
+   * Sets the value in the disk cache for a key. Values that do not fit in a segment are not cached.
+   *
+   * @param key the key for which to set the value in the disk cache
+   * @param value the value to set in the disk cache for the given key
+   */
+  public void set(@NonNull String key, @NonNull byte[] value) {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    long recordLength = (long) RECORD_HEADER_SIZE + keyBytes.length + value.length;
+    if (recordLength > segmentSizeBytes || recordLength > capacityBytes) {
+      LOG.debug("Not caching {}, its {} bytes do not fit in a segment", key, value.length);
+      return;
+    }
+
+    ByteBuffer record = encode(keyBytes, value);
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      try {
+        Segment segment = segmentFor(recordLength);
+        long offset = segment.append(record);
+        diskBytes += recordLength;
+        put(
+            key,
+            new Entry(
+                segment,
+                offset + RECORD_HEADER_SIZE + keyBytes.length,
+                value.length,
+                recordLength));
+        evictIfNeeded();
+      } catch (IOException e) {
+        LOG.debug("Failed to write {} to the disk cache", key, e);
+      }
+    }
+  }
+
+  /**
+   * Fetches the value from the disk cache given a key. The value is read from local disk without
+   * waiting on any other party, so the time budget does not apply.
+   *
+   * @param key the key to fetch from the disk cache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a completed future holding the value associated with the key, or null if it is not
+   *     cached
+   */
+  @Override
+  public CompletableFuture<byte[]> get(@NonNull String key, long timeoutMs) {
+    return CompletableFuture.completedFuture(get(key));
+  }
+
+  /**
+   * Sets the value in the disk cache for a key. The value is written before returning, so the time
+   * budget does not apply.
+   *
+   * @param key the key for which to set the value in the disk cache
+   * @param value the value to set in the disk cache for the given key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a completed future
+   */
+  @Override
+  public CompletableFuture<Void> set(@NonNull String key, @NonNull byte[] value, long timeoutMs) {
+    set(key, value);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /** Closes the segment files, the entries are kept on disk */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (activeSegment != null) {
+      try {
+        activeSegment.channel.force(false);
+      } catch (IOException e) {
+        LOG.debug("Failed to flush disk cache segment {}", activeSegment.path, e);
+      }
+    }
+    closeSegments();
+    unlock();
+    index.clear();
+  }
+
+  /** Deletes all entries and segment files of the disk cache */
+  @Override
+  public synchronized void clearCache() {
+    index.clear();
+    for (Segment segment : new ArrayList<>(segments.values())) {
+      deleteSegment(segment);
+    }
+    liveBytes = 0;
+  }
+
+  /**
+   * Returns the number of entries in the cache.
+   *
+   * @return the number of entries
+   */
+  synchronized int getEntryCount() {
+    return index.size();
+  }
+
+  /**
+   * Returns the number of bytes taken by the segment files, including superseded records.
+   *
+   * @return the size of the cache on disk
+   */
+  synchronized long getDiskBytes() {
+    return diskBytes;
+  }
+
+  /**
+   * Returns the number of segment files.
+   *
+   * @return the number of segments
+   */
+  synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  /** Locks the directory, so that a single instance writes to the segment files */
+  private void lock() throws IOException {
+    lockChannel =
+        FileChannel.open(
+            directory.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null;
+    }
+    if (lock == null) {
+      throw new IOException("The disk cache directory is in use by another instance");
+    }
+  }
+
+  /** Releases the lock on the directory, along with the lock file channel */
+  private void unlock() {
+    if (lockChannel == null) {
+      return;
+    }
+    try {
+      lockChannel.close();
+    } catch (IOException e) {
+      LOG.debug("Failed to release the lock on the disk cache directory {}", directory, e);
+    }
+  }
+
+  private synchronized void recover() throws IOException {
+    List<Long> ids = new ArrayList<>();
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(directory, SEGMENT_FILE_PREFIX + "*" + SEGMENT_FILE_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          ids.add(
+              Long.parseLong(
+                  name.substring(
+                      SEGMENT_FILE_PREFIX.length(),
+                      name.length() - SEGMENT_FILE_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+          LOG.debug("Ignoring unexpected file {} in the disk cache", file);
+        }
+      }
+    }
+    Collections.sort(ids);
+
+    for (long id : ids) {
+      Segment segment = openSegment(id);
+      segments.put(id, segment);
+      diskBytes += segment.size;
+      nextSegmentId = id + 1;
+      scan(segment);
+    }
+    for (Segment segment : new ArrayList<>(segments.values())) {
+      if (segment.liveRecords == 0) {
+        deleteSegment(segment);
+      }
+    }
+    evictIfNeeded();
+    LOG.debug("Recovered {} disk cache entries from {}", index.size(), directory);
+  }
+
+  /** Indexes the records of a segment, cutting off the segment at the first invalid record. */
+  private void scan(Segment segment) throws IOException {
+    CRC32 crc = new CRC32();
+    long position = 0;
+    while (segment.size - position >= RECORD_HEADER_SIZE) {
+      ByteBuffer header = segment.read(position, RECORD_HEADER_SIZE);
+      int magic = header.getInt();
+      int keyLength = header.getInt();
+      int valueLength = header.getInt();
+      int checksum = header.getInt();
+      long recordLength = (long) RECORD_HEADER_SIZE + keyLength + valueLength;
+      if (magic != RECORD_MAGIC
+          || keyLength < 0
+          || valueLength < 0
+          || recordLength > Integer.MAX_VALUE
+          || recordLength > segment.size - position) {
+        break;
+      }
+
+      crc.reset();
+      for (ByteBuffer view :
+          segment.views(position + RECORD_HEADER_SIZE, keyLength + valueLength)) {
+        crc.update(view);
+      }
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+
+      byte[] keyBytes = segment.read(position + RECORD_HEADER_SIZE, keyLength).array();
+      put(
+          new String(keyBytes, StandardCharsets.UTF_8),
+          new Entry(
+              segment, position + RECORD_HEADER_SIZE + keyLength, valueLength, recordLength));
+      position += recordLength;
+    }
+
+    if (position < segment.size) {
+      LOG.debug(
+          "Discarding {} bytes at the end of disk cache segment {}",
+          segment.size - position,
+          segment.path);
+      diskBytes -= segment.size - position;
+      segment.truncate(position);
+    }
+  }
+
+  private Segment segmentFor(long recordLength) throws IOException {
+    if (activeSegment != null && activeSegment.size + recordLength > segmentSizeBytes) {
+      Segment sealed = activeSegment;
+      activeSegment = null;
+      if (sealed.liveRecords == 0) {
+        deleteSegment(sealed);
+      }
+    }
+    if (activeSegment == null) {
+      activeSegment = openSegment(nextSegmentId++);
+      segments.put(activeSegment.id, activeSegment);
+    }
+    return activeSegment;
+  }
+
+  private void put(String key, Entry entry) {
+    entry.segment.liveRecords++;
+    entry.segment.liveBytes += entry.recordLength;
+    liveBytes += entry.recordLength;
+
+    Entry previous = index.put(key, entry);
+    if (previous != null) {
+      release(previous);
+    }
+  }
+
+  private void release(Entry entry) {
+    Segment segment = entry.segment;
+    segment.liveRecords--;
+    segment.liveBytes -= entry.recordLength;
+    liveBytes -= entry.recordLength;
+    if (segment.liveRecords == 0 && segment != activeSegment) {
+      deleteSegment(segment);
+    }
+  }
+
+  private void evictIfNeeded() {
+    Iterator<Entry> leastRecentlyUsed = index.values().iterator();
+    while (liveBytes > capacityBytes && leastRecentlyUsed.hasNext()) {
+      Entry entry = leastRecentlyUsed.next();
+      leastRecentlyUsed.remove();
+      release(entry);
+    }
+
+    while (diskBytes > capacityBytes) {
+      Segment victim = null;
+      for (Segment segment : segments.values()) {
+        if (segment != activeSegment && (victim == null || segment.liveBytes < victim.liveBytes)) {
+          victim = segment;
+        }
+      }
+      if (victim == null) {
+        return;
+      }
+      reclaim(victim);
+    }
+  }
+
+  /** Drops the entries still held by the segment, and deletes it */
+  private void reclaim(Segment segment) {
+    Iterator<Entry> entries = index.values().iterator();
+    while (entries.hasNext()) {
+      Entry entry = entries.next();
+      if (entry.segment == segment) {
+        entries.remove();
+        release(entry);
+      }
+    }
+    if (segments.containsKey(segment.id)) {
+      deleteSegment(segment);
+    }
+  }
+
+  private Segment openSegment(long id) throws IOException {
+    Path path = directory.resolve(SEGMENT_FILE_PREFIX + id + SEGMENT_FILE_SUFFIX);
+    FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    return new Segment(id, path, channel, channel.size());
+  }
+
+  private void deleteSegment(Segment segment) {
+    segments.remove(segment.id);
+    diskBytes -= segment.size;
+    if (segment == activeSegment) {
+      activeSegment = null;
+    }
+    segment.close();
+    try {
+      Files.deleteIfExists(segment.path);
+    } catch (IOException e) {
+      LOG.debug("Failed to delete disk cache segment {}", segment.path, e);
+    }
+  }
+
+  private synchronized void closeSegments() {
+    for (Segment segment : segments.values()) {
+      segment.close();
+    }
+  }
+
+  private static ByteBuffer encode(byte[] key, byte[] value) {
+    CRC32 crc = new CRC32();
+    crc.update(key);
+    crc.update(value);
+
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + key.length + value.length);
+    record.putInt(RECORD_MAGIC);
+    record.putInt(key.length);
+    record.putInt(value.length);
+    record.putInt((int) crc.getValue());
+    record.put(key);
+    record.put(value);
+    record.flip();
+    return record;
+  }
+
+  /** Location of the latest record of a key */
+  private static final class Entry {
+    private final Segment segment;
+    private final long valueOffset;
+    private final int valueLength;
+    private final long recordLength;
+
+    private Entry(Segment segment, long valueOffset, int valueLength, long recordLength) {
+      this.segment = segment;
+      this.valueOffset = valueOffset;
+      this.valueLength = valueLength;
+      this.recordLength = recordLength;
+    }
+  }
+
+  /** An append-only segment file. Only accessed while holding the lock of the cache. */
+  private static final class Segment {
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> windows = new ArrayList<>();
+    private long size;
+    private long liveBytes;
+    private int liveRecords;
+
+    private Segment(long id, Path path, FileChannel channel, long size) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+      this.size = size;
+    }
+
+    private long append(ByteBuffer record) throws IOException {
+      long offset = size;
+      long position = offset;
+      ByteBuffer source = record.duplicate();
+      while (source.hasRemaining()) {
+        position += channel.write(source, position);
+      }
+      size = position;
+      return offset;
+    }
+
+    /**
+     * Returns views of the given bytes, one per window they span. Windows are mapped when first
+     * needed, only the last window of a growing segment is mapped again once it has grown past it.
+     */
+    private List<ByteBuffer> views(long offset, int length) throws IOException {
+      List<ByteBuffer> views = new ArrayList<>(1);
+      long position = offset;
+      long end = offset + length;
+      while (position < end) {
+        int index = (int) (position / MAPPED_WINDOW_SIZE);
+        long windowStart = (long) index * MAPPED_WINDOW_SIZE;
+        long viewEnd = Math.min(end, windowStart + MAPPED_WINDOW_SIZE);
+        ByteBuffer view = window(index, (int) (viewEnd - windowStart)).duplicate();
+        view.limit((int) (viewEnd - windowStart));
+        view.position((int) (position - windowStart));
+        views.add(view);
+        position = viewEnd;
+      }
+      return views;
+    }
+
+    /** Copies the given bytes into a heap buffer */
+    private ByteBuffer read(long offset, int length) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      for (ByteBuffer view : views(offset, length)) {
+        buffer.put(view);
+      }
+      buffer.flip();
+      return buffer;
+    }
+
+    private MappedByteBuffer window(int index, int length) throws IOException {
+      while (windows.size() <= index) {
+        windows.add(null);
+      }
+      MappedByteBuffer window = windows.get(index);
+      if (window == null || window.capacity() < length) {
+        long windowStart = (long) index * MAPPED_WINDOW_SIZE;
+        window =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                windowStart,
+                Math.min(MAPPED_WINDOW_SIZE, size - windowStart));
+        windows.set(index, window);
+      }
+      return window;
+    }
+
+    private void truncate(long newSize) throws IOException {
+      channel.truncate(newSize);
+      size = newSize;
+      windows.clear();
+    }
+
+    private void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        LOG.debug("Failed to close disk cache segment {}", path, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often keys were requested. All counters are
+ * halved once the number of increments reaches ten times the number of counters per row, so that
+ * the estimates favour recent popularity. It is not thread safe, callers synchronise access to it.
+ */
+final class FrequencySketch {
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAX_COUNT = 15;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  /**
+   * Creates a sketch sized for the given number of distinct keys.
+   *
+   * @param expectedEntries the number of keys expected to be tracked
+   */
+  FrequencySketch(int expectedEntries) {
+    int length = Integer.highestOneBit(Math.max(1, expectedEntries - 1)) << 1;
+    this.table = new long[length];
+    this.tableMask = length - 1;
+    this.sampleSize = 10 * length;
+  }
+
+  /**
+   * Returns the estimated number of times the key was requested, capped at 15.
+   *
+   * @param hash hash code of the key
+   * @return the estimated frequency
+   */
+  int frequency(int hash) {
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < SEEDS.length; row++) {
+      long spread = spread(hash, row);
+      frequency = Math.min(frequency, counter(index(spread), offset(spread)));
+    }
+    return frequency;
+  }
+
+  /**
+   * Records a request for the key.
+   *
+   * @param hash hash code of the key
+   */
+  void increment(int hash) {
+    boolean incremented = false;
+    for (int row = 0; row < SEEDS.length; row++) {
+      long spread = spread(hash, row);
+      int index = index(spread);
+      int offset = offset(spread);
+      if (counter(index, offset) < MAX_COUNT) {
+        table[index] += 1L << offset;
+        incremented = true;
+      }
+    }
+    if (incremented && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size /= 2;
+  }
+
+  private int counter(int index, int offset) {
+    return (int) ((table[index] >>> offset) & MAX_COUNT);
+  }
+
+  private int index(long spread) {
+    return (int) (spread >>> 32) & tableMask;
+  }
+
+  /** Picks one of the 16 counters packed in a table entry */
+  private static int offset(long spread) {
+    return ((int) spread & 15) << 2;
+  }
+
+  private static long spread(int hash, int row) {
+    long spread = (hash + SEEDS[row]) * SEEDS[row];
+    return spread ^ (spread >>> 29);
+  }
+}
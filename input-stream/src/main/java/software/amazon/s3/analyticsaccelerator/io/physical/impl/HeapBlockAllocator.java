@@ -0,0 +1,42 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.nio.ByteBuffer;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.io.physical.BlockAllocator;
+
+/** A {@link BlockAllocator} handing out plain heap buffers and leaving reclamation to the GC. */
+public class HeapBlockAllocator implements BlockAllocator {
+
+  /** Shared instance, used when no allocator is configured. */
+  public static final HeapBlockAllocator DEFAULT = new HeapBlockAllocator();
+
+  @Override
+  public ByteBuffer allocate(int size) {
+    Preconditions.checkArgument(size >= 0, "`size` must not be negative; was: %s", size);
+
+    return ByteBuffer.allocate(size);
+  }
+
+  @Override
+  public void release(ByteBuffer buffer) {
+    // Heap buffers are reclaimed by the GC
+  }
+
+  @Override
+  public void close() {}
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+/**
+ * A {@link Cache} held in the memory of the process, bounded by the number of bytes of its values.
+ * It needs no cache cluster, and a hit costs no network round trip.
+ *
+ * <p>Entries are admitted with the W-TinyLFU policy. New entries enter a small LRU window. Entries
+ * leaving the window only make it into the main space if they were requested more often than the
+ * entries they would evict, as estimated by a count-min sketch that is halved periodically so that
+ * old popularity fades. The main space is a segmented LRU, where entries hit while on probation are
+ * promoted to a protected segment. This keeps a burst of entries read once, like a scan over many
+ * files, from flushing the frequently read footers.
+ */
+public class MemoryCacheImpl implements Cache {
+  private final Telemetry telemetry;
+  private final long capacityBytes;
+  private final long windowCapacityBytes;
+  private final long protectedCapacityBytes;
+  private final FrequencySketch sketch;
+  private final HashMap<String, Node> nodes = new HashMap<>();
+  // Insertion ordered, the eldest entry of each segment is its least recently used one
+  private final LinkedHashMap<String, Node> window = new LinkedHashMap<>();
+  private final LinkedHashMap<String, Node> probation = new LinkedHashMap<>();
+  private final LinkedHashMap<String, Node> protectedSegment = new LinkedHashMap<>();
+  private long windowBytes;
+  private long probationBytes;
+  private long protectedBytes;
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+  private long rejectionCount;
+
+  private static final double WINDOW_SHARE = 0.01;
+  private static final double PROTECTED_SHARE = 0.8;
+  // Typical size of a cached footer, used to size the frequency sketch
+  private static final long EXPECTED_ENTRY_BYTES = 32 * 1024;
+  private static final int MIN_EXPECTED_ENTRIES = 64;
+  private static final int MAX_EXPECTED_ENTRIES = 1 << 20;
+
+  private static final String METRIC_HITS = "cache.memory.hits";
+  private static final String METRIC_MISSES = "cache.memory.misses";
+  private static final String METRIC_HIT_RATIO = "cache.memory.hit.ratio";
+  private static final String METRIC_EVICTIONS = "cache.memory.evictions";
+  private static final String METRIC_REJECTIONS = "cache.memory.rejections";
+  private static final String METRIC_RESIDENT_BYTES = "cache.memory.resident.bytes";
+
+  /**
+   * Creates a new instance of {@link MemoryCacheImpl}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report hits and evictions to
+   * @param capacityBytes the maximum number of bytes held by the values of the cache
+   */
+  public MemoryCacheImpl(@NonNull Telemetry telemetry, long capacityBytes) {
+    Preconditions.checkArgument(
+        capacityBytes > 0, "`capacityBytes` must be positive; was: %s", capacityBytes);
+
+    this.telemetry = telemetry;
+    this.capacityBytes = capacityBytes;
+    this.windowCapacityBytes = Math.max(1, (long) (capacityBytes * WINDOW_SHARE));
+    this.protectedCapacityBytes =
+        (long) ((capacityBytes - windowCapacityBytes) * PROTECTED_SHARE);
+    this.sketch =
+        new FrequencySketch(
+            (int)
+                Math.min(
+                    MAX_EXPECTED_ENTRIES,
+                    Math.max(MIN_EXPECTED_ENTRIES, capacityBytes / EXPECTED_ENTRY_BYTES)));
+  }
+
+  /**
+   * Creates a new instance of {@link MemoryCacheImpl} with the capacity set in the configuration.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report hits and evictions to
+   * @param configuration the PhysicalIO configuration
+   */
+  public MemoryCacheImpl(
+      @NonNull Telemetry telemetry, @NonNull PhysicalIOConfiguration configuration) {
+    this(telemetry, configuration.getMemoryCacheCapacityBytes());
+  }
+
+  /**
+   * Fetches the value from the cache given a key
+   *
+   * @param key the key to fetch from the cache
+   * @return a copy of the value associated with the key, or null if it is not cached
+   */
+  public byte[] get(@NonNull String key) {
+    byte[] value = null;
+    long hits;
+    long misses;
+    synchronized (this) {
+      sketch.increment(key.hashCode());
+      Node node = nodes.get(key);
+      if (node == null) {
+        missCount++;
+      } else {
+        hitCount++;
+        onAccess(node);
+        value = node.value;
+      }
+      hits = hitCount;
+      misses = missCount;
+    }
+
+    telemetry.measure(Metric.builder().name(METRIC_HITS).build(), hits);
+    telemetry.measure(Metric.builder().name(METRIC_MISSES).build(), misses);
+    telemetry.measure(
+        Metric.builder().name(METRIC_HIT_RATIO).build(), (double) hits / (hits + misses));
+    return value == null ? null : value.clone();
+  }
+
+  /**
+   * Sets the value in the cache for a key. The value may be evicted straight away if it is
+   * requested less often than the values it would displace.
+   *
+   * @param key the key for which to set the value in the cache
+   * @param value the value to set in the cache for the given key
+   */
+  public void set(@NonNull String key, @NonNull byte[] value) {
+    byte[] copy = value.clone();
+    long evictions;
+    long rejections;
+    long residentBytes;
+    synchronized (this) {
+      sketch.increment(key.hashCode());
+      Node node = nodes.get(key);
+      if (copy.length > capacityBytes) {
+        rejectionCount++;
+      } else if (node != null) {
+        resize(node, copy.length);
+        node.value = copy;
+        onAccess(node);
+      } else {
+        node = new Node(key, copy);
+        nodes.put(key, node);
+        add(window, node, Segment.WINDOW);
+      }
+      evictIfNeeded();
+
+      evictions = evictionCount;
+      rejections = rejectionCount;
+      residentBytes = getResidentBytesLocked();
+    }
+
+    telemetry.measure(Metric.builder().name(METRIC_EVICTIONS).build(), evictions);
+    telemetry.measure(Metric.builder().name(METRIC_REJECTIONS).build(), rejections);
+    telemetry.measure(Metric.builder().name(METRIC_RESIDENT_BYTES).build(), residentBytes);
+  }
+
+  /**
+   * Removes the value for a key from the cache, if it is cached.
+   *
+   * @param key the key to remove from the cache
+   * @return true if a value was removed
+   */
+  public synchronized boolean invalidate(@NonNull String key) {
+    Node node = nodes.remove(key);
+    if (node == null) {
+      return false;
+    }
+    remove(node);
+    node.candidate = false;
+    return true;
+  }
+
+  /**
+   * Removes the values of all keys starting with the given prefix from the cache. Goes through all
+   * the keys, so it is meant for rare bulk invalidations.
+   *
+   * @param prefix the prefix of the keys to remove from the cache
+   * @return the number of values removed
+   */
+  public synchronized int invalidatePrefix(@NonNull String prefix) {
+    int removed = 0;
+    Iterator<Map.Entry<String, Node>> entries = nodes.entrySet().iterator();
+    while (entries.hasNext()) {
+      Map.Entry<String, Node> entry = entries.next();
+      if (entry.getKey().startsWith(prefix)) {
+        entries.remove();
+        remove(entry.getValue());
+        entry.getValue().candidate = false;
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Fetches the value from the cache given a key. The value is read from memory without waiting on
+   * any other party, so the time budget does not apply.
+   *
+   * @param key the key to fetch from the cache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a completed future holding the value associated with the key, or null if it is not
+   *     cached
+   */
+  @Override
+  public CompletableFuture<byte[]> get(@NonNull String key, long timeoutMs) {
+    return CompletableFuture.completedFuture(get(key));
+  }
+
+  /**
+   * Sets the value in the cache for a key. The value is written before returning, so the time
+   * budget does not apply.
+   *
+   * @param key the key for which to set the value in the cache
+   * @param value the value to set in the cache for the given key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a completed future
+   */
+  @Override
+  public CompletableFuture<Void> set(@NonNull String key, @NonNull byte[] value, long timeoutMs) {
+    set(key, value);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /** Releases the values held by the cache */
+  @Override
+  public void close() {
+    clearCache();
+  }
+
+  /** Clears all data from the cache */
+  @Override
+  public synchronized void clearCache() {
+    nodes.clear();
+    window.clear();
+    probation.clear();
+    protectedSegment.clear();
+    windowBytes = 0;
+    probationBytes = 0;
+    protectedBytes = 0;
+  }
+
+  /**
+   * Returns the number of requests that found their key in the cache.
+   *
+   * @return the hit count
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of requests that did not find their key in the cache.
+   *
+   * @return the miss count
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of entries evicted to stay within the capacity, including new entries that
+   * were not admitted into the main space.
+   *
+   * @return the eviction count
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the number of bytes held by the values of the cache.
+   *
+   * @return the resident bytes
+   */
+  public synchronized long getResidentBytes() {
+    return getResidentBytesLocked();
+  }
+
+  private long getResidentBytesLocked() {
+    return windowBytes + probationBytes + protectedBytes;
+  }
+
+  private void onAccess(Node node) {
+    switch (node.segment) {
+      case WINDOW:
+        window.remove(node.key);
+        window.put(node.key, node);
+        break;
+
+      case PROBATION:
+        remove(node);
+        add(protectedSegment, node, Segment.PROTECTED);
+        // Keep the protected segment within its share, demoting its least recently used entries
+        Iterator<Node> eldest = protectedSegment.values().iterator();
+        while (protectedBytes > protectedCapacityBytes && eldest.hasNext()) {
+          Node demoted = eldest.next();
+          if (demoted == node) {
+            break;
+          }
+          eldest.remove();
+          protectedBytes -= demoted.weight();
+          add(probation, demoted, Segment.PROBATION);
+        }
+        break;
+
+      default:
+        protectedSegment.remove(node.key);
+        protectedSegment.put(node.key, node);
+        break;
+    }
+  }
+
+  private void evictIfNeeded() {
+    // Entries leaving the window become candidates for the main space
+    Deque<Node> candidates = new ArrayDeque<>();
+    Iterator<Node> eldest = window.values().iterator();
+    while (windowBytes > windowCapacityBytes && eldest.hasNext()) {
+      Node candidate = eldest.next();
+      eldest.remove();
+      windowBytes -= candidate.weight();
+      add(probation, candidate, Segment.PROBATION);
+      candidate.candidate = true;
+      candidates.add(candidate);
+    }
+
+    while (getResidentBytesLocked() > capacityBytes) {
+      Node victim = selectVictim();
+      Node candidate = candidates.peekFirst();
+      if (candidate == null) {
+        evict(victim);
+      } else if (victim == null || !admit(candidate, victim)) {
+        evict(candidates.pollFirst());
+      } else {
+        evict(victim);
+      }
+    }
+
+    for (Node candidate : candidates) {
+      candidate.candidate = false;
+    }
+  }
+
+  /** Returns the least recently used entry of the main space that is not a candidate */
+  private Node selectVictim() {
+    for (Node node : probation.values()) {
+      if (!node.candidate) {
+        return node;
+      }
+    }
+    if (!protectedSegment.isEmpty()) {
+      return protectedSegment.values().iterator().next();
+    }
+    // Only candidates and the window remain
+    return window.isEmpty() ? null : window.values().iterator().next();
+  }
+
+  private boolean admit(Node candidate, Node victim) {
+    return sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode());
+  }
+
+  private void evict(Node node) {
+    nodes.remove(node.key);
+    remove(node);
+    node.candidate = false;
+    evictionCount++;
+  }
+
+  private void add(LinkedHashMap<String, Node> target, Node node, Segment segment) {
+    node.segment = segment;
+    target.put(node.key, node);
+    adjustBytes(segment, node.weight());
+  }
+
+  private void remove(Node node) {
+    switch (node.segment) {
+      case WINDOW:
+        window.remove(node.key);
+        break;
+
+      case PROBATION:
+        probation.remove(node.key);
+        break;
+
+      default:
+        protectedSegment.remove(node.key);
+        break;
+    }
+    adjustBytes(node.segment, -node.weight());
+  }
+
+  private void resize(Node node, int newWeight) {
+    adjustBytes(node.segment, newWeight - node.weight());
+  }
+
+  private void adjustBytes(Segment segment, long delta) {
+    switch (segment) {
+      case WINDOW:
+        windowBytes += delta;
+        break;
+
+      case PROBATION:
+        probationBytes += delta;
+        break;
+
+      default:
+        protectedBytes += delta;
+        break;
+    }
+  }
+
+  /** Segments of the cache an entry can be in */
+  private enum Segment {
+    WINDOW,
+    PROBATION,
+    PROTECTED
+  }
+
+  /** An entry of the cache */
+  private static final class Node {
+    private final String key;
+    private byte[] value;
+    private Segment segment;
+    private boolean candidate;
+
+    private Node(String key, byte[] value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    private int weight() {
+      return value.length;
+    }
+  }
+}
@@ -20,14 +20,19 @@ import lombok.NonNull;
 import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.OpenMode;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.BlobStore;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.MetadataStore;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlan;
 import software.amazon.s3.analyticsaccelerator.io.physical.plan.IOPlanExecution;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.request.StreamContext;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 import software.amazon.s3.analyticsaccelerator.util.StreamAttributes;
 
@@ -46,6 +51,7 @@ public class PhysicalIOImpl implements PhysicalIO {
   private static final String OPERATION_EXECUTE = "physical.io.execute";
   private static final String FLAVOR_TAIL = "tail";
   private static final String FLAVOR_BYTE = "byte";
+  private static final int MAX_CLOSED_BLOB_RETRIES = 3;
 
   /**
    * Construct a new instance of PhysicalIOV2.
@@ -80,12 +86,105 @@ public class PhysicalIOImpl implements PhysicalIO {
       @NonNull Telemetry telemetry,
       StreamContext streamContext)
       throws IOException {
+    this(s3URI, metadataStore, blobStore, telemetry, streamContext, 0);
+  }
+
+  /**
+   * Construct a new instance of PhysicalIOV2. When the metadata of the object is not known yet and
+   * a tail length is given, the metadata is read from the response of a suffix range request for
+   * the tail of the object instead of a HEAD request, and the tail is kept for the reads that
+   * follow.
+   *
+   * @param s3URI the S3 URI of the object
+   * @param metadataStore a metadata cache
+   * @param blobStore a data cache
+   * @param telemetry The {@link Telemetry} to use to report measurements.
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param openTailLength number of bytes at the end of the object to request together with its
+   *     metadata, or 0 to request the metadata with a HEAD request
+   */
+  public PhysicalIOImpl(
+      @NonNull S3URI s3URI,
+      @NonNull MetadataStore metadataStore,
+      @NonNull BlobStore blobStore,
+      @NonNull Telemetry telemetry,
+      StreamContext streamContext,
+      long openTailLength)
+      throws IOException {
+    this(
+        s3URI,
+        metadataStore,
+        blobStore,
+        telemetry,
+        streamContext,
+        openTailLength != 0 ? OpenMode.LAST_BYTES : OpenMode.HEAD,
+        openTailLength);
+  }
+
+  /**
+   * Construct a new instance of PhysicalIOV2. When the metadata of the object is not known yet, it
+   * is fetched as the open mode says. With {@link OpenMode#FIRST_BYTES} and {@link
+   * OpenMode#LAST_BYTES}, it is read from the response of the GET for the first or last bytes of
+   * the object instead of a HEAD request, and the bytes are kept for the reads that follow.
+   *
+   * @param s3URI the S3 URI of the object
+   * @param metadataStore a metadata cache
+   * @param blobStore a data cache
+   * @param telemetry The {@link Telemetry} to use to report measurements.
+   * @param streamContext contains audit headers to be attached in the request header
+   * @param openMode how the metadata of the object is fetched
+   * @param openLength number of bytes to request together with the metadata, ignored with {@link
+   *     OpenMode#HEAD}
+   */
+  public PhysicalIOImpl(
+      @NonNull S3URI s3URI,
+      @NonNull MetadataStore metadataStore,
+      @NonNull BlobStore blobStore,
+      @NonNull Telemetry telemetry,
+      StreamContext streamContext,
+      @NonNull OpenMode openMode,
+      long openLength)
+      throws IOException {
+    Preconditions.checkArgument(
+        openMode == OpenMode.HEAD || openLength > 0,
+        "`openLength` must be positive with open mode %s; was: %s",
+        openMode,
+        openLength);
+
     this.metadataStore = metadataStore;
     this.blobStore = blobStore;
     this.telemetry = telemetry;
     this.streamContext = streamContext;
-    this.metadata = this.metadataStore.get(s3URI);
+    ObjectContent content = null;
+    if (openMode == OpenMode.FIRST_BYTES) {
+      content = this.metadataStore.getWithPrefix(s3URI, openLength, streamContext);
+    } else if (openMode == OpenMode.LAST_BYTES) {
+      content = this.metadataStore.getWithTail(s3URI, openLength, streamContext);
+    }
+    this.metadata = content != null ? content.getObjectMetadata() : this.metadataStore.get(s3URI);
     this.objectKey = ObjectKey.builder().s3URI(s3URI).etag(metadata.getEtag()).build();
+    if (content != null) {
+      addOpenContent(content, openMode, openLength);
+    }
+  }
+
+  // Keeps the bytes fetched when opening the object, so that they are not fetched again
+  private void addOpenContent(ObjectContent content, OpenMode openMode, long openLength)
+      throws IOException {
+    long contentLength = contentLength();
+    if (contentLength == 0) {
+      content.getStream().close();
+      return;
+    }
+
+    Range range =
+        openMode == OpenMode.FIRST_BYTES
+            ? new Range(0, Math.min(contentLength, openLength) - 1)
+            : new Range(
+                Math.max(0, contentLength - openLength),
+                contentLength - 1,
+                RangeType.FOOTER_METADATA);
+    blobStore.get(objectKey, metadata, streamContext).addPrefetchedRange(range, content);
   }
 
   /**
@@ -122,7 +221,7 @@ public class PhysicalIOImpl implements PhysicalIO {
                       StreamAttributes.physicalIORelativeTimestamp(
                           System.nanoTime() - physicalIOBirth))
                   .build(),
-          () -> blobStore.get(this.objectKey, this.metadata, streamContext).read(pos));
+          () -> readFromBlob(blob -> blob.read(pos)));
     } catch (Exception e) {
       handleOperationExceptions(e);
       throw e;
@@ -159,7 +258,7 @@ public class PhysicalIOImpl implements PhysicalIO {
                       StreamAttributes.physicalIORelativeTimestamp(
                           System.nanoTime() - physicalIOBirth))
                   .build(),
-          () -> blobStore.get(objectKey, this.metadata, streamContext).read(buf, off, len, pos));
+          () -> readFromBlob(blob -> blob.read(buf, off, len, pos)));
     } catch (Exception e) {
       handleOperationExceptions(e);
       throw e;
@@ -193,10 +292,7 @@ public class PhysicalIOImpl implements PhysicalIO {
                       StreamAttributes.physicalIORelativeTimestamp(
                           System.nanoTime() - physicalIOBirth))
                   .build(),
-          () ->
-              blobStore
-                  .get(objectKey, this.metadata, streamContext)
-                  .read(buf, off, len, contentLength - len));
+          () -> readFromBlob(blob -> blob.read(buf, off, len, contentLength - len)));
     } catch (Exception e) {
       handleOperationExceptions(e);
       throw e;
@@ -225,6 +321,27 @@ public class PhysicalIOImpl implements PhysicalIO {
         () -> blobStore.get(objectKey, this.metadata, streamContext).execute(ioPlan));
   }
 
+  /**
+   * Reads through the Blob of the object. Another stream may evict and close the Blob while the
+   * read is in progress, in which case the read is retried through the Blob that replaced it.
+   *
+   * @param reader the read to perform on the Blob
+   * @return the result of the read
+   * @throws IOException if an I/O error occurs
+   */
+  private int readFromBlob(BlobReader reader) throws IOException {
+    for (int attempt = 1; ; attempt++) {
+      Blob blob = blobStore.get(objectKey, this.metadata, streamContext);
+      try {
+        return reader.read(blob);
+      } catch (IOException e) {
+        if (!blob.isClosed() || attempt >= MAX_CLOSED_BLOB_RETRIES) {
+          throw e;
+        }
+      }
+    }
+  }
+
   private void handleOperationExceptions(Exception e) {
     if (e.getCause() != null
         && e.getCause().getMessage() != null
@@ -253,4 +370,10 @@ public class PhysicalIOImpl implements PhysicalIO {
   public void close() throws IOException {
     close(false);
   }
+
+  /** A read performed on the Blob of the object. */
+  @FunctionalInterface
+  private interface BlobReader {
+    int read(Blob blob) throws IOException;
+  }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.BlockAllocator;
+
+/**
+ * A {@link BlockAllocator} handing out direct buffers from a pool of slabs. Slabs come in
+ * power-of-two size classes between a minimum and a maximum slab size, so that a released slab can
+ * be reused by any later block of a similar size. Released slabs are kept for reuse as long as the
+ * pool holds less than its capacity, and are dropped otherwise. Requests larger than the maximum
+ * slab size are served from the heap. Only slabs handed out by the allocator and not yet released
+ * are taken back, so releasing a foreign buffer or releasing a slab twice does nothing.
+ */
+public class PooledDirectBlockAllocator implements BlockAllocator {
+  private final int minSlabSize;
+  private final int maxSlabSize;
+  private final long poolCapacityBytes;
+  private final Telemetry telemetry;
+  private final List<Queue<ByteBuffer>> freeSlabs;
+  // Compared by identity, buffers are equal when their remaining bytes are
+  private final Set<ByteBuffer> issuedSlabs =
+      Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+  private final AtomicLong pooledBytes = new AtomicLong();
+  private final AtomicLong inUseBytes = new AtomicLong();
+
+  private static final String METRIC_IN_USE_BYTES = "block.allocator.in.use.bytes";
+  private static final String METRIC_POOLED_BYTES = "block.allocator.pooled.bytes";
+
+  /**
+   * Creates a new instance of {@link PooledDirectBlockAllocator}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report pool occupancy to
+   * @param minSlabSize the smallest slab handed out, in bytes; must be a power of two
+   * @param maxSlabSize the largest slab handed out, in bytes; must be a power of two
+   * @param poolCapacityBytes the maximum number of bytes retained by idle slabs
+   */
+  public PooledDirectBlockAllocator(
+      @NonNull Telemetry telemetry, int minSlabSize, int maxSlabSize, long poolCapacityBytes) {
+    Preconditions.checkArgument(
+        isPowerOfTwo(minSlabSize), "`minSlabSize` must be a power of two; was: %s", minSlabSize);
+    Preconditions.checkArgument(
+        isPowerOfTwo(maxSlabSize), "`maxSlabSize` must be a power of two; was: %s", maxSlabSize);
+    Preconditions.checkArgument(
+        minSlabSize <= maxSlabSize, "`minSlabSize` must not be greater than `maxSlabSize`");
+    Preconditions.checkArgument(
+        poolCapacityBytes >= 0, "`poolCapacityBytes` must not be negative");
+
+    this.telemetry = telemetry;
+    this.minSlabSize = minSlabSize;
+    this.maxSlabSize = maxSlabSize;
+    this.poolCapacityBytes = poolCapacityBytes;
+    this.freeSlabs = new ArrayList<>();
+    for (int i = 0; i <= sizeClass(maxSlabSize); i++) {
+      freeSlabs.add(new ConcurrentLinkedQueue<>());
+    }
+  }
+
+  @Override
+  public ByteBuffer allocate(int size) {
+    Preconditions.checkArgument(size >= 0, "`size` must not be negative; was: %s", size);
+
+    if (size > maxSlabSize) {
+      return ByteBuffer.allocate(size);
+    }
+
+    int sizeClass = sizeClass(size);
+    ByteBuffer slab = freeSlabs.get(sizeClass).poll();
+    if (slab == null) {
+      slab = ByteBuffer.allocateDirect(minSlabSize << sizeClass);
+    } else {
+      pooledBytes.addAndGet(-slab.capacity());
+    }
+    inUseBytes.addAndGet(slab.capacity());
+    recordOccupancy();
+
+    slab.clear();
+    slab.limit(size);
+    issuedSlabs.add(slab);
+    return slab;
+  }
+
+  @Override
+  public void release(@NonNull ByteBuffer buffer) {
+    if (!issuedSlabs.remove(buffer)) {
+      return;
+    }
+
+    int capacity = buffer.capacity();
+    inUseBytes.addAndGet(-capacity);
+    if (pooledBytes.addAndGet(capacity) <= poolCapacityBytes) {
+      freeSlabs.get(sizeClass(capacity)).offer(buffer);
+    } else {
+      // Pool is full, let the GC reclaim the slab
+      pooledBytes.addAndGet(-capacity);
+    }
+    recordOccupancy();
+  }
+
+  /**
+   * Returns the number of bytes held by slabs currently handed out.
+   *
+   * @return bytes in use
+   */
+  public long getInUseBytes() {
+    return inUseBytes.get();
+  }
+
+  /**
+   * Returns the number of bytes held by idle slabs waiting to be reused.
+   *
+   * @return bytes pooled
+   */
+  public long getPooledBytes() {
+    return pooledBytes.get();
+  }
+
+  @Override
+  public void close() {
+    for (Queue<ByteBuffer> slabs : freeSlabs) {
+      ByteBuffer slab;
+      while ((slab = slabs.poll()) != null) {
+        pooledBytes.addAndGet(-slab.capacity());
+      }
+    }
+    recordOccupancy();
+  }
+
+  private int sizeClass(int size) {
+    int slabSize = Math.max(size, minSlabSize);
+    // Index of the smallest power of two >= slabSize, relative to minSlabSize
+    int ceilLog2 = 32 - Integer.numberOfLeadingZeros(slabSize - 1);
+    return ceilLog2 - Integer.numberOfTrailingZeros(minSlabSize);
+  }
+
+  private void recordOccupancy() {
+    telemetry.measure(Metric.builder().name(METRIC_IN_USE_BYTES).build(), inUseBytes.get());
+    telemetry.measure(Metric.builder().name(METRIC_POOLED_BYTES).build(), pooledBytes.get());
+  }
+
+  private static boolean isPowerOfTwo(int value) {
+    return value > 0 && (value & (value - 1)) == 0;
+  }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+
+/**
+ * A two-level {@link Cache}: a small in-process near cache (L1) in front of a shared cache (L2),
+ * such as Valkey. Lookups read through, values found in L2 are kept in L1 so that repeated reads of
+ * the same footer by an executor stay in the JVM. Updates write through to both levels; the L1
+ * write happens before returning, the L2 write completes asynchronously.
+ *
+ * <p>Keys embed the etag of the object, so a new version of an object never reads values cached for
+ * an older one. When a key for a new etag of an object is seen, the L1 entries of the previous etag
+ * are invalidated by their key prefix, rather than left to take up space until they are evicted.
+ */
+public class TieredCacheImpl implements Cache {
+  private final Telemetry telemetry;
+  private final MemoryCacheImpl nearCache;
+  private final Cache remoteCache;
+  private final Map<String, String> etags;
+  private final AtomicLong nearHits = new AtomicLong();
+  private final AtomicLong nearMisses = new AtomicLong();
+  private final AtomicLong remoteHits = new AtomicLong();
+  private final AtomicLong remoteMisses = new AtomicLong();
+  private final AtomicLong remoteErrors = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  private static final char KEY_SEPARATOR = '#';
+  private static final int MAX_TRACKED_OBJECTS = 10_000;
+
+  private static final String METRIC_L1_HITS = "cache.l1.hits";
+  private static final String METRIC_L1_MISSES = "cache.l1.misses";
+  private static final String METRIC_L1_HIT_RATIO = "cache.l1.hit.ratio";
+  private static final String METRIC_L1_GET_LATENCY = "cache.l1.get.latency.ms";
+  private static final String METRIC_L1_INVALIDATIONS = "cache.l1.invalidations";
+  private static final String METRIC_L2_HITS = "cache.l2.hits";
+  private static final String METRIC_L2_MISSES = "cache.l2.misses";
+  private static final String METRIC_L2_ERRORS = "cache.l2.errors";
+  private static final String METRIC_L2_HIT_RATIO = "cache.l2.hit.ratio";
+  private static final String METRIC_L2_GET_LATENCY = "cache.l2.get.latency.ms";
+
+  /**
+   * Creates a new instance of {@link TieredCacheImpl}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report hit ratios and latencies to
+   * @param nearCache the in-process cache checked first
+   * @param remoteCache the shared cache checked when the near cache misses
+   */
+  public TieredCacheImpl(
+      @NonNull Telemetry telemetry,
+      @NonNull MemoryCacheImpl nearCache,
+      @NonNull Cache remoteCache) {
+    this.telemetry = telemetry;
+    this.nearCache = nearCache;
+    this.remoteCache = remoteCache;
+    this.etags =
+        new LinkedHashMap<String, String>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            // Entries of objects no longer tracked are left to be evicted by the near cache
+            return size() > MAX_TRACKED_OBJECTS;
+          }
+        };
+  }
+
+  /**
+   * Fetches the value from the near cache, or from the shared cache if the near cache does not hold
+   * it. The time budget only applies to the shared cache.
+   *
+   * @param key the key to fetch from the cache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the value associated with the key, or null if it is not cached
+   */
+  @Override
+  public CompletableFuture<byte[]> get(@NonNull String key, long timeoutMs) {
+    trackVersion(key);
+
+    long nearStartTime = System.nanoTime();
+    byte[] value = nearCache.get(key);
+    measureLatency(METRIC_L1_GET_LATENCY, nearStartTime);
+    if (value != null) {
+      nearHits.incrementAndGet();
+      recordNearLookup();
+      return CompletableFuture.completedFuture(value);
+    }
+    nearMisses.incrementAndGet();
+    recordNearLookup();
+
+    long remoteStartTime = System.nanoTime();
+    return remoteCache
+        .get(key, timeoutMs)
+        .whenComplete(
+            (remoteValue, error) -> {
+              measureLatency(METRIC_L2_GET_LATENCY, remoteStartTime);
+              if (error != null) {
+                remoteErrors.incrementAndGet();
+              } else if (remoteValue != null) {
+                remoteHits.incrementAndGet();
+                nearCache.set(key, remoteValue);
+              } else {
+                remoteMisses.incrementAndGet();
+              }
+              recordRemoteLookup();
+            });
+  }
+
+  /**
+   * Sets the value for a key in both levels. The near cache holds the value once this returns.
+   *
+   * @param key the key for which to set the value in the cache
+   * @param value the value to set in the cache for the given key
+   * @param timeoutMs time budget of the update of the shared cache, in milliseconds
+   * @return a future completed once the shared cache acknowledged the value
+   */
+  @Override
+  public CompletableFuture<Void> set(@NonNull String key, @NonNull byte[] value, long timeoutMs) {
+    trackVersion(key);
+    nearCache.set(key, value);
+    return remoteCache.set(key, value, timeoutMs);
+  }
+
+  /**
+   * Fetches the values of several keys from the near cache, and the ones it does not hold from the
+   * shared cache in a single batch.
+   *
+   * @param keys the keys to fetch
+   * @param timeoutMs time budget of the lookup in the shared cache, in milliseconds
+   * @return a future holding the cached values by key; keys that are not cached are absent
+   */
+  @Override
+  public CompletableFuture<Map<String, byte[]>> getAll(@NonNull List<String> keys, long timeoutMs) {
+    Map<String, byte[]> values = new HashMap<>();
+    List<String> nearMissKeys = new ArrayList<>();
+    for (String key : keys) {
+      trackVersion(key);
+
+      long nearStartTime = System.nanoTime();
+      byte[] value = nearCache.get(key);
+      measureLatency(METRIC_L1_GET_LATENCY, nearStartTime);
+      if (value != null) {
+        nearHits.incrementAndGet();
+        values.put(key, value);
+      } else {
+        nearMisses.incrementAndGet();
+        nearMissKeys.add(key);
+      }
+      recordNearLookup();
+    }
+    if (nearMissKeys.isEmpty()) {
+      return CompletableFuture.completedFuture(values);
+    }
+
+    long remoteStartTime = System.nanoTime();
+    return remoteCache
+        .getAll(nearMissKeys, timeoutMs)
+        .whenComplete(
+            (remoteValues, error) -> {
+              measureLatency(METRIC_L2_GET_LATENCY, remoteStartTime);
+              if (error != null) {
+                remoteErrors.addAndGet(nearMissKeys.size());
+              } else {
+                remoteValues.forEach(nearCache::set);
+                remoteHits.addAndGet(remoteValues.size());
+                remoteMisses.addAndGet(nearMissKeys.size() - remoteValues.size());
+              }
+              recordRemoteLookup();
+            })
+        .thenApply(
+            remoteValues -> {
+              values.putAll(remoteValues);
+              return values;
+            });
+  }
+
+  /**
+   * Sets the values of several keys in both levels, writing them to the shared cache in a single
+   * batch. The near cache holds the values once this returns.
+   *
+   * @param entries the values to set, by key
+   * @param timeoutMs time budget of the update of the shared cache, in milliseconds
+   * @return a future completed once the shared cache acknowledged the values
+   */
+  @Override
+  public CompletableFuture<Void> setAll(@NonNull Map<String, byte[]> entries, long timeoutMs) {
+    entries.forEach(
+        (key, value) -> {
+          trackVersion(key);
+          nearCache.set(key, value);
+        });
+    return remoteCache.setAll(entries, timeoutMs);
+  }
+
+  /**
+   * Forwards the latency of a read served by S3 to the shared cache.
+   *
+   * @param latencyNanos time taken by the S3 request, in nanoseconds
+   */
+  @Override
+  public void reportOriginLatency(long latencyNanos) {
+    remoteCache.reportOriginLatency(latencyNanos);
+  }
+
+  /** Closes both levels */
+  @Override
+  public void close() {
+    nearCache.close();
+    remoteCache.close();
+  }
+
+  /** Clears all data from both levels */
+  @Override
+  public void clearCache() {
+    synchronized (etags) {
+      etags.clear();
+    }
+    nearCache.clearCache();
+    remoteCache.clearCache();
+  }
+
+  /**
+   * Returns the number of lookups served by the near cache.
+   *
+   * @return the L1 hit count
+   */
+  public long getNearCacheHitCount() {
+    return nearHits.get();
+  }
+
+  /**
+   * Returns the number of lookups served by the shared cache.
+   *
+   * @return the L2 hit count
+   */
+  public long getRemoteCacheHitCount() {
+    return remoteHits.get();
+  }
+
+  /**
+   * Returns the number of lookups that neither level could serve, including failed ones.
+   *
+   * @return the number of lookups that missed both levels
+   */
+  public long getMissCount() {
+    return remoteMisses.get() + remoteErrors.get();
+  }
+
+  /**
+   * Returns the number of near cache entries dropped because a newer etag of their object was seen.
+   *
+   * @return the invalidation count
+   */
+  public long getInvalidationCount() {
+    return invalidations.get();
+  }
+
+  // Records the etag of the object a key belongs to, and invalidates the near cache entries of the
+  // previous etag if it changed. Blocks generate keys as <uri>#<etag>#<range>, where the URI may
+  // itself contain the separator, so the entries of an etag share the prefix <uri>#<etag>#
+  private void trackVersion(String key) {
+    int rangeSeparator = key.lastIndexOf(KEY_SEPARATOR);
+    int etagSeparator =
+        rangeSeparator > 0 ? key.lastIndexOf(KEY_SEPARATOR, rangeSeparator - 1) : -1;
+    if (etagSeparator < 0) {
+      return;
+    }
+    String object = key.substring(0, etagSeparator);
+    String etag = key.substring(etagSeparator + 1, rangeSeparator);
+
+    String previousEtag;
+    synchronized (etags) {
+      previousEtag = etags.put(object, etag);
+    }
+
+    if (previousEtag == null || previousEtag.equals(etag)) {
+      return;
+    }
+    invalidations.addAndGet(
+        nearCache.invalidatePrefix(object + KEY_SEPARATOR + previousEtag + KEY_SEPARATOR));
+    telemetry.measure(Metric.builder().name(METRIC_L1_INVALIDATIONS).build(), invalidations.get());
+  }
+
+  private void recordNearLookup() {
+    long hits = nearHits.get();
+    long misses = nearMisses.get();
+    telemetry.measure(Metric.builder().name(METRIC_L1_HITS).build(), hits);
+    telemetry.measure(Metric.builder().name(METRIC_L1_MISSES).build(), misses);
+    telemetry.measure(
+        Metric.builder().name(METRIC_L1_HIT_RATIO).build(), (double) hits / (hits + misses));
+  }
+
+  private void recordRemoteLookup() {
+    long hits = remoteHits.get();
+    long misses = remoteMisses.get();
+    long errors = remoteErrors.get();
+    telemetry.measure(Metric.builder().name(METRIC_L2_HITS).build(), hits);
+    telemetry.measure(Metric.builder().name(METRIC_L2_MISSES).build(), misses);
+    telemetry.measure(Metric.builder().name(METRIC_L2_ERRORS).build(), errors);
+    telemetry.measure(
+        Metric.builder().name(METRIC_L2_HIT_RATIO).build(),
+        (double) hits / (hits + misses + errors));
+  }
+
+  private void measureLatency(String name, long startTime) {
+    telemetry.measure(
+        Metric.builder().name(name).build(), (System.nanoTime() - startTime) / 1_000_000.0);
+  }
+}
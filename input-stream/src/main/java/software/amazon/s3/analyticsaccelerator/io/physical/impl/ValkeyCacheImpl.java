@@ -22,16 +22,58 @@ import io.valkey.JedisClientConfig;
 import io.valkey.JedisCluster;
 import io.valkey.exceptions.JedisException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
 import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.util.Constants;
+import software.amazon.s3.analyticsaccelerator.util.NamedThreadFactory;
 
-/** A Valkey implementation of the Cache frontend */
+/**
+ * A Valkey implementation of the Cache frontend. Commands are issued by a pool of threads sized to
+ * the connection pool, so that callers never block on the cluster. A command that is not answered
+ * within its time budget fails with a {@link TimeoutException}, and is dropped if it has not been
+ * sent yet. When all connections are busy and the queue is full, commands fail straight away.
+ *
+ * <p>Keys are stored with a hash tag made of everything but their last {@code #} segment and the
+ * 8MB group their range starts in, so that nearby ranges of an object version, such as the footer
+ * and page index of a Parquet file, map to the same slot of the cluster and can be read with a
+ * single MGET, or written with a single MSET. The ranges of a large object are still spread over
+ * the cluster rather than all landing on the node holding one slot.
+ *
+ * <p>Values are encoded by a {@link CacheEntryCodec}, which compresses them when compression is
+ * enabled. Encoding and decoding happen on the command threads.
+ */
 public class ValkeyCacheImpl implements Cache {
   private static final int MAX_ATTEMPTS = 5;
   private static final int MAX_POOL_CONNECTIONS = 32;
   private static final int MIN_IDLE_POOL_CONNECTIONS = 16;
+  private static final int MAX_QUEUED_COMMANDS = 1024;
+  private static final long KEEP_ALIVE_SECONDS = 60;
+  private static final String THREAD_NAME_PREFIX = "s3-aal-valkey-cache";
+  private static final char KEY_SEPARATOR = '#';
+  private static final char RANGE_SEPARATOR = '-';
+  private static final long SLOT_GROUP_BYTES = 8L * Constants.ONE_MB;
 
   private final JedisCluster jedisCluster;
+  private final CacheEntryCodec codec;
+  private final ThreadPoolExecutor commandPool;
+  private final ScheduledThreadPoolExecutor timeoutScheduler;
 
   /**
    * Construct a new instance of ValkeyCacheImpl.
@@ -39,15 +81,16 @@ public class ValkeyCacheImpl implements Cache {
    * @param endpoint the ElastiCache endpoint of the serverless Valkey cache
    */
   public ValkeyCacheImpl(@NonNull String endpoint) throws JedisException {
+    this(createCluster(endpoint));
+  }
 
-    ConnectionPoolConfig config = new ConnectionPoolConfig();
-    config.setMaxTotal(MAX_POOL_CONNECTIONS);
-    config.setMaxIdle(MAX_POOL_CONNECTIONS);
-    config.setMinIdle(MIN_IDLE_POOL_CONNECTIONS);
-
-    JedisClientConfig clientConfig = DefaultJedisClientConfig.builder().ssl(true).build();
-    this.jedisCluster =
-        new JedisCluster(new HostAndPort(endpoint, 6379), clientConfig, MAX_ATTEMPTS, config);
+  /**
+   * Construct a new instance of ValkeyCacheImpl according to the configuration.
+   *
+   * @param configuration the PhysicalIO configuration
+   */
+  public ValkeyCacheImpl(@NonNull PhysicalIOConfiguration configuration) throws JedisException {
+    this(createCluster(configuration.getCacheEndpoint()), new CacheEntryCodec(configuration));
   }
 
   /**
@@ -57,18 +100,53 @@ public class ValkeyCacheImpl implements Cache {
    * @param jedisCluster the JedisCluster (mock) instance to use.
    */
   public ValkeyCacheImpl(@NonNull JedisCluster jedisCluster) {
+    this(jedisCluster, CacheEntryCodec.NONE);
+  }
+
+  /**
+   * Construct a new instance of ValkeyCacheImpl that accepts pre-configured JedisCluster and
+   * encodes values with the given codec.
+   *
+   * @param jedisCluster the JedisCluster instance to use
+   * @param codec the codec values are encoded with
+   */
+  public ValkeyCacheImpl(@NonNull JedisCluster jedisCluster, @NonNull CacheEntryCodec codec) {
     this.jedisCluster = jedisCluster;
+    this.codec = codec;
+    this.commandPool =
+        new ThreadPoolExecutor(
+            MAX_POOL_CONNECTIONS,
+            MAX_POOL_CONNECTIONS,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_COMMANDS),
+            new NamedThreadFactory(THREAD_NAME_PREFIX));
+    this.commandPool.allowCoreThreadTimeOut(true);
+    this.timeoutScheduler =
+        new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(THREAD_NAME_PREFIX + "-timeout"));
+    this.timeoutScheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  private static JedisCluster createCluster(String endpoint) {
+    ConnectionPoolConfig config = new ConnectionPoolConfig();
+    config.setMaxTotal(MAX_POOL_CONNECTIONS);
+    config.setMaxIdle(MAX_POOL_CONNECTIONS);
+    config.setMinIdle(MIN_IDLE_POOL_CONNECTIONS);
+
+    JedisClientConfig clientConfig = DefaultJedisClientConfig.builder().ssl(true).build();
+    return new JedisCluster(new HostAndPort(endpoint, 6379), clientConfig, MAX_ATTEMPTS, config);
   }
 
   /**
    * Fetches the value from the Valkey ElastiCache given a key
    *
    * @param key the key to fetch from the Valkey ElastiCache
-   * @return the value associated with the key in the Valkey ElastiCache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the value associated with the key in the Valkey ElastiCache
    */
   @Override
-  public byte[] get(String key) {
-    return jedisCluster.get(key.getBytes(StandardCharsets.UTF_8));
+  public CompletableFuture<byte[]> get(@NonNull String key, long timeoutMs) {
+    return submit(() -> codec.decode(jedisCluster.get(toValkeyKey(key))), timeoutMs);
   }
 
   /**
@@ -76,15 +154,173 @@ public class ValkeyCacheImpl implements Cache {
    *
    * @param key the key for which to set the value in the Valkey ElastiCache
    * @param value the value to set in the Valkey ElastiCache for the given key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a future completed once the Valkey ElastiCache acknowledged the value
    */
   @Override
-  public void set(String key, byte[] value) {
-    jedisCluster.set(key.getBytes(StandardCharsets.UTF_8), value);
+  public CompletableFuture<Void> set(@NonNull String key, @NonNull byte[] value, long timeoutMs) {
+    return submit(
+        () -> {
+          jedisCluster.set(toValkeyKey(key), codec.encode(value));
+          return null;
+        },
+        timeoutMs);
+  }
+
+  /**
+   * Fetches the values of several keys from the Valkey ElastiCache, with one MGET per slot. Nearby
+   * keys of the same object version share a slot, so their lookup takes a single round trip.
+   *
+   * @param keys the keys to fetch from the Valkey ElastiCache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the cached values by key; keys that are not cached are absent
+   */
+  @Override
+  public CompletableFuture<Map<String, byte[]>> getAll(@NonNull List<String> keys, long timeoutMs) {
+    List<CompletableFuture<Map<String, byte[]>>> lookups = new ArrayList<>();
+    for (List<String> slotKeys : groupBySlot(keys).values()) {
+      lookups.add(
+          submit(
+              () -> {
+                byte[][] valkeyKeys = new byte[slotKeys.size()][];
+                for (int i = 0; i < valkeyKeys.length; i++) {
+                  valkeyKeys[i] = toValkeyKey(slotKeys.get(i));
+                }
+                List<byte[]> values = jedisCluster.mget(valkeyKeys);
+
+                Map<String, byte[]> found = new HashMap<>();
+                for (int i = 0; i < slotKeys.size(); i++) {
+                  if (values.get(i) != null) {
+                    found.put(slotKeys.get(i), codec.decode(values.get(i)));
+                  }
+                }
+                return found;
+              },
+              timeoutMs));
+    }
+
+    return CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            ignored -> {
+              Map<String, byte[]> values = new HashMap<>();
+              lookups.forEach(lookup -> values.putAll(lookup.join()));
+              return values;
+            });
+  }
+
+  /**
+   * Sets the values of several keys in the Valkey ElastiCache, with one MSET per slot. Nearby keys
+   * of the same object version share a slot, so their update takes a single round trip.
+   *
+   * @param entries the values to set in the Valkey ElastiCache, by key
+   * @param timeoutMs time budget of the update, in milliseconds
+   * @return a future completed once the Valkey ElastiCache acknowledged all values
+   */
+  @Override
+  public CompletableFuture<Void> setAll(@NonNull Map<String, byte[]> entries, long timeoutMs) {
+    List<CompletableFuture<Void>> updates = new ArrayList<>();
+    for (List<String> slotKeys : groupBySlot(entries.keySet()).values()) {
+      updates.add(
+          submit(
+              () -> {
+                byte[][] keysAndValues = new byte[slotKeys.size() * 2][];
+                for (int i = 0; i < slotKeys.size(); i++) {
+                  keysAndValues[2 * i] = toValkeyKey(slotKeys.get(i));
+                  keysAndValues[2 * i + 1] = codec.encode(entries.get(slotKeys.get(i)));
+                }
+                jedisCluster.mset(keysAndValues);
+                return null;
+              },
+              timeoutMs));
+    }
+
+    return CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0]));
+  }
+
+  /**
+   * Maps a key to the key stored in Valkey. Everything but the last segment of the key, the range
+   * of a block, becomes the hash tag together with the group the range starts in, so that nearby
+   * ranges of an object version share a slot.
+   *
+   * @param key the key of an entry
+   * @return the key of the entry in Valkey
+   */
+  static byte[] toValkeyKey(String key) {
+    int separator = key.lastIndexOf(KEY_SEPARATOR);
+    if (separator <= 0) {
+      return key.getBytes(StandardCharsets.UTF_8);
+    }
+    return ("{" + hashTag(key, separator) + "}" + key.substring(separator))
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String hashTag(String key, int separator) {
+    String objectVersion = key.substring(0, separator);
+    int rangeSeparator = key.indexOf(RANGE_SEPARATOR, separator + 1);
+    if (rangeSeparator < 0) {
+      return objectVersion;
+    }
+    try {
+      long start = Long.parseLong(key.substring(separator + 1, rangeSeparator));
+      return objectVersion + KEY_SEPARATOR + start / SLOT_GROUP_BYTES;
+    } catch (NumberFormatException e) {
+      return objectVersion;
+    }
+  }
+
+  private static Map<String, List<String>> groupBySlot(Iterable<String> keys) {
+    Map<String, List<String>> keysBySlot = new LinkedHashMap<>();
+    for (String key : keys) {
+      int separator = key.lastIndexOf(KEY_SEPARATOR);
+      String slot = separator <= 0 ? key : hashTag(key, separator);
+      keysBySlot.computeIfAbsent(slot, ignored -> new ArrayList<>()).add(key);
+    }
+    return keysBySlot;
+  }
+
+  private <T> CompletableFuture<T> submit(Supplier<T> command, long timeoutMs) {
+    Preconditions.checkArgument(timeoutMs > 0, "`timeoutMs` must be positive; was: %s", timeoutMs);
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Future<?> task;
+    try {
+      task =
+          commandPool.submit(
+              () -> {
+                if (result.isDone()) {
+                  return;
+                }
+                try {
+                  result.complete(command.get());
+                } catch (RuntimeException e) {
+                  result.completeExceptionally(e);
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(e);
+      return result;
+    }
+
+    ScheduledFuture<?> timeout =
+        timeoutScheduler.schedule(
+            () -> {
+              if (result.completeExceptionally(
+                  new TimeoutException("Valkey command timed out after " + timeoutMs + "ms"))) {
+                // Drops the command if it is still queued, a command being sent runs to completion
+                task.cancel(false);
+              }
+            },
+            timeoutMs,
+            TimeUnit.MILLISECONDS);
+    result.whenComplete((value, error) -> timeout.cancel(false));
+    return result;
   }
 
   /** Closes the connection to the Valkey ElastiCache server */
   @Override
   public void close() {
+    commandPool.shutdownNow();
+    timeoutScheduler.shutdownNow();
     if (jedisCluster != null) {
       jedisCluster.close();
     }
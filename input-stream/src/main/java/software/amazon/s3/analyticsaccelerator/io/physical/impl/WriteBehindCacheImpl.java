@@ -0,0 +1,336 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.util.NamedThreadFactory;
+
+/**
+ * A {@link Cache} that populates another cache in the background. Updates are put on a bounded
+ * queue and return straight away; a single writer thread takes them off the queue in batches and
+ * sends each batch with one {@link Cache#setAll(Map, long)}. When the queue is full, updates are
+ * dropped rather than making the caller wait: a value missing from the cache only costs a later
+ * read a GET to S3.
+ *
+ * <p>Values still waiting on the queue are served to lookups, so that a range read again right
+ * after it was fetched does not miss the cache because its write has not landed yet.
+ */
+public class WriteBehindCacheImpl implements Cache {
+  private final Telemetry telemetry;
+  private final Cache cache;
+  private final int batchSize;
+  private final BlockingQueue<PendingWrite> queue;
+  private final Map<String, byte[]> pendingValues = new ConcurrentHashMap<>();
+  private final ExecutorService writer;
+  private final AtomicLong droppedWrites = new AtomicLong();
+
+  private static final String THREAD_NAME_PREFIX = "s3-aal-cache-write-behind";
+  private static final long CLOSE_TIMEOUT_MS = 1000;
+  private static final String CLOSED_MESSAGE = "Cache write-behind queue is closed";
+  private static final Logger LOG = LoggerFactory.getLogger(WriteBehindCacheImpl.class);
+
+  private static final String METRIC_QUEUE_DEPTH = "cache.write.behind.queue.depth";
+  private static final String METRIC_DROPPED_WRITES = "cache.write.behind.dropped";
+  private static final String METRIC_WRITE_LATENCY = "cache.write.behind.write.latency.ms";
+
+  /**
+   * Creates a new instance of {@link WriteBehindCacheImpl}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report queue depth, drops and latency to
+   * @param cache the cache to populate
+   * @param queueCapacity maximum number of updates waiting to be written
+   * @param batchSize maximum number of updates sent to the cache in one batch
+   */
+  public WriteBehindCacheImpl(
+      @NonNull Telemetry telemetry, @NonNull Cache cache, int queueCapacity, int batchSize) {
+    Preconditions.checkArgument(
+        queueCapacity > 0, "`queueCapacity` must be positive; was: %s", queueCapacity);
+    Preconditions.checkArgument(batchSize > 0, "`batchSize` must be positive; was: %s", batchSize);
+
+    this.telemetry = telemetry;
+    this.cache = cache;
+    this.batchSize = batchSize;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.writer =
+        Executors.newSingleThreadExecutor(new NamedThreadFactory(THREAD_NAME_PREFIX));
+    this.writer.execute(this::writeLoop);
+  }
+
+  /**
+   * Creates a new instance of {@link WriteBehindCacheImpl} sized according to the configuration.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report queue depth, drops and latency to
+   * @param cache the cache to populate
+   * @param configuration the PhysicalIO configuration
+   */
+  public WriteBehindCacheImpl(
+      @NonNull Telemetry telemetry,
+      @NonNull Cache cache,
+      @NonNull PhysicalIOConfiguration configuration) {
+    this(
+        telemetry,
+        cache,
+        configuration.getWriteBehindQueueCapacity(),
+        configuration.getWriteBehindBatchSize());
+  }
+
+  /**
+   * Fetches the value of a key, from the queue if its update has not been written yet.
+   *
+   * @param key the key to fetch from the cache
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the value associated with the key, or null if it is not cached
+   */
+  @Override
+  public CompletableFuture<byte[]> get(@NonNull String key, long timeoutMs) {
+    byte[] value = pendingValues.get(key);
+    if (value != null) {
+      return CompletableFuture.completedFuture(value);
+    }
+    return cache.get(key, timeoutMs);
+  }
+
+  /**
+   * Queues the value of a key to be written in the background. The update is dropped if the queue
+   * is full.
+   *
+   * @param key the key for which to set the value in the cache
+   * @param value the value to set in the cache for the given key
+   * @param timeoutMs time budget of the update once it is sent, in milliseconds
+   * @return a future completed once the value is written, or failed if the update was dropped
+   */
+  @Override
+  public CompletableFuture<Void> set(@NonNull String key, @NonNull byte[] value, long timeoutMs) {
+    PendingWrite write = new PendingWrite(key, value, timeoutMs);
+    if (writer.isShutdown()) {
+      write.result.completeExceptionally(new RejectedExecutionException(CLOSED_MESSAGE));
+      return write.result;
+    }
+
+    // Published before it is queued, so that the writer never removes it ahead of this put
+    pendingValues.put(key, value);
+    if (!queue.offer(write)) {
+      pendingValues.remove(key, value);
+      droppedWrites.incrementAndGet();
+      telemetry.measure(Metric.builder().name(METRIC_DROPPED_WRITES).build(), droppedWrites.get());
+      write.result.completeExceptionally(
+          new RejectedExecutionException("Cache write-behind queue is full"));
+    }
+    recordQueueDepth();
+    return write.result;
+  }
+
+  /**
+   * Fetches the values of several keys. Values still queued are served from the queue, the others
+   * are fetched from the cache in a single batch.
+   *
+   * @param keys the keys to fetch
+   * @param timeoutMs time budget of the lookup, in milliseconds
+   * @return a future holding the cached values by key; keys that are not cached are absent
+   */
+  @Override
+  public CompletableFuture<Map<String, byte[]>> getAll(@NonNull List<String> keys, long timeoutMs) {
+    Map<String, byte[]> values = new HashMap<>();
+    List<String> missingKeys = new ArrayList<>();
+    for (String key : keys) {
+      byte[] value = pendingValues.get(key);
+      if (value != null) {
+        values.put(key, value);
+      } else {
+        missingKeys.add(key);
+      }
+    }
+    if (missingKeys.isEmpty()) {
+      return CompletableFuture.completedFuture(values);
+    }
+
+    return cache
+        .getAll(missingKeys, timeoutMs)
+        .thenApply(
+            found -> {
+              values.putAll(found);
+              return values;
+            });
+  }
+
+  /**
+   * Queues the values of several keys to be written in the background.
+   *
+   * @param entries the values to set, by key
+   * @param timeoutMs time budget of the update once it is sent, in milliseconds
+   * @return a future completed once all values are written, or failed if any update was dropped
+   */
+  @Override
+  public CompletableFuture<Void> setAll(@NonNull Map<String, byte[]> entries, long timeoutMs) {
+    List<CompletableFuture<Void>> updates = new ArrayList<>(entries.size());
+    entries.forEach((key, value) -> updates.add(set(key, value, timeoutMs)));
+    return CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0]));
+  }
+
+  /**
+   * Returns the number of updates waiting to be written.
+   *
+   * @return the queue depth
+   */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  /**
+   * Returns the number of updates dropped because the queue was full.
+   *
+   * @return the number of dropped updates
+   */
+  public long getDroppedWriteCount() {
+    return droppedWrites.get();
+  }
+
+  /**
+   * Forwards the latency of a read served by S3 to the cache.
+   *
+   * @param latencyNanos time taken by the S3 request, in nanoseconds
+   */
+  @Override
+  public void reportOriginLatency(long latencyNanos) {
+    cache.reportOriginLatency(latencyNanos);
+  }
+
+  /** Stops the writer, drops the updates still queued and closes the cache. */
+  @Override
+  public void close() {
+    writer.shutdownNow();
+    try {
+      if (!writer.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        LOG.debug("Cache write-behind writer did not stop within {}ms", CLOSE_TIMEOUT_MS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    discardQueued(CLOSED_MESSAGE);
+    cache.close();
+  }
+
+  /** Drops the updates still queued and clears the cache. */
+  @Override
+  public void clearCache() {
+    discardQueued("Cache write-behind queue was cleared");
+    cache.clearCache();
+  }
+
+  private void writeLoop() {
+    List<PendingWrite> batch = new ArrayList<>(batchSize);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - 1);
+        recordQueueDepth();
+        write(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      // Closing interrupts the writer, possibly while it waits for a batch to be written
+      Thread.currentThread().interrupt();
+      discard(batch, CLOSED_MESSAGE);
+    }
+  }
+
+  private void write(List<PendingWrite> batch) throws InterruptedException {
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    long timeoutMs = 0;
+    for (PendingWrite write : batch) {
+      entries.put(write.key, write.value);
+      timeoutMs = Math.max(timeoutMs, write.timeoutMs);
+    }
+
+    long startTime = System.nanoTime();
+    Throwable error = null;
+    try {
+      // The writer waits for each batch, so a slow cache fills the queue instead of piling up
+      // requests in flight
+      cache.setAll(entries, timeoutMs).get();
+    } catch (ExecutionException e) {
+      error = e.getCause();
+    } catch (RuntimeException e) {
+      error = e;
+    }
+    telemetry.measure(
+        Metric.builder().name(METRIC_WRITE_LATENCY).build(),
+        (System.nanoTime() - startTime) / 1_000_000.0);
+
+    for (PendingWrite write : batch) {
+      pendingValues.remove(write.key, write.value);
+      if (error == null) {
+        write.result.complete(null);
+      } else {
+        write.result.completeExceptionally(error);
+      }
+    }
+  }
+
+  private void discardQueued(String reason) {
+    List<PendingWrite> queued = new ArrayList<>();
+    queue.drainTo(queued);
+    discard(queued, reason);
+  }
+
+  private void discard(List<PendingWrite> writes, String reason) {
+    for (PendingWrite write : writes) {
+      pendingValues.remove(write.key, write.value);
+      write.result.completeExceptionally(new RejectedExecutionException(reason));
+    }
+    recordQueueDepth();
+  }
+
+  private void recordQueueDepth() {
+    telemetry.measure(Metric.builder().name(METRIC_QUEUE_DEPTH).build(), queue.size());
+  }
+
+  /** An update waiting to be written */
+  private static final class PendingWrite {
+    private final String key;
+    private final byte[] value;
+    private final long timeoutMs;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private PendingWrite(String key, byte[] value, long timeoutMs) {
+      this.key = key;
+      this.value = value;
+      this.timeoutMs = timeoutMs;
+    }
+  }
+}
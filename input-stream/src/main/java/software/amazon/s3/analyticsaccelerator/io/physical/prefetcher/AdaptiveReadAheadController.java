@@ -0,0 +1,263 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.prefetcher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.NonNull;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+
+/**
+ * Sizes the read ahead window of a single object from what the stream observes, instead of a fixed
+ * progression. Three signals drive the window:
+ *
+ * <ul>
+ *   <li>the latency of the GETs and the rate at which the consumer reads; their product is how many
+ *       bytes the consumer goes through while a request is in flight, and is the smallest window
+ *       that keeps a sequential reader from stalling
+ *   <li>whether the misses are sequential, in which case the window doubles
+ *   <li>the share of read ahead bytes that were never read, in which case the window halves
+ * </ul>
+ *
+ * The window stays within the bounds set by the configuration. Reads are recorded without taking a
+ * lock; the window is only recomputed on misses, which are already serialised by the caller.
+ */
+public class AdaptiveReadAheadController {
+  private final long minBytes;
+  private final long maxBytes;
+  private final double maxWasteRatio;
+  private final LongSupplier nanoClock;
+
+  // Recorded on every read, possibly concurrently
+  private final AtomicLong bytesConsumed = new AtomicLong();
+  private final AtomicLong readAheadBytesUsed = new AtomicLong();
+  private volatile Range readAhead;
+
+  // Only accessed under the lock
+  private long windowBytes;
+  private double fetchLatencyNanos = -1;
+  private double consumerBytesPerNano = -1;
+  private double wasteRatio;
+  private long lastMissNanos;
+  private long lastMissStart = -1;
+  private long lastMissEnd = -1;
+
+  // Weight given to a new sample in the moving averages
+  private static final double SMOOTHING = 0.25;
+  // Headroom over the latency-rate product, to absorb latency spikes
+  private static final int LATENCY_HEADROOM = 2;
+
+  /**
+   * Creates a new instance of {@link AdaptiveReadAheadController}.
+   *
+   * @param configuration the PhysicalIO configuration
+   */
+  public AdaptiveReadAheadController(@NonNull PhysicalIOConfiguration configuration) {
+    this(configuration, System::nanoTime);
+  }
+
+  /**
+   * Creates a new instance of {@link AdaptiveReadAheadController} reading time from the given
+   * clock.
+   *
+   * @param configuration the PhysicalIO configuration
+   * @param nanoClock the source of the current time, in nanoseconds
+   */
+  AdaptiveReadAheadController(
+      @NonNull PhysicalIOConfiguration configuration, @NonNull LongSupplier nanoClock) {
+    this.minBytes = configuration.getAdaptiveReadAheadMinBytes();
+    this.maxBytes = configuration.getAdaptiveReadAheadMaxBytes();
+    this.maxWasteRatio = configuration.getAdaptiveReadAheadMaxWasteRatio();
+    this.nanoClock = nanoClock;
+    this.windowBytes = clamp(configuration.getReadAheadBytes());
+    this.lastMissNanos = nanoClock.getAsLong();
+  }
+
+  /**
+   * Records a read by the consumer of the stream.
+   *
+   * @param pos start of the read
+   * @param len length of the read
+   */
+  public void onRead(long pos, long len) {
+    Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
+    Preconditions.checkArgument(0 <= len, "`len` must not be negative");
+
+    if (len == 0) {
+      return;
+    }
+    bytesConsumed.addAndGet(len);
+    Range currentReadAhead = readAhead;
+    if (currentReadAhead != null) {
+      long overlap =
+          Math.min(pos + len - 1, currentReadAhead.getEnd())
+              - Math.max(pos, currentReadAhead.getStart())
+              + 1;
+      if (overlap > 0) {
+        readAheadBytesUsed.addAndGet(overlap);
+      }
+    }
+  }
+
+  /**
+   * Records the completion of a GET.
+   *
+   * @param latencyNanos time from issuing the request to having all of its bytes, in nanoseconds
+   */
+  public synchronized void onFetchCompleted(long latencyNanos) {
+    Preconditions.checkArgument(0 <= latencyNanos, "`latencyNanos` must not be negative");
+
+    fetchLatencyNanos =
+        fetchLatencyNanos < 0 ? latencyNanos : smooth(fetchLatencyNanos, latencyNanos);
+  }
+
+  /**
+   * Updates the window on a miss and returns the number of bytes to fetch from the start of the
+   * miss. The caller is expected to report what it actually fetched ahead of the read through
+   * {@link #onReadAhead(long, long)}.
+   *
+   * @param pos start of the read that missed
+   * @param len length of the read that missed
+   * @return the read ahead window, in bytes
+   */
+  public synchronized long onMiss(long pos, long len) {
+    Preconditions.checkArgument(0 <= pos, "`pos` must not be negative");
+    Preconditions.checkArgument(0 <= len, "`len` must not be negative");
+
+    long now = nanoClock.getAsLong();
+    sampleConsumerRate(now);
+    sampleWaste();
+
+    // The first miss starts from the configured read ahead
+    if (lastMissStart >= 0) {
+      if (wasteRatio > maxWasteRatio) {
+        windowBytes = clamp(windowBytes / 2);
+      } else if (isSequential(pos)) {
+        windowBytes = clamp(Math.max(saturatedDouble(windowBytes), getLatencyTargetBytes()));
+      } else {
+        windowBytes = clamp(Math.max(windowBytes / 2, getLatencyTargetBytes()));
+      }
+    }
+
+    lastMissNanos = now;
+    lastMissStart = pos;
+    lastMissEnd = pos + Math.max(len, 1) - 1;
+    readAhead = null;
+    return windowBytes;
+  }
+
+  /**
+   * Records the bytes fetched ahead of a read, that is beyond the bytes the read asked for.
+   *
+   * @param start first byte fetched ahead
+   * @param end last byte fetched ahead
+   */
+  public synchronized void onReadAhead(long start, long end) {
+    Preconditions.checkArgument(0 <= start, "`start` must not be negative");
+
+    if (end >= start) {
+      readAheadBytesUsed.set(0);
+      readAhead = new Range(start, end);
+    }
+  }
+
+  /**
+   * Returns the current read ahead window.
+   *
+   * @return the window, in bytes
+   */
+  public synchronized long getWindowBytes() {
+    return windowBytes;
+  }
+
+  /**
+   * Returns the moving average of the share of read ahead bytes that were never read.
+   *
+   * @return a ratio between 0 and 1
+   */
+  public synchronized double getWasteRatio() {
+    return wasteRatio;
+  }
+
+  /**
+   * Returns the moving average of the rate at which the consumer reads.
+   *
+   * @return the read rate, in bytes per second
+   */
+  public synchronized double getConsumerBytesPerSecond() {
+    return Math.max(consumerBytesPerNano, 0) * TimeUnit.SECONDS.toNanos(1);
+  }
+
+  /**
+   * Returns the moving average of the GET latency.
+   *
+   * @return the latency, in nanoseconds
+   */
+  public synchronized double getFetchLatencyNanos() {
+    return Math.max(fetchLatencyNanos, 0);
+  }
+
+  private void sampleConsumerRate(long now) {
+    long elapsed = now - lastMissNanos;
+    long consumed = bytesConsumed.getAndSet(0);
+    if (elapsed <= 0 || consumed == 0) {
+      return;
+    }
+    double rate = (double) consumed / elapsed;
+    consumerBytesPerNano = consumerBytesPerNano < 0 ? rate : smooth(consumerBytesPerNano, rate);
+  }
+
+  private void sampleWaste() {
+    Range currentReadAhead = readAhead;
+    if (currentReadAhead == null) {
+      return;
+    }
+    long readAheadBytes = currentReadAhead.getLength();
+    long used = Math.min(readAheadBytesUsed.get(), readAheadBytes);
+    double waste = (double) (readAheadBytes - used) / readAheadBytes;
+    wasteRatio = smooth(wasteRatio, waste);
+  }
+
+  // A miss picking up where the previous one, or its read ahead, ended
+  private boolean isSequential(long pos) {
+    Range currentReadAhead = readAhead;
+    long previousEnd =
+        currentReadAhead == null ? lastMissEnd : Math.max(lastMissEnd, currentReadAhead.getEnd());
+    return pos > lastMissStart && pos <= previousEnd + 1;
+  }
+
+  private long getLatencyTargetBytes() {
+    if (consumerBytesPerNano < 0 || fetchLatencyNanos < 0) {
+      return 0;
+    }
+    return (long) (consumerBytesPerNano * fetchLatencyNanos * LATENCY_HEADROOM);
+  }
+
+  private long clamp(long bytes) {
+    return Math.min(Math.max(bytes, minBytes), maxBytes);
+  }
+
+  private static long saturatedDouble(long bytes) {
+    return bytes > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : bytes * 2;
+  }
+
+  private static double smooth(double average, double sample) {
+    return average + SMOOTHING * (sample - average);
+  }
+}
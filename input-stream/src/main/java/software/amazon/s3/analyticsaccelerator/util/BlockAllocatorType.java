@@ -0,0 +1,50 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Class defining the kinds of memory blocks can hold their data in. */
+public enum BlockAllocatorType {
+  HEAP("heap"),
+  DIRECT_POOLED("direct_pooled");
+
+  private final String name;
+
+  private static final Logger LOG = LoggerFactory.getLogger(BlockAllocatorType.class);
+
+  BlockAllocatorType(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Converts user supplied configuration to enum. Defaults to HEAP if user input is not recognised.
+   *
+   * @param allocatorType user supplied allocator type
+   * @return BlockAllocatorType enum to use
+   */
+  public static BlockAllocatorType fromString(String allocatorType) {
+    for (BlockAllocatorType value : values()) {
+      if (value.name.equalsIgnoreCase(allocatorType)) {
+        return value;
+      }
+    }
+    LOG.debug("Unknown block allocator type {}, using default heap allocator.", allocatorType);
+
+    return HEAP;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Class defining how values are compressed before they are stored in the Valkey cache. */
+public enum CacheCompression {
+  NONE("none", (byte) 0),
+  DEFLATE("deflate", (byte) 1);
+
+  private final String name;
+  private final byte id;
+
+  private static final Logger LOG = LoggerFactory.getLogger(CacheCompression.class);
+
+  CacheCompression(String name, byte id) {
+    this.name = name;
+    this.id = id;
+  }
+
+  /**
+   * Returns the identifier of the codec written in the header of cache entries.
+   *
+   * @return the codec identifier
+   */
+  public byte getId() {
+    return id;
+  }
+
+  /**
+   * Returns the codec written in the header of a cache entry.
+   *
+   * @param id the codec identifier
+   * @return CacheCompression enum the identifier stands for, or null if it is unknown
+   */
+  public static CacheCompression fromId(byte id) {
+    for (CacheCompression value : values()) {
+      if (value.id == id) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Converts user supplied configuration to enum. Defaults to NONE if user input is not recognised.
+   *
+   * @param cacheCompression user supplied cache compression
+   * @return CacheCompression enum to use
+   */
+  public static CacheCompression fromString(String cacheCompression) {
+    for (CacheCompression value : values()) {
+      if (value.name.equalsIgnoreCase(cacheCompression)) {
+        return value;
+      }
+    }
+    LOG.debug("Unknown cache compression {}, storing values uncompressed.", cacheCompression);
+
+    return NONE;
+  }
+}
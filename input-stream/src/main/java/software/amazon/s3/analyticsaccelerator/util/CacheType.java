@@ -0,0 +1,52 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Class defining the kinds of cache tail metadata can be cached in. */
+public enum CacheType {
+  VALKEY("valkey"),
+  DISK("disk"),
+  MEMORY("memory");
+
+  private final String name;
+
+  private static final Logger LOG = LoggerFactory.getLogger(CacheType.class);
+
+  CacheType(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Converts user supplied configuration to enum. Defaults to VALKEY if user input is not
+   * recognised.
+   *
+   * @param cacheType user supplied cache type
+   * @return CacheType enum to use
+   */
+  public static CacheType fromString(String cacheType) {
+    for (CacheType value : values()) {
+      if (value.name.equalsIgnoreCase(cacheType)) {
+        return value;
+      }
+    }
+    LOG.debug("Unknown cache type {}, using default Valkey cache.", cacheType);
+
+    return VALKEY;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+
+/**
+ * Creates named threads, so that pool threads are easy to identify in thread dumps. Threads are
+ * numbered in the order they are created, after the prefix.
+ */
+public final class NamedThreadFactory implements ThreadFactory {
+  private final String prefix;
+  private final boolean daemon;
+  private final AtomicInteger counter = new AtomicInteger();
+
+  /**
+   * Creates a new instance of {@link NamedThreadFactory} creating daemon threads, so that the pool
+   * never keeps the JVM alive.
+   *
+   * @param prefix prefix of the thread names
+   */
+  public NamedThreadFactory(@NonNull String prefix) {
+    this(prefix, true);
+  }
+
+  /**
+   * Creates a new instance of {@link NamedThreadFactory}.
+   *
+   * @param prefix prefix of the thread names
+   * @param daemon whether the threads are daemon threads
+   */
+  public NamedThreadFactory(@NonNull String prefix, boolean daemon) {
+    this.prefix = prefix;
+    this.daemon = daemon;
+  }
+
+  @Override
+  public Thread newThread(@NonNull Runnable runnable) {
+    Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+    thread.setDaemon(daemon);
+    return thread;
+  }
+}
@@ -38,7 +38,8 @@ public enum StreamAttributes {
   RANGE_LENGTH("range.length"),
   STREAM_RELATIVE_TS("stream.relative_ts"),
   LOGICAL_IO_REL_TIMESTAMP("logicalio.ts"),
-  PHYSICAL_IO_REL_TIMESTAMP("physicalio.ts");
+  PHYSICAL_IO_REL_TIMESTAMP("physicalio.ts"),
+  COALESCED_REQUESTS("requests.coalesced");
   private final String name;
 
   /**
@@ -202,4 +203,14 @@ public enum StreamAttributes {
   public static Attribute rangeLength(long ts) {
     return Attribute.of(StreamAttributes.RANGE_LENGTH.getName(), ts);
   }
+
+  /**
+   * Creates an {@link Attribute} for the number of in-flight requests a read attached to.
+   *
+   * @param coalescedRequests the number of in-flight requests the read attached to.
+   * @return The new instance of the {@link Attribute}.
+   */
+  public static Attribute coalescedRequests(long coalescedRequests) {
+    return Attribute.of(StreamAttributes.COALESCED_REQUESTS.getName(), coalescedRequests);
+  }
 }
@@ -0,0 +1,321 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.common.Preconditions;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.BlockAllocator;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+
+/**
+ * A bounded pool of threads that drains the {@link InputStream}s returned by GET requests into
+ * memory. A single instance is meant to be shared by all streams created by a factory. Read
+ * timeouts are enforced by one scheduler thread that cancels stuck drains, instead of dedicating a
+ * watcher thread to every read.
+ */
+public class StreamDrainExecutor implements Closeable {
+  private final ThreadPoolExecutor drainPool;
+  private final ScheduledThreadPoolExecutor timeoutScheduler;
+  private final Telemetry telemetry;
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+  private static final String METRIC_QUEUE_DEPTH = "stream.drain.queue.depth";
+  private static final String METRIC_ACTIVE_THREADS = "stream.drain.active.threads";
+  private static final Logger LOG = LoggerFactory.getLogger(StreamDrainExecutor.class);
+
+  /**
+   * Creates a new instance of {@link StreamDrainExecutor}.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report pool utilisation to
+   * @param poolSize maximum number of streams drained concurrently
+   * @param threadNamePrefix prefix of the names given to the pool threads
+   * @param daemon whether the pool threads are daemon threads
+   */
+  public StreamDrainExecutor(
+      @NonNull Telemetry telemetry,
+      int poolSize,
+      @NonNull String threadNamePrefix,
+      boolean daemon) {
+    Preconditions.checkArgument(poolSize > 0, "`poolSize` must be positive; was: %s", poolSize);
+
+    this.telemetry = telemetry;
+    this.drainPool =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamedThreadFactory(threadNamePrefix, daemon));
+    this.drainPool.allowCoreThreadTimeOut(true);
+    this.timeoutScheduler =
+        new ScheduledThreadPoolExecutor(
+            1, new NamedThreadFactory(threadNamePrefix + "-timeout", daemon));
+    this.timeoutScheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Creates a new instance of {@link StreamDrainExecutor} sized according to the configuration.
+   *
+   * @param telemetry an instance of {@link Telemetry} to report pool utilisation to
+   * @param configuration the PhysicalIO configuration
+   */
+  public StreamDrainExecutor(
+      @NonNull Telemetry telemetry, @NonNull PhysicalIOConfiguration configuration) {
+    this(
+        telemetry,
+        configuration.getDrainThreadPoolSize(),
+        configuration.getDrainThreadNamePrefix(),
+        configuration.isDrainThreadDaemon());
+  }
+
+  /**
+   * Returns a process-wide instance with the default configuration. It is used by callers that were
+   * not handed an executor explicitly, and is never closed.
+   *
+   * @return the shared default {@link StreamDrainExecutor}
+   */
+  public static StreamDrainExecutor getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  /**
+   * Asynchronously reads the whole stream of the object content into a byte array. The stream is
+   * always closed once the read finishes. If the read does not finish within the timeout, the
+   * returned future completes with a {@link TimeoutException} and the read is cancelled.
+   *
+   * @param objectContent the part of the object
+   * @param objectKey container for S3 object to read
+   * @param range range of the S3 object to read
+   * @param timeoutMs read timeout in milliseconds, measured from when the read starts
+   * @return a future holding the bytes read
+   */
+  public CompletableFuture<byte[]> drain(
+      @NonNull ObjectContent objectContent,
+      @NonNull ObjectKey objectKey,
+      @NonNull Range range,
+      long timeoutMs) {
+    return submit(
+        objectContent,
+        objectKey,
+        range,
+        timeoutMs,
+        inStream -> StreamUtils.readFully(inStream, objectKey, range),
+        data -> {});
+  }
+
+  /**
+   * Asynchronously reads the whole stream of the object content into a buffer obtained from the
+   * allocator. Behaves like {@link #drain(ObjectContent, ObjectKey, Range, long)}; a buffer filled
+   * by a read that lost the race against its timeout is handed back to the allocator.
+   *
+   * @param objectContent the part of the object
+   * @param objectKey container for S3 object to read
+   * @param range range of the S3 object to read
+   * @param timeoutMs read timeout in milliseconds, measured from when the read starts
+   * @param allocator the allocator to obtain the destination buffer from
+   * @return a future holding the bytes read
+   */
+  public CompletableFuture<ByteBuffer> drain(
+      @NonNull ObjectContent objectContent,
+      @NonNull ObjectKey objectKey,
+      @NonNull Range range,
+      long timeoutMs,
+      @NonNull BlockAllocator allocator) {
+    return submit(
+        objectContent,
+        objectKey,
+        range,
+        timeoutMs,
+        inStream -> StreamUtils.readFully(inStream, objectKey, range, allocator),
+        allocator::release);
+  }
+
+  private <T> CompletableFuture<T> submit(
+      ObjectContent objectContent,
+      ObjectKey objectKey,
+      Range range,
+      long timeoutMs,
+      StreamReader<T> reader,
+      Consumer<T> discard) {
+    Preconditions.checkArgument(timeoutMs > 0, "`timeoutMs` must be positive; was: %s", timeoutMs);
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    DrainTask<T> task =
+        new DrainTask<>(
+            objectContent.getStream(), objectKey, range, timeoutMs, reader, discard, result);
+    try {
+      drainPool.execute(task);
+    } catch (RejectedExecutionException e) {
+      closeQuietly(objectContent.getStream());
+      result.completeExceptionally(new IOException("Stream drain executor is closed", e));
+    }
+    recordUtilisation();
+
+    return result;
+  }
+
+  /**
+   * Returns the number of drains waiting for a free thread.
+   *
+   * @return the queue depth of the pool
+   */
+  public int getQueueDepth() {
+    return drainPool.getQueue().size();
+  }
+
+  /**
+   * Returns the approximate number of threads actively draining streams.
+   *
+   * @return the number of active threads
+   */
+  public int getActiveThreadCount() {
+    return drainPool.getActiveCount();
+  }
+
+  /** Stops accepting new drains and cancels the ones in flight. */
+  @Override
+  public void close() {
+    drainPool.shutdownNow();
+    timeoutScheduler.shutdownNow();
+  }
+
+  private void recordUtilisation() {
+    telemetry.measure(Metric.builder().name(METRIC_QUEUE_DEPTH).build(), getQueueDepth());
+    telemetry.measure(Metric.builder().name(METRIC_ACTIVE_THREADS).build(), getActiveThreadCount());
+  }
+
+  private static void closeQuietly(InputStream inputStream) {
+    try {
+      inputStream.close();
+    } catch (IOException e) {
+      LOG.debug("Failed to close InputStream", e);
+    }
+  }
+
+  /** Reads a stream into some in-memory representation. */
+  @FunctionalInterface
+  private interface StreamReader<T> {
+    T read(InputStream inStream) throws IOException;
+  }
+
+  /** A single drain. Coordinates with its timeout so that only the first outcome wins. */
+  private final class DrainTask<T> implements Runnable {
+    private final InputStream inStream;
+    private final ObjectKey objectKey;
+    private final Range range;
+    private final long timeoutMs;
+    private final StreamReader<T> reader;
+    private final Consumer<T> discard;
+    private final CompletableFuture<T> result;
+    private Thread worker;
+    private boolean done;
+
+    private DrainTask(
+        InputStream inStream,
+        ObjectKey objectKey,
+        Range range,
+        long timeoutMs,
+        StreamReader<T> reader,
+        Consumer<T> discard,
+        CompletableFuture<T> result) {
+      this.inStream = inStream;
+      this.objectKey = objectKey;
+      this.range = range;
+      this.timeoutMs = timeoutMs;
+      this.reader = reader;
+      this.discard = discard;
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        this.worker = Thread.currentThread();
+      }
+
+      ScheduledFuture<?> timeout = null;
+      try {
+        timeout = timeoutScheduler.schedule(this::onTimeout, timeoutMs, TimeUnit.MILLISECONDS);
+        T data = reader.read(inStream);
+        if (!result.complete(data)) {
+          discard.accept(data);
+        }
+      } catch (Throwable t) {
+        result.completeExceptionally(new IOException("Error reading stream", t));
+      } finally {
+        if (timeout != null) {
+          timeout.cancel(false);
+        }
+        synchronized (this) {
+          this.done = true;
+          // Swallow an interrupt raised by a timeout that raced with completion, so that it does
+          // not leak into the next drain executed by this thread
+          Thread.interrupted();
+        }
+        closeQuietly(inStream);
+        recordUtilisation();
+      }
+    }
+
+    private void onTimeout() {
+      if (!result.completeExceptionally(new TimeoutException("Read operation timed out"))) {
+        return;
+      }
+
+      LOG.debug(
+          "Reading from InputStream has timed out for Block s3URI={}, etag={}, start={}, end={}",
+          objectKey.s3URI,
+          objectKey.etag,
+          range.getStart(),
+          range.getEnd());
+
+      synchronized (this) {
+        if (!done) {
+          worker.interrupt();
+        }
+      }
+      // Blocking network reads do not always respond to interrupts, closing the stream unblocks
+      // them
+      closeQuietly(inStream);
+    }
+  }
+
+  /** Lazily initialises the shared default instance. */
+  private static final class DefaultHolder {
+    private static final StreamDrainExecutor INSTANCE =
+        new StreamDrainExecutor(Telemetry.NOOP, PhysicalIOConfiguration.DEFAULT);
+  }
+}
@@ -20,9 +20,13 @@ import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_KB;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.s3.analyticsaccelerator.io.physical.BlockAllocator;
 import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 
@@ -30,10 +34,15 @@ import software.amazon.s3.analyticsaccelerator.request.Range;
 public class StreamUtils {
 
   private static final int BUFFER_SIZE = 8 * ONE_KB;
+  // Some VMs reserve header words in an array, so stay clear of Integer.MAX_VALUE
+  private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+  private static final ThreadLocal<byte[]> SCRATCH_BUFFER =
+      ThreadLocal.withInitial(() -> new byte[8 * BUFFER_SIZE]);
   private static final Logger LOG = LoggerFactory.getLogger(StreamUtils.class);
 
   /**
-   * Convert an InputStream from the underlying object to a byte array.
+   * Convert an InputStream from the underlying object to a byte array. The stream is drained on the
+   * shared default {@link StreamDrainExecutor}.
    *
    * @param objectContent the part of the object
    * @param objectKey container for S3 object to read
@@ -44,56 +53,205 @@ public class StreamUtils {
   public static byte[] toByteArray(
       ObjectContent objectContent, ObjectKey objectKey, Range range, long timeoutMs)
       throws IOException, TimeoutException {
-    InputStream inStream = objectContent.getStream();
-    ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-    byte[] buffer = new byte[BUFFER_SIZE];
+    return toByteArray(
+        StreamDrainExecutor.getDefault(), objectContent, objectKey, range, timeoutMs);
+  }
+
+  /**
+   * Convert an InputStream from the underlying object to a byte array, draining it on the given
+   * {@link StreamDrainExecutor}.
+   *
+   * @param drainExecutor the executor to drain the stream on
+   * @param objectContent the part of the object
+   * @param objectKey container for S3 object to read
+   * @param range range of the S3 object to read
+   * @param timeoutMs read timeout in milliseconds
+   * @return a byte array
+   */
+  public static byte[] toByteArray(
+      StreamDrainExecutor drainExecutor,
+      ObjectContent objectContent,
+      ObjectKey objectKey,
+      Range range,
+      long timeoutMs)
+      throws IOException, TimeoutException {
+    try {
+      return drainExecutor.drain(objectContent, objectKey, range, timeoutMs).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading stream", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof TimeoutException) {
+        throw (TimeoutException) e.getCause();
+      }
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Error reading stream", e.getCause());
+    }
+  }
+
+  /**
+   * Reads an InputStream until it is exhausted. The stream is not closed. The bytes are read
+   * straight into an array sized to the length of the range, so in the common case the data is
+   * copied exactly once. Streams shorter or longer than the range are still read correctly, at the
+   * cost of an extra copy.
+   *
+   * @param inStream the stream to read
+   * @param objectKey container for S3 object to read
+   * @param range range of the S3 object the stream holds
+   * @return a byte array
+   * @throws IOException if an I/O error occurs
+   */
+  public static byte[] readFully(InputStream inStream, ObjectKey objectKey, Range range)
+      throws IOException {
+    LOG.debug(
+        "Starting to read from InputStream for Block s3URI={}, etag={}, start={}, end={}",
+        objectKey.s3URI,
+        objectKey.etag,
+        range.getStart(),
+        range.getEnd());
+
+    byte[] data = readIntoSizedArray(inStream, range.getLength());
+
+    LOG.debug(
+        "Successfully read from InputStream for Block numBytesRead={}, s3URI={}, etag={}, start={}, end={}",
+        data.length,
+        objectKey.s3URI,
+        objectKey.etag,
+        range.getStart(),
+        range.getEnd());
+
+    return data;
+  }
+
+  /**
+   * Reads an InputStream until it is exhausted into a buffer obtained from the allocator. The
+   * stream is not closed. The returned buffer has its position at 0 and its limit at the number of
+   * bytes read. If reading fails, the buffer is handed back to the allocator.
+   *
+   * @param inStream the stream to read
+   * @param objectKey container for S3 object to read
+   * @param range range of the S3 object the stream holds
+   * @param allocator the allocator to obtain the destination buffer from
+   * @return a buffer holding the bytes read
+   * @throws IOException if an I/O error occurs
+   */
+  public static ByteBuffer readFully(
+      InputStream inStream, ObjectKey objectKey, Range range, BlockAllocator allocator)
+      throws IOException {
+    if (range.getLength() > MAX_ARRAY_LENGTH) {
+      return ByteBuffer.wrap(readFully(inStream, objectKey, range));
+    }
 
-    ExecutorService executorService = Executors.newSingleThreadExecutor();
-    Future<Void> future =
-        executorService.submit(
-            () -> {
-              try {
-                int numBytesRead;
-                LOG.debug(
-                    "Starting to read from InputStream for Block s3URI={}, etag={}, start={}, end={}",
-                    objectKey.s3URI,
-                    objectKey.etag,
-                    range.getStart(),
-                    range.getEnd());
-                while ((numBytesRead = inStream.read(buffer, 0, buffer.length)) != -1) {
-                  outStream.write(buffer, 0, numBytesRead);
-                }
-                LOG.debug(
-                    "Successfully read from InputStream for Block numBytesRead={}, s3URI={}, etag={}, start={}, end={}",
-                    numBytesRead,
-                    objectKey.s3URI,
-                    objectKey.etag,
-                    range.getStart(),
-                    range.getEnd());
-                return null;
-              } finally {
-                inStream.close();
-              }
-            });
+    LOG.debug(
+        "Starting to read from InputStream for Block s3URI={}, etag={}, start={}, end={}",
+        objectKey.s3URI,
+        objectKey.etag,
+        range.getStart(),
+        range.getEnd());
 
+    ByteBuffer buffer = allocator.allocate((int) range.getLength());
     try {
-      future.get(timeoutMs, TimeUnit.MILLISECONDS);
-
-    } catch (TimeoutException e) {
-      future.cancel(true);
-      LOG.debug(
-          "Reading from InputStream has timed out for Block s3URI={}, etag={}, start={}, end={}",
-          objectKey.s3URI,
-          objectKey.etag,
-          range.getStart(),
-          range.getEnd());
-      throw new TimeoutException("Read operation timed out");
-    } catch (Exception e) {
-      throw new IOException("Error reading stream", e);
-    } finally {
-      executorService.shutdown();
+      if (buffer.hasArray()) {
+        readIntoHeapBuffer(inStream, buffer);
+      } else {
+        readIntoDirectBuffer(inStream, buffer);
+      }
+    } catch (IOException | RuntimeException e) {
+      allocator.release(buffer);
+      throw e;
+    }
+    buffer.flip();
+
+    // The stream holds more than the range promised; keep reading rather than truncating
+    if (buffer.limit() == range.getLength()) {
+      int nextByte = inStream.read();
+      if (nextByte != -1) {
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream(buffer.limit() + BUFFER_SIZE);
+        while (buffer.hasRemaining()) {
+          outStream.write(buffer.get());
+        }
+        allocator.release(buffer);
+        outStream.write(nextByte);
+        return ByteBuffer.wrap(readRemaining(inStream, outStream));
+      }
     }
 
+    LOG.debug(
+        "Successfully read from InputStream for Block numBytesRead={}, s3URI={}, etag={}, start={}, end={}",
+        buffer.limit(),
+        objectKey.s3URI,
+        objectKey.etag,
+        range.getStart(),
+        range.getEnd());
+
+    return buffer;
+  }
+
+  /** Fills the buffer straight through its backing array. */
+  private static void readIntoHeapBuffer(InputStream inStream, ByteBuffer buffer)
+      throws IOException {
+    byte[] array = buffer.array();
+    int numBytesRead;
+    while (buffer.hasRemaining()
+        && (numBytesRead =
+                inStream.read(
+                    array, buffer.arrayOffset() + buffer.position(), buffer.remaining()))
+            != -1) {
+      buffer.position(buffer.position() + numBytesRead);
+    }
+  }
+
+  /** Fills the buffer through a reusable per-thread scratch array. */
+  private static void readIntoDirectBuffer(InputStream inStream, ByteBuffer buffer)
+      throws IOException {
+    byte[] scratch = SCRATCH_BUFFER.get();
+    int numBytesRead;
+    while (buffer.hasRemaining()
+        && (numBytesRead = inStream.read(scratch, 0, Math.min(scratch.length, buffer.remaining())))
+            != -1) {
+      buffer.put(scratch, 0, numBytesRead);
+    }
+  }
+
+  private static byte[] readIntoSizedArray(InputStream inStream, long expectedLength)
+      throws IOException {
+    if (expectedLength > MAX_ARRAY_LENGTH) {
+      return readRemaining(inStream, new ByteArrayOutputStream());
+    }
+
+    byte[] data = new byte[(int) expectedLength];
+    int offset = 0;
+    int numBytesRead;
+    while (offset < data.length
+        && (numBytesRead = inStream.read(data, offset, data.length - offset)) != -1) {
+      offset += numBytesRead;
+    }
+
+    // The stream ended early, e.g. the range extended past the end of the object
+    if (offset < data.length) {
+      return Arrays.copyOf(data, offset);
+    }
+
+    // The stream holds more than the range promised; keep reading rather than truncating
+    int nextByte = inStream.read();
+    if (nextByte == -1) {
+      return data;
+    }
+    ByteArrayOutputStream outStream = new ByteArrayOutputStream(data.length + BUFFER_SIZE);
+    outStream.write(data, 0, data.length);
+    outStream.write(nextByte);
+    return readRemaining(inStream, outStream);
+  }
+
+  private static byte[] readRemaining(InputStream inStream, ByteArrayOutputStream outStream)
+      throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int numBytesRead;
+    while ((numBytesRead = inStream.read(buffer, 0, buffer.length)) != -1) {
+      outStream.write(buffer, 0, numBytesRead);
+    }
     return outStream.toByteArray();
   }
 }
@@ -22,9 +22,11 @@ import static org.mockito.Mockito.when;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -40,8 +42,12 @@ import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.DefaultLogicalIOImpl;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetLogicalIOImpl;
 import software.amazon.s3.analyticsaccelerator.io.logical.impl.SequentialLogicalIOImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.TieredCacheImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.WriteBehindCacheImpl;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
+import software.amazon.s3.analyticsaccelerator.util.CacheType;
 import software.amazon.s3.analyticsaccelerator.util.InputPolicy;
 import software.amazon.s3.analyticsaccelerator.util.OpenStreamInformation;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
@@ -67,6 +73,61 @@ public class S3SeekableInputStreamFactoryTest {
         s3SeekableInputStreamFactory.getConfiguration());
   }
 
+  @Test
+  void testConstructorWithInMemoryCache() {
+    S3SeekableInputStreamConfiguration configuration =
+        S3SeekableInputStreamConfiguration.builder()
+            .physicalIOConfiguration(
+                PhysicalIOConfiguration.builder()
+                    .enableTailMetadataCaching(true)
+                    .cacheType(CacheType.MEMORY)
+                    .build())
+            .build();
+
+    // No cache endpoint is needed
+    S3SeekableInputStreamFactory s3SeekableInputStreamFactory =
+        new S3SeekableInputStreamFactory(mock(ObjectClient.class), configuration);
+    assertEquals(configuration, s3SeekableInputStreamFactory.getConfiguration());
+    assertDoesNotThrow(s3SeekableInputStreamFactory::close);
+  }
+
+  @Test
+  void testConstructorWithNearCache(@TempDir Path directory) {
+    S3SeekableInputStreamConfiguration configuration =
+        S3SeekableInputStreamConfiguration.builder()
+            .physicalIOConfiguration(
+                PhysicalIOConfiguration.builder()
+                    .enableTailMetadataCaching(true)
+                    .cacheType(CacheType.DISK)
+                    .diskCacheDirectory(directory.toString())
+                    .enableNearCache(true)
+                    .build())
+            .build();
+
+    S3SeekableInputStreamFactory s3SeekableInputStreamFactory =
+        new S3SeekableInputStreamFactory(mock(ObjectClient.class), configuration);
+    assertInstanceOf(TieredCacheImpl.class, s3SeekableInputStreamFactory.getCache());
+    assertDoesNotThrow(s3SeekableInputStreamFactory::close);
+  }
+
+  @Test
+  void testConstructorWithDiskCacheWritesBehind(@TempDir Path directory) {
+    S3SeekableInputStreamConfiguration configuration =
+        S3SeekableInputStreamConfiguration.builder()
+            .physicalIOConfiguration(
+                PhysicalIOConfiguration.builder()
+                    .enableTailMetadataCaching(true)
+                    .cacheType(CacheType.DISK)
+                    .diskCacheDirectory(directory.toString())
+                    .build())
+            .build();
+
+    S3SeekableInputStreamFactory s3SeekableInputStreamFactory =
+        new S3SeekableInputStreamFactory(mock(ObjectClient.class), configuration);
+    assertInstanceOf(WriteBehindCacheImpl.class, s3SeekableInputStreamFactory.getCache());
+    assertDoesNotThrow(s3SeekableInputStreamFactory::close);
+  }
+
   @Test
   void testConstructorThrowsOnNullArgument() {
     assertThrows(
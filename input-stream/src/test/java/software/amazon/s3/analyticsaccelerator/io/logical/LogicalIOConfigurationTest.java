@@ -39,6 +39,9 @@ public class LogicalIOConfigurationTest {
             .prefetchFilePageIndexSize(10)
             .build();
     assertTrue(configuration.isPrefetchPageIndexEnabled());
+    assertFalse(configuration.isParquetFastOpenEnabled());
+    assertFalse(configuration.isSequentialFastOpenEnabled());
+    assertTrue(configuration.isAdaptiveFooterPrefetchEnabled());
     assertEquals(10, configuration.getPrefetchFilePageIndexSize());
   }
 
@@ -72,6 +75,9 @@ public class LogicalIOConfigurationTest {
         "LogicalIO configuration:\n"
             + "\tprefetchFooterEnabled: true\n"
             + "\tprefetchPageIndexEnabled: true\n"
+            + "\tparquetFastOpenEnabled: false\n"
+            + "\tsequentialFastOpenEnabled: false\n"
+            + "\tadaptiveFooterPrefetchEnabled: true\n"
             + "\tprefetchFileMetadataSize: 32768\n"
             + "\tprefetchLargeFileMetadataSize: 1048576\n"
             + "\tprefetchFilePageIndexSize: 10\n"
@@ -18,6 +18,7 @@ package software.amazon.s3.analyticsaccelerator.io.logical.impl;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.mock;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -31,6 +32,7 @@ import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMappers;
 import software.amazon.s3.analyticsaccelerator.io.logical.parquet.ColumnMetadata;
+import software.amazon.s3.analyticsaccelerator.io.logical.parquet.FooterPrefetchSize;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
 public class ParquetColumnPrefetchStoreTest {
@@ -133,4 +135,63 @@ public class ParquetColumnPrefetchStoreTest {
         parquetColumnPrefetchStore.isDictionaryRowGroupPrefetched(S3URI.of("test", "key_3"), 0),
         false);
   }
+
+  @Test
+  void testLearnsFooterPrefetchSizesPerPrefix() {
+    ParquetColumnPrefetchStore parquetColumnPrefetchStore =
+        new ParquetColumnPrefetchStore(LogicalIOConfiguration.DEFAULT);
+    FooterPrefetchSize defaultSize = new FooterPrefetchSize(ONE_MB, 8 * ONE_MB);
+
+    parquetColumnPrefetchStore.recordFooterSize(S3URI.of("test", "table/part-0.parquet"), 500);
+    parquetColumnPrefetchStore.recordFooterSize(S3URI.of("test", "table/part-1.parquet"), 300);
+    parquetColumnPrefetchStore.recordPageIndexSize(S3URI.of("test", "table/part-0.parquet"), 0);
+
+    // Files under the same prefix use the recent lengths seen, a smaller length pulls the learned
+    // one half way down
+    FooterPrefetchSize learnedSize =
+        parquetColumnPrefetchStore.getFooterPrefetchSize(
+            S3URI.of("test", "table/part-2.parquet"), defaultSize);
+    assertEquals(400, learnedSize.getFileMetadataPrefetchSize());
+    assertEquals(0, learnedSize.getPageIndexPrefetchSize());
+
+    // Files under other prefixes or buckets use the defaults
+    assertEquals(
+        defaultSize,
+        parquetColumnPrefetchStore.getFooterPrefetchSize(
+            S3URI.of("test", "other/part-0.parquet"), defaultSize));
+    assertEquals(
+        defaultSize,
+        parquetColumnPrefetchStore.getFooterPrefetchSize(
+            S3URI.of("other", "table/part-0.parquet"), defaultSize));
+  }
+
+  @Test
+  void testLearnedFooterPrefetchSizesAreCappedAndDecay() {
+    ParquetColumnPrefetchStore parquetColumnPrefetchStore =
+        new ParquetColumnPrefetchStore(LogicalIOConfiguration.DEFAULT);
+    FooterPrefetchSize defaultSize = new FooterPrefetchSize(ONE_MB, 8 * ONE_MB);
+    S3URI s3URI = S3URI.of("test", "table/part-0.parquet");
+
+    // An outlier is capped at the sizes prefetched for large files
+    parquetColumnPrefetchStore.recordFooterSize(s3URI, 100 * ONE_MB);
+    parquetColumnPrefetchStore.recordPageIndexSize(s3URI, 100 * ONE_MB);
+    FooterPrefetchSize learnedSize =
+        parquetColumnPrefetchStore.getFooterPrefetchSize(s3URI, defaultSize);
+    assertEquals(
+        LogicalIOConfiguration.DEFAULT.getPrefetchLargeFileMetadataSize(),
+        learnedSize.getFileMetadataPrefetchSize());
+    assertEquals(
+        LogicalIOConfiguration.DEFAULT.getPrefetchLargeFilePageIndexSize(),
+        learnedSize.getPageIndexPrefetchSize());
+
+    // And stops inflating the prefetches once smaller footers are seen
+    for (int i = 0; i < 30; i++) {
+      parquetColumnPrefetchStore.recordFooterSize(s3URI, 500);
+    }
+    assertEquals(
+        500,
+        parquetColumnPrefetchStore
+            .getFooterPrefetchSize(s3URI, defaultSize)
+            .getFileMetadataPrefetchSize());
+  }
 }
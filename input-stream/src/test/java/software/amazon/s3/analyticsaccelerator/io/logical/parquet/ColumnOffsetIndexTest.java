@@ -0,0 +1,107 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class ColumnOffsetIndexTest {
+  private static final ColumnMetadata COLUMN_A = column("a", 100, 50);
+  private static final ColumnMetadata COLUMN_B = column("b", 200, 100);
+  private static final ColumnMetadata COLUMN_C = column("c", 500, 300);
+
+  @Test
+  void testFactoriesFailOnNull() {
+    assertThrows(
+        NullPointerException.class, () -> ColumnOffsetIndex.of((List<ColumnMetadata>) null));
+    assertThrows(
+        NullPointerException.class, () -> ColumnOffsetIndex.of((Map<Long, ColumnMetadata>) null));
+  }
+
+  @Test
+  void testGetByStartOffset() {
+    ColumnOffsetIndex index = ColumnOffsetIndex.of(Arrays.asList(COLUMN_C, COLUMN_A, COLUMN_B));
+
+    assertEquals(3, index.size());
+    assertEquals(Arrays.asList(COLUMN_A, COLUMN_B, COLUMN_C), index.getColumns());
+    assertSame(COLUMN_B, index.get(200));
+    assertTrue(index.containsOffset(500));
+    assertNull(index.get(201));
+    assertFalse(index.containsOffset(0));
+  }
+
+  @Test
+  void testGetContaining() {
+    ColumnOffsetIndex index = ColumnOffsetIndex.of(Arrays.asList(COLUMN_A, COLUMN_B, COLUMN_C));
+
+    // A chunk extends up to the start of the next one, even past its compressed size
+    assertSame(COLUMN_A, index.getContaining(101));
+    assertSame(COLUMN_A, index.getContaining(199));
+    assertSame(COLUMN_B, index.getContaining(450));
+    // The last chunk extends up to the end of its compressed data
+    assertSame(COLUMN_C, index.getContaining(799));
+    assertNull(index.getContaining(800));
+    // Positions before the first chunk, and chunk starts, are not contained in any chunk
+    assertNull(index.getContaining(50));
+    assertNull(index.getContaining(200));
+  }
+
+  @Test
+  void testLastColumnWinsForSameOffset() {
+    ColumnMetadata otherColumnA = column("other_a", 100, 10);
+    ColumnOffsetIndex index = ColumnOffsetIndex.of(Arrays.asList(COLUMN_A, COLUMN_B, otherColumnA));
+
+    assertEquals(2, index.size());
+    assertSame(otherColumnA, index.get(100));
+  }
+
+  @Test
+  void testOfMap() {
+    Map<Long, ColumnMetadata> offsetToColumnMap = new HashMap<>();
+    offsetToColumnMap.put(500L, COLUMN_C);
+    offsetToColumnMap.put(100L, COLUMN_A);
+
+    ColumnOffsetIndex index = ColumnOffsetIndex.of(offsetToColumnMap);
+
+    assertEquals(Arrays.asList(COLUMN_A, COLUMN_C), index.getColumns());
+    assertSame(COLUMN_A, index.getContaining(300));
+  }
+
+  @Test
+  void testEmpty() {
+    assertTrue(ColumnOffsetIndex.EMPTY.isEmpty());
+    assertNull(ColumnOffsetIndex.EMPTY.get(0));
+    assertNull(ColumnOffsetIndex.EMPTY.getContaining(10));
+  }
+
+  private static ColumnMetadata column(String name, long startPos, long compressedSize) {
+    return new ColumnMetadata(0, name, startPos, 0, startPos, compressedSize, 0);
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.logical.parquet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.CompressionCodec;
+import org.apache.parquet.format.Encoding;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.KeyValue;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.Statistics;
+import org.apache.parquet.format.Type;
+import org.apache.parquet.format.Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class ParquetFooterDecoderTest {
+
+  @Test
+  void testDecodeFailsOnNull() {
+    assertThrows(NullPointerException.class, () -> ParquetFooterDecoder.decode(null));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "src/test/resources/call_center.parquet",
+        "src/test/resources/nested_data.parquet",
+        "src/test/resources/multi_row_group.parquet",
+        "src/test/resources/nested_data_mrg.parquet"
+      })
+  void testDecodesLikeThrift(String parquetFilePath) throws IOException {
+    // Given: the file metadata of a Parquet file
+    byte[] file = Files.readAllBytes(Paths.get(parquetFilePath));
+    int fileMetadataLength =
+        ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).getInt(file.length - 8);
+    int fileMetadataIndex = file.length - 8 - fileMetadataLength;
+
+    // When: it is decoded by both thrift and the decoder
+    FileMetaData expected =
+        Util.readFileMetaData(
+            new ByteArrayInputStream(file, fileMetadataIndex, fileMetadataLength));
+    ByteBuffer fileMetadata = ByteBuffer.wrap(file, fileMetadataIndex, fileMetadataLength);
+    FileMetaData actual = ParquetFooterDecoder.decode(fileMetadata);
+
+    // Then: the fields used by the prefetcher match, and the buffer is left untouched
+    assertColumnChunksEqual(expected, actual);
+    assertEquals(fileMetadataIndex, fileMetadata.position());
+  }
+
+  @Test
+  void testSkipsUnusedFields() throws IOException {
+    // Given: file metadata with statistics, key/value metadata and page indexes
+    FileMetaData expected = syntheticFileMetaData(3, 4);
+
+    // When: it is decoded
+    FileMetaData actual = ParquetFooterDecoder.decode(ByteBuffer.wrap(serialize(expected)));
+
+    // Then: only the fields used by the prefetcher are set
+    assertColumnChunksEqual(expected, actual);
+    assertFalse(actual.isSetSchema());
+    assertFalse(actual.isSetKey_value_metadata());
+    ColumnChunk columnChunk = actual.getRow_groups().get(0).getColumns().get(0);
+    assertFalse(columnChunk.getMeta_data().isSetStatistics());
+    assertFalse(columnChunk.getMeta_data().isSetEncodings());
+  }
+
+  @Test
+  void testDecodesFromReadOnlyBuffer() throws IOException {
+    FileMetaData expected = syntheticFileMetaData(1, 2);
+    ByteBuffer fileMetadata = ByteBuffer.wrap(serialize(expected)).asReadOnlyBuffer();
+
+    assertColumnChunksEqual(expected, ParquetFooterDecoder.decode(fileMetadata));
+  }
+
+  @Test
+  void testTruncatedFileMetadata() throws IOException {
+    byte[] fileMetadata = serialize(syntheticFileMetaData(2, 2));
+
+    for (int length : new int[] {0, 1, fileMetadata.length / 2, fileMetadata.length - 1}) {
+      assertThrows(
+          IOException.class,
+          () -> ParquetFooterDecoder.decode(ByteBuffer.wrap(fileMetadata, 0, length)));
+    }
+  }
+
+  @Test
+  void testFileMetadataWithoutRowGroups() {
+    // A struct holding only the stop field
+    assertThrows(
+        IOException.class, () -> ParquetFooterDecoder.decode(ByteBuffer.wrap(new byte[1])));
+  }
+
+  private static void assertColumnChunksEqual(FileMetaData expected, FileMetaData actual) {
+    assertEquals(expected.getRow_groups().size(), actual.getRow_groups().size());
+    for (int i = 0; i < expected.getRow_groups().size(); i++) {
+      List<ColumnChunk> expectedChunks = expected.getRow_groups().get(i).getColumns();
+      List<ColumnChunk> actualChunks = actual.getRow_groups().get(i).getColumns();
+      assertEquals(expectedChunks.size(), actualChunks.size());
+
+      for (int j = 0; j < expectedChunks.size(); j++) {
+        ColumnChunk expectedChunk = expectedChunks.get(j);
+        ColumnChunk actualChunk = actualChunks.get(j);
+        assertEquals(expectedChunk.getFile_offset(), actualChunk.getFile_offset());
+        assertEquals(
+            expectedChunk.isSetOffset_index_offset(), actualChunk.isSetOffset_index_offset());
+        assertEquals(expectedChunk.getOffset_index_offset(), actualChunk.getOffset_index_offset());
+        assertEquals(expectedChunk.getOffset_index_length(), actualChunk.getOffset_index_length());
+        assertEquals(
+            expectedChunk.isSetColumn_index_offset(), actualChunk.isSetColumn_index_offset());
+        assertEquals(expectedChunk.getColumn_index_offset(), actualChunk.getColumn_index_offset());
+        assertEquals(expectedChunk.getColumn_index_length(), actualChunk.getColumn_index_length());
+
+        ColumnMetaData expectedMetaData = expectedChunk.getMeta_data();
+        ColumnMetaData actualMetaData = actualChunk.getMeta_data();
+        assertEquals(expectedMetaData.getPath_in_schema(), actualMetaData.getPath_in_schema());
+        assertEquals(
+            expectedMetaData.getTotal_compressed_size(), actualMetaData.getTotal_compressed_size());
+        assertEquals(expectedMetaData.getData_page_offset(), actualMetaData.getData_page_offset());
+        assertEquals(
+            expectedMetaData.getDictionary_page_offset(),
+            actualMetaData.getDictionary_page_offset());
+      }
+    }
+  }
+
+  private static FileMetaData syntheticFileMetaData(int rowGroups, int columns) {
+    List<SchemaElement> schema = new ArrayList<>();
+    schema.add(new SchemaElement("schema").setNum_children(columns));
+    for (int column = 0; column < columns; column++) {
+      schema.add(new SchemaElement("column_" + column).setType(Type.INT64));
+    }
+
+    List<RowGroup> rowGroupList = new ArrayList<>();
+    long offset = 4;
+    for (int rowGroup = 0; rowGroup < rowGroups; rowGroup++) {
+      List<ColumnChunk> columnChunks = new ArrayList<>();
+      for (int column = 0; column < columns; column++) {
+        ColumnMetaData metaData =
+            new ColumnMetaData(
+                Type.INT64,
+                Arrays.asList(Encoding.PLAIN, Encoding.RLE_DICTIONARY),
+                Arrays.asList("struct_" + column, "column_" + column),
+                CompressionCodec.SNAPPY,
+                1000,
+                2000,
+                1000,
+                offset + 100);
+        metaData.setDictionary_page_offset(offset);
+        metaData.setStatistics(
+            new Statistics()
+                .setMin_value("min".getBytes(StandardCharsets.UTF_8))
+                .setMax_value("max".getBytes(StandardCharsets.UTF_8))
+                .setNull_count(0));
+        metaData.setKey_value_metadata(Collections.singletonList(new KeyValue("key")));
+
+        ColumnChunk columnChunk = new ColumnChunk(offset);
+        columnChunk.setMeta_data(metaData);
+        columnChunk.setColumn_index_offset(offset + 10_000_000);
+        columnChunk.setColumn_index_length(50);
+        columnChunk.setOffset_index_offset(offset + 20_000_000);
+        columnChunk.setOffset_index_length(30);
+        columnChunks.add(columnChunk);
+        offset += 1000;
+      }
+      rowGroupList.add(new RowGroup(columnChunks, 1000L * columns, 100));
+    }
+
+    FileMetaData fileMetaData = new FileMetaData(1, schema, 100L * rowGroups, rowGroupList);
+    fileMetaData.setKey_value_metadata(
+        Collections.singletonList(new KeyValue("writer").setValue("test")));
+    fileMetaData.setCreated_by("test");
+    return fileMetaData;
+  }
+
+  private static byte[] serialize(FileMetaData fileMetaData) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    Util.writeFileMetaData(fileMetaData, outputStream);
+    return outputStream.toByteArray();
+  }
+}
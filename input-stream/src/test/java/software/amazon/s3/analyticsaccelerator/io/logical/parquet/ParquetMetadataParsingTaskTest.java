@@ -100,7 +100,7 @@ public class ParquetMetadataParsingTaskTest {
 
     assertEquals(
         fileMetaData.getRow_groups().get(0).getColumns().size(),
-        columnMappers.getOffsetIndexToColumnMap().size());
+        columnMappers.getOffsetIndex().size());
 
     for (ColumnChunk columnChunk : fileMetaData.getRow_groups().get(0).getColumns()) {
       Long key;
@@ -113,14 +113,14 @@ public class ParquetMetadataParsingTaskTest {
         key = columnChunk.getFile_offset();
       }
 
-      assertTrue(columnMappers.getOffsetIndexToColumnMap().containsKey(key));
-      assertEquals(0, columnMappers.getOffsetIndexToColumnMap().get(key).getRowGroupIndex());
+      assertTrue(columnMappers.getOffsetIndex().containsOffset(key));
+      assertEquals(0, columnMappers.getOffsetIndex().get(key).getRowGroupIndex());
       assertEquals(
           String.join(".", columnChunk.getMeta_data().getPath_in_schema()),
-          columnMappers.getOffsetIndexToColumnMap().get(key).getColumnName());
+          columnMappers.getOffsetIndex().get(key).getColumnName());
       assertEquals(
           columnChunk.getMeta_data().getTotal_compressed_size(),
-          columnMappers.getOffsetIndexToColumnMap().get(key).getCompressedSize());
+          columnMappers.getOffsetIndex().get(key).getCompressedSize());
     }
   }
 
@@ -20,17 +20,23 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletionException;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetColumnPrefetchStore;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIO;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
@@ -89,6 +95,53 @@ public class ParquetReadTailTaskTest {
     verify(mockedPhysicalIO).metadata();
   }
 
+  @Test
+  void testTailReadIsRepeatedWhenFooterIsLonger() throws IOException {
+    // Given: read tail task guessing a footer shorter than the actual one
+    PhysicalIO mockedPhysicalIO = mockPhysicalIOWithFooter(10 * ONE_MB, 300);
+    LogicalIOConfiguration configuration =
+        LogicalIOConfiguration.builder().prefetchFileMetadataSize(100).build();
+    ParquetColumnPrefetchStore store = new ParquetColumnPrefetchStore(configuration);
+    ParquetReadTailTask parquetReadTailTask =
+        new ParquetReadTailTask(TEST_URI, Telemetry.NOOP, configuration, mockedPhysicalIO, store);
+
+    // When: file tail is requested
+    FileTail fileTail = parquetReadTailTask.readFileTail();
+
+    // Then: the footer is read again with its exact length, and its length is remembered
+    assertEquals(300, fileTail.getFileTailLength());
+    verify(mockedPhysicalIO).readTail(any(byte[].class), eq(0), eq(100));
+    verify(mockedPhysicalIO).readTail(any(byte[].class), eq(0), eq(300));
+    assertEquals(
+        300,
+        store
+            .getFooterPrefetchSize(TEST_URI, new FooterPrefetchSize(100, 0))
+            .getFileMetadataPrefetchSize());
+  }
+
+  @Test
+  void testTailReadIsNotRepeatedWhenFooterFits() throws IOException {
+    // Given: read tail task guessing a footer longer than the actual one
+    PhysicalIO mockedPhysicalIO = mockPhysicalIOWithFooter(10 * ONE_MB, 50);
+    LogicalIOConfiguration configuration =
+        LogicalIOConfiguration.builder().prefetchFileMetadataSize(100).build();
+    ParquetColumnPrefetchStore store = new ParquetColumnPrefetchStore(configuration);
+    ParquetReadTailTask parquetReadTailTask =
+        new ParquetReadTailTask(TEST_URI, Telemetry.NOOP, configuration, mockedPhysicalIO, store);
+
+    // When: file tail is requested
+    FileTail fileTail = parquetReadTailTask.readFileTail();
+
+    // Then: the tail is read once, and the footer length is remembered for the next file
+    assertEquals(100, fileTail.getFileTailLength());
+    verify(mockedPhysicalIO).readTail(any(byte[].class), anyInt(), anyInt());
+    assertEquals(
+        50,
+        store
+            .getFooterPrefetchSize(S3URI.of("foo", "baz"), new FooterPrefetchSize(100, 0))
+            .getFileMetadataPrefetchSize());
+  }
+
   @Test
   @SneakyThrows
   void testExceptionRemappedToCompletionException() {
@@ -106,4 +159,23 @@ public class ParquetReadTailTaskTest {
     // CompletionException
     assertThrows(CompletionException.class, () -> parquetReadTailTask.readFileTail());
   }
+
+  private static PhysicalIO mockPhysicalIOWithFooter(long contentLength, int footerLength)
+      throws IOException {
+    PhysicalIO mockedPhysicalIO = mock(PhysicalIO.class);
+    when(mockedPhysicalIO.metadata())
+        .thenReturn(ObjectMetadata.builder().etag("random").contentLength(contentLength).build());
+    when(mockedPhysicalIO.readTail(any(), anyInt(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              byte[] buf = invocation.getArgument(0);
+              int len = invocation.getArgument(2);
+              ByteBuffer.wrap(buf, len - 8, 8)
+                  .order(ByteOrder.LITTLE_ENDIAN)
+                  .putInt(footerLength - 8)
+                  .put("PAR1".getBytes(StandardCharsets.US_ASCII));
+              return len;
+            });
+    return mockedPhysicalIO;
+  }
 }
@@ -24,7 +24,9 @@ import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.io.logical.LogicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.logical.impl.ParquetColumnPrefetchStore;
 import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
 public class ParquetUtilsTest {
   @Test
@@ -110,6 +112,42 @@ public class ParquetUtilsTest {
         contentLength - LogicalIOConfiguration.DEFAULT.getPrefetchLargeFileMetadataSize() - 1);
   }
 
+  @Test
+  void testGetFileTailPrefetchRangesWithoutPageIndex() {
+    List<Range> ranges =
+        ParquetUtils.getFileTailPrefetchRanges(
+            LogicalIOConfiguration.DEFAULT, 0, 5 * ONE_MB, new FooterPrefetchSize(300, 0));
+
+    assertEquals(1, ranges.size());
+    assertEquals(5 * ONE_MB - 300, ranges.get(0).getStart());
+    assertEquals(5 * ONE_MB - 1, ranges.get(0).getEnd());
+  }
+
+  @Test
+  void testGetFooterPrefetchSizeUsesLearnedSizes() {
+    S3URI s3URI = S3URI.of("test", "table/part-0.parquet");
+    ParquetColumnPrefetchStore store =
+        new ParquetColumnPrefetchStore(LogicalIOConfiguration.DEFAULT);
+    store.recordFooterSize(s3URI, 300);
+
+    FooterPrefetchSize adaptiveSize =
+        ParquetUtils.getFooterPrefetchSize(LogicalIOConfiguration.DEFAULT, store, s3URI, ONE_GB);
+    FooterPrefetchSize configuredSize =
+        ParquetUtils.getFooterPrefetchSize(
+            LogicalIOConfiguration.builder().adaptiveFooterPrefetchEnabled(false).build(),
+            store,
+            s3URI,
+            ONE_GB);
+
+    assertEquals(300, adaptiveSize.getFileMetadataPrefetchSize());
+    assertEquals(
+        LogicalIOConfiguration.DEFAULT.getPrefetchFilePageIndexSize(),
+        adaptiveSize.getPageIndexPrefetchSize());
+    assertEquals(
+        LogicalIOConfiguration.DEFAULT.getPrefetchFileMetadataSize(),
+        configuredSize.getFileMetadataPrefetchSize());
+  }
+
   @Test
   void testGetFileTailSmallContentLength() {
 
@@ -18,9 +18,13 @@ package software.amazon.s3.analyticsaccelerator.io.physical;
 import static org.junit.jupiter.api.Assertions.*;
 import static software.amazon.s3.analyticsaccelerator.S3SeekableInputStreamConfigurationTest.PHYSICAL_IO_PREFIX;
 
+import java.util.EnumSet;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.S3SeekableInputStreamConfigurationTest;
 import software.amazon.s3.analyticsaccelerator.common.ConnectorConfiguration;
+import software.amazon.s3.analyticsaccelerator.util.CacheCompression;
+import software.amazon.s3.analyticsaccelerator.util.CacheType;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
 
 public class PhysicalIOConfigurationTest {
 
@@ -55,6 +59,100 @@ public class PhysicalIOConfigurationTest {
         physicalIOConfiguration.getBlobStoreCapacity());
   }
 
+  @Test
+  void testDiskCacheRequiresDirectory() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            PhysicalIOConfiguration.builder()
+                .enableTailMetadataCaching(true)
+                .cacheType(CacheType.DISK)
+                .build());
+
+    PhysicalIOConfiguration configuration =
+        PhysicalIOConfiguration.builder()
+            .enableTailMetadataCaching(true)
+            .cacheType(CacheType.DISK)
+            .diskCacheDirectory("/tmp/cache")
+            .build();
+    assertEquals(CacheType.DISK, configuration.getCacheType());
+    assertEquals("/tmp/cache", configuration.getDiskCacheDirectory());
+  }
+
+  @Test
+  void testCacheTimeoutMustBePositive() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().cacheTimeoutMs(0).build());
+    assertEquals(20, PhysicalIOConfiguration.DEFAULT.getCacheTimeoutMs());
+  }
+
+  @Test
+  void testWriteBehindSizesMustBePositive() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().writeBehindQueueCapacity(0).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().writeBehindBatchSize(0).build());
+  }
+
+  @Test
+  void testCacheCompression() {
+    assertEquals(CacheCompression.NONE, PhysicalIOConfiguration.DEFAULT.getCacheCompression());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().cacheCompressionMinBytes(-1).build());
+    assertEquals(CacheCompression.DEFLATE, CacheCompression.fromString("Deflate"));
+    assertEquals(CacheCompression.NONE, CacheCompression.fromString("lz77"));
+  }
+
+  @Test
+  void testCacheCircuitBreakerSettings() {
+    assertTrue(PhysicalIOConfiguration.DEFAULT.isEnableCacheCircuitBreaker());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().cacheCircuitBreakerErrorRate(0).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().cacheCircuitBreakerErrorRate(1.5).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().cacheCircuitBreakerOpenMs(0).build());
+  }
+
+  @Test
+  void testCachedRangeTypes() {
+    assertEquals(
+        EnumSet.of(RangeType.FOOTER_METADATA, RangeType.FOOTER_PAGE_INDEX),
+        PhysicalIOConfiguration.DEFAULT.getCachedRangeTypes());
+    assertEquals(
+        EnumSet.of(RangeType.BLOCK, RangeType.FOOTER_METADATA),
+        PhysicalIOConfiguration.parseRangeTypes(" block, Footer_Metadata,"));
+    assertTrue(PhysicalIOConfiguration.parseRangeTypes("").isEmpty());
+    assertThrows(
+        IllegalArgumentException.class, () -> PhysicalIOConfiguration.parseRangeTypes("footer"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().cacheChunkSizeBytes(0).build());
+  }
+
+  @Test
+  void testCacheAdmissionSettings() {
+    assertTrue(PhysicalIOConfiguration.DEFAULT.isEnableCacheAdmission());
+    assertEquals(
+        EnumSet.of(RangeType.BLOCK), PhysicalIOConfiguration.DEFAULT.getSecondHitRangeTypes());
+    assertTrue(
+        PhysicalIOConfiguration.builder()
+            .secondHitRangeTypes(EnumSet.noneOf(RangeType.class))
+            .build()
+            .getSecondHitRangeTypes()
+            .isEmpty());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PhysicalIOConfiguration.builder().cacheAdmissionMaxEntryBytes(0).build());
+  }
+
   @Test
   void testToString() {
     PhysicalIOConfiguration configuration =
@@ -73,6 +171,23 @@ public class PhysicalIOConfigurationTest {
             + "\tsequentialPrefetchSpeed: 1.0\n"
             + "\tblockReadTimeout: 30000\n"
             + "\tblockReadRetryCount: 20\n"
-            + "\tenableTailMetadataCaching: false\n");
+            + "\tenableTailMetadataCaching: false\n"
+            + "\tenableCacheFlush: false\n"
+            + "\tdrainThreadPoolSize: 64\n"
+            + "\tdrainThreadNamePrefix: s3-aal-stream-drain\n"
+            + "\tdrainThreadDaemon: true\n"
+            + "\tblockAllocatorType: HEAP\n"
+            + "\tminSlabSizeBytes: 65536\n"
+            + "\tmaxSlabSizeBytes: 8388608\n"
+            + "\tslabPoolCapacityBytes: 268435456\n"
+            + "\tmemoryCapacityBytes: 2147483648\n"
+            + "\trangeMergeMaxGapBytes: 131072\n"
+            + "\trangeMergeMaxSizeBytes: 8388608\n"
+            + "\tadaptiveReadAheadEnabled: false\n"
+            + "\tadaptiveReadAheadMinBytes: 16384\n"
+            + "\tadaptiveReadAheadMaxBytes: 67108864\n"
+            + "\tadaptiveReadAheadMaxWasteRatio: 0.5\n"
+            + "\tsequentialPipelineParallelism: 0\n"
+            + "\tsequentialPipelineMaxAheadParts: 8\n");
   }
 }
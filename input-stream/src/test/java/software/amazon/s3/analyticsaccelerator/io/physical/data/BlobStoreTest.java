@@ -99,6 +99,34 @@ public class BlobStoreTest {
     assertEquals(0, blobStore.blobCount(), "Cache should be empty after eviction");
   }
 
+  @Test
+  void testBlobsDroppedByCapacityReleaseTheirMemory() throws IOException {
+    // Given: a BlobStore holding a single blob, with its blocks accounted for
+    MemoryManager memoryManager = new MemoryManager(TestTelemetry.DEFAULT, 1024);
+    BlobStore smallBlobStore =
+        new BlobStore(
+            new FakeObjectClient(TEST_DATA),
+            TestTelemetry.DEFAULT,
+            PhysicalIOConfiguration.builder().blobStoreCapacity(1).build(),
+            null,
+            null,
+            null,
+            null,
+            memoryManager);
+    Blob blob = smallBlobStore.get(objectKey, objectMetadata, mock(StreamContext.class));
+    byte[] b = new byte[TEST_DATA.length()];
+    blob.read(b, 0, b.length, 0);
+    assertEquals(TEST_DATA.length(), memoryManager.getResidentBytes());
+
+    // When: another object pushes the blob out
+    ObjectKey otherKey = ObjectKey.builder().s3URI(S3URI.of("test", "other")).etag(ETAG).build();
+    smallBlobStore.get(otherKey, objectMetadata, mock(StreamContext.class));
+
+    // Then: the blocks of the dropped blob are closed and no longer accounted for
+    assertEquals(1, smallBlobStore.blobCount());
+    assertEquals(0, memoryManager.getResidentBytes());
+  }
+
   @Test
   void testEvictKey_NonExistingKey() {
     // Test
@@ -17,8 +17,14 @@ package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,15 +34,28 @@ import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.s3.analyticsaccelerator.TestTelemetry;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.CacheAdmissionFilter;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.*;
+import software.amazon.s3.analyticsaccelerator.util.CacheType;
+import software.amazon.s3.analyticsaccelerator.util.FakeObjectClient;
 import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
 @SuppressFBWarnings(
@@ -121,6 +140,197 @@ public class BlockManagerTest {
     assertFalse(blockManager.getBlock(64 * ONE_KB).isPresent());
   }
 
+  @Test
+  void testHitsDoNotWaitForPlanning() throws Exception {
+    // Given: a block available from 0
+    BlockManager blockManager = getTestBlockManager(65 * ONE_KB);
+    blockManager.makePositionAvailable(0, ReadMode.SYNC);
+
+    // When: another thread holds the planning lock
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread planner =
+        new Thread(
+            () -> {
+              synchronized (blockManager) {
+                locked.countDown();
+                try {
+                  release.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }
+            });
+    planner.start();
+    locked.await();
+
+    // Then: lookups of available data still complete
+    try {
+      CompletableFuture<Boolean> hit =
+          CompletableFuture.supplyAsync(
+              () -> {
+                try {
+                  blockManager.makeRangeAvailable(0, 100, RangeType.BLOCK, ReadMode.SYNC);
+                  blockManager.makePositionAvailable(10, ReadMode.SYNC);
+                  return blockManager.getBlock(10).isPresent();
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+      assertTrue(hit.get(5, TimeUnit.SECONDS));
+    } finally {
+      release.countDown();
+      planner.join();
+    }
+  }
+
+  @Test
+  void testOverlappingRequestsAttachToInFlightFetch() throws IOException {
+    // Given: a GET that has not completed yet
+    ObjectClient objectClient = mock(ObjectClient.class);
+    CompletableFuture<ObjectContent> pendingGet = new CompletableFuture<>();
+    when(objectClient.getObject(any(), any()))
+        .thenReturn(pendingGet)
+        .thenReturn(new CompletableFuture<>());
+    metadataStore = ObjectMetadata.builder().contentLength(100 * ONE_KB).etag(ETAG).build();
+    BlockManager blockManager =
+        new BlockManager(
+            objectKey,
+            objectClient,
+            metadataStore,
+            TestTelemetry.DEFAULT,
+            PhysicalIOConfiguration.DEFAULT);
+    blockManager.makeRangeAvailable(0, 100, RangeType.BLOCK, ReadMode.ASYNC);
+    assertEquals(0, blockManager.getCoalescedRequestCount());
+
+    // When: a request partly covered by the pending GET comes in
+    blockManager.makeRangeAvailable(60 * ONE_KB, 10 * ONE_KB, RangeType.BLOCK, ReadMode.SYNC);
+
+    // Then: it attaches to the pending GET, and only its missing bytes are fetched
+    verify(objectClient, times(2)).getObject(any(), any());
+    assertEquals(1, blockManager.getCoalescedRequestCount());
+
+    // When: requests served entirely by the pending block come in
+    blockManager.makeRangeAvailable(50, 100, RangeType.BLOCK, ReadMode.SYNC);
+    blockManager.makePositionAvailable(10, ReadMode.SYNC);
+
+    // Then: they are hits, and save no GET
+    verify(objectClient, times(2)).getObject(any(), any());
+    assertEquals(1, blockManager.getCoalescedRequestCount());
+
+    // When: the GET completes
+    pendingGet.complete(
+        ObjectContent.builder().stream(new ByteArrayInputStream(new byte[64 * ONE_KB])).build());
+    blockManager.getBlock(0).get().read(0);
+    blockManager.makePositionAvailable(10, ReadMode.SYNC);
+
+    // Then: later requests are plain hits
+    verify(objectClient, times(2)).getObject(any(), any());
+    assertEquals(1, blockManager.getCoalescedRequestCount());
+  }
+
+  @Test
+  void testMakeRangesAvailableMergesNearbyRanges() throws IOException {
+    // Given: two column chunks separated by a 10KB gap
+    FakeObjectClient objectClient = new FakeObjectClient(generateData(300_000));
+    BlockManager blockManager = getMergingBlockManager(objectClient, 300_000);
+
+    // When: both chunks are prefetched
+    blockManager.makeRangesAvailable(
+        Arrays.asList(new Range(0, 99_999), new Range(110_000, 199_999)), ReadMode.ASYNC);
+
+    // Then: they are fetched with a single request covering the gap
+    List<Range> requestedRanges = new ArrayList<>(objectClient.getRequestedRanges());
+    assertEquals(1, requestedRanges.size());
+    assertEquals(0, requestedRanges.get(0).getStart());
+    assertEquals(199_999, requestedRanges.get(0).getEnd());
+    assertTrue(blockManager.getBlock(105_000).isPresent());
+  }
+
+  @Test
+  void testMakeRangesAvailableKeepsResidentBlocksInGaps() throws IOException {
+    // Given: a small block that has loaded and is not being read
+    FakeObjectClient objectClient = new FakeObjectClient(generateData(300_000));
+    BlockManager blockManager = getMergingBlockManager(objectClient, 300_000);
+    blockManager.makeRangeAvailable(100_000, 10_000, RangeType.BLOCK, ReadMode.SYNC);
+    Block residentBlock = blockManager.getBlock(100_000).get();
+    assertEquals('a' + 100_000 % 26, residentBlock.read(100_000));
+
+    // When: two chunks around the block are prefetched
+    blockManager.makeRangesAvailable(
+        Arrays.asList(new Range(0, 99_999), new Range(110_000, 199_999)), ReadMode.ASYNC);
+
+    // Then: the chunks are fetched separately and the resident block is kept
+    List<Range> requestedRanges = new ArrayList<>(objectClient.getRequestedRanges());
+    assertEquals(3, requestedRanges.size());
+    assertEquals(99_999, requestedRanges.get(1).getEnd());
+    assertEquals(110_000, requestedRanges.get(2).getStart());
+    assertSame(residentBlock, blockManager.getBlock(100_000).get());
+    assertFalse(residentBlock.isClosed());
+  }
+
+  @Test
+  void testAdaptiveReadAheadGrowsForSequentialReads() throws IOException {
+    // Given: adaptive read ahead is enabled
+    FakeObjectClient objectClient = new FakeObjectClient(generateData(4 * ONE_MB));
+    BlockManager blockManager =
+        getFakeBlockManager(
+            objectClient,
+            4 * ONE_MB,
+            PhysicalIOConfiguration.builder()
+                .adaptiveReadAheadEnabled(true)
+                .adaptiveReadAheadMaxBytes(ONE_MB)
+                .build());
+
+    // When: a consumer reads the first window and then misses right after it
+    blockManager.makeRangeAvailable(0, 100, RangeType.BLOCK, ReadMode.SYNC);
+    blockManager.makeRangeAvailable(100, 64 * ONE_KB - 100, RangeType.BLOCK, ReadMode.SYNC);
+    blockManager.makeRangeAvailable(64 * ONE_KB, 100, RangeType.BLOCK, ReadMode.SYNC);
+
+    // Then: the second request reads at least twice as far ahead as the first one
+    List<Range> requestedRanges = new ArrayList<>(objectClient.getRequestedRanges());
+    assertEquals(2, requestedRanges.size());
+    assertEquals(64 * ONE_KB, requestedRanges.get(0).getLength());
+    assertEquals(64 * ONE_KB, requestedRanges.get(1).getStart());
+    assertTrue(requestedRanges.get(1).getLength() >= 128 * ONE_KB);
+  }
+
+  @Test
+  void testSplitRangesAreFetchedThroughPipeline() throws IOException {
+    // Given: GETs that do not complete and a pipeline fetching 2 parts at a time
+    ObjectClient objectClient = mock(ObjectClient.class);
+    when(objectClient.getObject(any(), any())).thenReturn(new CompletableFuture<>());
+    metadataStore = ObjectMetadata.builder().contentLength(8 * ONE_MB).etag(ETAG).build();
+    BlockManager blockManager =
+        new BlockManager(
+            objectKey,
+            objectClient,
+            metadataStore,
+            TestTelemetry.DEFAULT,
+            PhysicalIOConfiguration.builder()
+                .maxRangeSizeBytes(ONE_MB)
+                .partSizeBytes(ONE_MB)
+                .sequentialPipelineParallelism(2)
+                .build());
+
+    // When: an 8MB range is prefetched
+    blockManager.makeRangeAvailable(0, 8 * ONE_MB, RangeType.BLOCK, ReadMode.ASYNC);
+
+    // Then: only the first 2 parts are requested
+    ArgumentCaptor<GetRequest> requestCaptor = ArgumentCaptor.forClass(GetRequest.class);
+    verify(objectClient, times(2)).getObject(requestCaptor.capture(), any());
+    assertEquals(0, requestCaptor.getAllValues().get(0).getRange().getStart());
+    assertEquals(ONE_MB, requestCaptor.getAllValues().get(1).getRange().getStart());
+    assertFalse(blockManager.getBlock(2 * ONE_MB).isPresent());
+
+    // When: the reader needs a part that is still waiting
+    blockManager.makeRangeAvailable(5 * ONE_MB, 100, RangeType.BLOCK, ReadMode.SYNC);
+
+    // Then: it is fetched right away
+    verify(objectClient, times(3)).getObject(any(), any());
+    assertTrue(blockManager.getBlock(5 * ONE_MB).isPresent());
+  }
+
   @Test
   void testMakePositionAvailableRespectsReadAhead() throws IOException {
     // Given
@@ -182,6 +392,19 @@ public class BlockManagerTest {
     assertEquals(1, lastRequest.getRange().getLength());
   }
 
+  @Test
+  void testClosedBlockManagerAddsNoBlocks() throws IOException {
+    // Given: a closed BlockManager
+    BlockManager blockManager = getTestBlockManager(42);
+    blockManager.close();
+
+    // When: a position is requested
+    // Then: it is rejected without adding a block that would never be closed
+    assertTrue(blockManager.isClosed());
+    assertThrows(IOException.class, () -> blockManager.makePositionAvailable(0, ReadMode.SYNC));
+    assertFalse(blockManager.getBlock(0).isPresent());
+  }
+
   @Test
   void testMakeRangeAvailableThrowsExceptionWhenEtagChanges() throws IOException {
     ObjectClient objectClient = mock(ObjectClient.class);
@@ -239,6 +462,166 @@ public class BlockManagerTest {
                             "block should have been available because it was requested before")));
   }
 
+  @Test
+  void testTailMetadataRangesShareCacheRequests() throws IOException {
+    // Given: a cache holding none of the tail ranges
+    int size = 300 * ONE_KB;
+    Cache cache = mock(Cache.class);
+    when(cache.getAll(any(), anyLong()))
+        .thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
+    when(cache.setAll(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    BlockManager blockManager = getCachingBlockManager(size, cache);
+
+    // When: the footer and page index, spanning three cache chunks, are prefetched together
+    blockManager.makeRangesAvailable(
+        Arrays.asList(
+            new Range(260 * ONE_KB, size - 1, RangeType.FOOTER_METADATA),
+            new Range(140 * ONE_KB, 250 * ONE_KB - 1, RangeType.FOOTER_PAGE_INDEX)),
+        ReadMode.ASYNC);
+
+    // Then: all chunks are looked up with one request, and written back with one request
+    verify(cache).getAll(argThat(keys -> keys.size() == 3), anyLong());
+    verify(cache, timeout(1000)).setAll(argThat(entries -> entries.size() == 3), anyLong());
+    verify(cache, never()).get(any(), anyLong());
+    verify(cache, never()).set(any(), any(), anyLong());
+    assertTrue(blockManager.getCacheRoundTripsSaved() >= 1);
+  }
+
+  @Test
+  void testBatchedLookupsAreSentWhenARangeFails() throws IOException {
+    // Given: a cache holding none of the tail ranges, and a lookup of the footer chunk that fails
+    int size = 300 * ONE_KB;
+    Cache cache = mock(Cache.class);
+    when(cache.getAll(any(), anyLong()))
+        .thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
+    when(cache.setAll(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    CacheAdmissionFilter admissionFilter = mock(CacheAdmissionFilter.class);
+    when(admissionFilter.admit(any(), any(), anyInt())).thenReturn(true);
+    doThrow(new IllegalStateException("Lookup failed"))
+        .when(admissionFilter)
+        .recordRequest(CachePolicy.keyOf(objectKey, new Range(256 * ONE_KB, size - 1)));
+    BlockManager blockManager = getCachingBlockManager(size, cache, admissionFilter);
+
+    // When: the page index and the footer are prefetched together, and the footer fails
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            blockManager.makeRangesAvailable(
+                Arrays.asList(
+                    new Range(0, 50 * ONE_KB - 1, RangeType.FOOTER_PAGE_INDEX),
+                    new Range(260 * ONE_KB, size - 1, RangeType.FOOTER_METADATA)),
+                ReadMode.ASYNC));
+
+    // Then: the lookup of the page index block is still sent, and its data loads
+    verify(cache).getAll(argThat(keys -> keys.size() == 1), anyLong());
+    Optional<Block> block = blockManager.getBlock(0);
+    assertTrue(block.isPresent());
+    assertEquals('a', block.get().read(0));
+  }
+
+  @Test
+  void testSingleTailMetadataRangeIsNotBatched() throws IOException {
+    // Given: a cache holding nothing
+    int size = 100 * ONE_KB;
+    Cache cache = mock(Cache.class);
+    when(cache.get(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    when(cache.set(any(), any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    BlockManager blockManager = getCachingBlockManager(size, cache);
+
+    // When: only the footer is prefetched
+    blockManager.makeRangesAvailable(
+        Arrays.asList(new Range(90 * ONE_KB, size - 1, RangeType.FOOTER_METADATA)),
+        ReadMode.ASYNC);
+
+    // Then: it is looked up on its own
+    verify(cache).get(any(), anyLong());
+    verify(cache, never()).getAll(any(), anyLong());
+    assertEquals(0, blockManager.getCacheRoundTripsSaved());
+  }
+
+  @Test
+  void testCachedRangesAreFetchedInWholeChunks() throws IOException {
+    // Given: a cache holding nothing
+    int size = 300 * ONE_KB;
+    Cache cache = mock(Cache.class);
+    when(cache.get(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    when(cache.set(any(), any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    BlockManager blockManager = getCachingBlockManager(size, cache);
+
+    // When: a footer starting in the middle of a chunk is prefetched
+    blockManager.makeRangesAvailable(
+        Arrays.asList(new Range(270 * ONE_KB, size - 1, RangeType.FOOTER_METADATA)),
+        ReadMode.ASYNC);
+
+    // Then: the block starts at the chunk boundary, and the whole chunk is written back
+    Optional<Block> block = blockManager.getBlock(270 * ONE_KB);
+    assertTrue(block.isPresent());
+    assertEquals(256 * ONE_KB, block.get().getStart());
+    assertEquals(size - 1, block.get().getEnd());
+    verify(cache, timeout(1000))
+        .set(
+            eq(CachePolicy.keyOf(objectKey, new Range(256 * ONE_KB, size - 1))),
+            argThat(value -> value.length == 44 * ONE_KB),
+            anyLong());
+  }
+
+  private BlockManager getCachingBlockManager(int size, Cache cache) {
+    return getCachingBlockManager(size, cache, null);
+  }
+
+  private BlockManager getCachingBlockManager(
+      int size, Cache cache, CacheAdmissionFilter admissionFilter) {
+    metadataStore = ObjectMetadata.builder().contentLength(size).etag(ETAG).build();
+    PhysicalIOConfiguration configuration =
+        PhysicalIOConfiguration.builder()
+            .readAheadBytes(ONE_KB)
+            .enableTailMetadataCaching(true)
+            .cacheType(CacheType.MEMORY)
+            .build();
+    return new BlockManager(
+        objectKey,
+        new FakeObjectClient(generateData(size)),
+        metadataStore,
+        TestTelemetry.DEFAULT,
+        configuration,
+        cache,
+        new CachePolicy(configuration, admissionFilter),
+        null,
+        null,
+        null,
+        null);
+  }
+
+  private BlockManager getFakeBlockManager(FakeObjectClient objectClient, int size) {
+    return getFakeBlockManager(
+        objectClient, size, PhysicalIOConfiguration.builder().readAheadBytes(ONE_KB).build());
+  }
+
+  private BlockManager getMergingBlockManager(FakeObjectClient objectClient, int size) {
+    return getFakeBlockManager(
+        objectClient,
+        size,
+        PhysicalIOConfiguration.builder()
+            .readAheadBytes(ONE_KB)
+            .rangeMergeMaxGapBytes(128 * ONE_KB)
+            .build());
+  }
+
+  private BlockManager getFakeBlockManager(
+      FakeObjectClient objectClient, int size, PhysicalIOConfiguration configuration) {
+    metadataStore = ObjectMetadata.builder().contentLength(size).etag(ETAG).build();
+    return new BlockManager(
+        objectKey, objectClient, metadataStore, TestTelemetry.DEFAULT, configuration);
+  }
+
+  private static String generateData(int size) {
+    StringBuilder data = new StringBuilder(size);
+    for (int i = 0; i < size; i++) {
+      data.append((char) ('a' + i % 26));
+    }
+    return data.toString();
+  }
+
   private BlockManager getTestBlockManager(int size) throws IOException {
     return getTestBlockManager(mock(ObjectClient.class), size);
   }
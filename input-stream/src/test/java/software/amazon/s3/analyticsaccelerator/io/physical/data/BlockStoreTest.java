@@ -16,11 +16,14 @@
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -185,6 +188,48 @@ public class BlockStoreTest {
     assertEquals(OptionalLong.of(15), blockStore.findNextLoadedByte(15));
   }
 
+  @Test
+  public void test__blockStore__lookupsIndependentOfInsertionOrder() throws IOException {
+    // Given: BlockStore with blocks (12,15), (2,3), (5,10) added out of order
+    final String X_TIMES_16 = "xxxxxxxxxxxxxxxx";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(X_TIMES_16);
+    int size = X_TIMES_16.getBytes(StandardCharsets.UTF_8).length;
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(size).etag(ETAG).build();
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
+
+    long[][] ranges = {{12, 15}, {2, 3}, {5, 10}};
+    for (long[] range : ranges) {
+      blockStore.add(
+          new Block(
+              objectKey,
+              fakeObjectClient,
+              TestTelemetry.DEFAULT,
+              range[0],
+              range[1],
+              0,
+              ReadMode.SYNC,
+              DEFAULT_READ_TIMEOUT,
+              DEFAULT_READ_RETRY_COUNT));
+    }
+
+    // When & Then: point lookups resolve to the right block, including block boundaries
+    assertFalse(blockStore.getBlock(0).isPresent());
+    assertEquals(2, blockStore.getBlock(2).get().getStart());
+    assertEquals(2, blockStore.getBlock(3).get().getStart());
+    assertFalse(blockStore.getBlock(4).isPresent());
+    assertEquals(5, blockStore.getBlock(5).get().getStart());
+    assertEquals(5, blockStore.getBlock(10).get().getStart());
+    assertFalse(blockStore.getBlock(11).isPresent());
+    assertEquals(12, blockStore.getBlock(15).get().getStart());
+
+    // And: "next" queries skip over gaps in either direction
+    assertEquals(OptionalLong.of(2), blockStore.findNextLoadedByte(0));
+    assertEquals(OptionalLong.of(5), blockStore.findNextLoadedByte(4));
+    assertEquals(OptionalLong.of(11), blockStore.findNextMissingByte(5));
+    assertEquals(OptionalLong.empty(), blockStore.findNextMissingByte(12));
+  }
+
   @Test
   public void test__blockStore__closesBlocks() {
     // Given: BlockStore with a block
@@ -219,4 +264,91 @@ public class BlockStoreTest {
     // Then: 1\ blockStore.close did not throw, 2\ b2 was closed
     verify(b2, times(1)).close();
   }
+
+  @Test
+  public void test__blockStore__accountsBlocksWithMemoryManager() {
+    // Given: BlockStore backed by a memory manager
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
+    MemoryManager memoryManager = mock(MemoryManager.class);
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore, memoryManager);
+    Block block = mock(Block.class);
+
+    // When: a block is added and the store is closed
+    blockStore.add(block);
+    blockStore.close();
+
+    // Then: the block is registered, then unregistered and closed
+    verify(memoryManager, times(1)).register(block, blockStore);
+    verify(memoryManager, times(1)).unregister(block);
+    verify(block, times(1)).close();
+  }
+
+  @Test
+  public void test__blockStore__removeOnlyRemovesHeldBlock() {
+    // Given: BlockStore with a block
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
+    Block block = mock(Block.class);
+    when(block.getStart()).thenReturn(0L);
+    when(block.contains(anyLong())).thenReturn(true);
+    blockStore.add(block);
+
+    // When: another block with the same start is removed
+    Block other = mock(Block.class);
+    when(other.getStart()).thenReturn(0L);
+
+    // Then: only the held block is removed
+    assertFalse(blockStore.remove(other));
+    assertTrue(blockStore.getBlock(0).isPresent());
+    assertTrue(blockStore.remove(block));
+    assertFalse(blockStore.getBlock(0).isPresent());
+  }
+
+  @Test
+  public void test__blockStore__addClosesReplacedBlock() {
+    // Given: BlockStore backed by a memory manager, holding a block
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
+    MemoryManager memoryManager = mock(MemoryManager.class);
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore, memoryManager);
+    Block block = mock(Block.class);
+    when(block.getStart()).thenReturn(0L);
+    blockStore.add(block);
+
+    // When: another block with the same start is added, and the held block is added again
+    Block other = mock(Block.class);
+    when(other.getStart()).thenReturn(0L);
+    blockStore.add(other);
+    blockStore.add(other);
+
+    // Then: the replaced block is unregistered and closed, the held block stays open
+    verify(memoryManager, times(1)).unregister(block);
+    verify(block, times(1)).close();
+    verify(other, times(0)).close();
+  }
+
+  @Test
+  public void test__blockStore__countsInFlightBlocks() {
+    // Given: BlockStore with a loaded block and an in-flight block
+    ObjectMetadata mockMetadataStore =
+        ObjectMetadata.builder().contentLength(OBJECT_SIZE).etag(ETAG).build();
+    BlockStore blockStore = new BlockStore(objectKey, mockMetadataStore);
+    Block loaded = mock(Block.class);
+    when(loaded.getStart()).thenReturn(0L);
+    when(loaded.getEnd()).thenReturn(9L);
+    when(loaded.isLoaded()).thenReturn(true);
+    Block inFlight = mock(Block.class);
+    when(inFlight.getStart()).thenReturn(10L);
+    when(inFlight.getEnd()).thenReturn(19L);
+    blockStore.add(loaded);
+    blockStore.add(inFlight);
+
+    // When & Then: only ranges overlapping the in-flight block count it
+    assertEquals(0, blockStore.countInFlightBlocks(0, 9));
+    assertEquals(1, blockStore.countInFlightBlocks(5, 12));
+    assertEquals(1, blockStore.countInFlightBlocks(15, 15));
+    assertEquals(0, blockStore.countInFlightBlocks(20, 30));
+  }
 }
@@ -21,11 +21,20 @@ import static org.mockito.Mockito.*;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.TestTelemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.CacheAdmissionFilter;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.CacheAdmissionFilterImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.MemoryCacheImpl;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.PooledDirectBlockAllocator;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.Range;
 import software.amazon.s3.analyticsaccelerator.request.ReadMode;
 import software.amazon.s3.analyticsaccelerator.util.*;
 
@@ -38,6 +47,7 @@ public class BlockTest {
   private static final ObjectKey objectKey = ObjectKey.builder().s3URI(TEST_URI).etag(ETAG).build();
   private static final long DEFAULT_READ_TIMEOUT = 120_000;
   private static final int DEFAULT_READ_RETRY_COUNT = 20;
+  private static final long DEFAULT_CACHE_TIMEOUT = 20;
 
   @Test
   public void testSingleByteReadReturnsCorrectByte() throws IOException {
@@ -331,16 +341,55 @@ public class BlockTest {
     block.close();
   }
 
+  @SneakyThrows
   @Test
-  void testCacheHitForTailMetadata() throws IOException {
-    Block.resetCacheForTesting();
+  void testCloseReleasesBufferToAllocator() {
+    final String TEST_DATA = "test-data";
+    ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    PooledDirectBlockAllocator allocator =
+        new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, 1024, 8 * 1024, 8 * 1024);
+    Block block =
+        new Block(
+            objectKey,
+            fakeObjectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            TEST_DATA.length() - 1,
+            RangeType.BLOCK,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT,
+            0,
+            false,
+            null,
+            DEFAULT_CACHE_TIMEOUT,
+            null,
+            allocator,
+            null);
+
+    byte[] buffer = new byte[TEST_DATA.length()];
+    block.read(buffer, 0, buffer.length, 0);
+    assertEquals(TEST_DATA, new String(buffer, StandardCharsets.UTF_8));
+    assertEquals(1024, allocator.getInUseBytes());
 
+    block.close();
+    block.close();
+
+    assertEquals(0, allocator.getInUseBytes());
+    assertEquals(1024, allocator.getPooledBytes());
+    assertThrows(IOException.class, () -> block.read(0));
+  }
+
+  @Test
+  void testCacheHitForTailMetadata() throws IOException {
     String TEST_DATA = "test-data";
     ObjectClient mockObjectClient = mock(ObjectClient.class);
     Cache mockCache = mock(Cache.class);
 
     //    simulate cache hit
-    when(mockCache.get(any())).thenReturn(TEST_DATA.getBytes(StandardCharsets.UTF_8));
+    when(mockCache.get(any(), anyLong()))
+        .thenReturn(CompletableFuture.completedFuture(TEST_DATA.getBytes(StandardCharsets.UTF_8)));
 
     Block block =
         new Block(
@@ -348,7 +397,7 @@ public class BlockTest {
             mockObjectClient,
             TestTelemetry.DEFAULT,
             0,
-            TEST_DATA.length(),
+            TEST_DATA.length() - 1,
             RangeType.FOOTER_METADATA,
             0,
             ReadMode.SYNC,
@@ -357,6 +406,8 @@ public class BlockTest {
             0,
             true,
             mockCache,
+            DEFAULT_CACHE_TIMEOUT,
+            null,
             null,
             null);
 
@@ -365,21 +416,21 @@ public class BlockTest {
 
     assertEquals(TEST_DATA, new String(buffer, StandardCharsets.UTF_8));
 
-    verify(mockCache, times(1)).get(any(String.class));
+    verify(mockCache, times(1)).get(any(String.class), eq(DEFAULT_CACHE_TIMEOUT));
 
     verify(mockObjectClient, never()).getObject(any(), any());
   }
 
   @Test
   void testCacheMissForTailMetadata() throws IOException {
-    Block.resetCacheForTesting();
-
     final String TEST_DATA = "test-data";
     ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
     Cache mockCache = mock(Cache.class);
 
     //    simulate cache miss
-    when(mockCache.get(any())).thenReturn(null);
+    when(mockCache.get(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    when(mockCache.set(any(), any(), anyLong()))
+        .thenReturn(CompletableFuture.completedFuture(null));
 
     Block block =
         new Block(
@@ -396,6 +447,8 @@ public class BlockTest {
             0,
             true,
             mockCache,
+            DEFAULT_CACHE_TIMEOUT,
+            null,
             null,
             null);
 
@@ -404,15 +457,14 @@ public class BlockTest {
 
     assertEquals(TEST_DATA, new String(buffer, StandardCharsets.UTF_8));
 
-    verify(mockCache, times(1)).get(any(String.class));
+    verify(mockCache, times(1)).get(any(String.class), eq(DEFAULT_CACHE_TIMEOUT));
 
-    verify(mockCache, times(1)).set(any(String.class), any(byte[].class));
+    verify(mockCache, times(1))
+        .set(any(String.class), any(byte[].class), eq(DEFAULT_CACHE_TIMEOUT));
   }
 
   @Test
   void testCachingDisabled() throws IOException {
-    Block.resetCacheForTesting();
-
     final String TEST_DATA = "test-data";
     ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
     Cache mockCache = mock(Cache.class);
@@ -432,6 +484,8 @@ public class BlockTest {
             0,
             false,
             mockCache,
+            DEFAULT_CACHE_TIMEOUT,
+            null,
             null,
             null);
 
@@ -440,14 +494,12 @@ public class BlockTest {
 
     assertEquals(TEST_DATA, new String(buffer, StandardCharsets.UTF_8));
 
-    verify(mockCache, never()).get(any());
-    verify(mockCache, never()).set(any(), any());
+    verify(mockCache, never()).get(any(), anyLong());
+    verify(mockCache, never()).set(any(), any(), anyLong());
   }
 
   @Test
   void testBlockRangeTypeNoCaching() throws IOException {
-    Block.resetCacheForTesting();
-
     final String TEST_DATA = "test-data";
     ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
     Cache mockCache = mock(Cache.class);
@@ -467,6 +519,89 @@ public class BlockTest {
             0,
             true,
             mockCache,
+            DEFAULT_CACHE_TIMEOUT,
+            null,
+            null,
+            null);
+
+    byte[] buffer = new byte[TEST_DATA.length()];
+    block.read(buffer, 0, buffer.length, 0);
+
+    assertEquals(TEST_DATA, new String(buffer, StandardCharsets.UTF_8));
+
+    verify(mockCache, never()).get(any(String.class), anyLong());
+    verify(mockCache, never()).set(any(String.class), any(byte[].class), anyLong());
+  }
+
+  @Test
+  void testCacheTimeoutFallsBackToS3() throws IOException {
+    final String TEST_DATA = "test-data";
+    ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    Cache mockCache = mock(Cache.class);
+
+    //    simulate a lookup that ran out of its time budget
+    CompletableFuture<byte[]> timedOut = new CompletableFuture<>();
+    timedOut.completeExceptionally(new TimeoutException("Cache get timed out"));
+    when(mockCache.get(any(), anyLong())).thenReturn(timedOut);
+    when(mockCache.set(any(), any(), anyLong()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    Block block =
+        new Block(
+            objectKey,
+            fakeObjectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            TEST_DATA.length(),
+            RangeType.FOOTER_METADATA,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT,
+            0,
+            true,
+            mockCache,
+            DEFAULT_CACHE_TIMEOUT,
+            null,
+            null,
+            null);
+
+    byte[] buffer = new byte[TEST_DATA.length()];
+    block.read(buffer, 0, buffer.length, 0);
+
+    assertEquals(TEST_DATA, new String(buffer, StandardCharsets.UTF_8));
+    verify(mockCache, times(1)).get(any(String.class), eq(DEFAULT_CACHE_TIMEOUT));
+  }
+
+  @Test
+  void testCacheFailuresDoNotFailRead() throws IOException {
+    final String TEST_DATA = "test-data";
+    ObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    Cache mockCache = mock(Cache.class);
+
+    //    simulate a cache that is unreachable
+    when(mockCache.get(any(), anyLong())).thenThrow(new IllegalStateException("unreachable"));
+    CompletableFuture<Void> failedSet = new CompletableFuture<>();
+    failedSet.completeExceptionally(new IllegalStateException("unreachable"));
+    when(mockCache.set(any(), any(), anyLong())).thenReturn(failedSet);
+
+    Block block =
+        new Block(
+            objectKey,
+            fakeObjectClient,
+            TestTelemetry.DEFAULT,
+            0,
+            TEST_DATA.length(),
+            RangeType.FOOTER_METADATA,
+            0,
+            ReadMode.SYNC,
+            DEFAULT_READ_TIMEOUT,
+            DEFAULT_READ_RETRY_COUNT,
+            0,
+            true,
+            mockCache,
+            DEFAULT_CACHE_TIMEOUT,
+            null,
             null,
             null);
 
@@ -474,8 +609,171 @@ public class BlockTest {
     block.read(buffer, 0, buffer.length, 0);
 
     assertEquals(TEST_DATA, new String(buffer, StandardCharsets.UTF_8));
+    verify(mockCache, times(1))
+        .set(any(String.class), any(byte[].class), eq(DEFAULT_CACHE_TIMEOUT));
+  }
+
+  @Test
+  void testPartialCacheHitFetchesOnlyMissingChunks() throws IOException {
+    // Given: an object cached in chunks of 4 bytes, two of which are cached
+    final String TEST_DATA = "0123456789abcdef";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    Cache cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    cache
+        .set(chunkKey(4, 7), "4567".getBytes(StandardCharsets.UTF_8), DEFAULT_CACHE_TIMEOUT)
+        .join();
+    cache
+        .set(chunkKey(8, 11), "89ab".getBytes(StandardCharsets.UTF_8), DEFAULT_CACHE_TIMEOUT)
+        .join();
+
+    // When: a range spanning four chunks is read
+    Block block = getCachingBlock(fakeObjectClient, cache, 2, 13, RangeType.FOOTER_METADATA);
+    byte[] buffer = new byte[12];
+    block.read(buffer, 0, buffer.length, 2);
+
+    // Then: the block is assembled from the cached chunks and GETs for the missing chunks only
+    assertEquals("23456789abcd", new String(buffer, StandardCharsets.UTF_8));
+    assertEquals(
+        Arrays.asList(
+            new Range(0, 3, RangeType.FOOTER_METADATA),
+            new Range(12, 15, RangeType.FOOTER_METADATA)),
+        Arrays.asList(fakeObjectClient.getRequestedRanges().toArray()));
+    assertArrayEquals(
+        "0123".getBytes(StandardCharsets.UTF_8),
+        cache.get(chunkKey(0, 3), DEFAULT_CACHE_TIMEOUT).join());
+    assertArrayEquals(
+        "cdef".getBytes(StandardCharsets.UTF_8),
+        cache.get(chunkKey(12, 15), DEFAULT_CACHE_TIMEOUT).join());
+  }
+
+  @Test
+  void testCachedChunksServeOtherRanges() throws IOException {
+    // Given: a range that was fetched and cached in chunks
+    final String TEST_DATA = "0123456789abcdef";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    Cache cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    Block first = getCachingBlock(fakeObjectClient, cache, 4, 15, RangeType.FOOTER_METADATA);
+    first.read(new byte[12], 0, 12, 4);
+    assertEquals(1, fakeObjectClient.getGetRequestCount().get());
+
+    // When: a shorter range of the same object is read
+    Block second = getCachingBlock(fakeObjectClient, cache, 9, 14, RangeType.FOOTER_METADATA);
+    byte[] buffer = new byte[6];
+    second.read(buffer, 0, buffer.length, 9);
+
+    // Then: it is served from the cached chunks
+    assertEquals("9abcde", new String(buffer, StandardCharsets.UTF_8));
+    assertEquals(1, fakeObjectClient.getGetRequestCount().get());
+  }
+
+  @Test
+  void testCachedChunkOfUnexpectedLengthIsIgnored() throws IOException {
+    final String TEST_DATA = "0123456789abcdef";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    Cache cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    cache.set(chunkKey(0, 3), new byte[] {1, 2}, DEFAULT_CACHE_TIMEOUT).join();
+
+    Block block = getCachingBlock(fakeObjectClient, cache, 0, 3, RangeType.FOOTER_METADATA);
+    byte[] buffer = new byte[4];
+    block.read(buffer, 0, buffer.length, 0);
+
+    assertEquals("0123", new String(buffer, StandardCharsets.UTF_8));
+    assertEquals(1, fakeObjectClient.getGetRequestCount().get());
+  }
+
+  @Test
+  void testDataBlocksAreCachedWhenThePolicyCachesThem() throws IOException {
+    final String TEST_DATA = "0123456789abcdef";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    Cache cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+
+    Block block = getCachingBlock(fakeObjectClient, cache, 0, 7, RangeType.BLOCK);
+    block.read(new byte[8], 0, 8, 0);
+
+    assertArrayEquals(
+        "0123".getBytes(StandardCharsets.UTF_8),
+        cache.get(chunkKey(0, 3), DEFAULT_CACHE_TIMEOUT).join());
+    assertArrayEquals(
+        "4567".getBytes(StandardCharsets.UTF_8),
+        cache.get(chunkKey(4, 7), DEFAULT_CACHE_TIMEOUT).join());
+  }
+
+  @Test
+  void testDataBlocksAreOnlyCachedOnTheirSecondRequest() throws IOException {
+    final String TEST_DATA = "0123456789abcdef";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    Cache cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    CacheAdmissionFilter admissionFilter =
+        new CacheAdmissionFilterImpl(TestTelemetry.DEFAULT, EnumSet.of(RangeType.BLOCK), 1024, 64);
+    CachePolicy cachePolicy =
+        new CachePolicy(4, EnumSet.of(RangeType.FOOTER_METADATA, RangeType.BLOCK), admissionFilter);
+
+    // When: a data block and a footer are read once
+    getCachingBlock(fakeObjectClient, cache, cachePolicy, 0, 3, RangeType.BLOCK)
+        .read(new byte[4], 0, 4, 0);
+    getCachingBlock(fakeObjectClient, cache, cachePolicy, 12, 15, RangeType.FOOTER_METADATA)
+        .read(new byte[4], 0, 4, 12);
+
+    // Then: only the footer is cached
+    assertNull(cache.get(chunkKey(0, 3), DEFAULT_CACHE_TIMEOUT).join());
+    assertNotNull(cache.get(chunkKey(12, 15), DEFAULT_CACHE_TIMEOUT).join());
+
+    // When: the data block is read again
+    getCachingBlock(fakeObjectClient, cache, cachePolicy, 0, 3, RangeType.BLOCK)
+        .read(new byte[4], 0, 4, 0);
+
+    // Then: it is cached
+    assertArrayEquals(
+        "0123".getBytes(StandardCharsets.UTF_8),
+        cache.get(chunkKey(0, 3), DEFAULT_CACHE_TIMEOUT).join());
+    assertEquals(3, fakeObjectClient.getGetRequestCount().get());
+    assertEquals(2, admissionFilter.getAdmittedCount());
+    assertEquals(1, admissionFilter.getRejectedCount());
+  }
+
+  private static Block getCachingBlock(
+      FakeObjectClient objectClient, Cache cache, long start, long end, RangeType rangeType)
+      throws IOException {
+    return getCachingBlock(
+        objectClient,
+        cache,
+        new CachePolicy(
+            4, EnumSet.of(RangeType.FOOTER_METADATA, RangeType.FOOTER_PAGE_INDEX, RangeType.BLOCK)),
+        start,
+        end,
+        rangeType);
+  }
+
+  private static Block getCachingBlock(
+      FakeObjectClient objectClient,
+      Cache cache,
+      CachePolicy cachePolicy,
+      long start,
+      long end,
+      RangeType rangeType)
+      throws IOException {
+    return new Block(
+        objectKey,
+        objectClient,
+        TestTelemetry.DEFAULT,
+        start,
+        end,
+        rangeType,
+        0,
+        ReadMode.SYNC,
+        DEFAULT_READ_TIMEOUT,
+        DEFAULT_READ_RETRY_COUNT,
+        16,
+        true,
+        cache,
+        DEFAULT_CACHE_TIMEOUT,
+        cachePolicy,
+        null,
+        null,
+        null);
+  }
 
-    verify(mockCache, never()).get(any(String.class));
-    verify(mockCache, never()).set(any(String.class), any(byte[].class));
+  private static String chunkKey(long start, long end) {
+    return CachePolicy.keyOf(objectKey, new Range(start, end));
   }
 }
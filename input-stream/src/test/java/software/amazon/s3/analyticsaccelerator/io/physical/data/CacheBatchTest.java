@@ -0,0 +1,130 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class CacheBatchTest {
+  private static final byte[] VALUE = new byte[] {1, 2, 3};
+
+  @Test
+  void testConstructorThrowsOnNullArgument() {
+    assertThrows(NullPointerException.class, () -> new CacheBatch(null));
+  }
+
+  @Test
+  void testLookupsAreSentTogetherOnFlush() {
+    Cache cache = mock(Cache.class);
+    Map<String, byte[]> found = new HashMap<>();
+    found.put("k1", VALUE);
+    when(cache.getAll(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(found));
+    CacheBatch batch = new CacheBatch(cache);
+
+    CompletableFuture<byte[]> hit = batch.get("k1", 20);
+    CompletableFuture<byte[]> miss = batch.get("k2", 20);
+    assertFalse(hit.isDone());
+    assertFalse(miss.isDone());
+    verifyNoInteractions(cache);
+
+    assertEquals(1, batch.flushLookups());
+
+    verify(cache).getAll(eq(Arrays.asList("k1", "k2")), eq(20L));
+    assertArrayEquals(VALUE, hit.join());
+    assertNull(miss.join());
+  }
+
+  @Test
+  void testFailedBatchLookupFailsEveryLookup() {
+    Cache cache = mock(Cache.class);
+    CompletableFuture<Map<String, byte[]>> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException("unreachable"));
+    when(cache.getAll(any(), anyLong())).thenReturn(failed);
+    CacheBatch batch = new CacheBatch(cache);
+
+    CompletableFuture<byte[]> first = batch.get("k1", 20);
+    CompletableFuture<byte[]> second = batch.get("k2", 20);
+    batch.flushLookups();
+
+    assertThrows(CompletionException.class, first::join);
+    assertThrows(CompletionException.class, second::join);
+  }
+
+  @Test
+  void testUpdatesAreSentTogetherOnFlush() {
+    Cache cache = mock(Cache.class);
+    when(cache.setAll(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    CacheBatch batch = new CacheBatch(cache);
+
+    CompletableFuture<Void> first = batch.set("k1", VALUE, 20);
+    CompletableFuture<Void> second = batch.set("k2", VALUE, 20);
+    assertFalse(first.isDone());
+    verifyNoInteractions(cache);
+
+    assertEquals(1, batch.flushUpdates());
+
+    Map<String, byte[]> expected = new HashMap<>();
+    expected.put("k1", VALUE);
+    expected.put("k2", VALUE);
+    verify(cache).setAll(eq(expected), eq(20L));
+    assertTrue(first.isDone());
+    assertTrue(second.isDone());
+  }
+
+  @Test
+  void testAccessesAfterFlushGoStraightToCache() {
+    Cache cache = mock(Cache.class);
+    when(cache.get(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(VALUE));
+    when(cache.set(any(), any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    CacheBatch batch = new CacheBatch(cache);
+
+    assertEquals(0, batch.flushLookups());
+    assertEquals(0, batch.flushUpdates());
+
+    assertArrayEquals(VALUE, batch.get("k1", 20).join());
+    batch.set("k1", VALUE, 20).join();
+    verify(cache).get("k1", 20);
+    verify(cache).set("k1", VALUE, 20);
+    verify(cache, never()).getAll(any(), anyLong());
+    verify(cache, never()).setAll(any(), anyLong());
+  }
+
+  @Test
+  void testWhenBlocksLoadedWithoutBlocks() {
+    CacheBatch batch = new CacheBatch(mock(Cache.class));
+
+    assertTrue(batch.whenBlocksLoaded().isDone());
+  }
+}
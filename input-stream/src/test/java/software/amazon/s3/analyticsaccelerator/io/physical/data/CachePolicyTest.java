@@ -0,0 +1,98 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
+import software.amazon.s3.analyticsaccelerator.util.S3URI;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class CachePolicyTest {
+  private static final ObjectKey OBJECT_KEY =
+      ObjectKey.builder().s3URI(S3URI.of("bucket", "key")).etag("etag").build();
+
+  @Test
+  void testConstructorThrowsOnInvalidArguments() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new CachePolicy(0, EnumSet.of(RangeType.FOOTER_METADATA)));
+    assertThrows(NullPointerException.class, () -> new CachePolicy(10, null));
+    assertThrows(NullPointerException.class, () -> new CachePolicy(null));
+  }
+
+  @Test
+  void testDefaultPolicyCachesTailMetadata() {
+    assertTrue(CachePolicy.DEFAULT.isCached(RangeType.FOOTER_METADATA));
+    assertTrue(CachePolicy.DEFAULT.isCached(RangeType.FOOTER_PAGE_INDEX));
+    assertFalse(CachePolicy.DEFAULT.isCached(RangeType.BLOCK));
+    assertEquals(
+        PhysicalIOConfiguration.DEFAULT.getCacheChunkSizeBytes(),
+        CachePolicy.DEFAULT.getChunkSizeBytes());
+  }
+
+  @Test
+  void testNoRangeTypeIsCachedByAnEmptyPolicy() {
+    CachePolicy policy = new CachePolicy(10, Collections.emptySet());
+
+    for (RangeType rangeType : RangeType.values()) {
+      assertFalse(policy.isCached(rangeType));
+    }
+  }
+
+  @Test
+  void testChunksAreAlignedAndEndWithTheObject() {
+    CachePolicy policy = new CachePolicy(10, EnumSet.of(RangeType.FOOTER_METADATA));
+
+    assertEquals(
+        Arrays.asList(
+            new Range(10, 19, RangeType.FOOTER_METADATA),
+            new Range(20, 29, RangeType.FOOTER_METADATA),
+            new Range(30, 34, RangeType.FOOTER_METADATA)),
+        policy.chunksOf(new Range(15, 34, RangeType.FOOTER_METADATA), 35));
+    assertEquals(
+        Collections.singletonList(new Range(20, 29)), policy.chunksOf(new Range(20, 29), 100));
+    assertEquals(10, policy.chunkStart(19));
+    assertEquals(19, policy.chunkEnd(10, 100));
+    assertEquals(34, policy.chunkEnd(30, 35));
+  }
+
+  @Test
+  void testRangeIsItsOwnChunkWhenTheObjectLengthIsUnknown() {
+    CachePolicy policy = new CachePolicy(10, EnumSet.of(RangeType.FOOTER_METADATA));
+    Range range = new Range(15, 34, RangeType.FOOTER_METADATA);
+
+    assertEquals(Collections.singletonList(range), policy.chunksOf(range, 0));
+  }
+
+  @Test
+  void testKeysIdentifyTheBytesOfAChunk() {
+    assertEquals("s3://bucket/key#etag#10-19", CachePolicy.keyOf(OBJECT_KEY, new Range(10, 19)));
+    assertEquals(
+        CachePolicy.keyOf(OBJECT_KEY, new Range(10, 19, RangeType.BLOCK)),
+        CachePolicy.keyOf(OBJECT_KEY, new Range(10, 19, RangeType.FOOTER_METADATA)));
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class MemoryManagerTest {
+  private static final long BLOCK_LENGTH = 10;
+
+  @Test
+  void testCreateBoundaries() {
+    assertThrows(NullPointerException.class, () -> new MemoryManager(null, 1));
+    assertThrows(
+        NullPointerException.class,
+        () -> new MemoryManager(TestTelemetry.DEFAULT, (PhysicalIOConfiguration) null));
+    assertThrows(IllegalArgumentException.class, () -> new MemoryManager(TestTelemetry.DEFAULT, 0));
+  }
+
+  @Test
+  void testResidentBytesAreTracked() {
+    MemoryManager memoryManager = new MemoryManager(TestTelemetry.DEFAULT, 100);
+    BlockStore blockStore = mock(BlockStore.class);
+    Block b1 = mockBlock(true);
+    Block b2 = mockBlock(true);
+
+    memoryManager.register(b1, blockStore);
+    memoryManager.register(b2, blockStore);
+    // Registering twice does not count twice
+    memoryManager.register(b2, blockStore);
+    assertEquals(2 * BLOCK_LENGTH, memoryManager.getResidentBytes());
+
+    memoryManager.unregister(b1);
+    assertEquals(BLOCK_LENGTH, memoryManager.getResidentBytes());
+    assertEquals(0, memoryManager.getEvictionCount());
+  }
+
+  @Test
+  void testLeastRecentlyReadBlockIsEvicted() {
+    MemoryManager memoryManager = new MemoryManager(TestTelemetry.DEFAULT, 2 * BLOCK_LENGTH);
+    BlockStore blockStore = mock(BlockStore.class);
+    Block b1 = mockBlock(true);
+    Block b2 = mockBlock(true);
+    Block b3 = mockBlock(true);
+
+    memoryManager.register(b1, blockStore);
+    memoryManager.register(b2, blockStore);
+    memoryManager.touch(b1);
+    memoryManager.register(b3, blockStore);
+
+    // b2 is the least recently read block
+    verify(blockStore).remove(b2);
+    verify(b2).close();
+    verify(b1, never()).close();
+    verify(b3, never()).close();
+    assertEquals(2 * BLOCK_LENGTH, memoryManager.getResidentBytes());
+    assertEquals(1, memoryManager.getEvictionCount());
+  }
+
+  @Test
+  void testBlocksInUseAreNotEvicted() {
+    MemoryManager memoryManager = new MemoryManager(TestTelemetry.DEFAULT, BLOCK_LENGTH);
+    BlockStore blockStore = mock(BlockStore.class);
+    // Being read or still in flight
+    Block busy = mockBlock(false);
+    Block idle = mockBlock(true);
+    Block newest = mockBlock(false);
+
+    memoryManager.register(busy, blockStore);
+    memoryManager.register(idle, blockStore);
+    memoryManager.register(newest, blockStore);
+
+    verify(busy, never()).close();
+    verify(idle).close();
+    verify(newest, never()).close();
+    // The budget is overshot until the busy blocks become idle
+    assertEquals(2 * BLOCK_LENGTH, memoryManager.getResidentBytes());
+    assertEquals(1, memoryManager.getEvictionCount());
+  }
+
+  @Test
+  void testUsageIsReported() {
+    Telemetry telemetry = mock(Telemetry.class);
+    MemoryManager memoryManager = new MemoryManager(telemetry, 100);
+
+    memoryManager.register(mockBlock(true), mock(BlockStore.class));
+
+    verify(telemetry, atLeastOnce()).measure(any(Metric.class), anyDouble());
+  }
+
+  private static Block mockBlock(boolean evictable) {
+    Block block = mock(Block.class);
+    when(block.getLength()).thenReturn(BLOCK_LENGTH);
+    when(block.isEvictable()).thenReturn(evictable);
+    return block;
+  }
+}
@@ -15,15 +15,20 @@
  */
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -32,6 +37,7 @@ import software.amazon.s3.analyticsaccelerator.TestTelemetry;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.HeadRequest;
 import software.amazon.s3.analyticsaccelerator.request.ObjectClient;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
@@ -111,4 +117,84 @@ public class MetadataStoreTest {
     result = metadataStore.evictKey(key);
     assertFalse(result, "Evicting existing key should return false");
   }
+
+  @Test
+  void testGetWithTail_CachesMetadataFromTheResponse() throws IOException {
+    // Given: an object client that reports metadata on suffix range requests
+    ObjectClient objectClient = mock(ObjectClient.class);
+    ObjectMetadata objectMetadata =
+        ObjectMetadata.builder().contentLength(100).etag("random").build();
+    ObjectContent tail =
+        ObjectContent.builder()
+            .stream(new ByteArrayInputStream(new byte[10]))
+            .objectMetadata(objectMetadata)
+            .build();
+    when(objectClient.getObjectTail(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(tail));
+    MetadataStore metadataStore =
+        new MetadataStore(objectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    S3URI key = S3URI.of("foo", "bar");
+
+    // When: the object is opened with its tail, and then opened again
+    ObjectContent content = metadataStore.getWithTail(key, 10, null);
+
+    // Then: the tail is returned, the metadata is cached and no HEAD request is issued
+    assertSame(tail, content);
+    assertEquals(objectMetadata, metadataStore.get(key));
+    assertNull(metadataStore.getWithTail(key, 10, null));
+    verify(objectClient, times(1)).getObjectTail(any(), any());
+    verify(objectClient, never()).headObject(any());
+  }
+
+  @Test
+  void testGetWithPrefix_CachesMetadataFromTheResponse() throws IOException {
+    // Given: an object client that reports metadata on GET responses
+    ObjectClient objectClient = mock(ObjectClient.class);
+    ObjectMetadata objectMetadata =
+        ObjectMetadata.builder().contentLength(100).etag("random").build();
+    ObjectContent prefix =
+        ObjectContent.builder()
+            .stream(new ByteArrayInputStream(new byte[10]))
+            .objectMetadata(objectMetadata)
+            .build();
+    when(objectClient.getObjectPrefix(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(prefix));
+    MetadataStore metadataStore =
+        new MetadataStore(objectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    S3URI key = S3URI.of("foo", "bar");
+
+    // When: the object is opened with its first bytes
+    ObjectContent content = metadataStore.getWithPrefix(key, 10, null);
+
+    // Then: the first bytes are returned, the metadata is cached and no HEAD request is issued
+    assertSame(prefix, content);
+    assertEquals(objectMetadata, metadataStore.get(key));
+    assertNull(metadataStore.getWithPrefix(key, 10, null));
+    verify(objectClient, times(1)).getObjectPrefix(any(), any());
+    verify(objectClient, never()).headObject(any());
+  }
+
+  @Test
+  void testGetWithTail_FallsBackToHeadOnFailure() throws IOException {
+    // Given: an object client failing suffix range requests
+    ObjectClient objectClient = mock(ObjectClient.class);
+    ObjectMetadata objectMetadata =
+        ObjectMetadata.builder().contentLength(100).etag("random").build();
+    CompletableFuture<ObjectContent> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IOException("Invalid range"));
+    when(objectClient.getObjectTail(any(), any())).thenReturn(failed);
+    when(objectClient.headObject(any()))
+        .thenReturn(CompletableFuture.completedFuture(objectMetadata));
+    MetadataStore metadataStore =
+        new MetadataStore(objectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    S3URI key = S3URI.of("foo", "bar");
+
+    // When: the object is opened with its tail
+    ObjectContent content = metadataStore.getWithTail(key, 10, null);
+
+    // Then: no tail is returned, and the metadata comes from a HEAD request
+    assertNull(content);
+    assertEquals(objectMetadata, metadataStore.get(key));
+    verify(objectClient, times(1)).headObject(any());
+  }
 }
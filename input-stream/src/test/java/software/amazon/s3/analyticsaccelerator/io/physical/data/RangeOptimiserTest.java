@@ -16,13 +16,16 @@
 package software.amazon.s3.analyticsaccelerator.io.physical.data;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_KB;
 import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
 import software.amazon.s3.analyticsaccelerator.request.Range;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
 
 public class RangeOptimiserTest {
 
@@ -59,4 +62,95 @@ public class RangeOptimiserTest {
     expected.add(new Range(8 * ONE_MB, 16 * ONE_MB - 1));
     assertEquals(expected, splitRanges);
   }
+
+  @Test
+  public void test__mergeRanges__smallGapsAreMerged() {
+    // Given: column chunks separated by a few KB, out of order
+    RangeOptimiser rangeOptimiser = new RangeOptimiser(PhysicalIOConfiguration.DEFAULT);
+    List<Range> ranges =
+        Arrays.asList(
+            new Range(20 * ONE_KB, 30 * ONE_KB - 1),
+            new Range(0, 10 * ONE_KB - 1),
+            new Range(32 * ONE_KB, 40 * ONE_KB - 1));
+
+    // When: mergeRanges is called
+    List<Range> mergedRanges = rangeOptimiser.mergeRanges(ranges);
+
+    // Then: a single range covers all of them
+    assertEquals(Arrays.asList(new Range(0, 40 * ONE_KB - 1)), mergedRanges);
+  }
+
+  @Test
+  public void test__mergeRanges__bigGapsAreNotMerged() {
+    // Given: ranges separated by more than the max gap
+    RangeOptimiser rangeOptimiser =
+        new RangeOptimiser(PhysicalIOConfiguration.builder().rangeMergeMaxGapBytes(ONE_KB).build());
+    List<Range> ranges = Arrays.asList(new Range(0, 99), new Range(1124, 1199));
+
+    // When: mergeRanges is called
+    List<Range> mergedRanges = rangeOptimiser.mergeRanges(ranges);
+
+    // Then: nothing happens
+    assertEquals(ranges, mergedRanges);
+  }
+
+  @Test
+  public void test__mergeRanges__mergedSizeIsCapped() {
+    // Given: three adjacent 4MB ranges and an 8MB cap
+    RangeOptimiser rangeOptimiser = new RangeOptimiser(PhysicalIOConfiguration.DEFAULT);
+    List<Range> ranges =
+        Arrays.asList(
+            new Range(0, 4 * ONE_MB - 1),
+            new Range(4 * ONE_MB, 8 * ONE_MB - 1),
+            new Range(8 * ONE_MB, 12 * ONE_MB - 1));
+
+    // When: mergeRanges is called
+    List<Range> mergedRanges = rangeOptimiser.mergeRanges(ranges);
+
+    // Then: merging stops at the cap
+    assertEquals(
+        Arrays.asList(new Range(0, 8 * ONE_MB - 1), new Range(8 * ONE_MB, 12 * ONE_MB - 1)),
+        mergedRanges);
+  }
+
+  @Test
+  public void test__mergeRanges__overlappingRangesAreMerged() {
+    // Given: overlapping ranges
+    RangeOptimiser rangeOptimiser = new RangeOptimiser(PhysicalIOConfiguration.DEFAULT);
+    List<Range> ranges = Arrays.asList(new Range(0, 200), new Range(100, 150), new Range(150, 300));
+
+    // When: mergeRanges is called
+    List<Range> mergedRanges = rangeOptimiser.mergeRanges(ranges);
+
+    // Then: they are merged into one
+    assertEquals(Arrays.asList(new Range(0, 300)), mergedRanges);
+  }
+
+  @Test
+  public void test__mergeRanges__differentRangeTypesAreNotMerged() {
+    // Given: a block range right before a footer range
+    RangeOptimiser rangeOptimiser = new RangeOptimiser(PhysicalIOConfiguration.DEFAULT);
+    List<Range> ranges =
+        Arrays.asList(
+            new Range(0, 99, RangeType.BLOCK), new Range(100, 199, RangeType.FOOTER_METADATA));
+
+    // When: mergeRanges is called
+    List<Range> mergedRanges = rangeOptimiser.mergeRanges(ranges);
+
+    // Then: nothing happens
+    assertEquals(ranges, mergedRanges);
+  }
+
+  @Test
+  public void test__mergeRanges__rejectedGapsAreNotMerged() {
+    // Given: ranges separated by a small gap
+    RangeOptimiser rangeOptimiser = new RangeOptimiser(PhysicalIOConfiguration.DEFAULT);
+    List<Range> ranges = Arrays.asList(new Range(0, 99), new Range(200, 299), new Range(300, 399));
+
+    // When: mergeRanges is called with a predicate rejecting every gap
+    List<Range> mergedRanges = rangeOptimiser.mergeRanges(ranges, (gapStart, gapEnd) -> false);
+
+    // Then: only the adjacent ranges are merged
+    assertEquals(Arrays.asList(new Range(0, 99), new Range(200, 399)), mergedRanges);
+  }
 }
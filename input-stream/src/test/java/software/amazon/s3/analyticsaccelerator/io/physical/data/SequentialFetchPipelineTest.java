@@ -0,0 +1,206 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class SequentialFetchPipelineTest {
+  private static final List<Range> PARTS =
+      Arrays.asList(
+          new Range(0, 99),
+          new Range(100, 199),
+          new Range(200, 299),
+          new Range(300, 399),
+          new Range(400, 499),
+          new Range(500, 599));
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new SequentialFetchPipeline(0, 1, () -> {}));
+    assertThrows(IllegalArgumentException.class, () -> new SequentialFetchPipeline(1, 0, () -> {}));
+    assertThrows(NullPointerException.class, () -> new SequentialFetchPipeline(1, 1, null));
+  }
+
+  @Test
+  void testPartsInFlightAreBounded() {
+    // Given: a pipeline fetching 2 parts at a time
+    SequentialFetchPipeline pipeline = newPipeline(2, 8);
+    List<Range> fetched = new ArrayList<>();
+    List<CompletableFuture<Void>> loads = new ArrayList<>();
+
+    // When: 6 parts are submitted
+    pipeline.submit(
+        PARTS,
+        part -> {
+          fetched.add(part);
+          CompletableFuture<Void> load = new CompletableFuture<>();
+          loads.add(load);
+          return load;
+        });
+
+    // Then: only the first 2 are in flight
+    assertEquals(PARTS.subList(0, 2), fetched);
+    assertEquals(2, pipeline.getInFlightPartCount());
+    assertEquals(4, pipeline.getPendingPartCount());
+
+    // When: the first part loads
+    loads.get(0).complete(null);
+
+    // Then: the next part is fetched, in order
+    assertEquals(PARTS.subList(0, 3), fetched);
+    assertEquals(2, pipeline.getInFlightPartCount());
+  }
+
+  @Test
+  void testFetchingPausesUntilReaderCatchesUp() {
+    // Given: a pipeline fetching at most 2 parts ahead of the reader
+    SequentialFetchPipeline pipeline = newPipeline(4, 2);
+    List<Range> fetched = new ArrayList<>();
+
+    // When: 6 parts are submitted and load immediately
+    pipeline.submit(
+        PARTS,
+        part -> {
+          fetched.add(part);
+          return CompletableFuture.completedFuture(null);
+        });
+
+    // Then: only 2 parts are fetched
+    assertEquals(PARTS.subList(0, 2), fetched);
+    assertEquals(0, pipeline.getInFlightPartCount());
+
+    // When: the reader goes through the first part
+    pipeline.onRead(0, 50);
+    assertEquals(2, fetched.size());
+    pipeline.onRead(50, 50);
+
+    // Then: one more part is fetched
+    assertEquals(PARTS.subList(0, 3), fetched);
+  }
+
+  @Test
+  void testPartsTheReaderMovedPastAreDropped() {
+    // Given: a pipeline with parts waiting
+    SequentialFetchPipeline pipeline = newPipeline(1, 8);
+    List<Range> fetched = new ArrayList<>();
+    List<CompletableFuture<Void>> loads = new ArrayList<>();
+    pipeline.submit(
+        PARTS,
+        part -> {
+          fetched.add(part);
+          CompletableFuture<Void> load = new CompletableFuture<>();
+          loads.add(load);
+          return load;
+        });
+
+    // When: the reader skips ahead and the part in flight loads
+    pipeline.onRead(450, 10);
+    loads.get(0).complete(null);
+
+    // Then: the parts before the reader are never fetched
+    assertEquals(Arrays.asList(PARTS.get(0), PARTS.get(4)), fetched);
+    assertEquals(1, pipeline.getPendingPartCount());
+  }
+
+  @Test
+  void testSubmitKeepsPartsOfEarlierRanges() {
+    // Given: a pipeline with parts of a range waiting
+    SequentialFetchPipeline pipeline = newPipeline(1, 8);
+    List<Range> fetched = new ArrayList<>();
+    List<CompletableFuture<Void>> loads = new ArrayList<>();
+    PartFetcherRecorder recorder = new PartFetcherRecorder(fetched, loads);
+    pipeline.submit(PARTS.subList(0, 3), recorder::fetch);
+
+    // When: the parts of another range are submitted
+    pipeline.submit(PARTS.subList(4, 6), recorder::fetch);
+
+    // Then: the parts of both ranges are fetched, in the order they were submitted
+    assertEquals(4, pipeline.getPendingPartCount());
+    while (fetched.size() < 5) {
+      loads.get(loads.size() - 1).complete(null);
+    }
+    assertEquals(
+        Arrays.asList(PARTS.get(0), PARTS.get(1), PARTS.get(2), PARTS.get(4), PARTS.get(5)),
+        fetched);
+  }
+
+  @Test
+  void testReadsOnlyDropPartsOfTheirRange() {
+    // Given: a pipeline fetching two ranges, one part at a time
+    SequentialFetchPipeline pipeline = newPipeline(1, 8);
+    List<Range> fetched = new ArrayList<>();
+    List<CompletableFuture<Void>> loads = new ArrayList<>();
+    PartFetcherRecorder recorder = new PartFetcherRecorder(fetched, loads);
+    pipeline.submit(PARTS.subList(0, 3), recorder::fetch);
+    pipeline.submit(PARTS.subList(3, 6), recorder::fetch);
+
+    // When: a faster reader of the second range skips ahead and the part in flight loads
+    pipeline.onRead(450, 10);
+    loads.get(0).complete(null);
+
+    // Then: the parts of the first range are still fetched
+    assertEquals(Arrays.asList(PARTS.get(0), PARTS.get(1)), fetched);
+    assertEquals(3, pipeline.getPendingPartCount());
+  }
+
+  @Test
+  void testClearDropsPendingParts() {
+    SequentialFetchPipeline pipeline = newPipeline(1, 8);
+    pipeline.submit(PARTS, part -> new CompletableFuture<>());
+
+    pipeline.clear();
+
+    assertEquals(0, pipeline.getPendingPartCount());
+  }
+
+  /** Records the parts fetched, their loads complete when the test completes them. */
+  private static final class PartFetcherRecorder {
+    private final List<Range> fetched;
+    private final List<CompletableFuture<Void>> loads;
+
+    private PartFetcherRecorder(List<Range> fetched, List<CompletableFuture<Void>> loads) {
+      this.fetched = fetched;
+      this.loads = loads;
+    }
+
+    private CompletableFuture<Void> fetch(Range part) {
+      fetched.add(part);
+      CompletableFuture<Void> load = new CompletableFuture<>();
+      loads.add(load);
+      return load;
+    }
+  }
+
+  private static SequentialFetchPipeline newPipeline(int parallelism, int maxAheadParts) {
+    AtomicReference<SequentialFetchPipeline> pipeline = new AtomicReference<>();
+    pipeline.set(
+        new SequentialFetchPipeline(parallelism, maxAheadParts, () -> pipeline.get().advance()));
+    return pipeline.get();
+  }
+}
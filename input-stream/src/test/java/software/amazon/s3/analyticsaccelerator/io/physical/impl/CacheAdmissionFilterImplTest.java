@@ -0,0 +1,104 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.EnumSet;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.util.RangeType;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class CacheAdmissionFilterImplTest {
+  @Test
+  void testConstructorThrowsOnInvalidArguments() {
+    assertThrows(
+        NullPointerException.class,
+        () -> new CacheAdmissionFilterImpl(null, PhysicalIOConfiguration.DEFAULT));
+    assertThrows(
+        NullPointerException.class,
+        () -> new CacheAdmissionFilterImpl(TestTelemetry.DEFAULT, null, 1024, 64));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new CacheAdmissionFilterImpl(
+                TestTelemetry.DEFAULT, EnumSet.of(RangeType.BLOCK), 0, 64));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new CacheAdmissionFilterImpl(
+                TestTelemetry.DEFAULT, EnumSet.of(RangeType.BLOCK), 1024, 0));
+  }
+
+  @Test
+  void testSecondHitRangeTypesAreAdmittedOnTheirSecondRequest() {
+    CacheAdmissionFilterImpl filter =
+        new CacheAdmissionFilterImpl(TestTelemetry.DEFAULT, EnumSet.of(RangeType.BLOCK), 1024, 64);
+
+    filter.recordRequest("key");
+    assertFalse(filter.admit("key", RangeType.BLOCK, 100));
+
+    filter.recordRequest("key");
+    assertTrue(filter.admit("key", RangeType.BLOCK, 100));
+  }
+
+  @Test
+  void testOtherRangeTypesAreAdmittedOnTheirFirstRequest() {
+    CacheAdmissionFilterImpl filter =
+        new CacheAdmissionFilterImpl(TestTelemetry.DEFAULT, EnumSet.of(RangeType.BLOCK), 1024, 64);
+
+    filter.recordRequest("footer");
+    assertTrue(filter.admit("footer", RangeType.FOOTER_METADATA, 100));
+  }
+
+  @Test
+  void testEntriesLargerThanTheMaximumAreRejected() {
+    CacheAdmissionFilterImpl filter =
+        new CacheAdmissionFilterImpl(
+            TestTelemetry.DEFAULT, EnumSet.noneOf(RangeType.class), 1024, 64);
+
+    assertTrue(filter.admit("small", RangeType.FOOTER_METADATA, 1024));
+    assertFalse(filter.admit("large", RangeType.FOOTER_METADATA, 1025));
+  }
+
+  @Test
+  void testAdmittedAndRejectedEntriesAreCounted() {
+    Telemetry telemetry = mock(Telemetry.class);
+    CacheAdmissionFilterImpl filter =
+        new CacheAdmissionFilterImpl(telemetry, EnumSet.of(RangeType.BLOCK), 1024, 64);
+
+    filter.admit("footer", RangeType.FOOTER_METADATA, 100);
+    filter.admit("block", RangeType.BLOCK, 100);
+    filter.admit("large", RangeType.FOOTER_METADATA, 2048);
+
+    assertEquals(1, filter.getAdmittedCount());
+    assertEquals(2, filter.getRejectedCount());
+    verify(telemetry)
+        .measure(eq(Metric.builder().name("cache.admission.admitted").build()), eq(1.0));
+    verify(telemetry)
+        .measure(eq(Metric.builder().name("cache.admission.rejected").build()), eq(2.0));
+  }
+}
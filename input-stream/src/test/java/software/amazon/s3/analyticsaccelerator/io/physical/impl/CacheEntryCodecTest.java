@@ -0,0 +1,172 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.util.CacheCompression;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class CacheEntryCodecTest {
+  private static final int MIN_COMPRESS_BYTES = 64;
+
+  @Test
+  void testConstructorThrowsOnInvalidArguments() {
+    assertThrows(NullPointerException.class, () -> new CacheEntryCodec(null, 0));
+    assertThrows(
+        NullPointerException.class, () -> new CacheEntryCodec((PhysicalIOConfiguration) null));
+    assertThrows(
+        IllegalArgumentException.class, () -> new CacheEntryCodec(CacheCompression.DEFLATE, -1));
+  }
+
+  @Test
+  void testNoCompressionStoresValuesAsTheyAre() {
+    byte[] value = compressible(1024);
+
+    assertSame(value, CacheEntryCodec.NONE.encode(value));
+    assertSame(value, CacheEntryCodec.NONE.decode(value));
+    assertNull(CacheEntryCodec.NONE.decode(null));
+  }
+
+  @Test
+  void testCompressedValuesRoundTrip() {
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.DEFLATE, MIN_COMPRESS_BYTES);
+    byte[] value = compressible(64 * 1024);
+
+    byte[] stored = codec.encode(value);
+
+    assertTrue(stored.length < value.length / 4);
+    assertEquals(CacheCompression.DEFLATE.getId(), stored[4]);
+    assertArrayEquals(value, codec.decode(stored));
+  }
+
+  @Test
+  void testRealFooterCompresses() throws IOException {
+    byte[] file = Files.readAllBytes(Paths.get("src/test/resources/call_center.parquet"));
+    int footerLength =
+        (file[file.length - 8] & 0xff)
+            | (file[file.length - 7] & 0xff) << 8
+            | (file[file.length - 6] & 0xff) << 16
+            | (file[file.length - 5] & 0xff) << 24;
+    byte[] footer = Arrays.copyOfRange(file, file.length - 8 - footerLength, file.length - 8);
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.DEFLATE, MIN_COMPRESS_BYTES);
+
+    byte[] stored = codec.encode(footer);
+
+    assertTrue(stored.length < footer.length);
+    assertArrayEquals(footer, codec.decode(stored));
+  }
+
+  @Test
+  void testSmallValuesAreStoredUncompressedBehindAHeader() {
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.DEFLATE, MIN_COMPRESS_BYTES);
+    byte[] value = compressible(MIN_COMPRESS_BYTES - 1);
+
+    byte[] stored = codec.encode(value);
+
+    assertEquals(CacheEntryCodec.HEADER_SIZE + value.length, stored.length);
+    assertEquals(CacheCompression.NONE.getId(), stored[4]);
+    assertArrayEquals(value, codec.decode(stored));
+  }
+
+  @Test
+  void testIncompressibleValuesAreStoredUncompressed() {
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.DEFLATE, MIN_COMPRESS_BYTES);
+    byte[] value = new byte[4096];
+    new Random(42).nextBytes(value);
+
+    byte[] stored = codec.encode(value);
+
+    assertEquals(CacheEntryCodec.HEADER_SIZE + value.length, stored.length);
+    assertArrayEquals(value, codec.decode(stored));
+  }
+
+  @Test
+  void testValuesWithoutHeaderAreReturnedAsTheyAre() {
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.DEFLATE, MIN_COMPRESS_BYTES);
+    byte[] value = compressible(1024);
+
+    assertSame(value, codec.decode(value));
+  }
+
+  @Test
+  void testAnyCodecDecodesCompressedValues() {
+    byte[] value = compressible(1024);
+    byte[] stored =
+        new CacheEntryCodec(CacheCompression.DEFLATE, MIN_COMPRESS_BYTES).encode(value);
+
+    assertArrayEquals(value, new CacheEntryCodec(CacheCompression.NONE, 0).decode(stored));
+  }
+
+  @Test
+  void testValuesAreStoredBehindAHeaderWhenCompressionIsDisabled() {
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.NONE, 0);
+    byte[] value = compressible(MIN_COMPRESS_BYTES);
+
+    byte[] stored = codec.encode(value);
+
+    assertEquals(CacheEntryCodec.HEADER_SIZE + value.length, stored.length);
+    assertEquals(CacheCompression.NONE.getId(), stored[4]);
+    assertArrayEquals(value, codec.decode(stored));
+  }
+
+  @Test
+  void testValuesStartingLikeAHeaderRoundTrip() {
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.NONE, 0);
+    byte[] value = "AALC is not a header".getBytes(StandardCharsets.UTF_8);
+
+    // Values are taken as they are by the codec storing no header
+    assertSame(value, CacheEntryCodec.NONE.decode(CacheEntryCodec.NONE.encode(value)));
+    // And are stored behind a header by the others
+    assertArrayEquals(value, codec.decode(codec.encode(value)));
+  }
+
+  @Test
+  void testCorruptValuesAreRejected() {
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.DEFLATE, MIN_COMPRESS_BYTES);
+    byte[] stored = codec.encode(compressible(1024));
+
+    byte[] truncated = Arrays.copyOf(stored, stored.length - 4);
+    assertThrows(IllegalStateException.class, () -> codec.decode(truncated));
+
+    byte[] unknownCodec = stored.clone();
+    unknownCodec[4] = 42;
+    assertThrows(IllegalStateException.class, () -> codec.decode(unknownCodec));
+
+    byte[] wrongLength = stored.clone();
+    wrongLength[8]++;
+    assertThrows(IllegalStateException.class, () -> codec.decode(wrongLength));
+  }
+
+  private static byte[] compressible(int size) {
+    byte[] value = new byte[size];
+    for (int i = 0; i < size; i++) {
+      value[i] = (byte) (i % 16);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.CircuitBreakerCacheImpl.State;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class CircuitBreakerCacheImplTest {
+  private static final String KEY = "s3://bucket/key#etag#[0-99]";
+  private static final byte[] VALUE = new byte[] {1, 2, 3};
+  private static final long OPEN_MS = 1000;
+  private static final int MIN_SAMPLES = 20;
+
+  @Test
+  void testConstructorThrowsOnInvalidArguments() {
+    Cache cache = mock(Cache.class);
+    AtomicLong clock = new AtomicLong();
+
+    assertThrows(
+        NullPointerException.class,
+        () -> new CircuitBreakerCacheImpl(null, cache, PhysicalIOConfiguration.DEFAULT));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new CircuitBreakerCacheImpl(
+                TestTelemetry.DEFAULT, null, PhysicalIOConfiguration.DEFAULT));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new CircuitBreakerCacheImpl(
+                TestTelemetry.DEFAULT, cache, (PhysicalIOConfiguration) null));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new CircuitBreakerCacheImpl(TestTelemetry.DEFAULT, cache, 0, OPEN_MS, clock::get));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new CircuitBreakerCacheImpl(TestTelemetry.DEFAULT, cache, 0.5, 0, clock::get));
+  }
+
+  @Test
+  void testCircuitOpensOnErrors() {
+    Telemetry telemetry = mock(Telemetry.class);
+    Cache cache = mock(Cache.class);
+    when(cache.get(any(), anyLong())).thenReturn(failed(new TimeoutException()));
+    AtomicLong clock = new AtomicLong();
+    CircuitBreakerCacheImpl breaker =
+        new CircuitBreakerCacheImpl(telemetry, cache, 0.5, OPEN_MS, clock::get);
+
+    for (int i = 0; i < MIN_SAMPLES; i++) {
+      assertEquals(State.CLOSED, breaker.getState());
+      assertThrows(CompletionException.class, () -> breaker.get(KEY, 20).join());
+    }
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertNull(breaker.get(KEY, 20).join());
+    verify(cache, times(MIN_SAMPLES)).get(any(), anyLong());
+    assertEquals(1, breaker.getBypassedCount());
+    verify(telemetry)
+        .measure(
+            eq(Metric.builder().name("cache.circuit.state").build()),
+            eq((double) State.OPEN.ordinal()));
+  }
+
+  @Test
+  void testCircuitOpensWhenCacheIsSlowerThanS3() {
+    AtomicLong clock = new AtomicLong();
+    Cache cache = mock(Cache.class);
+    when(cache.get(any(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+              return CompletableFuture.completedFuture(VALUE);
+            });
+    CircuitBreakerCacheImpl breaker =
+        new CircuitBreakerCacheImpl(TestTelemetry.DEFAULT, cache, 0.5, OPEN_MS, clock::get);
+
+    // Lookups are not held against S3 until its latency is known
+    for (int i = 0; i < MIN_SAMPLES; i++) {
+      assertArrayEquals(VALUE, breaker.get(KEY, 20).join());
+    }
+    assertEquals(State.CLOSED, breaker.getState());
+
+    for (int i = 0; i < MIN_SAMPLES; i++) {
+      breaker.reportOriginLatency(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+    breaker.get(KEY, 20).join();
+
+    assertEquals(State.OPEN, breaker.getState());
+    verify(cache, times(MIN_SAMPLES)).reportOriginLatency(TimeUnit.MILLISECONDS.toNanos(5));
+  }
+
+  @Test
+  void testCircuitStaysClosedWhenCacheIsFasterThanS3() {
+    AtomicLong clock = new AtomicLong();
+    Cache cache = mock(Cache.class);
+    when(cache.get(any(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+              return CompletableFuture.completedFuture(VALUE);
+            });
+    CircuitBreakerCacheImpl breaker =
+        new CircuitBreakerCacheImpl(TestTelemetry.DEFAULT, cache, 0.5, OPEN_MS, clock::get);
+
+    for (int i = 0; i < 2 * MIN_SAMPLES; i++) {
+      breaker.reportOriginLatency(TimeUnit.MILLISECONDS.toNanos(30));
+      assertArrayEquals(VALUE, breaker.get(KEY, 20).join());
+    }
+
+    assertEquals(State.CLOSED, breaker.getState());
+    assertEquals(0, breaker.getBypassedCount());
+  }
+
+  @Test
+  void testOpenCircuitBypassesUpdatesAndBatches() {
+    AtomicLong clock = new AtomicLong();
+    Cache cache = mock(Cache.class);
+    CircuitBreakerCacheImpl breaker = openCircuit(cache, clock);
+
+    CompletionException e =
+        assertThrows(CompletionException.class, () -> breaker.set(KEY, VALUE, 20).join());
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    assertThrows(
+        CompletionException.class,
+        () -> breaker.setAll(Collections.singletonMap(KEY, VALUE), 20).join());
+    assertTrue(breaker.getAll(Collections.singletonList(KEY), 20).join().isEmpty());
+
+    verify(cache, never()).set(any(), any(), anyLong());
+    verify(cache, never()).setAll(any(), anyLong());
+    verify(cache, never()).getAll(any(), anyLong());
+  }
+
+  @Test
+  void testSuccessfulProbeClosesCircuit() {
+    AtomicLong clock = new AtomicLong();
+    Cache cache = mock(Cache.class);
+    CircuitBreakerCacheImpl breaker = openCircuit(cache, clock);
+    CompletableFuture<byte[]> probe = new CompletableFuture<>();
+    when(cache.get(any(), anyLong())).thenReturn(probe);
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+    CompletableFuture<byte[]> probeLookup = breaker.get(KEY, 20);
+    assertEquals(State.HALF_OPEN, breaker.getState());
+
+    // Only one lookup probes the cache at a time
+    assertNull(breaker.get(KEY, 20).join());
+    assertThrows(CompletionException.class, () -> breaker.set(KEY, VALUE, 20).join());
+
+    probe.complete(VALUE);
+    assertArrayEquals(VALUE, probeLookup.join());
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void testFailedProbeReopensCircuit() {
+    AtomicLong clock = new AtomicLong();
+    Cache cache = mock(Cache.class);
+    CircuitBreakerCacheImpl breaker = openCircuit(cache, clock);
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+    assertThrows(CompletionException.class, () -> breaker.get(KEY, 20).join());
+    assertEquals(State.OPEN, breaker.getState());
+
+    // The open period starts over
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS) - 1);
+    assertNull(breaker.get(KEY, 20).join());
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  @Test
+  void testCloseAndClearReachTheCache() {
+    Cache cache = mock(Cache.class);
+    CircuitBreakerCacheImpl breaker =
+        new CircuitBreakerCacheImpl(TestTelemetry.DEFAULT, cache, PhysicalIOConfiguration.DEFAULT);
+
+    breaker.clearCache();
+    breaker.close();
+
+    verify(cache).clearCache();
+    verify(cache).close();
+  }
+
+  private static CircuitBreakerCacheImpl openCircuit(Cache cache, AtomicLong clock) {
+    when(cache.get(any(), anyLong())).thenReturn(failed(new TimeoutException()));
+    CircuitBreakerCacheImpl breaker =
+        new CircuitBreakerCacheImpl(TestTelemetry.DEFAULT, cache, 0.5, OPEN_MS, clock::get);
+    for (int i = 0; i < MIN_SAMPLES; i++) {
+      breaker.get(KEY, 20);
+    }
+    assertEquals(State.OPEN, breaker.getState());
+    return breaker;
+  }
+
+  private static <T> CompletableFuture<T> failed(Throwable error) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    result.completeExceptionally(error);
+    return result;
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class DiskCacheImplTest {
+  // Header of 16 bytes, a key of 2 bytes and a value of 100 bytes
+  private static final int RECORD_SIZE = 118;
+  private static final int VALUE_SIZE = 100;
+
+  @Test
+  void testConstructorThrowsOnInvalidArguments(@TempDir Path directory) {
+    assertThrows(NullPointerException.class, () -> new DiskCacheImpl(null, 1024, 1024));
+    assertThrows(IllegalArgumentException.class, () -> new DiskCacheImpl(directory, 0, 1024));
+    assertThrows(IllegalArgumentException.class, () -> new DiskCacheImpl(directory, 1024, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new DiskCacheImpl(directory, 1024, Integer.MAX_VALUE + 1L));
+  }
+
+  @Test
+  void testGetReturnsValueSet(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    cache.set("k1", value(1));
+
+    assertArrayEquals(value(1), cache.get("k1"));
+    assertNull(cache.get("k2"));
+    cache.close();
+  }
+
+  @Test
+  void testSetReplacesValue(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    cache.set("k1", value(1));
+    cache.set("k1", value(2));
+
+    assertArrayEquals(value(2), cache.get("k1"));
+    assertEquals(1, cache.getEntryCount());
+    cache.close();
+  }
+
+  @Test
+  void testEntriesSurviveRestart(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, 2 * RECORD_SIZE);
+    cache.set("k1", value(1));
+    cache.set("k2", value(2));
+    cache.set("k3", value(3));
+    cache.set("k1", value(4));
+    cache.close();
+
+    DiskCacheImpl reopened = new DiskCacheImpl(directory, 1024 * 1024, 2 * RECORD_SIZE);
+    assertEquals(3, reopened.getEntryCount());
+    assertArrayEquals(value(4), reopened.get("k1"));
+    assertArrayEquals(value(2), reopened.get("k2"));
+    assertArrayEquals(value(3), reopened.get("k3"));
+
+    reopened.set("k4", value(5));
+    assertArrayEquals(value(5), reopened.get("k4"));
+    reopened.close();
+  }
+
+  @Test
+  void testTornRecordIsDiscardedOnRestart(@TempDir Path directory) throws IOException {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    cache.set("k1", value(1));
+    cache.set("k2", value(2));
+    cache.close();
+
+    // Simulate a crash in the middle of writing the second record
+    Path segment = segmentFiles(directory)[0];
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(2 * RECORD_SIZE - 10);
+    }
+
+    DiskCacheImpl reopened = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    assertArrayEquals(value(1), reopened.get("k1"));
+    assertNull(reopened.get("k2"));
+    assertEquals(RECORD_SIZE, Files.size(segment));
+    assertEquals(RECORD_SIZE, reopened.getDiskBytes());
+    reopened.close();
+  }
+
+  @Test
+  void testCorruptRecordIsDiscardedOnRestart(@TempDir Path directory) throws IOException {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    cache.set("k1", value(1));
+    cache.set("k2", value(2));
+    cache.close();
+
+    // Flip a byte of the value of the second record
+    Path segment = segmentFiles(directory)[0];
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {42}), 2 * RECORD_SIZE - 1);
+    }
+
+    DiskCacheImpl reopened = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    assertArrayEquals(value(1), reopened.get("k1"));
+    assertNull(reopened.get("k2"));
+    reopened.close();
+  }
+
+  @Test
+  void testLeastRecentlyUsedEntriesAreEvicted(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 3 * RECORD_SIZE, RECORD_SIZE);
+    cache.set("k1", value(1));
+    cache.set("k2", value(2));
+    cache.set("k3", value(3));
+    assertNotNull(cache.get("k1"));
+
+    cache.set("k4", value(4));
+
+    assertNull(cache.get("k2"));
+    assertArrayEquals(value(1), cache.get("k1"));
+    assertArrayEquals(value(3), cache.get("k3"));
+    assertArrayEquals(value(4), cache.get("k4"));
+    assertEquals(3, cache.getSegmentCount());
+    assertEquals(3 * RECORD_SIZE, cache.getDiskBytes());
+    cache.close();
+  }
+
+  @Test
+  void testSegmentsWithoutLiveRecordsAreDeleted(@TempDir Path directory) throws IOException {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, 2 * RECORD_SIZE);
+    cache.set("k1", value(1));
+    cache.set("k2", value(2));
+    cache.set("k1", value(3));
+    cache.set("k2", value(4));
+
+    assertEquals(1, cache.getSegmentCount());
+    assertEquals(1, segmentFiles(directory).length);
+    assertEquals(2 * RECORD_SIZE, cache.getDiskBytes());
+    cache.close();
+  }
+
+  @Test
+  void testSegmentWithFewestLiveBytesIsReclaimed(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 3 * RECORD_SIZE + 10, 2 * RECORD_SIZE);
+    cache.set("k1", value(1));
+    cache.set("k2", value(2));
+    cache.set("k1", value(3));
+    cache.set("k3", value(4));
+
+    // The first segment only holds k2 and a superseded k1, so it is reclaimed to make room
+    assertNull(cache.get("k2"));
+    assertArrayEquals(value(3), cache.get("k1"));
+    assertArrayEquals(value(4), cache.get("k3"));
+    assertEquals(1, cache.getSegmentCount());
+    assertEquals(2 * RECORD_SIZE, cache.getDiskBytes());
+    cache.close();
+  }
+
+  @Test
+  void testValuesLargerThanSegmentAreNotCached(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, RECORD_SIZE - 1);
+    cache.set("k1", value(1));
+
+    assertNull(cache.get("k1"));
+    assertEquals(0, cache.getSegmentCount());
+    cache.close();
+  }
+
+  @Test
+  void testClearCacheDeletesSegments(@TempDir Path directory) throws IOException {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, RECORD_SIZE);
+    cache.set("k1", value(1));
+    cache.set("k2", value(2));
+
+    cache.clearCache();
+
+    assertNull(cache.get("k1"));
+    assertEquals(0, cache.getEntryCount());
+    assertEquals(0, cache.getDiskBytes());
+    assertEquals(0, segmentFiles(directory).length);
+
+    cache.set("k3", value(3));
+    assertArrayEquals(value(3), cache.get("k3"));
+    cache.close();
+  }
+
+  @Test
+  void testClosedCacheMisses(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    cache.set("k1", value(1));
+    cache.close();
+
+    assertNull(cache.get("k1"));
+    cache.set("k2", value(2));
+    assertNull(cache.get("k2"));
+  }
+
+  @Test
+  void testDirectoryIsUsedByOneInstance(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    cache.set("k1", value(1));
+
+    // A second instance cannot open the directory while the first one has it open
+    assertThrows(UncheckedIOException.class, () -> new DiskCacheImpl(directory, 1024 * 1024, 1024));
+    assertArrayEquals(value(1), cache.get("k1"));
+
+    cache.close();
+    DiskCacheImpl reopened = new DiskCacheImpl(directory, 1024 * 1024, 1024);
+    assertArrayEquals(value(1), reopened.get("k1"));
+    reopened.close();
+  }
+
+  @Test
+  void testValuesSpanningMappedWindowsAreRead(@TempDir Path directory) {
+    DiskCacheImpl cache = new DiskCacheImpl(directory, 8 * 1024 * 1024, 4 * 1024 * 1024);
+    byte[] first = new byte[1024 * 1024 - 100];
+    byte[] second = new byte[3000];
+    Arrays.fill(first, (byte) 1);
+    for (int i = 0; i < second.length; i++) {
+      second[i] = (byte) i;
+    }
+
+    cache.set("k1", first);
+    cache.set("k2", second);
+
+    assertArrayEquals(first, cache.get("k1"));
+    assertArrayEquals(second, cache.get("k2"));
+    cache.close();
+  }
+
+  private static Path[] segmentFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().startsWith("segment-"))
+          .sorted()
+          .toArray(Path[]::new);
+    }
+  }
+
+  private static byte[] value(int seed) {
+    byte[] value = new byte[VALUE_SIZE];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = (byte) (seed * 31 + i);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class MemoryCacheImplTest {
+  private static final int VALUE_SIZE = 100;
+
+  @Test
+  void testConstructorThrowsOnInvalidArguments() {
+    assertThrows(NullPointerException.class, () -> new MemoryCacheImpl(null, 1024));
+    assertThrows(
+        NullPointerException.class,
+        () -> new MemoryCacheImpl(TestTelemetry.DEFAULT, (PhysicalIOConfiguration) null));
+    assertThrows(
+        IllegalArgumentException.class, () -> new MemoryCacheImpl(TestTelemetry.DEFAULT, 0));
+  }
+
+  @Test
+  void testGetReturnsCopyOfValueSet() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    byte[] value = value(1);
+    cache.set("k1", value);
+    value[0]++;
+
+    byte[] cached = cache.get("k1");
+    assertArrayEquals(value(1), cached);
+    cached[0]++;
+    assertArrayEquals(value(1), cache.get("k1"));
+
+    assertNull(cache.get("k2"));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void testSetReplacesValue() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    cache.set("k1", value(1));
+    cache.set("k1", new byte[10]);
+
+    assertArrayEquals(new byte[10], cache.get("k1"));
+    assertEquals(10, cache.getResidentBytes());
+  }
+
+  @Test
+  void testInvalidateRemovesValue() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    cache.set("k1", value(1));
+
+    assertTrue(cache.invalidate("k1"));
+    assertFalse(cache.invalidate("k1"));
+    assertNull(cache.get("k1"));
+    assertEquals(0, cache.getResidentBytes());
+  }
+
+  @Test
+  void testInvalidatePrefixRemovesMatchingValues() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    cache.set("s3://bucket/key#etag1#0-9", value(1));
+    cache.set("s3://bucket/key#etag1#10-19", value(2));
+    cache.set("s3://bucket/key#etag2#0-9", value(3));
+
+    assertEquals(2, cache.invalidatePrefix("s3://bucket/key#etag1#"));
+    assertNull(cache.get("s3://bucket/key#etag1#0-9"));
+    assertNull(cache.get("s3://bucket/key#etag1#10-19"));
+    assertArrayEquals(value(3), cache.get("s3://bucket/key#etag2#0-9"));
+    assertEquals(0, cache.invalidatePrefix("s3://bucket/key#etag1#"));
+  }
+
+  @Test
+  void testAsyncAccessCompletesImmediately() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    CompletableFuture<Void> update = cache.set("k1", value(1), 20);
+
+    assertTrue(update.isDone());
+    CompletableFuture<byte[]> lookup = cache.get("k1", 20);
+    assertTrue(lookup.isDone());
+    assertArrayEquals(value(1), lookup.join());
+    assertNull(cache.get("k2", 20).join());
+  }
+
+  @Test
+  void testBatchAccessFallsBackToSingleKeys() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    Map<String, byte[]> entries = new HashMap<>();
+    entries.put("k1", value(1));
+    entries.put("k2", value(2));
+
+    cache.setAll(entries, 20).join();
+    Map<String, byte[]> values = cache.getAll(Arrays.asList("k1", "k2", "k3"), 20).join();
+
+    assertEquals(2, values.size());
+    assertArrayEquals(value(1), values.get("k1"));
+    assertArrayEquals(value(2), values.get("k2"));
+    assertFalse(values.containsKey("k3"));
+  }
+
+  @Test
+  void testCapacityIsRespected() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 10 * VALUE_SIZE);
+    for (int i = 0; i < 30; i++) {
+      cache.set("k" + i, value(i));
+    }
+
+    assertTrue(cache.getResidentBytes() <= 10 * VALUE_SIZE);
+    assertEquals(20, cache.getEvictionCount());
+  }
+
+  @Test
+  void testFrequentlyReadEntriesSurviveScan() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 10 * VALUE_SIZE);
+    for (int i = 0; i < 5; i++) {
+      cache.set("hot" + i, value(i));
+      for (int j = 0; j < 5; j++) {
+        assertNotNull(cache.get("hot" + i));
+      }
+    }
+
+    // Entries read once do not displace the ones read often
+    for (int i = 0; i < 100; i++) {
+      cache.set("scan" + i, value(i));
+    }
+
+    for (int i = 0; i < 5; i++) {
+      assertArrayEquals(value(i), cache.get("hot" + i));
+    }
+  }
+
+  @Test
+  void testEntryRequestedMoreOftenIsAdmitted() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 3 * VALUE_SIZE);
+    cache.set("k1", value(1));
+    cache.set("k2", value(2));
+    cache.set("k3", value(3));
+
+    // Misses count towards the popularity of a key, as they do for a tail metadata read
+    for (int i = 0; i < 3; i++) {
+      assertNull(cache.get("k4"));
+    }
+    cache.set("k4", value(4));
+
+    assertArrayEquals(value(4), cache.get("k4"));
+    assertNull(cache.get("k1"));
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  void testValuesLargerThanCapacityAreNotCached() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, VALUE_SIZE - 1);
+    cache.set("k1", value(1));
+
+    assertNull(cache.get("k1"));
+    assertEquals(0, cache.getResidentBytes());
+  }
+
+  @Test
+  void testClearCache() {
+    MemoryCacheImpl cache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    cache.set("k1", value(1));
+    cache.clearCache();
+
+    assertNull(cache.get("k1"));
+    assertEquals(0, cache.getResidentBytes());
+  }
+
+  @Test
+  void testMetricsAreReported() {
+    Telemetry telemetry = mock(Telemetry.class);
+    MemoryCacheImpl cache = new MemoryCacheImpl(telemetry, 1024);
+    cache.set("k1", value(1));
+    cache.get("k1");
+    cache.get("k2");
+
+    verify(telemetry, times(2))
+        .measure(eq(Metric.builder().name("cache.memory.hits").build()), eq(1.0));
+    verify(telemetry).measure(eq(Metric.builder().name("cache.memory.misses").build()), eq(1.0));
+    verify(telemetry)
+        .measure(eq(Metric.builder().name("cache.memory.hit.ratio").build()), eq(0.5));
+    verify(telemetry)
+        .measure(eq(Metric.builder().name("cache.memory.resident.bytes").build()), eq(100.0));
+  }
+
+  private static byte[] value(int seed) {
+    byte[] value = new byte[VALUE_SIZE];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = (byte) (seed * 31 + i);
+    }
+    return value;
+  }
+}
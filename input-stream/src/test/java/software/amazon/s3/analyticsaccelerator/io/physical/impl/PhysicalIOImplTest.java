@@ -33,12 +33,15 @@ import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.s3.analyticsaccelerator.S3SdkObjectClient;
 import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.OpenMode;
 import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.io.physical.data.Blob;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.BlobStore;
 import software.amazon.s3.analyticsaccelerator.io.physical.data.MetadataStore;
 import software.amazon.s3.analyticsaccelerator.request.ObjectMetadata;
 import software.amazon.s3.analyticsaccelerator.request.StreamContext;
 import software.amazon.s3.analyticsaccelerator.util.FakeObjectClient;
+import software.amazon.s3.analyticsaccelerator.util.ObjectKey;
 import software.amazon.s3.analyticsaccelerator.util.S3URI;
 
 @SuppressFBWarnings(
@@ -132,6 +135,81 @@ public class PhysicalIOImplTest {
     assertEquals(99, physicalIOImplV2.read(2)); // c
   }
 
+  @Test
+  public void test__openWithTail_servesTailWithoutFurtherRequests() throws IOException {
+    // Given: physicalIOImplV2 opened together with the last 4 bytes of the object
+    final String TEST_DATA = "abcdef0123456789";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    MetadataStore metadataStore =
+        new MetadataStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    BlobStore blobStore =
+        new BlobStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    PhysicalIOImpl physicalIOImplV2 =
+        new PhysicalIOImpl(s3URI, metadataStore, blobStore, TestTelemetry.DEFAULT, null, 4);
+
+    // When: we read the tail
+    // Then: returned data is correct, and it was fetched when opening the object
+    assertEquals(TEST_DATA.length(), physicalIOImplV2.metadata().getContentLength());
+    assertEquals(54, physicalIOImplV2.read(12)); // 6
+    assertEquals(57, physicalIOImplV2.read(15)); // 9
+    assertEquals(1, fakeObjectClient.getGetRequestCount().get());
+
+    // When: we read before the tail
+    // Then: the data is fetched
+    assertEquals(97, physicalIOImplV2.read(0)); // a
+    assertEquals(2, fakeObjectClient.getGetRequestCount().get());
+  }
+
+  @Test
+  public void test__openWithFirstBytes_servesThemWithoutFurtherRequests() throws IOException {
+    // Given: physicalIOImplV2 opened together with the first 4 bytes of the object
+    final String TEST_DATA = "abcdef0123456789";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    MetadataStore metadataStore =
+        new MetadataStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    BlobStore blobStore =
+        new BlobStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    PhysicalIOImpl physicalIOImplV2 =
+        new PhysicalIOImpl(
+            s3URI, metadataStore, blobStore, TestTelemetry.DEFAULT, null, OpenMode.FIRST_BYTES, 4);
+
+    // When: we read the first bytes
+    // Then: returned data is correct, and it was fetched when opening the object
+    assertEquals(TEST_DATA.length(), physicalIOImplV2.metadata().getContentLength());
+    assertEquals(97, physicalIOImplV2.read(0)); // a
+    assertEquals(100, physicalIOImplV2.read(3)); // d
+    assertEquals(1, fakeObjectClient.getGetRequestCount().get());
+  }
+
+  @Test
+  void testOpenLengthMustBePositiveWhenReadingBytes() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new PhysicalIOImpl(
+                s3URI,
+                mock(MetadataStore.class),
+                mock(BlobStore.class),
+                TestTelemetry.DEFAULT,
+                mock(StreamContext.class),
+                OpenMode.FIRST_BYTES,
+                0));
+  }
+
+  @Test
+  void testOpenTailLengthMustNotBeNegative() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new PhysicalIOImpl(
+                s3URI,
+                mock(MetadataStore.class),
+                mock(BlobStore.class),
+                TestTelemetry.DEFAULT,
+                mock(StreamContext.class),
+                -1));
+  }
+
   @Test
   public void test__regression_singleByteStream() throws IOException {
     // Given: physicalIOImplV2 backed by a single byte object
@@ -179,6 +257,36 @@ public class PhysicalIOImplTest {
     assertEquals(1, blobStore.blobCount());
   }
 
+  @Test
+  void testReadIsRetriedOnTheBlobReplacingAClosedOne() throws IOException {
+    // Given: a stream whose first read goes to a Blob that another stream closed
+    final String TEST_DATA = "abcdef0123456789";
+    FakeObjectClient fakeObjectClient = new FakeObjectClient(TEST_DATA);
+    MetadataStore metadataStore =
+        new MetadataStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT);
+    ObjectMetadata objectMetadata =
+        ObjectMetadata.builder().contentLength(TEST_DATA.length()).etag(etag).build();
+    metadataStore.storeObjectMetadata(s3URI, objectMetadata);
+    ObjectKey objectKey = ObjectKey.builder().s3URI(s3URI).etag(etag).build();
+    Blob closedBlob =
+        new BlobStore(fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT)
+            .get(objectKey, objectMetadata, null);
+    closedBlob.close();
+    BlobStore blobStore =
+        spy(
+            new BlobStore(
+                fakeObjectClient, TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT));
+    doReturn(closedBlob).doCallRealMethod().when(blobStore).get(any(), any(), any());
+    PhysicalIOImpl physicalIOImplV2 =
+        new PhysicalIOImpl(s3URI, metadataStore, blobStore, TestTelemetry.DEFAULT);
+
+    // When: we read
+    // Then: the read is served by the Blob that replaced the closed one
+    assertEquals(97, physicalIOImplV2.read(0)); // a
+    verify(blobStore, times(2)).get(any(), any(), any());
+    assertEquals(1, blobStore.blobCount());
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void test_FailureEvictsObjectsAsExpected() throws IOException {
@@ -0,0 +1,145 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class PooledDirectBlockAllocatorTest {
+  private static final int MIN_SLAB = 1024;
+  private static final int MAX_SLAB = 8 * 1024;
+
+  @Test
+  void testCreateBoundaries() {
+    assertThrows(
+        NullPointerException.class,
+        () -> new PooledDirectBlockAllocator(null, MIN_SLAB, MAX_SLAB, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, 1000, MAX_SLAB, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, MAX_SLAB, MIN_SLAB, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, MIN_SLAB, MAX_SLAB, -1));
+  }
+
+  @Test
+  void testAllocateRoundsUpToSizeClass() {
+    PooledDirectBlockAllocator allocator =
+        new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, MIN_SLAB, MAX_SLAB, MAX_SLAB);
+
+    ByteBuffer small = allocator.allocate(10);
+    ByteBuffer medium = allocator.allocate(MIN_SLAB + 1);
+
+    assertTrue(small.isDirect());
+    assertEquals(0, small.position());
+    assertEquals(10, small.limit());
+    assertEquals(MIN_SLAB, small.capacity());
+    assertEquals(2 * MIN_SLAB, medium.capacity());
+    assertEquals(3 * MIN_SLAB, allocator.getInUseBytes());
+  }
+
+  @Test
+  void testReleasedSlabsAreReused() {
+    PooledDirectBlockAllocator allocator =
+        new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, MIN_SLAB, MAX_SLAB, MAX_SLAB);
+
+    ByteBuffer first = allocator.allocate(3000);
+    first.put((byte) 1);
+    allocator.release(first);
+    assertEquals(0, allocator.getInUseBytes());
+    assertEquals(4 * MIN_SLAB, allocator.getPooledBytes());
+
+    ByteBuffer second = allocator.allocate(2500);
+    assertSame(first, second);
+    assertEquals(0, second.position());
+    assertEquals(2500, second.limit());
+    assertEquals(0, allocator.getPooledBytes());
+  }
+
+  @Test
+  void testPoolCapacityIsRespected() {
+    PooledDirectBlockAllocator allocator =
+        new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, MIN_SLAB, MAX_SLAB, MIN_SLAB);
+
+    ByteBuffer first = allocator.allocate(MIN_SLAB);
+    ByteBuffer second = allocator.allocate(MIN_SLAB);
+    allocator.release(first);
+    allocator.release(second);
+
+    // Only one slab fits in the pool
+    assertEquals(MIN_SLAB, allocator.getPooledBytes());
+    assertEquals(0, allocator.getInUseBytes());
+  }
+
+  @Test
+  void testOversizedAndForeignBuffersAreNotPooled() {
+    PooledDirectBlockAllocator allocator =
+        new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, MIN_SLAB, MAX_SLAB, MAX_SLAB);
+
+    ByteBuffer oversized = allocator.allocate(MAX_SLAB + 1);
+    assertFalse(oversized.isDirect());
+    assertEquals(MAX_SLAB + 1, oversized.limit());
+
+    allocator.release(oversized);
+    allocator.release(ByteBuffer.wrap(new byte[MIN_SLAB]));
+    allocator.release(ByteBuffer.allocateDirect(MIN_SLAB));
+    assertEquals(0, allocator.getPooledBytes());
+    assertEquals(0, allocator.getInUseBytes());
+  }
+
+  @Test
+  void testSlabsReleasedTwiceArePooledOnce() {
+    PooledDirectBlockAllocator allocator =
+        new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, MIN_SLAB, MAX_SLAB, MAX_SLAB);
+    ByteBuffer slab = allocator.allocate(MIN_SLAB);
+
+    allocator.release(slab);
+    allocator.release(slab);
+
+    assertEquals(MIN_SLAB, allocator.getPooledBytes());
+    assertEquals(0, allocator.getInUseBytes());
+    assertSame(slab, allocator.allocate(MIN_SLAB));
+    assertNotSame(slab, allocator.allocate(MIN_SLAB));
+  }
+
+  @Test
+  void testCloseDropsPooledSlabs() {
+    PooledDirectBlockAllocator allocator =
+        new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, MIN_SLAB, MAX_SLAB, MAX_SLAB);
+    ByteBuffer slab = allocator.allocate(MIN_SLAB);
+    allocator.release(slab);
+
+    allocator.close();
+
+    assertEquals(0, allocator.getPooledBytes());
+    assertNotSame(slab, allocator.allocate(MIN_SLAB));
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class TieredCacheImplTest {
+  private static final String KEY_V1 = "s3://bucket/key#etag-1#[0-99]";
+  private static final String OTHER_KEY_V1 = "s3://bucket/key#etag-1#[100-199]";
+  private static final String KEY_V2 = "s3://bucket/key#etag-2#[0-99]";
+  private static final byte[] VALUE = new byte[] {1, 2, 3};
+
+  @Test
+  void testConstructorThrowsOnNullArgument() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    Cache remoteCache = mock(Cache.class);
+
+    assertThrows(
+        NullPointerException.class, () -> new TieredCacheImpl(null, nearCache, remoteCache));
+    assertThrows(
+        NullPointerException.class,
+        () -> new TieredCacheImpl(TestTelemetry.DEFAULT, null, remoteCache));
+    assertThrows(
+        NullPointerException.class,
+        () -> new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, null));
+  }
+
+  @Test
+  void testRemoteHitIsKeptInNearCache() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    MemoryCacheImpl remoteCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+    remoteCache.set(KEY_V1, VALUE);
+
+    assertArrayEquals(VALUE, cache.get(KEY_V1, 20).join());
+    assertEquals(1, cache.getRemoteCacheHitCount());
+    assertEquals(0, cache.getNearCacheHitCount());
+
+    assertArrayEquals(VALUE, cache.get(KEY_V1, 20).join());
+    assertEquals(1, cache.getRemoteCacheHitCount());
+    assertEquals(1, cache.getNearCacheHitCount());
+  }
+
+  @Test
+  void testNearHitDoesNotReachRemoteCache() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    Cache remoteCache = mock(Cache.class);
+    when(remoteCache.set(any(), any(), anyLong()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+
+    cache.set(KEY_V1, VALUE, 20).join();
+
+    assertArrayEquals(VALUE, cache.get(KEY_V1, 20).join());
+    verify(remoteCache).set(eq(KEY_V1), eq(VALUE), eq(20L));
+    verify(remoteCache, never()).get(any(), anyLong());
+  }
+
+  @Test
+  void testSetWritesThroughToBothLevels() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    MemoryCacheImpl remoteCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+
+    cache.set(KEY_V1, VALUE, 20).join();
+
+    assertArrayEquals(VALUE, nearCache.get(KEY_V1));
+    assertArrayEquals(VALUE, remoteCache.get(KEY_V1));
+  }
+
+  @Test
+  void testGetAllOnlyAsksRemoteCacheForNearMisses() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    MemoryCacheImpl remoteCache = spy(new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024));
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+    nearCache.set(KEY_V1, VALUE);
+    remoteCache.set(OTHER_KEY_V1, VALUE);
+
+    Map<String, byte[]> values = cache.getAll(Arrays.asList(KEY_V1, OTHER_KEY_V1), 20).join();
+
+    assertEquals(2, values.size());
+    assertEquals(1, cache.getNearCacheHitCount());
+    assertEquals(1, cache.getRemoteCacheHitCount());
+    assertArrayEquals(VALUE, nearCache.get(OTHER_KEY_V1));
+    verify(remoteCache).getAll(eq(Collections.singletonList(OTHER_KEY_V1)), eq(20L));
+  }
+
+  @Test
+  void testMissInBothLevels() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    MemoryCacheImpl remoteCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+
+    assertNull(cache.get(KEY_V1, 20).join());
+    assertEquals(1, cache.getMissCount());
+    assertNull(nearCache.get(KEY_V1));
+  }
+
+  @Test
+  void testRemoteFailureIsSurfacedAndCounted() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    Cache remoteCache = mock(Cache.class);
+    CompletableFuture<byte[]> timedOut = new CompletableFuture<>();
+    timedOut.completeExceptionally(new TimeoutException("timed out"));
+    when(remoteCache.get(any(), anyLong())).thenReturn(timedOut);
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+
+    CompletionException e =
+        assertThrows(CompletionException.class, () -> cache.get(KEY_V1, 20).join());
+    assertInstanceOf(TimeoutException.class, e.getCause());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void testNewEtagInvalidatesNearCacheEntriesOfPreviousEtag() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    MemoryCacheImpl remoteCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+
+    cache.set(KEY_V1, VALUE, 20).join();
+    cache.set(OTHER_KEY_V1, VALUE, 20).join();
+    assertNull(cache.get(KEY_V2, 20).join());
+
+    assertEquals(2, cache.getInvalidationCount());
+    assertNull(nearCache.get(KEY_V1));
+    assertNull(nearCache.get(OTHER_KEY_V1));
+    // The shared cache is keyed by etag too, entries of the old version simply stop being read
+    assertArrayEquals(VALUE, remoteCache.get(KEY_V1));
+  }
+
+  @Test
+  void testKeysWithoutEtagAreCached() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    MemoryCacheImpl remoteCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+
+    cache.set("plain-key", VALUE, 20).join();
+
+    assertArrayEquals(VALUE, cache.get("plain-key", 20).join());
+    assertEquals(0, cache.getInvalidationCount());
+  }
+
+  @Test
+  void testHitRatiosAreReportedPerLevel() {
+    Telemetry telemetry = mock(Telemetry.class);
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    MemoryCacheImpl remoteCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    TieredCacheImpl cache = new TieredCacheImpl(telemetry, nearCache, remoteCache);
+    remoteCache.set(KEY_V1, VALUE);
+
+    cache.get(KEY_V1, 20).join();
+    cache.get(KEY_V1, 20).join();
+
+    verify(telemetry).measure(eq(Metric.builder().name("cache.l1.hit.ratio").build()), eq(0.5));
+    verify(telemetry).measure(eq(Metric.builder().name("cache.l2.hit.ratio").build()), eq(1.0));
+  }
+
+  @Test
+  void testCloseAndClearReachBothLevels() {
+    MemoryCacheImpl nearCache = new MemoryCacheImpl(TestTelemetry.DEFAULT, 1024);
+    Cache remoteCache = mock(Cache.class);
+    TieredCacheImpl cache = new TieredCacheImpl(TestTelemetry.DEFAULT, nearCache, remoteCache);
+
+    cache.clearCache();
+    cache.close();
+
+    verify(remoteCache).clearCache();
+    verify(remoteCache).close();
+  }
+}
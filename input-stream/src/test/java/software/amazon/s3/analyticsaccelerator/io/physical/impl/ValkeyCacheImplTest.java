@@ -22,7 +22,16 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.valkey.JedisCluster;
 import io.valkey.exceptions.JedisException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.util.CacheCompression;
 
 @SuppressFBWarnings(
     value = "NP_NONNULL_PARAM_VIOLATION",
@@ -58,10 +67,11 @@ public class ValkeyCacheImplTest {
     when(mockCluster.get(TEST_KEY_BYTES)).thenReturn(TEST_VALUE_BYTES);
 
     ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster);
-    byte[] result = cache.get(TEST_KEY);
+    byte[] result = cache.get(TEST_KEY, 1000).join();
 
     assertArrayEquals(TEST_VALUE_BYTES, result);
     verify(mockCluster).get(TEST_KEY_BYTES);
+    cache.close();
   }
 
   @Test
@@ -75,9 +85,174 @@ public class ValkeyCacheImplTest {
     final byte[] TEST_VALUE_BYTES = TEST_VALUE.getBytes(StandardCharsets.UTF_8);
 
     ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster);
-    cache.set(TEST_KEY, TEST_VALUE_BYTES);
+    cache.set(TEST_KEY, TEST_VALUE_BYTES, 1000).join();
 
     verify(mockCluster).set(TEST_KEY_BYTES, TEST_VALUE_BYTES);
+    cache.close();
+  }
+
+  @Test
+  void testGetTimesOut() throws InterruptedException {
+    JedisCluster mockCluster = mock(JedisCluster.class);
+    CountDownLatch release = new CountDownLatch(1);
+
+    final String TEST_KEY = "test-key";
+    final byte[] TEST_KEY_BYTES = TEST_KEY.getBytes(StandardCharsets.UTF_8);
+
+    when(mockCluster.get(TEST_KEY_BYTES))
+        .thenAnswer(
+            invocation -> {
+              release.await(10, TimeUnit.SECONDS);
+              return null;
+            });
+
+    ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster);
+    CompletableFuture<byte[]> result = cache.get(TEST_KEY, 10);
+
+    ExecutionException e = assertThrows(ExecutionException.class, result::get);
+    assertInstanceOf(TimeoutException.class, e.getCause());
+
+    release.countDown();
+    cache.close();
+  }
+
+  @Test
+  void testGetSurfacesClusterErrors() {
+    JedisCluster mockCluster = mock(JedisCluster.class);
+    when(mockCluster.get(any(byte[].class))).thenThrow(new JedisException("unreachable"));
+
+    ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster);
+    CompletableFuture<byte[]> result = cache.get("test-key", 1000);
+
+    ExecutionException e = assertThrows(ExecutionException.class, result::get);
+    assertInstanceOf(JedisException.class, e.getCause());
+    cache.close();
+  }
+
+  @Test
+  void testNonPositiveTimeoutIsRejected() {
+    ValkeyCacheImpl cache = new ValkeyCacheImpl(mock(JedisCluster.class));
+
+    assertThrows(IllegalArgumentException.class, () -> cache.get("test-key", 0));
+    cache.close();
+  }
+
+  @Test
+  void testNearbyKeysOfAnObjectVersionShareAHashTag() {
+    assertArrayEquals(
+        "{s3://bucket/key#etag#0}#0-99".getBytes(StandardCharsets.UTF_8),
+        ValkeyCacheImpl.toValkeyKey("s3://bucket/key#etag#0-99"));
+    assertArrayEquals(
+        "{s3://bucket/key#etag#0}#65536-131071".getBytes(StandardCharsets.UTF_8),
+        ValkeyCacheImpl.toValkeyKey("s3://bucket/key#etag#65536-131071"));
+    assertArrayEquals(
+        "{s3://bucket/key#etag#2}#16777216-16842751".getBytes(StandardCharsets.UTF_8),
+        ValkeyCacheImpl.toValkeyKey("s3://bucket/key#etag#16777216-16842751"));
+    assertArrayEquals(
+        "{s3://bucket/key#etag}#[0-99]".getBytes(StandardCharsets.UTF_8),
+        ValkeyCacheImpl.toValkeyKey("s3://bucket/key#etag#[0-99]"));
+    assertArrayEquals(
+        "plain-key".getBytes(StandardCharsets.UTF_8), ValkeyCacheImpl.toValkeyKey("plain-key"));
+  }
+
+  @Test
+  void testGetAllIssuesOneCommandPerObject() {
+    JedisCluster mockCluster = mock(JedisCluster.class);
+    final String FOOTER_KEY = "s3://bucket/key#etag#[900-999]";
+    final String PAGE_INDEX_KEY = "s3://bucket/key#etag#[800-899]";
+    final byte[] FOOTER_VALUE = "footer".getBytes(StandardCharsets.UTF_8);
+
+    when(mockCluster.mget(
+            ValkeyCacheImpl.toValkeyKey(FOOTER_KEY), ValkeyCacheImpl.toValkeyKey(PAGE_INDEX_KEY)))
+        .thenReturn(Arrays.asList(FOOTER_VALUE, null));
+
+    ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster);
+    Map<String, byte[]> values =
+        cache.getAll(Arrays.asList(FOOTER_KEY, PAGE_INDEX_KEY), 1000).join();
+
+    assertEquals(1, values.size());
+    assertArrayEquals(FOOTER_VALUE, values.get(FOOTER_KEY));
+    verify(mockCluster, times(1))
+        .mget(ValkeyCacheImpl.toValkeyKey(FOOTER_KEY), ValkeyCacheImpl.toValkeyKey(PAGE_INDEX_KEY));
+    verify(mockCluster, never()).get(any(byte[].class));
+    cache.close();
+  }
+
+  @Test
+  void testGetAllSpreadsDistantKeysOfAnObjectOverSlots() {
+    JedisCluster mockCluster = mock(JedisCluster.class);
+    final String HEAD_KEY = "s3://bucket/key#etag#0-65535";
+    final String TAIL_KEY = "s3://bucket/key#etag#33554432-33619967";
+    final byte[] VALUE = "value".getBytes(StandardCharsets.UTF_8);
+
+    when(mockCluster.mget(any(byte[].class))).thenReturn(Arrays.asList(VALUE));
+
+    ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster);
+    Map<String, byte[]> values = cache.getAll(Arrays.asList(HEAD_KEY, TAIL_KEY), 1000).join();
+
+    assertEquals(2, values.size());
+    verify(mockCluster, times(1)).mget(ValkeyCacheImpl.toValkeyKey(HEAD_KEY));
+    verify(mockCluster, times(1)).mget(ValkeyCacheImpl.toValkeyKey(TAIL_KEY));
+    cache.close();
+  }
+
+  @Test
+  void testSetAllIssuesOneCommandPerObject() {
+    JedisCluster mockCluster = mock(JedisCluster.class);
+    final String FOOTER_KEY = "s3://bucket/key#etag#[900-999]";
+    final String PAGE_INDEX_KEY = "s3://bucket/key#etag#[800-899]";
+    final byte[] FOOTER_VALUE = "footer".getBytes(StandardCharsets.UTF_8);
+    final byte[] PAGE_INDEX_VALUE = "page-index".getBytes(StandardCharsets.UTF_8);
+
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put(FOOTER_KEY, FOOTER_VALUE);
+    entries.put(PAGE_INDEX_KEY, PAGE_INDEX_VALUE);
+
+    ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster);
+    cache.setAll(entries, 1000).join();
+
+    verify(mockCluster, times(1))
+        .mset(
+            ValkeyCacheImpl.toValkeyKey(FOOTER_KEY),
+            FOOTER_VALUE,
+            ValkeyCacheImpl.toValkeyKey(PAGE_INDEX_KEY),
+            PAGE_INDEX_VALUE);
+    verify(mockCluster, never()).set(any(byte[].class), any(byte[].class));
+    cache.close();
+  }
+
+  @Test
+  void testValuesAreCompressedWhenEnabled() {
+    JedisCluster mockCluster = mock(JedisCluster.class);
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.DEFLATE, 0);
+    final String KEY = "s3://bucket/key#etag#[0-4095]";
+    final byte[] VALUE = new byte[4096];
+    final byte[] STORED = codec.encode(VALUE);
+    when(mockCluster.get(ValkeyCacheImpl.toValkeyKey(KEY))).thenReturn(STORED);
+
+    ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster, codec);
+    cache.set(KEY, VALUE, 1000).join();
+
+    verify(mockCluster).set(ValkeyCacheImpl.toValkeyKey(KEY), STORED);
+    assertTrue(STORED.length < VALUE.length);
+    assertArrayEquals(VALUE, cache.get(KEY, 1000).join());
+    cache.close();
+  }
+
+  @Test
+  void testCorruptValueFailsLookup() {
+    JedisCluster mockCluster = mock(JedisCluster.class);
+    CacheEntryCodec codec = new CacheEntryCodec(CacheCompression.DEFLATE, 0);
+    final String KEY = "s3://bucket/key#etag#[0-4095]";
+    final byte[] STORED = codec.encode(new byte[4096]);
+    when(mockCluster.get(ValkeyCacheImpl.toValkeyKey(KEY)))
+        .thenReturn(Arrays.copyOf(STORED, STORED.length - 1));
+
+    ValkeyCacheImpl cache = new ValkeyCacheImpl(mockCluster, codec);
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> cache.get(KEY, 1000).get());
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    cache.close();
   }
 
   @Test
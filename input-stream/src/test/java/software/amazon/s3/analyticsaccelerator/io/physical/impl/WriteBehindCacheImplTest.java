@@ -0,0 +1,194 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.Cache;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class WriteBehindCacheImplTest {
+  private static final byte[] VALUE = new byte[] {1, 2, 3};
+
+  @Test
+  void testConstructorThrowsOnInvalidArguments() {
+    Cache cache = mock(Cache.class);
+
+    assertThrows(NullPointerException.class, () -> new WriteBehindCacheImpl(null, cache, 1, 1));
+    assertThrows(
+        NullPointerException.class,
+        () -> new WriteBehindCacheImpl(TestTelemetry.DEFAULT, null, 1, 1));
+    assertThrows(
+        NullPointerException.class,
+        () ->
+            new WriteBehindCacheImpl(TestTelemetry.DEFAULT, cache, (PhysicalIOConfiguration) null));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new WriteBehindCacheImpl(TestTelemetry.DEFAULT, cache, 0, 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new WriteBehindCacheImpl(TestTelemetry.DEFAULT, cache, 1, 0));
+  }
+
+  @Test
+  void testSetDoesNotWaitForTheCache() {
+    Cache cache = mock(Cache.class);
+    CompletableFuture<Void> cacheWrite = new CompletableFuture<>();
+    when(cache.setAll(any(), anyLong())).thenReturn(cacheWrite);
+    WriteBehindCacheImpl writeBehindCache =
+        new WriteBehindCacheImpl(TestTelemetry.DEFAULT, cache, 16, 16);
+
+    CompletableFuture<Void> update = writeBehindCache.set("k1", VALUE, 20);
+    verify(cache, timeout(1000)).setAll(eq(Collections.singletonMap("k1", VALUE)), eq(20L));
+    assertFalse(update.isDone());
+
+    cacheWrite.complete(null);
+    update.join();
+    writeBehindCache.close();
+  }
+
+  @Test
+  void testQueuedValuesAreServedToLookups() {
+    Cache cache = mock(Cache.class);
+    CompletableFuture<Void> cacheWrite = new CompletableFuture<>();
+    when(cache.setAll(any(), anyLong())).thenReturn(cacheWrite);
+    when(cache.get(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+    WriteBehindCacheImpl writeBehindCache =
+        new WriteBehindCacheImpl(TestTelemetry.DEFAULT, cache, 16, 16);
+
+    CompletableFuture<Void> update = writeBehindCache.set("k1", VALUE, 20);
+    assertArrayEquals(VALUE, writeBehindCache.get("k1", 20).join());
+    assertArrayEquals(
+        VALUE, writeBehindCache.getAll(Collections.singletonList("k1"), 20).join().get("k1"));
+
+    cacheWrite.complete(null);
+    update.join();
+    assertNull(writeBehindCache.get("k1", 20).join());
+    writeBehindCache.close();
+  }
+
+  @Test
+  void testQueuedUpdatesAreWrittenInBatches() {
+    Cache cache = mock(Cache.class);
+    CompletableFuture<Void> firstWrite = new CompletableFuture<>();
+    when(cache.setAll(any(), anyLong()))
+        .thenReturn(firstWrite, CompletableFuture.completedFuture(null));
+    WriteBehindCacheImpl writeBehindCache =
+        new WriteBehindCacheImpl(TestTelemetry.DEFAULT, cache, 16, 16);
+
+    // The first update keeps the writer busy while the others queue up
+    CompletableFuture<Void> first = writeBehindCache.set("k1", VALUE, 20);
+    verify(cache, timeout(1000)).setAll(eq(Collections.singletonMap("k1", VALUE)), eq(20L));
+    CompletableFuture<Void> second = writeBehindCache.set("k2", VALUE, 20);
+    CompletableFuture<Void> third = writeBehindCache.set("k3", VALUE, 30);
+    assertEquals(2, writeBehindCache.getQueueDepth());
+
+    firstWrite.complete(null);
+    CompletableFuture.allOf(first, second, third).join();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Map<String, byte[]>> entries = ArgumentCaptor.forClass(Map.class);
+    verify(cache).setAll(entries.capture(), eq(30L));
+    assertEquals(Arrays.asList("k2", "k3"), Arrays.asList(entries.getValue().keySet().toArray()));
+    writeBehindCache.close();
+  }
+
+  @Test
+  void testUpdatesAreDroppedWhenTheQueueIsFull() {
+    Telemetry telemetry = mock(Telemetry.class);
+    Cache cache = mock(Cache.class);
+    CompletableFuture<Void> cacheWrite = new CompletableFuture<>();
+    when(cache.setAll(any(), anyLong())).thenReturn(cacheWrite);
+    WriteBehindCacheImpl writeBehindCache = new WriteBehindCacheImpl(telemetry, cache, 1, 1);
+
+    writeBehindCache.set("k1", VALUE, 20);
+    verify(cache, timeout(1000)).setAll(any(), anyLong());
+    writeBehindCache.set("k2", VALUE, 20);
+    CompletableFuture<Void> dropped = writeBehindCache.set("k3", VALUE, 20);
+
+    CompletionException e = assertThrows(CompletionException.class, dropped::join);
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    assertEquals(1, writeBehindCache.getDroppedWriteCount());
+    verify(telemetry)
+        .measure(eq(Metric.builder().name("cache.write.behind.dropped").build()), eq(1.0));
+    verify(telemetry, atLeastOnce())
+        .measure(eq(Metric.builder().name("cache.write.behind.queue.depth").build()), eq(1.0));
+
+    cacheWrite.complete(null);
+    verify(telemetry, timeout(1000))
+        .measure(
+            eq(Metric.builder().name("cache.write.behind.write.latency.ms").build()), anyDouble());
+    writeBehindCache.close();
+  }
+
+  @Test
+  void testFailedWriteFailsTheUpdate() {
+    Cache cache = mock(Cache.class);
+    CompletableFuture<Void> cacheWrite = new CompletableFuture<>();
+    cacheWrite.completeExceptionally(new IllegalStateException("cache unavailable"));
+    when(cache.setAll(any(), anyLong())).thenReturn(cacheWrite);
+    WriteBehindCacheImpl writeBehindCache =
+        new WriteBehindCacheImpl(TestTelemetry.DEFAULT, cache, 16, 16);
+
+    CompletableFuture<Void> update = writeBehindCache.set("k1", VALUE, 20);
+
+    CompletionException e = assertThrows(CompletionException.class, update::join);
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    writeBehindCache.close();
+  }
+
+  @Test
+  void testCloseDropsQueuedUpdatesAndClosesTheCache() {
+    Cache cache = mock(Cache.class);
+    when(cache.setAll(any(), anyLong())).thenReturn(new CompletableFuture<>());
+    WriteBehindCacheImpl writeBehindCache =
+        new WriteBehindCacheImpl(TestTelemetry.DEFAULT, cache, 16, 1);
+
+    writeBehindCache.set("k1", VALUE, 20);
+    verify(cache, timeout(1000)).setAll(any(), anyLong());
+    CompletableFuture<Void> queued = writeBehindCache.set("k2", VALUE, 20);
+    writeBehindCache.close();
+
+    CompletionException e = assertThrows(CompletionException.class, queued::join);
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    verify(cache).close();
+    assertTrue(writeBehindCache.set("k3", VALUE, 20).isCompletedExceptionally());
+  }
+}
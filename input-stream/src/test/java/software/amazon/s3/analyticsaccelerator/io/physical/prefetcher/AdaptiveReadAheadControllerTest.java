@@ -0,0 +1,118 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.io.physical.prefetcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_KB;
+import static software.amazon.s3.analyticsaccelerator.util.Constants.ONE_MB;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+
+public class AdaptiveReadAheadControllerTest {
+  private static final PhysicalIOConfiguration CONFIGURATION =
+      PhysicalIOConfiguration.builder()
+          .readAheadBytes(64 * ONE_KB)
+          .adaptiveReadAheadEnabled(true)
+          .adaptiveReadAheadMinBytes(16 * ONE_KB)
+          .adaptiveReadAheadMaxBytes(ONE_MB)
+          .build();
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  void testFirstMissUsesConfiguredReadAhead() {
+    AdaptiveReadAheadController controller =
+        new AdaptiveReadAheadController(CONFIGURATION, clock::get);
+
+    assertEquals(64 * ONE_KB, controller.onMiss(0, 100));
+  }
+
+  @Test
+  void testSequentialMissesGrowWindowUpToMax() {
+    // Given: a controller
+    AdaptiveReadAheadController controller =
+        new AdaptiveReadAheadController(CONFIGURATION, clock::get);
+
+    // When: a consumer reads sequentially, using all the bytes read ahead
+    long pos = 0;
+    long window = 0;
+    for (int i = 0; i < 6; i++) {
+      controller.onRead(pos, 100);
+      window = controller.onMiss(pos, 100);
+      controller.onReadAhead(pos + 100, pos + window - 1);
+      controller.onRead(pos + 100, window - 100);
+      pos += window;
+    }
+
+    // Then: the window doubles on every miss, up to the maximum
+    assertEquals(ONE_MB, window);
+    assertEquals(0, controller.getWasteRatio());
+  }
+
+  @Test
+  void testUnusedReadAheadShrinksWindow() {
+    // Given: a controller
+    AdaptiveReadAheadController controller =
+        new AdaptiveReadAheadController(CONFIGURATION, clock::get);
+
+    // When: a consumer jumps around, never reading the bytes read ahead
+    long window = 0;
+    for (int i = 0; i < 8; i++) {
+      long pos = i * 10L * ONE_MB;
+      controller.onRead(pos, 100);
+      window = controller.onMiss(pos, 100);
+      controller.onReadAhead(pos + 100, pos + window - 1);
+    }
+
+    // Then: the window shrinks down to the minimum
+    assertEquals(16 * ONE_KB, window);
+    assertTrue(controller.getWasteRatio() > CONFIGURATION.getAdaptiveReadAheadMaxWasteRatio());
+  }
+
+  @Test
+  void testWindowCoversConsumptionDuringFetchLatency() {
+    // Given: a controller that has seen a 100ms GET
+    AdaptiveReadAheadController controller =
+        new AdaptiveReadAheadController(CONFIGURATION, clock::get);
+    controller.onMiss(0, 100);
+    controller.onFetchCompleted(TimeUnit.MILLISECONDS.toNanos(100));
+
+    // When: the consumer reads 2MB per second
+    controller.onRead(0, 2 * ONE_MB);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    long window = controller.onMiss(20 * ONE_MB, 100);
+
+    // Then: the window holds twice what the consumer reads during a GET
+    assertEquals(2 * ONE_MB, controller.getConsumerBytesPerSecond(), 1);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), controller.getFetchLatencyNanos(), 1);
+    assertEquals(2 * 0.2 * ONE_MB, window, ONE_KB);
+  }
+
+  @Test
+  void testInvalidArguments() {
+    AdaptiveReadAheadController controller =
+        new AdaptiveReadAheadController(CONFIGURATION, clock::get);
+
+    assertThrows(IllegalArgumentException.class, () -> controller.onRead(-1, 1));
+    assertThrows(IllegalArgumentException.class, () -> controller.onMiss(0, -1));
+    assertThrows(IllegalArgumentException.class, () -> controller.onFetchCompleted(-1));
+  }
+}
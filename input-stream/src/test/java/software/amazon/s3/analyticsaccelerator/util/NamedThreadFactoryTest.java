@@ -0,0 +1,53 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.junit.jupiter.api.Test;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class NamedThreadFactoryTest {
+  @Test
+  void testConstructorThrowsOnNull() {
+    assertThrows(NullPointerException.class, () -> new NamedThreadFactory(null));
+    assertThrows(NullPointerException.class, () -> new NamedThreadFactory(null, true));
+    assertThrows(NullPointerException.class, () -> new NamedThreadFactory("test").newThread(null));
+  }
+
+  @Test
+  void testThreadsAreNamedInOrder() {
+    NamedThreadFactory factory = new NamedThreadFactory("test");
+
+    Thread first = factory.newThread(() -> {});
+    Thread second = factory.newThread(() -> {});
+
+    assertEquals("test-1", first.getName());
+    assertEquals("test-2", second.getName());
+    assertTrue(first.isDaemon());
+  }
+
+  @Test
+  void testThreadsCanBeNonDaemon() {
+    assertFalse(new NamedThreadFactory("test", false).newThread(() -> {}).isDaemon());
+  }
+}
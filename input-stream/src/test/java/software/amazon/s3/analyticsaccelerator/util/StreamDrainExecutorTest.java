@@ -0,0 +1,192 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.amazon.s3.analyticsaccelerator.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Metric;
+import software.amazon.s3.analyticsaccelerator.common.telemetry.Telemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.PhysicalIOConfiguration;
+import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
+import software.amazon.s3.analyticsaccelerator.request.Range;
+
+@SuppressFBWarnings(
+    value = "NP_NONNULL_PARAM_VIOLATION",
+    justification = "We mean to pass nulls to checks")
+public class StreamDrainExecutorTest {
+  private static final long TIMEOUT_MILLIS = 1_000;
+  private static final Range TEST_RANGE = new Range(0, 20);
+  private static final ObjectKey TEST_OBJECT_KEY =
+      ObjectKey.builder().s3URI(S3URI.of("test-bucket", "test-key")).etag("test-etag").build();
+
+  @Test
+  void testCreateBoundaries() {
+    assertThrows(
+        NullPointerException.class, () -> new StreamDrainExecutor(null, 1, "prefix", true));
+    assertThrows(
+        NullPointerException.class,
+        () -> new StreamDrainExecutor(TestTelemetry.DEFAULT, 1, null, true));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new StreamDrainExecutor(TestTelemetry.DEFAULT, 0, "prefix", true));
+    assertThrows(
+        NullPointerException.class,
+        () -> new StreamDrainExecutor(TestTelemetry.DEFAULT, (PhysicalIOConfiguration) null));
+  }
+
+  @SneakyThrows
+  @Test
+  void testDrainReadsWholeStream() {
+    try (StreamDrainExecutor drainExecutor =
+        new StreamDrainExecutor(TestTelemetry.DEFAULT, PhysicalIOConfiguration.DEFAULT)) {
+      ObjectContent objectContent =
+          ObjectContent.builder()
+              .stream(new ByteArrayInputStream("Hello World".getBytes(StandardCharsets.UTF_8)))
+              .build();
+
+      byte[] data =
+          drainExecutor.drain(objectContent, TEST_OBJECT_KEY, TEST_RANGE, TIMEOUT_MILLIS).get();
+
+      assertArrayEquals("Hello World".getBytes(StandardCharsets.UTF_8), data);
+    }
+  }
+
+  @SneakyThrows
+  @Test
+  void testDrainRunsOnNamedPoolThreads() {
+    try (StreamDrainExecutor drainExecutor =
+        new StreamDrainExecutor(TestTelemetry.DEFAULT, 2, "test-drain", true)) {
+      CompletableFuture<Thread> drainThread = new CompletableFuture<>();
+      InputStream inputStream = mock(InputStream.class);
+      when(inputStream.read(any(byte[].class), anyInt(), anyInt()))
+          .thenAnswer(
+              invocation -> {
+                drainThread.complete(Thread.currentThread());
+                return -1;
+              });
+
+      drainExecutor
+          .drain(
+              ObjectContent.builder().stream(inputStream).build(),
+              TEST_OBJECT_KEY,
+              TEST_RANGE,
+              TIMEOUT_MILLIS)
+          .get();
+
+      Thread thread = drainThread.get();
+      assertTrue(thread.getName().startsWith("test-drain-"));
+      assertTrue(thread.isDaemon());
+      verify(inputStream, timeout(TIMEOUT_MILLIS).atLeastOnce()).close();
+    }
+  }
+
+  @Test
+  void testDrainTimesOutAndClosesStream() throws Exception {
+    try (StreamDrainExecutor drainExecutor =
+        new StreamDrainExecutor(TestTelemetry.DEFAULT, 1, "test-drain", true)) {
+      CountDownLatch released = new CountDownLatch(1);
+      InputStream stuckInputStream = mock(InputStream.class);
+      when(stuckInputStream.read(any(byte[].class), anyInt(), anyInt()))
+          .thenAnswer(
+              invocation -> {
+                released.await();
+                return -1;
+              });
+
+      CompletableFuture<byte[]> result =
+          drainExecutor.drain(
+              ObjectContent.builder().stream(stuckInputStream).build(),
+              TEST_OBJECT_KEY,
+              TEST_RANGE,
+              100);
+
+      ExecutionException e = assertThrows(ExecutionException.class, result::get);
+      assertInstanceOf(TimeoutException.class, e.getCause());
+      verify(stuckInputStream, timeout(TIMEOUT_MILLIS).atLeastOnce()).close();
+
+      // The pool thread was interrupted and is available for the next drain
+      byte[] data =
+          drainExecutor
+              .drain(
+                  ObjectContent.builder().stream(new ByteArrayInputStream(new byte[3])).build(),
+                  TEST_OBJECT_KEY,
+                  TEST_RANGE,
+                  TIMEOUT_MILLIS)
+              .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      assertEquals(3, data.length);
+    }
+  }
+
+  @Test
+  void testDrainFailsAfterClose() throws Exception {
+    StreamDrainExecutor drainExecutor =
+        new StreamDrainExecutor(TestTelemetry.DEFAULT, 1, "test-drain", true);
+    drainExecutor.close();
+
+    InputStream inputStream = mock(InputStream.class);
+    CompletableFuture<byte[]> result =
+        drainExecutor.drain(
+            ObjectContent.builder().stream(inputStream).build(),
+            TEST_OBJECT_KEY,
+            TEST_RANGE,
+            TIMEOUT_MILLIS);
+
+    assertThrows(ExecutionException.class, result::get);
+    verify(inputStream).close();
+  }
+
+  @Test
+  void testUtilisationIsReported() throws Exception {
+    Telemetry telemetry = mock(Telemetry.class);
+    try (StreamDrainExecutor drainExecutor =
+        new StreamDrainExecutor(telemetry, 1, "test-drain", true)) {
+      drainExecutor
+          .drain(
+              ObjectContent.builder().stream(new ByteArrayInputStream(new byte[1])).build(),
+              TEST_OBJECT_KEY,
+              TEST_RANGE,
+              TIMEOUT_MILLIS)
+          .get();
+
+      assertEquals(0, drainExecutor.getQueueDepth());
+      verify(telemetry, atLeastOnce()).measure(any(Metric.class), anyDouble());
+    }
+  }
+}
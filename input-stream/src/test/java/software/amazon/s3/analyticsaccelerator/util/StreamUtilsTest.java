@@ -15,18 +15,26 @@
  */
 package software.amazon.s3.analyticsaccelerator.util;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeoutException;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import software.amazon.s3.analyticsaccelerator.TestTelemetry;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.HeapBlockAllocator;
+import software.amazon.s3.analyticsaccelerator.io.physical.impl.PooledDirectBlockAllocator;
 import software.amazon.s3.analyticsaccelerator.request.ObjectContent;
 import software.amazon.s3.analyticsaccelerator.request.Range;
 
@@ -72,6 +80,86 @@ public class StreamUtilsTest {
     assertEquals("Hello World", new String(buf, StandardCharsets.UTF_8));
   }
 
+  @SneakyThrows
+  @Test
+  public void testReadFullyReadsExactlyTheRange() {
+    // Given: a stream holding exactly the bytes of the range, served in small chunks
+    byte[] expected = new byte[(int) TEST_RANGE.getLength()];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (byte) i;
+    }
+    InputStream inputStream = new ChunkedInputStream(new ByteArrayInputStream(expected), 3);
+
+    // When: readFully is called
+    byte[] buf = StreamUtils.readFully(inputStream, TEST_OBJECT_KEY, TEST_RANGE);
+
+    // Then: all bytes are returned
+    assertArrayEquals(expected, buf);
+  }
+
+  @SneakyThrows
+  @Test
+  public void testReadFullyReadsPastTheRange() {
+    // Given: a stream holding more bytes than the range
+    byte[] expected = new byte[(int) TEST_RANGE.getLength() + 10];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (byte) i;
+    }
+
+    // When: readFully is called
+    byte[] buf =
+        StreamUtils.readFully(new ByteArrayInputStream(expected), TEST_OBJECT_KEY, TEST_RANGE);
+
+    // Then: nothing is truncated
+    assertArrayEquals(expected, buf);
+  }
+
+  @SneakyThrows
+  @Test
+  public void testReadFullyIntoDirectBuffer() {
+    // Given: a stream holding exactly the range and a pooled direct allocator
+    byte[] expected = new byte[(int) TEST_RANGE.getLength()];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (byte) i;
+    }
+    PooledDirectBlockAllocator allocator =
+        new PooledDirectBlockAllocator(TestTelemetry.DEFAULT, 1024, 8 * 1024, 8 * 1024);
+
+    // When: readFully is called with the allocator
+    ByteBuffer buf =
+        StreamUtils.readFully(
+            new ByteArrayInputStream(expected), TEST_OBJECT_KEY, TEST_RANGE, allocator);
+
+    // Then: the direct buffer holds all bytes
+    assertTrue(buf.isDirect());
+    byte[] actual = new byte[buf.remaining()];
+    buf.get(actual);
+    assertArrayEquals(expected, actual);
+  }
+
+  @SneakyThrows
+  @Test
+  public void testReadFullyIntoHeapBufferReadsPastTheRange() {
+    // Given: a stream holding more bytes than the range
+    byte[] expected = new byte[(int) TEST_RANGE.getLength() + 10];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (byte) i;
+    }
+
+    // When: readFully is called with the heap allocator
+    ByteBuffer buf =
+        StreamUtils.readFully(
+            new ByteArrayInputStream(expected),
+            TEST_OBJECT_KEY,
+            TEST_RANGE,
+            HeapBlockAllocator.DEFAULT);
+
+    // Then: nothing is truncated
+    byte[] actual = new byte[buf.remaining()];
+    buf.get(actual);
+    assertArrayEquals(expected, actual);
+  }
+
   @Test
   void toByteArrayShouldThrowTimeoutExceptionWhenStreamReadTakesTooLong() throws Exception {
     // Mock ObjectContent
@@ -96,4 +184,19 @@ public class StreamUtilsTest {
     // Verify the stream was accessed
     verify(mockContent).getStream();
   }
+
+  /** Serves at most a fixed number of bytes per read call, like a network stream would. */
+  private static class ChunkedInputStream extends FilterInputStream {
+    private final int chunkSize;
+
+    ChunkedInputStream(InputStream in, int chunkSize) {
+      super(in);
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return super.read(b, off, Math.min(len, chunkSize));
+    }
+  }
 }
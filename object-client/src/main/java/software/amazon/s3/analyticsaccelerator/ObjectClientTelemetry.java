@@ -63,4 +63,14 @@ enum ObjectClientTelemetry {
     return Attribute.of(
         ObjectClientTelemetry.RANGE_LENGTH.getName(), Long.toString(range.getLength()));
   }
+
+  /**
+   * Creates an {@link Attribute} for the length of a range.
+   *
+   * @param length the length of the range
+   * @return The new instance of the {@link Attribute}.
+   */
+  public static Attribute rangeLength(long length) {
+    return Attribute.of(ObjectClientTelemetry.RANGE_LENGTH.getName(), Long.toString(length));
+  }
 }
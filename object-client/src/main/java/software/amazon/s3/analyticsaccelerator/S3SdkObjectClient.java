@@ -15,6 +15,7 @@
  */
 package software.amazon.s3.analyticsaccelerator;
 
+import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -27,6 +28,7 @@ import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
 import software.amazon.awssdk.core.async.AsyncResponseTransformer;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.ConfigurableTelemetry;
 import software.amazon.s3.analyticsaccelerator.common.telemetry.Operation;
@@ -181,10 +183,126 @@ public class S3SdkObjectClient implements ObjectClient {
         s3AsyncClient
             .getObject(builder.build(), AsyncResponseTransformer.toBlockingInputStream())
             .thenApply(
-                responseInputStream -> ObjectContent.builder().stream(responseInputStream).build())
+                responseInputStream ->
+                    ObjectContent.builder()
+                        .stream(responseInputStream)
+                        .objectMetadata(objectMetadata(responseInputStream.response()))
+                        .build())
             .exceptionally(handleException(getRequest.getS3Uri())));
   }
 
+  @Override
+  public CompletableFuture<ObjectContent> getObjectTail(
+      TailRequest tailRequest, StreamContext streamContext) {
+    final String referrerHeader;
+    if (streamContext != null) {
+      referrerHeader = streamContext.modifyAndBuildTailReferrerHeader(tailRequest);
+    } else {
+      referrerHeader = tailRequest.getReferrer().toString();
+    }
+
+    return getObjectWithMetadata(
+        tailRequest.getS3Uri(),
+        tailRequest.toHttpString(),
+        tailRequest.getLength(),
+        referrerHeader);
+  }
+
+  @Override
+  public CompletableFuture<ObjectContent> getObjectPrefix(
+      PrefixRequest prefixRequest, StreamContext streamContext) {
+    final String referrerHeader;
+    if (streamContext != null) {
+      referrerHeader = streamContext.modifyAndBuildPrefixReferrerHeader(prefixRequest);
+    } else {
+      referrerHeader = prefixRequest.getReferrer().toString();
+    }
+
+    return getObjectWithMetadata(
+        prefixRequest.getS3Uri(),
+        prefixRequest.toHttpString(),
+        prefixRequest.getLength(),
+        referrerHeader);
+  }
+
+  /**
+   * Makes a getObject request for an object whose etag is not known yet, and reads its metadata
+   * from the response.
+   *
+   * @param s3Uri the object to read
+   * @param range the HTTP range of the request
+   * @param length the number of bytes requested
+   * @param referrerHeader the referrer header to attach to the request
+   * @return the content of the response, reporting the metadata of the object
+   */
+  private CompletableFuture<ObjectContent> getObjectWithMetadata(
+      S3URI s3Uri, String range, long length, String referrerHeader) {
+    // The etag is not known yet, the request is not conditional
+    GetObjectRequest.Builder builder =
+        GetObjectRequest.builder().bucket(s3Uri.getBucket()).key(s3Uri.getKey()).range(range);
+
+    builder.overrideConfiguration(
+        AwsRequestOverrideConfiguration.builder()
+            .putHeader(HEADER_REFERER, referrerHeader)
+            .putHeader(HEADER_USER_AGENT, this.userAgent.getUserAgent())
+            .build());
+
+    return this.telemetry.measureCritical(
+        () ->
+            Operation.builder()
+                .name(ObjectClientTelemetry.OPERATION_GET)
+                .attribute(ObjectClientTelemetry.uri(s3Uri))
+                .attribute(ObjectClientTelemetry.rangeLength(length))
+                .build(),
+        s3AsyncClient
+            .getObject(builder.build(), AsyncResponseTransformer.toBlockingInputStream())
+            .thenApply(
+                responseInputStream -> {
+                  ObjectMetadata metadata = objectMetadata(responseInputStream.response());
+                  if (metadata == null) {
+                    responseInputStream.abort();
+                    throw new UncheckedIOException(
+                        new IOException(
+                            "Response does not report the length and etag of " + s3Uri));
+                  }
+                  return ObjectContent.builder()
+                      .stream(responseInputStream)
+                      .objectMetadata(metadata)
+                      .build();
+                })
+            .exceptionally(handleException(s3Uri)));
+  }
+
+  /**
+   * Reads the metadata of the object from a GET response. The length of the object is the total
+   * length reported by the Content-Range header of ranged responses.
+   *
+   * @param response the GET response
+   * @return the metadata of the object, or null if the response does not report it
+   */
+  private static ObjectMetadata objectMetadata(GetObjectResponse response) {
+    if (response.eTag() == null) {
+      return null;
+    }
+
+    Long contentLength = response.contentLength();
+    String contentRange = response.contentRange();
+    if (contentRange != null) {
+      // Content-Range: bytes <start>-<end>/<total>, the total is * when it is unknown
+      String total = contentRange.substring(contentRange.lastIndexOf('/') + 1).trim();
+      try {
+        contentLength = Long.parseLong(total);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    if (contentLength == null) {
+      return null;
+    }
+
+    return ObjectMetadata.builder().contentLength(contentLength).etag(response.eTag()).build();
+  }
+
   private <T> Function<Throwable, T> handleException(S3URI s3Uri) {
     return throwable -> {
       Throwable cause =
@@ -284,6 +284,139 @@ public class S3SdkObjectClientTest {
     assertEquals(ETAG, capturedRequest.ifMatch());
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void testGetObjectTail() {
+    S3AsyncClient mockS3AsyncClient = mock(S3AsyncClient.class);
+    when(mockS3AsyncClient.getObject(
+            any(GetObjectRequest.class),
+            (AsyncResponseTransformer<GetObjectResponse, Object>) any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new ResponseInputStream<>(
+                    GetObjectResponse.builder()
+                        .contentLength(10L)
+                        .contentRange("bytes 90-99/100")
+                        .eTag(ETAG)
+                        .build(),
+                    AbortableInputStreamSubscriber.builder().build())));
+
+    S3SdkObjectClient client = new S3SdkObjectClient(mockS3AsyncClient);
+    TailRequest tailRequest =
+        TailRequest.builder()
+            .s3Uri(S3URI.of("bucket", "key"))
+            .length(10)
+            .referrer(new Referrer("bytes=-10", ReadMode.SYNC))
+            .build();
+    ObjectContent content = client.getObjectTail(tailRequest, null).join();
+
+    assertEquals(100, content.getObjectMetadata().getContentLength());
+    assertEquals(ETAG, content.getObjectMetadata().getEtag());
+
+    ArgumentCaptor<GetObjectRequest> requestCaptor =
+        ArgumentCaptor.forClass(GetObjectRequest.class);
+    verify(mockS3AsyncClient)
+        .getObject(
+            requestCaptor.capture(),
+            ArgumentMatchers
+                .<AsyncResponseTransformer<
+                        GetObjectResponse, ResponseInputStream<GetObjectResponse>>>
+                    any());
+    assertEquals("bytes=-10", requestCaptor.getValue().range());
+    assertNull(requestCaptor.getValue().ifMatch());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testGetObjectPrefix() {
+    S3AsyncClient mockS3AsyncClient = mock(S3AsyncClient.class);
+    when(mockS3AsyncClient.getObject(
+            any(GetObjectRequest.class),
+            (AsyncResponseTransformer<GetObjectResponse, Object>) any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new ResponseInputStream<>(
+                    GetObjectResponse.builder()
+                        .contentLength(10L)
+                        .contentRange("bytes 0-9/100")
+                        .eTag(ETAG)
+                        .build(),
+                    AbortableInputStreamSubscriber.builder().build())));
+
+    S3SdkObjectClient client = new S3SdkObjectClient(mockS3AsyncClient);
+    PrefixRequest prefixRequest =
+        PrefixRequest.builder()
+            .s3Uri(S3URI.of("bucket", "key"))
+            .length(10)
+            .referrer(new Referrer("bytes=0-9", ReadMode.SYNC))
+            .build();
+    ObjectContent content = client.getObjectPrefix(prefixRequest, null).join();
+
+    assertEquals(100, content.getObjectMetadata().getContentLength());
+    assertEquals(ETAG, content.getObjectMetadata().getEtag());
+
+    ArgumentCaptor<GetObjectRequest> requestCaptor =
+        ArgumentCaptor.forClass(GetObjectRequest.class);
+    verify(mockS3AsyncClient)
+        .getObject(
+            requestCaptor.capture(),
+            ArgumentMatchers
+                .<AsyncResponseTransformer<
+                        GetObjectResponse, ResponseInputStream<GetObjectResponse>>>
+                    any());
+    assertEquals("bytes=0-9", requestCaptor.getValue().range());
+    assertNull(requestCaptor.getValue().ifMatch());
+  }
+
+  @Test
+  void testGetObjectTailFailsWithoutMetadata() {
+    S3SdkObjectClient client = new S3SdkObjectClient(createMockClient());
+    TailRequest tailRequest =
+        TailRequest.builder()
+            .s3Uri(S3URI.of("bucket", "key"))
+            .length(10)
+            .referrer(new Referrer("bytes=-10", ReadMode.SYNC))
+            .build();
+
+    CompletableFuture<ObjectContent> future = client.getObjectTail(tailRequest, null);
+
+    Throwable exception = assertThrows(CompletionException.class, future::join).getCause();
+    assertInstanceOf(UncheckedIOException.class, exception);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testGetObjectReportsMetadata() {
+    S3AsyncClient mockS3AsyncClient = mock(S3AsyncClient.class);
+    when(mockS3AsyncClient.getObject(
+            any(GetObjectRequest.class),
+            (AsyncResponseTransformer<GetObjectResponse, Object>) any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new ResponseInputStream<>(
+                    GetObjectResponse.builder()
+                        .contentLength(21L)
+                        .contentRange("bytes 0-20/42")
+                        .eTag(ETAG)
+                        .build(),
+                    AbortableInputStreamSubscriber.builder().build())));
+
+    S3SdkObjectClient client = new S3SdkObjectClient(mockS3AsyncClient);
+    ObjectContent content =
+        client
+            .getObject(
+                GetRequest.builder()
+                    .s3Uri(S3URI.of("bucket", "key"))
+                    .range(new Range(0, 20))
+                    .etag(ETAG)
+                    .referrer(new Referrer("bytes=0-20", ReadMode.SYNC))
+                    .build())
+            .join();
+
+    assertEquals(42, content.getObjectMetadata().getContentLength());
+    assertEquals(ETAG, content.getObjectMetadata().getEtag());
+  }
+
   @Test
   void testObjectClientClose() {
     try (S3AsyncClient s3AsyncClient = createMockClient()) {